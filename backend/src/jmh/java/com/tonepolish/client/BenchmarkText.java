@@ -0,0 +1,19 @@
+package com.tonepolish.client;
+
+// Deterministic support-message text, so runs compare like with like
+public final class BenchmarkText {
+
+    private static final String SENTENCE =
+        "Hey, the deploy broke again and honestly I'm tired of fixing \"quick\" patches every week. ";
+
+    private BenchmarkText() {
+    }
+
+    public static String ofLength(int length) {
+        StringBuilder text = new StringBuilder(length + SENTENCE.length());
+        while (text.length() < length) {
+            text.append(SENTENCE);
+        }
+        return text.substring(0, length);
+    }
+}
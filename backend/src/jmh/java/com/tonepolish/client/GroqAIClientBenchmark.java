@@ -0,0 +1,89 @@
+package com.tonepolish.client;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.tonepolish.client.http.UpstreamConnector;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.retry.RetryExecutor;
+import com.tonepolish.client.retry.RetryPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full client round trip (encode, pooled HTTP exchange over loopback, streaming decode) against an
+ * in-process Reactor Netty stub that answers immediately with a canned completion, so the numbers are
+ * the client's own overhead plus loopback networking. The JDK HttpServer stub used by the tests adds
+ * a few milliseconds per exchange on its own, which would hide the client entirely.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class GroqAIClientBenchmark {
+
+    @Param({"1024", "20480"})
+    private int inputSize;
+
+    private DisposableServer server;
+    private UpstreamConnector connector;
+    private GroqAIClient client;
+    private String input;
+
+    @Setup
+    public void setUp() {
+        // Outside Spring Boot, logback defaults to DEBUG; per-request logging would dominate the numbers
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        input = BenchmarkText.ofLength(inputSize);
+        byte[] completion = ("{\"id\":\"stub\",\"object\":\"chat.completion\",\"choices\":[{\"index\":0,"
+            + "\"message\":{\"role\":\"assistant\",\"content\":\"" + input.replace("\"", "'") + "\"},"
+            + "\"finish_reason\":\"stop\"}]}").getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> request.receive()
+                .then(response.header("Content-Type", "application/json")
+                    .sendByteArray(Mono.just(completion))
+                    .then())))
+            .bindNow();
+        String url = "http://127.0.0.1:" + server.port() + "/v1/chat/completions";
+        connector = new UpstreamConnector("benchmark", 16, 1000, Duration.ofSeconds(5), Duration.ofSeconds(30),
+            Duration.ofMinutes(5), Duration.ofSeconds(10), Duration.ofSeconds(5), true, false);
+        Duration timeout = Duration.ofSeconds(5);
+        RetryExecutor singleAttempt = new RetryExecutor(new RetryPolicy(0, Duration.ZERO, 1.0, Duration.ZERO,
+            0, timeout, timeout));
+        client = new GroqAIClient("benchmark-key", url, "stub-model", new PromptManager(""),
+            singleAttempt, null, connector.getConnector());
+    }
+
+    @TearDown
+    public void tearDown() {
+        connector.close();
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public String refineText() {
+        return client.refineText(input);
+    }
+}
@@ -0,0 +1,53 @@
+package com.tonepolish.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MockAIClientBenchmark {
+
+    @Param({"64", "1024"})
+    private int inputSize;
+
+    // Simulated latency disabled so only the transformation is measured
+    private final MockAIClient client = new MockAIClient(Duration.ZERO, Duration.ZERO);
+    private String input;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkText.ofLength(inputSize);
+    }
+
+    @Benchmark
+    public String refineText() {
+        return client.refineText(input);
+    }
+
+    @Benchmark
+    public String refineTextAsync() {
+        return client.refineTextAsync(input).block();
+    }
+
+    @Benchmark
+    public List<String> refineTextStream() {
+        return client.refineTextStream(input).collectList().block();
+    }
+}
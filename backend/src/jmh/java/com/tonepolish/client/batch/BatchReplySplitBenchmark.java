@@ -0,0 +1,44 @@
+package com.tonepolish.client.batch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BatchReplySplitBenchmark {
+
+    @Param({"2", "8"})
+    private int batchSize;
+
+    private String reply;
+
+    @Setup
+    public void setUp() {
+        StringBuilder numbered = new StringBuilder();
+        for (int i = 1; i <= batchSize; i++) {
+            numbered.append(CoalescingAIClient.label("k7q2", i)).append(" Thank you for your patience; we are looking into it now.\n");
+        }
+        reply = numbered.toString();
+    }
+
+    @Benchmark
+    public List<String> split() {
+        return CoalescingAIClient.split(reply, "k7q2", batchSize);
+    }
+}
@@ -0,0 +1,95 @@
+package com.tonepolish.client.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Lookup cost with a full index; the replies share one string so the heap holds only index overhead
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class NearDuplicateIndexBenchmark {
+
+    private static final String TONE = "benchmark-tone";
+    private static final String[] WORDS = vocabulary(2000);
+
+    @Param({"1000000"})
+    private int entries;
+
+    private NearDuplicateIndex index;
+    private String[] nearDuplicates;
+    private String[] unrelated;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new NearDuplicateIndex(entries, 8, 4, 0.9);
+        Random random = new Random(42);
+        String reply = "Thank you for your patience, we are looking into ticket #1 now.";
+        nearDuplicates = new String[1024];
+        for (int i = 0; i < entries; i++) {
+            String sentence = sentence(random, 16);
+            index.put(index.key(TONE, sentence + " ticket #" + i), reply);
+            if (i < nearDuplicates.length) {
+                nearDuplicates[i] = sentence + " ticket #" + (i + 500000);
+            }
+        }
+        unrelated = new String[1024];
+        for (int i = 0; i < unrelated.length; i++) {
+            unrelated[i] = sentence(random, 16) + " order " + i;
+        }
+    }
+
+    @Benchmark
+    public NearDuplicateIndex.Match nearDuplicateHit() {
+        String text = nearDuplicates[next++ & 1023];
+        return index.find(index.key(TONE, text));
+    }
+
+    @Benchmark
+    public NearDuplicateIndex.Match miss() {
+        String text = unrelated[next++ & 1023];
+        return index.find(index.key(TONE, text));
+    }
+
+    // Pseudo-words; a vocabulary of a few dozen words makes every message share the same shingles
+    private static String[] vocabulary(int size) {
+        Random random = new Random(7);
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.tonepolish.client.codec;
+
+import com.tonepolish.client.BenchmarkText;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ChatCompletionCodecBenchmark {
+
+    private static final String SYSTEM_PROMPT = "You are a professional communication assistant. Rewrite the "
+        + "following text to be professional, empathetic, and concise while preserving the original meaning.";
+    // Replies arrive from the connection in chunks of roughly this size
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"1024", "20480"})
+    private int inputSize;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final ChatCompletionCodec codec = new ChatCompletionCodec("llama-3.1-8b-instant");
+    private String input;
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkText.ofLength(inputSize);
+        String escaped = input.replace("\\", "\\\\").replace("\"", "\\\"");
+        response = ("{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion\",\"model\":\"llama-3.1-8b-instant\","
+            + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" + escaped + "\"},"
+            + "\"finish_reason\":\"stop\"}],\"usage\":{\"prompt_tokens\":300,\"completion_tokens\":250}}")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int encode() {
+        DataBuffer buffer = codec.encode(bufferFactory, SYSTEM_PROMPT, input, false);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    // Includes copying the reply into pooled buffers, as the connection would
+    @Benchmark
+    public String decode() {
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int i = 0; i < response.length; i += CHUNK_SIZE) {
+            DataBuffer chunk = bufferFactory.allocateBuffer(CHUNK_SIZE);
+            chunk.write(response, i, Math.min(CHUNK_SIZE, response.length - i));
+            chunks.add(chunk);
+        }
+        return codec.decodeContent(Flux.fromIterable(chunks)).block();
+    }
+}
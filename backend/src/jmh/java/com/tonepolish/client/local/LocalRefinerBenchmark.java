@@ -0,0 +1,35 @@
+package com.tonepolish.client.local;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of classifying and polishing a message in-process, which is what a fast-path hit pays instead of a model call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalRefinerBenchmark {
+
+    private final LocalRefiner refiner = new LocalRefiner(20);
+
+    @Benchmark
+    public LocalRefinement trivial() {
+        return refiner.refine("thx,i'll send the updated deck over tomorrow morning  ok");
+    }
+
+    @Benchmark
+    public LocalRefinement escalated() {
+        return refiner.refine("sorry but the export has been broken since monday and nobody replied");
+    }
+}
@@ -0,0 +1,72 @@
+package com.tonepolish.client.preprocess;
+
+import com.tonepolish.client.cache.RefineCacheKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Single-pass preprocessing against the obvious regex chain, each followed by deriving the cache key
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextPreprocessorBenchmark {
+
+    private static final String SYSTEM_PROMPT = "You are a helpful assistant that rewrites customer support replies.";
+    private static final String MESSAGE = "hi  team,\u00A0order ORD-10234 still hasn\u2019t arrived \u2014 I emailed "
+        + "dana.k@example.com twice.\r\n\r\nPlease call me on +1 (555) 010-4477 or check "
+        + "https://shop.example.com/orders/10234 \u2026 ticket #4411 is   still open and nobody replied.  ";
+
+    private static final Pattern URL = Pattern.compile("(?i)\\b(?:https?://|www\\.)[^\\s<>\"]+[^\\s<>\".,;:!?)]");
+    private static final Pattern EMAIL = Pattern.compile("[A-Za-z0-9._%+-]+@[A-Za-z0-9-]+(?:\\.[A-Za-z0-9-]+)+");
+    private static final Pattern PHONE = Pattern.compile("(?:\\+|\\()?\\d[\\d ().-]{5,}\\d");
+    private static final Pattern ID = Pattern.compile("#?\\b(?=[A-Za-z0-9_-]*\\d{3})[A-Za-z0-9]+(?:[-_][A-Za-z0-9]+)*\\b");
+    private static final Pattern SPACES = Pattern.compile("[ \\t\\u00a0]+");
+    private static final Pattern BLANK_LINES = Pattern.compile("\\s*\\n\\s*\\n\\s*");
+
+    private final TextPreprocessor preprocessor = new TextPreprocessor();
+
+    @Benchmark
+    public String singlePass() {
+        PreparedInput prepared = preprocessor.prepare(MESSAGE);
+        return RefineCacheKey.of(prepared.getText(), SYSTEM_PROMPT, "llama-3.1-8b-instant");
+    }
+
+    @Benchmark
+    public String regexChain() {
+        String text = MESSAGE.replace("\r\n", "\n")
+            .replace('\u2019', '\'')
+            .replace("\u2014", "-")
+            .replace("\u2026", "...");
+        text = SPACES.matcher(text).replaceAll(" ");
+        text = BLANK_LINES.matcher(text).replaceAll("\n\n").trim();
+        text = mask(URL, text, "URL");
+        text = mask(EMAIL, text, "EMAIL");
+        text = mask(PHONE, text, "PHONE");
+        text = mask(ID, text, "ID");
+        return RefineCacheKey.of(text, SYSTEM_PROMPT, "llama-3.1-8b-instant");
+    }
+
+    private static String mask(Pattern pattern, String text, String kind) {
+        Matcher matcher = pattern.matcher(text);
+        StringBuilder masked = new StringBuilder(text.length());
+        int count = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(masked, "[" + kind + "_" + (++count) + "]");
+        }
+        matcher.appendTail(masked);
+        return masked.toString();
+    }
+}
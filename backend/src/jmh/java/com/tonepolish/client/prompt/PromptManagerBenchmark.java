@@ -0,0 +1,76 @@
+package com.tonepolish.client.prompt;
+
+import com.tonepolish.client.BenchmarkText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PromptManagerBenchmark {
+
+    private static final String WRAPPED_USER = "Customer reply to rewrite:\n{{text}}\n(Reply with the rewritten message only.)";
+
+    @Param({"200", "2000"})
+    private int inputLength;
+
+    private final PromptManager promptManager = new PromptManager("");
+    private String customPrompt = "Rewrite the text to be friendly and brief.";
+    private String input;
+    private PromptProfile wrapped;
+
+    @Setup
+    public void setUp() throws Exception {
+        input = BenchmarkText.ofLength(inputLength);
+        wrapped = PromptRegistry.parse("{\"tones\": {\"wrapped\": {\"extends\": \"formal\", \"user\": "
+            + "\"Customer reply to rewrite:\\n{{text}}\\n(Reply with the rewritten message only.)\"}}}", "")
+            .find("wrapped");
+    }
+
+    // Per-request lookups must stay free; the prompts are assembled once at construction
+    @Benchmark
+    public String refinementPrompt() {
+        return promptManager.getSystemPromptForRefinement();
+    }
+
+    @Benchmark
+    public String batchRefinementPrompt() {
+        return promptManager.getSystemPromptForBatchRefinement();
+    }
+
+    @Benchmark
+    public String assemble() {
+        return new PromptManager(customPrompt).getSystemPromptForBatchRefinement();
+    }
+
+    // What a request pays for a named tone: a map lookup plus rendering the user message
+    @Benchmark
+    public String toneLookupAndRender() {
+        return promptManager.getProfile("formal").renderUserMessage(input);
+    }
+
+    @Benchmark
+    public String renderWrappedUserMessage() {
+        return wrapped.renderUserMessage(input);
+    }
+
+    // Baseline: substituting into the template source on every request
+    @Benchmark
+    public String replaceWrappedUserMessage() {
+        return WRAPPED_USER.replace("{{text}}", input);
+    }
+}
@@ -0,0 +1,60 @@
+package com.tonepolish.client.retry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RetryPolicyBenchmark {
+
+    private final RetryPolicy policy = new RetryPolicy(3, Duration.ofSeconds(1), 2.0, Duration.ofSeconds(10),
+        0.2, Duration.ofSeconds(30), Duration.ofSeconds(45));
+    private final Throwable serverError = WebClientResponseException.create(503, "Service Unavailable", null, null, null);
+    private final Throwable clientError = WebClientResponseException.create(400, "Bad Request", null, null, null);
+    private final Throwable ioError = new IOException("Connection reset");
+    private final Throwable timeout = new TimeoutException("Did not observe any item");
+
+    @State(Scope.Benchmark)
+    public static class Attempt {
+        @Param({"1", "4"})
+        int number;
+    }
+
+    @Benchmark
+    public Duration calculateDelay(Attempt attempt) {
+        return policy.calculateDelay(attempt.number);
+    }
+
+    @Benchmark
+    public Duration calculateJitteredDelay(Attempt attempt) {
+        return policy.calculateJitteredDelay(attempt.number);
+    }
+
+    @Benchmark
+    public int isRetryableError() {
+        int retryable = 0;
+        retryable += RetryPolicy.isRetryableError(serverError) ? 1 : 0;
+        retryable += RetryPolicy.isRetryableError(clientError) ? 1 : 0;
+        retryable += RetryPolicy.isRetryableError(ioError) ? 1 : 0;
+        retryable += RetryPolicy.isRetryableError(timeout) ? 1 : 0;
+        return retryable;
+    }
+}
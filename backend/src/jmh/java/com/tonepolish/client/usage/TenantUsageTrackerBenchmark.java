@@ -0,0 +1,34 @@
+package com.tonepolish.client.usage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// What accounting adds to one request: reserve against the quota, charge reported usage, settle
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantUsageTrackerBenchmark {
+
+    private final TenantUsageTracker tracker = new TenantUsageTracker(Long.MAX_VALUE / 2, Duration.ofSeconds(60));
+
+    @Benchmark
+    public long acquireRecordSettle() {
+        TokenCharge charge = tracker.tryAcquire("team-a", 120);
+        charge.record(80, 30);
+        charge.settle();
+        return charge.getChargedTokens();
+    }
+}
@@ -0,0 +1,141 @@
+package com.tonepolish.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonepolish.client.LatencyModel;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded OpenAI-compatible chat completion endpoint for load tests. Replies after a delay drawn
+ * from a {@link LatencyModel}, injects 500s and 429s (with retry-after) at configurable rates, and
+ * streams word by word when the request asks for {@code stream=true}. Runs on Reactor Netty so a
+ * slow simulated upstream costs timers, not threads.
+ */
+public class FakeLlmServer implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyModel latency;
+    private final Duration tokenDelay;
+    private final double errorRate;
+    private final double throttleRate;
+    private final DisposableServer server;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder injectedThrottles = new LongAdder();
+
+    public FakeLlmServer(LatencyModel latency, Duration tokenDelay, double errorRate, double throttleRate) {
+        this.latency = latency;
+        this.tokenDelay = tokenDelay;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.server = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes.post("/v1/chat/completions", this::handle))
+            .bindNow();
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        requests.increment();
+        return request.receive().aggregate().asString()
+            .flatMap(body -> {
+                double roll = ThreadLocalRandom.current().nextDouble();
+                if (roll < errorRate) {
+                    injectedErrors.increment();
+                    return send(response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR),
+                        "{\"error\":{\"message\":\"injected failure\"}}");
+                }
+                if (roll < errorRate + throttleRate) {
+                    injectedThrottles.increment();
+                    return send(response.status(HttpResponseStatus.TOO_MANY_REQUESTS)
+                            .header("retry-after", "1")
+                            .header("x-ratelimit-remaining-requests", "0"),
+                        "{\"error\":{\"message\":\"rate limit reached\"}}");
+                }
+                JsonNode json = parse(body);
+                String reply = "Polished: " + json.at("/messages/1/content").asText();
+                Mono<Void> delay = Mono.delay(latency.next()).then();
+                return json.path("stream").asBoolean(false)
+                    ? delay.then(stream(response, reply))
+                    : delay.then(send(response, completion(reply)));
+            });
+    }
+
+    private Mono<Void> send(HttpServerResponse response, String json) {
+        return response.header("Content-Type", "application/json").sendString(Mono.just(json)).then();
+    }
+
+    private Mono<Void> stream(HttpServerResponse response, String reply) {
+        Flux<String> words = Flux.fromArray(reply.split("(?<= )"));
+        if (!tokenDelay.isZero()) {
+            words = words.delayElements(tokenDelay);
+        }
+        Flux<String> events = words
+            .map(word -> "data: " + chunk(word) + "\n\n")
+            .concatWith(Mono.just("data: [DONE]\n\n"));
+        return response.header("Content-Type", "text/event-stream")
+            .sendString(events)
+            .then();
+    }
+
+    private String completion(String content) {
+        return write(Map.of("id", "chatcmpl-load", "object", "chat.completion", "model", "fake",
+            "choices", new Object[] {Map.of("index", 0, "finish_reason", "stop",
+                "message", Map.of("role", "assistant", "content", content))},
+            "usage", Map.of("prompt_tokens", content.length() / 4, "completion_tokens", content.length() / 4)));
+    }
+
+    private String chunk(String delta) {
+        return write(Map.of("id", "chatcmpl-load", "object", "chat.completion.chunk",
+            "choices", new Object[] {Map.of("index", 0, "delta", Map.of("content", delta))}));
+    }
+
+    private JsonNode parse(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Malformed chat completion request", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.port() + "/v1/chat/completions";
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    public long getInjectedThrottles() {
+        return injectedThrottles.sum();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
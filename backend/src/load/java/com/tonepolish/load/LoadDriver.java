@@ -0,0 +1,106 @@
+package com.tonepolish.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are sent on a fixed schedule regardless of how many are still
+ * outstanding, and each latency is measured from the moment the request was due, not from when it
+ * was actually sent. A stalled server therefore shows up as queueing delay in the percentiles
+ * instead of quietly lowering the offered load (coordinated omission).
+ */
+public class LoadDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final int inputChars;
+
+    public LoadDriver(URI uri, int inputChars) {
+        this.uri = uri;
+        this.inputChars = inputChars;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    public LoadResult run(double requestsPerSecond, Duration duration) throws InterruptedException {
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+        AtomicLong outstanding = new AtomicLong();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long nextProgress = start + TimeUnit.SECONDS.toNanos(5);
+        long sent = 0;
+        for (long intended = start; intended < end; intended = start + sent * intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(sent, intended, histogram, statuses, failures, outstanding);
+            sent++;
+            if (intended >= nextProgress) {
+                System.out.printf("  %3ds: sent %d, in flight %d%n",
+                    TimeUnit.NANOSECONDS.toSeconds(intended - start), sent, outstanding.get());
+                nextProgress += TimeUnit.SECONDS.toNanos(5);
+            }
+        }
+
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        return new LoadResult(requestsPerSecond, sent, elapsed, histogram, statuses, failures.sum(), outstanding.get());
+    }
+
+    private void send(long sequence, long intendedNanos, Histogram histogram, Map<Integer, LongAdder> statuses,
+                      LongAdder failures, AtomicLong outstanding) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"text\":\"" + text(sequence) + "\"}"))
+            .build();
+        outstanding.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, error) -> {
+                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+                histogram.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+                if (error != null) {
+                    failures.increment();
+                } else {
+                    statuses.computeIfAbsent(response.statusCode(), status -> new LongAdder()).increment();
+                }
+                outstanding.decrementAndGet();
+            });
+    }
+
+    // Unique per request so the response caches never short-circuit the upstream path
+    private String text(long sequence) {
+        StringBuilder text = new StringBuilder("Request ").append(sequence)
+            .append(": sorry, the export keeps failing and the customer is upset about the delay.");
+        while (text.length() < inputChars) {
+            text.append(" We need an update on the fix today.");
+        }
+        text.setLength(Math.min(text.length(), Math.max(inputChars, 16)));
+        return text.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.tonepolish.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadResult {
+
+    private final double offeredRate;
+    private final long sent;
+    private final Duration elapsed;
+    private final Histogram histogram;
+    private final Map<Integer, LongAdder> statuses;
+    private final long failures;
+    private final long unfinished;
+
+    LoadResult(double offeredRate, long sent, Duration elapsed, Histogram histogram,
+               Map<Integer, LongAdder> statuses, long failures, long unfinished) {
+        this.offeredRate = offeredRate;
+        this.sent = sent;
+        this.elapsed = elapsed;
+        this.histogram = histogram;
+        this.statuses = statuses;
+        this.failures = failures;
+        this.unfinished = unfinished;
+    }
+
+    public long getSucceeded() {
+        LongAdder ok = statuses.get(200);
+        return ok == null ? 0 : ok.sum();
+    }
+
+    public double getErrorRate() {
+        return sent == 0 ? 0.0 : (double) (sent - getSucceeded()) / sent;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf("Offered rate:     %.1f req/s%n", offeredRate);
+        out.printf("Requests sent:    %d in %.1fs%n", sent, seconds);
+        out.printf("Throughput:       %.1f successful req/s%n", getSucceeded() / seconds);
+        out.printf("Error rate:       %.2f%%%n", getErrorRate() * 100);
+        for (Map.Entry<Integer, LongAdder> status : new TreeMap<>(statuses).entrySet()) {
+            out.printf("  HTTP %d:        %d%n", status.getKey(), status.getValue().sum());
+        }
+        if (failures > 0) {
+            out.printf("  I/O failures:    %d%n", failures);
+        }
+        if (unfinished > 0) {
+            out.printf("  Unfinished:      %d%n", unfinished);
+        }
+        out.println("Latency (ms, from intended send time):");
+        for (double percentile : new double[] {50, 90, 99, 99.9}) {
+            out.printf("  p%-6s %10.1f%n", format(percentile), histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        out.printf("  max     %10.1f%n", histogram.getMaxValue() / 1000.0);
+    }
+
+    // Full distribution in HdrHistogram's .hgrm format, for plotting or comparing runs
+    public void writePercentiles(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
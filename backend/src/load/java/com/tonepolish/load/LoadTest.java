@@ -0,0 +1,103 @@
+package com.tonepolish.load;
+
+import com.tonepolish.TonePolishApplication;
+import com.tonepolish.client.LatencyModel;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the fake LLM server and the application in-process, then drives open-loop traffic at it.
+ * Options ({@code --name=value}): rate, duration-seconds, warmup-seconds, endpoint (refine or
+ * stream), input-chars, latency, token-delay-ms, error-rate, throttle-rate, and target to load an
+ * already running instance instead. Any other option (e.g. {@code --ai.api.retry.max-retries=1})
+ * is passed to the application.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (name.contains(".")) {
+                appArgs.add(arg);
+            } else {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        double rate = Double.parseDouble(options.getOrDefault("rate", "50"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-seconds", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-seconds", "5")));
+        String path = "stream".equals(options.get("endpoint")) ? "/api/refine/stream" : "/api/refine";
+        int inputChars = Integer.parseInt(options.getOrDefault("input-chars", "200"));
+
+        FakeLlmServer upstream = null;
+        ConfigurableApplicationContext app = null;
+        try {
+            String target = options.get("target");
+            if (target == null) {
+                upstream = new FakeLlmServer(
+                    LatencyModel.parse(options.getOrDefault("latency", "lognormal:400:2000")),
+                    Duration.ofMillis(Long.parseLong(options.getOrDefault("token-delay-ms", "20"))),
+                    Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                    Double.parseDouble(options.getOrDefault("throttle-rate", "0")));
+                app = startApplication(upstream.getUrl(), appArgs);
+                target = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+            }
+
+            LoadDriver driver = new LoadDriver(URI.create(target + path), inputChars);
+            if (!warmup.isZero()) {
+                System.out.printf("Warming up for %ds at %.1f req/s%n", warmup.toSeconds(), rate);
+                driver.run(rate, warmup);
+            }
+            System.out.printf("Measuring %s for %ds at %.1f req/s%n", path, duration.toSeconds(), rate);
+            LoadResult result = driver.run(rate, duration);
+
+            System.out.println();
+            result.print(System.out);
+            if (upstream != null) {
+                System.out.printf("Upstream:         %d requests, %d injected errors, %d injected 429s%n",
+                    upstream.getRequests(), upstream.getInjectedErrors(), upstream.getInjectedThrottles());
+            }
+            Path histogramFile = Path.of("target", "load-latency.hgrm");
+            result.writePercentiles(histogramFile);
+            System.out.println("Latency distribution written to " + histogramFile);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (upstream != null) {
+                upstream.close();
+            }
+        }
+    }
+
+    // The limiter runs with quotas the fake server never reaches, so the server decides when to throttle
+    private static ConfigurableApplicationContext startApplication(String upstreamUrl, List<String> appArgs) {
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--ai.api.key=load-test",
+            "--ai.api.url=" + upstreamUrl,
+            "--ai.api.ratelimit.enabled=true",
+            "--ai.api.ratelimit.requests-per-minute=10000000",
+            "--ai.api.ratelimit.tokens-per-minute=1000000000",
+            "--ai.api.cache.enabled=false",
+            "--logging.level.com.tonepolish=WARN",
+            "--logging.level.root=WARN"));
+        // Later arguments win, so explicit overrides go last
+        args.addAll(appArgs);
+        return new SpringApplicationBuilder(TonePolishApplication.class).run(args.toArray(new String[0]));
+    }
+}
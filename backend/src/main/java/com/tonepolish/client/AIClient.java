@@ -1,6 +1,35 @@
 package com.tonepolish.client;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public interface AIClient {
     String refineText(String inputText);
-}
 
+    // Non-blocking variant. Implementations backed by a reactive transport should override this;
+    // the default only offloads the blocking call so it never runs on a request thread.
+    default Mono<String> refineTextAsync(String inputText) {
+        return Mono.fromCallable(() -> refineText(inputText))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Emits the refined text incrementally. Clients without a streaming transport emit it as one chunk.
+    default Flux<String> refineTextStream(String inputText) {
+        return refineTextAsync(inputText).flux();
+    }
+
+    // Tone-aware variants; tone names a PromptManager profile and null means the default tone.
+    // Clients without prompts of their own (e.g. the mock) ignore it.
+    default String refineText(String inputText, String tone) {
+        return refineText(inputText);
+    }
+
+    default Mono<String> refineTextAsync(String inputText, String tone) {
+        return refineTextAsync(inputText);
+    }
+
+    default Flux<String> refineTextStream(String inputText, String tone) {
+        return refineTextStream(inputText);
+    }
+}
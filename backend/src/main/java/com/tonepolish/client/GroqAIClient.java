@@ -1,33 +1,78 @@
 package com.tonepolish.client;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.tonepolish.client.dto.ChatCompletionRequest;
-import com.tonepolish.client.dto.ChatCompletionResponse;
+import com.tonepolish.client.codec.ChatCompletion;
+import com.tonepolish.client.codec.ChatCompletionCodec;
 import com.tonepolish.client.exception.AIClientException;
+import com.tonepolish.client.metrics.AIClientMetrics;
 import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.prompt.PromptProfile;
+import com.tonepolish.client.ratelimit.UpstreamRateLimiter;
 import com.tonepolish.client.retry.RetryExecutor;
 import com.tonepolish.client.retry.RetryPolicy;
+import com.tonepolish.client.usage.TokenCharge;
+import io.micrometer.common.KeyValues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
 
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.List;
+import java.util.function.Supplier;
 
 public class GroqAIClient implements AIClient {
 
     private static final Logger logger = LoggerFactory.getLogger(GroqAIClient.class);
 
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+        new ParameterizedTypeReference<ServerSentEvent<String>>() {};
+    private static final String STREAM_DONE = "[DONE]";
+    private static final String STREAM_ERROR = "error";
+
     private final WebClient webClient;
     private final String model;
     private final PromptManager promptManager;
-    private final ObjectMapper objectMapper;
+    private final ChatCompletionCodec codec;
     private final RetryExecutor retryExecutor;
+    private final UpstreamRateLimiter rateLimiter;
+    private final AIClientMetrics metrics;
+    private final KeyValues attemptKeyValues;
 
     public GroqAIClient(String apiKey, String apiUrl, String model, PromptManager promptManager,
                        int maxRetries, Duration initialDelay, double backoffMultiplier, Duration maxDelay) {
+        this(apiKey, apiUrl, model, promptManager, maxRetries, initialDelay, backoffMultiplier, maxDelay, null);
+    }
+
+    public GroqAIClient(String apiKey, String apiUrl, String model, PromptManager promptManager,
+                       int maxRetries, Duration initialDelay, double backoffMultiplier, Duration maxDelay,
+                       UpstreamRateLimiter rateLimiter) {
+        this(apiKey, apiUrl, model, promptManager,
+            new RetryExecutor(new RetryPolicy(maxRetries, initialDelay, backoffMultiplier, maxDelay)),
+            rateLimiter);
+    }
+
+    public GroqAIClient(String apiKey, String apiUrl, String model, PromptManager promptManager,
+                       RetryExecutor retryExecutor, UpstreamRateLimiter rateLimiter) {
+        this(apiKey, apiUrl, model, promptManager, retryExecutor, rateLimiter, null);
+    }
+
+    // A shared connector lets every client draw from one tuned connection pool
+    public GroqAIClient(String apiKey, String apiUrl, String model, PromptManager promptManager,
+                       RetryExecutor retryExecutor, UpstreamRateLimiter rateLimiter, ClientHttpConnector connector) {
+        this(apiKey, apiUrl, model, promptManager, retryExecutor, rateLimiter, connector, AIClientMetrics.noop());
+    }
+
+    public GroqAIClient(String apiKey, String apiUrl, String model, PromptManager promptManager,
+                       RetryExecutor retryExecutor, UpstreamRateLimiter rateLimiter, ClientHttpConnector connector,
+                       AIClientMetrics metrics) {
         if (apiUrl == null || apiUrl.isEmpty()) {
             throw new IllegalArgumentException("ai.api.url must be configured");
         }
@@ -37,94 +82,247 @@ public class GroqAIClient implements AIClient {
         
         this.model = model;
         this.promptManager = promptManager;
-        this.objectMapper = new ObjectMapper();
-        
-        RetryPolicy retryPolicy = new RetryPolicy(maxRetries, initialDelay, backoffMultiplier, maxDelay);
-        this.retryExecutor = new RetryExecutor(retryPolicy);
+        this.codec = new ChatCompletionCodec(model);
+        this.rateLimiter = rateLimiter;
+        this.retryExecutor = retryExecutor;
+        this.metrics = metrics;
+        this.attemptKeyValues = KeyValues.of("model", model);
         
-        this.webClient = WebClient.builder()
+        WebClient.Builder builder = WebClient.builder()
             .baseUrl(apiUrl)
             .defaultHeader("Content-Type", "application/json")
-            .defaultHeader("Authorization", "Bearer " + apiKey)
-            .build();
+            .defaultHeader("Authorization", "Bearer " + apiKey);
+        if (connector != null) {
+            builder.clientConnector(connector);
+        }
+        // Each exchange becomes an http.client.requests timing and a child span carrying trace headers
+        builder.observationRegistry(metrics.getObservationRegistry());
+        this.webClient = builder.build();
     }
 
     @Override
     public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
         if (inputText == null || inputText.trim().isEmpty()) {
-            throw new IllegalArgumentException("Input text cannot be empty");
+            return Mono.error(new IllegalArgumentException("Input text cannot be empty"));
         }
 
-        logger.debug("Calling AI API to refine text, model: {}", model);
-        
-        ChatCompletionRequest request = buildRequest(inputText);
-        String requestBody;
+        PromptProfile profile;
         try {
-            requestBody = objectMapper.writeValueAsString(request);
-        } catch (Exception e) {
-            logger.error("Failed to serialize request", e);
-            throw new AIClientException("Failed to serialize request", e);
+            profile = promptManager.getProfile(tone);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
         }
+        logger.debug("Calling AI API to refine text, model: {}, tone: {}", model, profile.getName());
+        return chatCompletionAsync(profile.getSystemPrompt(), profile.renderUserMessage(inputText));
+    }
 
+    // Single system + user exchange; callers other than refineTextAsync supply their own prompt
+    public Mono<String> chatCompletionAsync(String systemPrompt, String userContent) {
+        int estimatedTokens = estimateTokens(systemPrompt, userContent);
+        // The executor bounds each attempt with its share of the deadline budget; the body is
+        // decoded inside the attempt as its buffers arrive
+        return Mono.deferContextual(context -> retryExecutor.executeWithDeadline(attemptTimeout -> withPermit(estimatedTokens, () ->
+                    metrics.observe(AIClientMetrics.UPSTREAM_ATTEMPT, attemptKeyValues, webClient.post()
+                        .body(codec.body(systemPrompt, userContent, false))
+                        .retrieve()
+                        .toEntityFlux(DataBuffer.class)
+                        .flatMap(entity -> {
+                            onResponseHeaders(entity.getHeaders());
+                            return codec.decodeCompletion(entity.getBody());
+                        })))
+                .map(completion -> recordUsage(completion, TokenCharge.from(context)))
+                .doOnError(error -> {
+                    if (RetryPolicy.isRetryableError(error)) {
+                        logger.warn("Retryable error occurred: {}", error.getMessage());
+                    } else {
+                        logger.error("Non-retryable error occurred", error);
+                    }
+                })))
+            .doOnNext(content -> logger.debug("Successfully refined text"))
+            .onErrorMap(error -> !(error instanceof AIClientException), this::translateError);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Input text cannot be empty"));
+        }
+
+        PromptProfile profile;
         try {
-            String responseBody = retryExecutor.execute(() -> {
+            profile = promptManager.getProfile(tone);
+        } catch (IllegalArgumentException e) {
+            return Flux.error(e);
+        }
+        logger.debug("Streaming refinement from AI API, model: {}, tone: {}", model, profile.getName());
+        // The SSE reader decodes events as bytes arrive. The gap between chunks is bounded by the same
+        // per-attempt timeout as a non-streamed call (ai.api.retry.attempt-timeout-ms)
+        String systemPrompt = profile.getSystemPrompt();
+        String userContent = profile.renderUserMessage(inputText);
+        int estimatedTokens = estimateTokens(systemPrompt, userContent);
+        Flux<String> deltas = retryExecutor.executeStreamAsync(() -> streamWithPermit(estimatedTokens, () ->
+                metrics.observeMany(AIClientMetrics.UPSTREAM_ATTEMPT, attemptKeyValues, webClient.post()
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .body(codec.body(systemPrompt, userContent, true))
+                    .retrieve()
+                    .toEntityFlux(SSE_TYPE)
+                    .flatMapMany(entity -> {
+                        onResponseHeaders(entity.getHeaders());
+                        return entity.getBody();
+                    })
+                    .timeout(retryExecutor.getRetryPolicy().getAttemptTimeout()))))
+            .takeWhile(event -> !STREAM_DONE.equals(event.data()))
+            .handle((ServerSentEvent<String> event, SynchronousSink<String> sink) -> {
+                // Keep-alive comments carry no data
+                if (event.data() == null) {
+                    return;
+                }
+                if (STREAM_ERROR.equals(event.event())) {
+                    sink.error(new AIClientException("AI API stream failed: " + event.data()));
+                    return;
+                }
                 try {
-                    return webClient.post()
-                        .bodyValue(requestBody)
-                        .retrieve()
-                        .bodyToMono(String.class)
-                        .timeout(Duration.ofSeconds(30))
-                        .doOnError(error -> {
-                            if (RetryPolicy.isRetryableError(error)) {
-                                logger.warn("Retryable error occurred: {}", error.getMessage());
-                            } else {
-                                logger.error("Non-retryable error occurred", error);
-                            }
-                        })
-                        .block();
+                    String delta = codec.decodeDelta(event.data());
+                    if (delta != null && !delta.isEmpty()) {
+                        sink.next(delta);
+                    }
+                } catch (AIClientException e) {
+                    sink.error(e);
                 } catch (Exception e) {
-                    throw new RuntimeException(e);
+                    sink.error(new AIClientException("Failed to parse AI API stream chunk", e));
                 }
-            });
+            })
+            .onErrorMap(error -> !(error instanceof AIClientException), this::translateError);
+        // Stream chunks carry no usage block, so the tenant is charged the local estimate of what was sent
+        return Flux.deferContextual(context -> {
+            TokenCharge charge = TokenCharge.from(context);
+            if (charge == null) {
+                return deltas;
+            }
+            int promptTokens = (systemPrompt.length() + userContent.length()) / 4 + 16;
+            long[] streamedChars = new long[1];
+            Runnable recordStreamed = () -> charge.record(promptTokens, (int) ((streamedChars[0] + 3) / 4));
+            // Recorded before the terminal signal travels on, so the caller settling the charge sees it.
+            // A stream that failed before its first chunk may never have reached the provider.
+            return deltas
+                .doOnNext(delta -> streamedChars[0] += delta.length())
+                .doOnComplete(recordStreamed)
+                .doOnError(error -> {
+                    if (streamedChars[0] > 0) {
+                        recordStreamed.run();
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (streamedChars[0] > 0) {
+                        recordStreamed.run();
+                    }
+                });
+        });
+    }
 
-            ChatCompletionResponse response = objectMapper.readValue(responseBody, ChatCompletionResponse.class);
+    // The permit is held for the whole exchange, including a stream's body
+    private <T> Mono<T> withPermit(int estimatedTokens, Supplier<Mono<T>> call) {
+        if (rateLimiter == null) {
+            return call.get();
+        }
+        return Mono.usingWhen(acquirePermit(estimatedTokens),
+            permit -> call.get(),
+            permit -> Mono.fromRunnable(permit::onSuccess),
+            (permit, error) -> Mono.fromRunnable(() -> releaseOnError(permit, error)),
+            permit -> Mono.fromRunnable(permit::release));
+    }
 
-            if (response == null || response.getChoices() == null || response.getChoices().isEmpty()) {
-                throw new AIClientException("Empty response from AI API");
-            }
+    private <T> Flux<T> streamWithPermit(int estimatedTokens, Supplier<Flux<T>> call) {
+        if (rateLimiter == null) {
+            return call.get();
+        }
+        return Flux.usingWhen(acquirePermit(estimatedTokens),
+            permit -> call.get(),
+            permit -> Mono.fromRunnable(permit::onSuccess),
+            (permit, error) -> Mono.fromRunnable(() -> releaseOnError(permit, error)),
+            permit -> Mono.fromRunnable(permit::release));
+    }
+
+    private Mono<UpstreamRateLimiter.Permit> acquirePermit(int estimatedTokens) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return rateLimiter.acquire(estimatedTokens)
+                .doOnNext(permit -> metrics.recordQueueWait(System.nanoTime() - start, true))
+                .doOnError(error -> metrics.recordQueueWait(System.nanoTime() - start, false));
+        });
+    }
 
-            String content = response.getChoices().get(0).getMessage().getContent();
-            if (content == null || content.trim().isEmpty()) {
-                throw new AIClientException("Empty content in AI API response");
+    private String recordUsage(ChatCompletion completion, TokenCharge charge) {
+        if (completion.hasUsage()) {
+            metrics.recordUsage(model, completion.getPromptTokens(), completion.getCompletionTokens());
+            if (charge != null) {
+                charge.record(completion.getPromptTokens(), completion.getCompletionTokens());
             }
+        }
+        return completion.getContent();
+    }
 
-            logger.debug("Successfully refined text");
-            return content.trim();
-
-        } catch (WebClientResponseException e) {
-            logger.error("HTTP error calling AI API: status={}, body={}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new AIClientException("AI API returned error: " + e.getStatusCode(), e);
-        } catch (RuntimeException e) {
-            if (e.getCause() instanceof WebClientResponseException) {
-                WebClientResponseException httpError = (WebClientResponseException) e.getCause();
-                logger.error("HTTP error after retries: status={}, body={}", 
-                    httpError.getStatusCode(), httpError.getResponseBodyAsString());
-                throw new AIClientException("AI API returned error after retries: " + httpError.getStatusCode(), httpError);
+    private void releaseOnError(UpstreamRateLimiter.Permit permit, Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            WebClientResponseException httpError = (WebClientResponseException) error;
+            onResponseHeaders(httpError.getHeaders());
+            if (httpError.getStatusCode().value() == 429) {
+                permit.onRateLimited(httpError.getHeaders());
+                return;
             }
-            logger.error("Failed to call AI API after retries", e);
-            throw new AIClientException("Failed to call AI API: " + e.getMessage(), e);
-        } catch (Exception e) {
-            logger.error("Unexpected error calling AI API", e);
-            throw new AIClientException("Unexpected error: " + e.getMessage(), e);
         }
+        permit.release();
+    }
+
+    private void onResponseHeaders(HttpHeaders headers) {
+        if (rateLimiter != null) {
+            rateLimiter.onResponseHeaders(headers);
+        }
+    }
+
+    // Local estimate (~4 characters per token) for prompt plus a completion of similar length to the input
+    private static int estimateTokens(String systemPrompt, String userContent) {
+        return (systemPrompt.length() + 2 * userContent.length()) / 4 + 16;
     }
 
-    private ChatCompletionRequest buildRequest(String inputText) {
-        List<ChatCompletionRequest.Message> messages = Arrays.asList(
-            new ChatCompletionRequest.Message("system", promptManager.getSystemPromptForRefinement()),
-            new ChatCompletionRequest.Message("user", inputText)
-        );
-        return new ChatCompletionRequest(model, messages);
+    private Throwable translateError(Throwable e) {
+        // Our own failures (e.g. a rate limit rejection) may arrive wrapped by the retry executor
+        if (e.getCause() instanceof AIClientException) {
+            return e.getCause();
+        }
+        if (e instanceof WebClientResponseException) {
+            WebClientResponseException httpError = (WebClientResponseException) e;
+            logger.error("HTTP error calling AI API: status={}, body={}", httpError.getStatusCode(), httpError.getResponseBodyAsString());
+            return new AIClientException("AI API returned error: " + httpError.getStatusCode(), httpError);
+        }
+        if (e.getCause() instanceof WebClientResponseException) {
+            WebClientResponseException httpError = (WebClientResponseException) e.getCause();
+            logger.error("HTTP error after retries: status={}, body={}",
+                httpError.getStatusCode(), httpError.getResponseBodyAsString());
+            return new AIClientException("AI API returned error after retries: " + httpError.getStatusCode(), httpError);
+        }
+        logger.error("Failed to call AI API after retries", e);
+        return new AIClientException("Failed to call AI API: " + e.getMessage(), e);
     }
 }
 
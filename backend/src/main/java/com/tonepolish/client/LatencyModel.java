@@ -0,0 +1,65 @@
+package com.tonepolish.client;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of simulated response times. Specs are written as {@code fixed:500},
+ * {@code uniform:200:800} or {@code lognormal:400:2000} (median and p99), all in milliseconds;
+ * the log-normal shape is the closest simple fit to real completion latencies, with a long tail.
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+    // z-score of the 99th percentile of a standard normal distribution
+    double Z_99 = 2.326;
+
+    Duration next();
+
+    static LatencyModel none() {
+        return () -> Duration.ZERO;
+    }
+
+    static LatencyModel fixed(Duration latency) {
+        return () -> latency;
+    }
+
+    static LatencyModel uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        if (maxNanos < minNanos) {
+            throw new IllegalArgumentException("Uniform latency max must not be below min");
+        }
+        return () -> Duration.ofNanos(minNanos + (long) (ThreadLocalRandom.current().nextDouble() * (maxNanos - minNanos)));
+    }
+
+    static LatencyModel logNormal(Duration median, Duration p99) {
+        if (median.isZero() || median.isNegative() || p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("Log-normal latency needs 0 < median <= p99");
+        }
+        double mu = Math.log(median.toNanos());
+        double sigma = (Math.log(p99.toNanos()) - mu) / Z_99;
+        return () -> Duration.ofNanos((long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    static LatencyModel parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        try {
+            switch (parts[0].toLowerCase()) {
+                case "none":
+                    return none();
+                case "fixed":
+                    return fixed(Duration.ofMillis(Long.parseLong(parts[1])));
+                case "uniform":
+                    return uniform(Duration.ofMillis(Long.parseLong(parts[1])), Duration.ofMillis(Long.parseLong(parts[2])));
+                case "lognormal":
+                    return logNormal(Duration.ofMillis(Long.parseLong(parts[1])), Duration.ofMillis(Long.parseLong(parts[2])));
+                default:
+                    break;
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid latency model: " + spec, e);
+        }
+        throw new IllegalArgumentException("Unknown latency model: " + spec);
+    }
+}
@@ -1,37 +1,110 @@
 package com.tonepolish.client;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
 public class MockAIClient implements AIClient {
 
+    private static final Duration SIMULATED_DELAY = Duration.ofMillis(500);
+    private static final Duration DEFAULT_TOKEN_DELAY = Duration.ofMillis(50);
+    private static final String[] PROBLEM_WORDS = {"sorry", "apologize", "issue", "problem"};
+
+    private final LatencyModel latency;
+    private final Duration tokenDelay;
+
+    public MockAIClient() {
+        this(SIMULATED_DELAY, DEFAULT_TOKEN_DELAY);
+    }
+
+    public MockAIClient(Duration tokenDelay) {
+        this(SIMULATED_DELAY, tokenDelay);
+    }
+
+    // Duration.ZERO for both turns this into a purely local polisher, e.g. as a circuit breaker fallback
+    public MockAIClient(Duration simulatedDelay, Duration tokenDelay) {
+        this(simulatedDelay.isZero() ? LatencyModel.none() : LatencyModel.fixed(simulatedDelay), tokenDelay);
+    }
+
+    public MockAIClient(LatencyModel latency, Duration tokenDelay) {
+        this.latency = latency;
+        this.tokenDelay = tokenDelay;
+    }
+
     @Override
     public String refineText(String inputText) {
         // Simulate API delay
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        Duration delay = latency.next();
+        if (!delay.isZero()) {
+            try {
+                Thread.sleep(delay.toMillis(), delay.toNanosPart() % 1_000_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return polish(inputText);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        // Same simulated latency, but on a timer rather than a sleeping thread
+        return Mono.defer(() -> {
+            Duration delay = latency.next();
+            if (delay.isZero()) {
+                return Mono.fromCallable(() -> polish(inputText));
+            }
+            return Mono.delay(delay).map(tick -> polish(inputText));
+        });
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        // Emit word by word, keeping each word's trailing space, like an upstream delta stream
+        String[] tokens = polish(inputText).split("(?<= )");
+        if (tokenDelay.isZero()) {
+            return Flux.fromArray(tokens);
         }
+        return Flux.fromArray(tokens).delayElements(tokenDelay);
+    }
 
+    private String polish(String inputText) {
         // Simple mock transformation
-        String polished = inputText.trim();
-        
-        // Add professional tone
-        if (!polished.endsWith(".") && !polished.endsWith("!") && !polished.endsWith("?")) {
-            polished += ".";
+        String trimmed = inputText.trim();
+        boolean negative = mentionsProblem(trimmed);
+        StringBuilder polished = new StringBuilder(trimmed.length() + (negative ? 30 : 1));
+
+        // Add empathetic prefix if the text seems negative
+        if (negative) {
+            polished.append("I understand your concern. ");
         }
-        
+
         // Capitalize first letter
-        if (polished.length() > 0) {
-            polished = polished.substring(0, 1).toUpperCase() + polished.substring(1);
+        if (!trimmed.isEmpty()) {
+            polished.append(Character.toUpperCase(trimmed.charAt(0))).append(trimmed, 1, trimmed.length());
         }
 
-        // Add empathetic prefix if the text seems negative
-        String lowerText = inputText.toLowerCase();
-        if (lowerText.contains("sorry") || lowerText.contains("apologize") || 
-            lowerText.contains("issue") || lowerText.contains("problem")) {
-            polished = "I understand your concern. " + polished;
+        // Add professional tone
+        if (!trimmed.endsWith(".") && !trimmed.endsWith("!") && !trimmed.endsWith("?")) {
+            polished.append('.');
         }
+        return polished.toString();
+    }
 
-        return polished;
+    // One scan without a lowercased copy; only positions starting like a keyword are compared
+    private static boolean mentionsProblem(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (c != 's' && c != 'a' && c != 'i' && c != 'p') {
+                continue;
+            }
+            for (String word : PROBLEM_WORDS) {
+                if (word.charAt(0) == c && text.regionMatches(true, i, word, 0, word.length())) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 }
-
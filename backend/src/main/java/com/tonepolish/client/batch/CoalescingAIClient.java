@@ -0,0 +1,306 @@
+package com.tonepolish.client.batch;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.GroqAIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.usage.TokenCharge;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packs short refinements that arrive within a small window into one chat completion, so the
+ * system prompt and round trip are paid once per batch instead of once per message. Inputs are
+ * labelled "[k7q2-1] ...", "[k7q2-2] ..." with a tag drawn per batch, and the reply is split on the
+ * same labels. Customer text can't forge a label it has never seen, so one message can't end up in
+ * another's result. If the batch fails, or its reply doesn't carry every label exactly once, each
+ * message is sent on its own instead, under its caller's context. A caller that cancels leaves
+ * the batch if it is still waiting, and a batch whose callers have all gone is cancelled upstream.
+ */
+public class CoalescingAIClient implements AIClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingAIClient.class);
+
+    private static final String TAG_ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int TAG_LENGTH = 4;
+
+    private final GroqAIClient upstream;
+    private final PromptManager promptManager;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final int maxItemChars;
+    private final Scheduler scheduler;
+    private final CoalescingStats stats;
+
+    private final Object lock = new Object();
+    private List<Pending> current = new ArrayList<>();
+    private long generation;
+
+    public CoalescingAIClient(GroqAIClient upstream, PromptManager promptManager,
+                              Duration window, int maxBatchSize, int maxItemChars) {
+        this.upstream = upstream;
+        this.promptManager = promptManager;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.maxItemChars = maxItemChars;
+        this.scheduler = Schedulers.parallel();
+        this.stats = new CoalescingStats(maxBatchSize);
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return upstream.refineTextStream(inputText);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        return upstream.refineTextStream(inputText, tone);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    // Only the default tone is batched; a batch shares one system prompt
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        if (tone != null && !tone.isEmpty() && !tone.equals(promptManager.getDefaultProfile().getName())) {
+            stats.recordDirectCall();
+            return upstream.refineTextAsync(inputText, tone);
+        }
+        if (inputText == null || inputText.trim().isEmpty() || inputText.length() > maxItemChars) {
+            stats.recordDirectCall();
+            return upstream.refineTextAsync(inputText);
+        }
+        return Mono.create(sink -> {
+            Pending pending = new Pending(inputText.trim(), sink);
+            sink.onCancel(() -> cancel(pending));
+            enqueue(pending);
+        });
+    }
+
+    public CoalescingStats getStats() {
+        return stats;
+    }
+
+    private void enqueue(Pending pending) {
+        List<Pending> ready = null;
+        synchronized (lock) {
+            current.add(pending);
+            if (current.size() >= maxBatchSize) {
+                ready = swap();
+            } else if (current.size() == 1) {
+                long scheduledGeneration = generation;
+                scheduler.schedule(() -> flushIfStill(scheduledGeneration), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+    }
+
+    private void cancel(Pending pending) {
+        pending.cancelled = true;
+        synchronized (lock) {
+            current.remove(pending);
+        }
+        // Only the call for this item, or a batch nobody is waiting on any more, is cancelled
+        pending.call.dispose();
+        Batch batch = pending.batch;
+        if (batch != null && batch.items.stream().allMatch(item -> item.cancelled)) {
+            batch.call.dispose();
+        }
+    }
+
+    private void flushIfStill(long scheduledGeneration) {
+        List<Pending> ready = null;
+        synchronized (lock) {
+            // A size-triggered flush may already have taken the batch this timer was armed for
+            if (generation == scheduledGeneration && !current.isEmpty()) {
+                ready = swap();
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+    }
+
+    private List<Pending> swap() {
+        List<Pending> ready = current;
+        current = new ArrayList<>(maxBatchSize);
+        generation++;
+        return ready;
+    }
+
+    private void dispatch(List<Pending> ready) {
+        // Items cancelled between the swap and here are dropped before anything is sent
+        List<Pending> batch = new ArrayList<>(ready.size());
+        for (Pending pending : ready) {
+            if (!pending.cancelled) {
+                batch.add(pending);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() == 1) {
+            stats.recordDirectCall();
+            sendIndividually(batch);
+            return;
+        }
+
+        stats.recordBatch(batch.size());
+        String tag = tagFor(batch);
+        StringBuilder labelled = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                labelled.append('\n');
+            }
+            labelled.append(label(tag, i + 1)).append(' ').append(batch.get(i).text);
+        }
+
+        Batch inFlight = new Batch(batch);
+        for (Pending pending : batch) {
+            pending.batch = inFlight;
+        }
+        // One call can only have one trace parent, so the batch is traced under its first item
+        Observation parent = batch.get(0).context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+        inFlight.call.update(upstream.chatCompletionAsync(promptManager.getSystemPromptForBatchRefinement(), labelled.toString())
+            .contextWrite(context -> parent == null ? context : context.put(ObservationThreadLocalAccessor.KEY, parent))
+            .contextWrite(context -> chargeFor(batch).attachTo(context))
+            .subscribe(response -> {
+                List<String> parts = split(response, tag, batch.size());
+                if (parts == null) {
+                    stats.recordFallback();
+                    logger.warn("Could not split batched response of {} items, falling back to single calls", batch.size());
+                    sendIndividually(batch);
+                    return;
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).sink.success(parts.get(i));
+                }
+            }, error -> {
+                // A bad item or a transient failure shouldn't fail its neighbours; each gets its own attempt
+                stats.recordFallback();
+                logger.warn("Batched call of {} items failed, falling back to single calls: {}", batch.size(), error.getMessage());
+                sendIndividually(batch);
+            }));
+    }
+
+    private void sendIndividually(List<Pending> batch) {
+        for (Pending pending : batch) {
+            if (!pending.cancelled) {
+                pending.call.update(upstream.refineTextAsync(pending.text)
+                    .contextWrite(pending.context)
+                    .subscribe(pending.sink::success, pending.sink::error));
+            }
+        }
+    }
+
+    // The batch's usage is shared out by input length, so each item's tenant pays for its part
+    private static TokenCharge chargeFor(List<Pending> batch) {
+        List<TokenCharge> charges = new ArrayList<>(batch.size());
+        long[] weights = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            charges.add(TokenCharge.from(batch.get(i).context));
+            weights[i] = batch.get(i).text.length();
+        }
+        return TokenCharge.split(charges, weights);
+    }
+
+    // Redrawn in the unlikely case an item already contains it
+    private static String tagFor(List<Pending> batch) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            char[] tag = new char[TAG_LENGTH];
+            for (int i = 0; i < TAG_LENGTH; i++) {
+                tag[i] = TAG_ALPHABET.charAt(random.nextInt(TAG_ALPHABET.length()));
+            }
+            String candidate = new String(tag);
+            if (batch.stream().noneMatch(pending -> pending.text.contains(candidate))) {
+                return candidate;
+            }
+        }
+    }
+
+    static String label(String tag, int n) {
+        return "[" + tag + "-" + n + "]";
+    }
+
+    // Returns the labelled parts in order, or null unless labels 1..n each appear exactly once, in order
+    static List<String> split(String response, String tag, int expected) {
+        String text = response.trim();
+        String first = label(tag, 1);
+        if (!text.startsWith(first)) {
+            return null;
+        }
+        // Any label left inside a part means one was repeated, skipped or out of order
+        String anyLabel = "[" + tag + "-";
+        List<String> parts = new ArrayList<>(expected);
+        int start = first.length();
+        for (int n = 2; n <= expected + 1; n++) {
+            int next = n > expected ? text.length() : text.indexOf("\n" + label(tag, n), start);
+            if (next < 0) {
+                return null;
+            }
+            String part = text.substring(start, next).trim();
+            if (part.isEmpty() || part.contains(anyLabel)) {
+                return null;
+            }
+            parts.add(part);
+            start = next + 1 + label(tag, n).length();
+        }
+        return parts;
+    }
+
+    private static final class Pending {
+        private final String text;
+        private final MonoSink<String> sink;
+        private final ContextView context;
+        // This item's own upstream call, once it falls back to one
+        private final Disposable.Swap call = Disposables.swap();
+        private volatile boolean cancelled;
+        private volatile Batch batch;
+
+        private Pending(String text, MonoSink<String> sink) {
+            this.text = text;
+            this.sink = sink;
+            this.context = sink.contextView();
+        }
+    }
+
+    private static final class Batch {
+        private final List<Pending> items;
+        private final Disposable.Swap call = Disposables.swap();
+
+        private Batch(List<Pending> items) {
+            this.items = items;
+        }
+    }
+}
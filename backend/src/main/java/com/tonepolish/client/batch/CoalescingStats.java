@@ -0,0 +1,66 @@
+package com.tonepolish.client.batch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CoalescingStats {
+
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder itemsBatched = new LongAdder();
+    private final LongAdder directCalls = new LongAdder();
+    private final LongAdder fallbackBatches = new LongAdder();
+    private final AtomicLongArray batchSizeCounts;
+
+    CoalescingStats(int maxBatchSize) {
+        this.batchSizeCounts = new AtomicLongArray(maxBatchSize + 1);
+    }
+
+    void recordBatch(int size) {
+        batchesSent.increment();
+        itemsBatched.add(size);
+        batchSizeCounts.incrementAndGet(size);
+    }
+
+    void recordDirectCall() {
+        directCalls.increment();
+    }
+
+    void recordFallback() {
+        fallbackBatches.increment();
+    }
+
+    public long getBatchesSent() {
+        return batchesSent.sum();
+    }
+
+    public long getItemsBatched() {
+        return itemsBatched.sum();
+    }
+
+    public long getDirectCalls() {
+        return directCalls.sum();
+    }
+
+    public long getFallbackBatches() {
+        return fallbackBatches.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchesSent.sum();
+        return batches == 0 ? 0.0 : (double) itemsBatched.sum() / batches;
+    }
+
+    public double getFallbackRate() {
+        long batches = batchesSent.sum();
+        return batches == 0 ? 0.0 : (double) fallbackBatches.sum() / batches;
+    }
+
+    // Index is the batch size, value the number of upstream batches sent with that many items
+    public long[] getBatchSizeCounts() {
+        long[] counts = new long[batchSizeCounts.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = batchSizeCounts.get(i);
+        }
+        return counts;
+    }
+}
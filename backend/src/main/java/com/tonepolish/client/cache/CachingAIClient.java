@@ -0,0 +1,106 @@
+package com.tonepolish.client.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+public class CachingAIClient implements AIClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingAIClient.class);
+
+    // Rough per-entry bookkeeping cost on top of the UTF-16 key and value
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final AIClient delegate;
+    private final PromptManager promptManager;
+    private final String model;
+    private final AsyncCache<String, String> cache;
+
+    public CachingAIClient(AIClient delegate, PromptManager promptManager, String model,
+                           long maxSizeBytes, Duration ttl) {
+        this.delegate = delegate;
+        this.promptManager = promptManager;
+        this.model = model;
+        // Caffeine evicts with W-TinyLFU, so one-off inputs don't push out the hot canned phrases
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxSizeBytes)
+            .weigher((String key, String value) -> ENTRY_OVERHEAD_BYTES + 2 * (key.length() + value.length()))
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty() || !promptManager.hasTone(tone)) {
+            return delegate.refineTextAsync(inputText, tone);
+        }
+
+        String key = RefineCacheKey.of(inputText, promptManager.getProfile(tone).getFingerprint(), model);
+        // Concurrent callers for the same key share one in-flight future, so only the first goes
+        // upstream. Cancellation is suppressed so one caller going away doesn't fail the others.
+        // The loader runs in the first caller's context, so its tenant is the one charged.
+        return Mono.deferContextual(context -> Mono.fromFuture(() -> cache.get(key, (k, executor) -> {
+            logger.debug("Cache miss, calling upstream");
+            return delegate.refineTextAsync(inputText, tone).contextWrite(context).toFuture();
+        }), true));
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty() || !promptManager.hasTone(tone)) {
+            return delegate.refineTextStream(inputText, tone);
+        }
+
+        String key = RefineCacheKey.of(inputText, promptManager.getProfile(tone).getFingerprint(), model);
+        CompletableFuture<String> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Mono.fromFuture(cached, true).flux();
+        }
+        // Stream straight through and remember the assembled text for later callers
+        StringBuilder assembled = new StringBuilder();
+        return delegate.refineTextStream(inputText, tone)
+            .doOnNext(assembled::append)
+            .doOnComplete(() -> cache.put(key, CompletableFuture.completedFuture(assembled.toString().trim())));
+    }
+
+    public CacheStats getStats() {
+        return cache.synchronous().stats();
+    }
+
+    // As of Caffeine's last maintenance pass, which it schedules itself after writes
+    public long getEstimatedSizeBytes() {
+        return cache.synchronous().policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L))
+            .orElse(0L);
+    }
+}
@@ -0,0 +1,337 @@
+package com.tonepolish.client.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of refined outputs keyed by {@link RefineCacheKey} hashes.
+ *
+ * Record layout: magic(4) | key hash(32) | written-at millis(8) | value length(4) | UTF-8 value | CRC32(4).
+ * The index is rebuilt by a background scan on startup, so lookups are served for whatever has
+ * been indexed so far instead of waiting for the whole file. A torn or corrupt tail left by a
+ * crash is truncated during that scan. Once the file grows past its cap, live entries are
+ * rewritten newest-first into a fresh file that is swapped in atomically.
+ */
+public class DiskCacheStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskCacheStore.class);
+
+    private static final int MAGIC = 0x52464E31;
+    private static final int KEY_BYTES = 32;
+    private static final int HEADER_BYTES = 4 + KEY_BYTES + 8 + 4;
+    private static final int TRAILER_BYTES = 4;
+    private static final int MAX_VALUE_BYTES = 1 << 20;
+
+    private final Path path;
+    private final long maxSizeBytes;
+    private final Duration ttl;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private volatile FileChannel channel;
+    private volatile boolean ready;
+    private long writePosition;
+
+    public DiskCacheStore(Path path, long maxSizeBytes, Duration ttl) throws IOException {
+        this.path = path;
+        this.maxSizeBytes = maxSizeBytes;
+        this.ttl = ttl;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        Thread indexer = new Thread(this::recover, "disk-cache-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public Optional<String> get(String key) {
+        // Offsets are only meaningful against the channel they were indexed from, so look up under
+        // the same lock that compaction takes to swap both
+        lock.readLock().lock();
+        try {
+            Entry entry = index.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (isExpired(entry.writtenAt)) {
+                index.remove(key, entry);
+                return Optional.empty();
+            }
+            ByteBuffer value = ByteBuffer.allocate(entry.valueLength);
+            readFully(channel, value, entry.offset + HEADER_BYTES);
+            return Optional.of(new String(value.array(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warn("Failed to read disk cache entry: {}", e.getMessage());
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(String key, String value) {
+        // Appending before recovery has found the valid end of the log would bury records behind a torn tail
+        if (!ready) {
+            return;
+        }
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        if (valueBytes.length > MAX_VALUE_BYTES) {
+            return;
+        }
+
+        long writtenAt = System.currentTimeMillis();
+        ByteBuffer record = encode(key, writtenAt, valueBytes);
+        long size;
+        lock.writeLock().lock();
+        try {
+            long offset = writePosition;
+            while (record.hasRemaining()) {
+                writePosition += channel.write(record, writePosition);
+            }
+            index.put(key, new Entry(offset, valueBytes.length, writtenAt));
+            size = writePosition;
+        } catch (IOException e) {
+            logger.warn("Failed to append disk cache entry: {}", e.getMessage());
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (size > maxSizeBytes && compacting.compareAndSet(false, true)) {
+            Thread compactor = new Thread(this::compactUntilUnderCap, "disk-cache-compactor");
+            compactor.setDaemon(true);
+            compactor.start();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            channel.force(true);
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recover() {
+        long start = System.currentTimeMillis();
+        try {
+            long validEnd = scan(channel, 0, index);
+            lock.writeLock().lock();
+            try {
+                if (validEnd < channel.size()) {
+                    logger.warn("Truncating {} bytes of torn or corrupt records from {}", channel.size() - validEnd, path);
+                    channel.truncate(validEnd);
+                }
+                writePosition = validEnd;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Indexed {} disk cache entries from {} in {}ms", index.size(), path,
+                System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            logger.error("Failed to recover disk cache from {}, disk tier disabled", path, e);
+        }
+    }
+
+    // Scans records from the given offset into the index and returns the end of the last valid record
+    private long scan(FileChannel source, long from, Map<String, Entry> target) throws IOException {
+        long position = from;
+        long end = source.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES + TRAILER_BYTES <= end) {
+            header.clear();
+            readFully(source, header, position);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                break;
+            }
+            byte[] keyBytes = new byte[KEY_BYTES];
+            header.get(keyBytes);
+            long writtenAt = header.getLong();
+            int valueLength = header.getInt();
+            if (valueLength < 0 || valueLength > MAX_VALUE_BYTES
+                || position + HEADER_BYTES + valueLength + TRAILER_BYTES > end) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(valueLength + TRAILER_BYTES);
+            readFully(source, body, position + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), 0, HEADER_BYTES);
+            crc.update(body.array(), 0, valueLength);
+            if ((int) crc.getValue() != body.getInt(valueLength)) {
+                break;
+            }
+
+            if (!isExpired(writtenAt)) {
+                target.put(HexFormat.of().formatHex(keyBytes), new Entry(position, valueLength, writtenAt));
+            }
+            position += HEADER_BYTES + valueLength + TRAILER_BYTES;
+        }
+        return position;
+    }
+
+    private void compactUntilUnderCap() {
+        try {
+            // Appends that land while a pass runs are carried over verbatim and can push the file
+            // back over the cap; a follow-up pass folds them into the retained set
+            for (int pass = 0; pass < 3 && currentSize() > maxSizeBytes; pass++) {
+                compact();
+            }
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private long currentSize() {
+        lock.readLock().lock();
+        try {
+            return writePosition;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compact() {
+        Path compactedPath = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            long snapshotEnd = currentSize();
+
+            // Copy the newest live entries up to half the cap, leaving room to grow before the next pass
+            List<Map.Entry<String, Entry>> live = new ArrayList<>(index.entrySet());
+            live.sort(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().writtenAt).reversed());
+            Map<String, Entry> compactedIndex = new ConcurrentHashMap<>();
+            long compactedEnd = 0;
+            try (FileChannel target = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (Map.Entry<String, Entry> e : live) {
+                    Entry entry = e.getValue();
+                    if (entry.offset >= snapshotEnd || isExpired(entry.writtenAt)) {
+                        continue;
+                    }
+                    int recordLength = HEADER_BYTES + entry.valueLength + TRAILER_BYTES;
+                    if (compactedEnd + recordLength > maxSizeBytes / 2) {
+                        break;
+                    }
+                    ByteBuffer record = ByteBuffer.allocate(recordLength);
+                    lock.readLock().lock();
+                    try {
+                        readFully(channel, record, entry.offset);
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                    record.flip();
+                    compactedIndex.put(e.getKey(), new Entry(compactedEnd, entry.valueLength, entry.writtenAt));
+                    while (record.hasRemaining()) {
+                        compactedEnd += target.write(record, compactedEnd);
+                    }
+                }
+                target.force(true);
+            }
+
+            lock.writeLock().lock();
+            try {
+                // Carry over anything appended while the snapshot was being copied
+                long tailLength = writePosition - snapshotEnd;
+                try (FileChannel target = FileChannel.open(compactedPath, StandardOpenOption.WRITE)) {
+                    long copied = 0;
+                    while (copied < tailLength) {
+                        copied += channel.transferTo(snapshotEnd + copied, tailLength - copied, target.position(compactedEnd + copied));
+                    }
+                    target.force(true);
+                }
+                try (FileChannel compacted = FileChannel.open(compactedPath, StandardOpenOption.READ)) {
+                    scan(compacted, compactedEnd, compactedIndex);
+                }
+
+                Files.move(compactedPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                FileChannel previous = channel;
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                previous.close();
+                writePosition = compactedEnd + tailLength;
+                index.clear();
+                index.putAll(compactedIndex);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Compacted disk cache {} to {} entries, {} bytes", path, index.size(), writePosition);
+        } catch (IOException e) {
+            logger.error("Disk cache compaction failed for {}", path, e);
+        }
+    }
+
+    private static ByteBuffer encode(String key, long writtenAt, byte[] valueBytes) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + valueBytes.length + TRAILER_BYTES);
+        record.putInt(MAGIC);
+        record.put(HexFormat.of().parseHex(key));
+        record.putLong(writtenAt);
+        record.putInt(valueBytes.length);
+        record.put(valueBytes);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = source.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of disk cache file");
+            }
+        }
+    }
+
+    private boolean isExpired(long writtenAt) {
+        return System.currentTimeMillis() - writtenAt > ttl.toMillis();
+    }
+
+    private static final class Entry {
+        private final long offset;
+        private final int valueLength;
+        private final long writtenAt;
+
+        private Entry(long offset, int valueLength, long writtenAt) {
+            this.offset = offset;
+            this.valueLength = valueLength;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tonepolish.client.cache;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+public class DiskCachingAIClient implements AIClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskCachingAIClient.class);
+
+    private final AIClient delegate;
+    private final PromptManager promptManager;
+    private final String model;
+    private final DiskCacheStore store;
+
+    public DiskCachingAIClient(AIClient delegate, PromptManager promptManager, String model, DiskCacheStore store) {
+        this.delegate = delegate;
+        this.promptManager = promptManager;
+        this.model = model;
+        this.store = store;
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return delegate.refineTextStream(inputText);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        return delegate.refineTextStream(inputText, tone);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty() || !promptManager.hasTone(tone)) {
+            return delegate.refineTextAsync(inputText, tone);
+        }
+
+        String key = RefineCacheKey.of(inputText, promptManager.getProfile(tone).getFingerprint(), model);
+        // File reads and appends are blocking syscalls, keep them off the event loop
+        return Mono.fromCallable(() -> store.get(key).orElse(null))
+            .subscribeOn(Schedulers.boundedElastic())
+            .doOnNext(value -> logger.debug("Disk cache hit"))
+            .switchIfEmpty(Mono.defer(() -> delegate.refineTextAsync(inputText, tone)
+                .doOnNext(value -> Schedulers.boundedElastic().schedule(() -> store.put(key, value)))));
+    }
+}
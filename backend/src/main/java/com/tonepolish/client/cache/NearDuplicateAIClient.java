@@ -0,0 +1,156 @@
+package com.tonepolish.client.cache;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers inputs that are near duplicates of earlier ones ("sorry about ticket #4411" and "Sorry
+ * about ticket #4412!") from a {@link NearDuplicateIndex}, with the earlier reply's ticket numbers,
+ * names and addresses swapped for the new ones. Sits behind the exact-match cache. A sampled share
+ * of hits is also sent upstream in the background and compared with the reused reply, to measure
+ * how often the similarity threshold lets through an input that deserved a different rewrite.
+ * Samples run under the caller's context, so they are traced and charged to the caller's tenant,
+ * and only a few run at once.
+ */
+public class NearDuplicateAIClient implements AIClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateAIClient.class);
+
+    static final int MAX_SAMPLES_IN_FLIGHT = 4;
+
+    private final AIClient delegate;
+    private final PromptManager promptManager;
+    private final NearDuplicateIndex index;
+    private final int maxInputChars;
+    private final double sampleRate;
+    private final double sampleMinSimilarity;
+    private final NearDuplicateStats stats = new NearDuplicateStats();
+    private final AtomicInteger samplesInFlight = new AtomicInteger();
+
+    public NearDuplicateAIClient(AIClient delegate, PromptManager promptManager, NearDuplicateIndex index,
+                                 int maxInputChars, double sampleRate, double sampleMinSimilarity) {
+        this.delegate = delegate;
+        this.promptManager = promptManager;
+        this.index = index;
+        this.maxInputChars = maxInputChars;
+        this.sampleRate = sampleRate;
+        this.sampleMinSimilarity = sampleMinSimilarity;
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        NearDuplicateIndex.Key key = key(inputText, tone);
+        if (key == null) {
+            return delegate.refineTextAsync(inputText, tone);
+        }
+        return Mono.deferContextual(context -> {
+            String reused = lookup(key, inputText, tone, context);
+            if (reused != null) {
+                return Mono.just(reused);
+            }
+            return delegate.refineTextAsync(inputText, tone)
+                .doOnNext(refined -> index.put(key, refined));
+        });
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        NearDuplicateIndex.Key key = key(inputText, tone);
+        if (key == null) {
+            return delegate.refineTextStream(inputText, tone);
+        }
+        return Flux.deferContextual(context -> {
+            String reused = lookup(key, inputText, tone, context);
+            if (reused != null) {
+                return Flux.just(reused);
+            }
+            StringBuilder assembled = new StringBuilder();
+            return delegate.refineTextStream(inputText, tone)
+                .doOnNext(assembled::append)
+                .doOnComplete(() -> index.put(key, assembled.toString().trim()));
+        });
+    }
+
+    public NearDuplicateStats getStats() {
+        return stats;
+    }
+
+    public NearDuplicateIndex getIndex() {
+        return index;
+    }
+
+    private NearDuplicateIndex.Key key(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty() || inputText.length() > maxInputChars
+                || !promptManager.hasTone(tone)) {
+            return null;
+        }
+        return index.key(promptManager.getProfile(tone).getFingerprint(), inputText);
+    }
+
+    private String lookup(NearDuplicateIndex.Key key, String inputText, String tone, ContextView context) {
+        NearDuplicateIndex.Match match = index.find(key);
+        if (match == null) {
+            stats.recordMiss();
+            return null;
+        }
+        if (match.getOutput() == null) {
+            stats.recordUnsafe();
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        logger.debug("Near-duplicate hit, estimated similarity {}", match.getSimilarity());
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            sample(inputText, tone, match.getOutput(), context);
+        }
+        return match.getOutput();
+    }
+
+    // Under load a hot near duplicate would otherwise fan out one background call per sampled hit
+    private void sample(String inputText, String tone, String reused, ContextView context) {
+        if (samplesInFlight.incrementAndGet() > MAX_SAMPLES_IN_FLIGHT) {
+            samplesInFlight.decrementAndGet();
+            stats.recordSampleSkipped();
+            return;
+        }
+        delegate.refineTextAsync(inputText, tone)
+            .contextWrite(context)
+            .doFinally(signal -> samplesInFlight.decrementAndGet())
+            .subscribe(fresh -> {
+                double similarity = TextSkeleton.similarity(reused, fresh);
+                stats.recordSample(similarity >= sampleMinSimilarity);
+                if (similarity < sampleMinSimilarity) {
+                    logger.info("Sampled near-duplicate hit diverged from a fresh reply (similarity {})",
+                        String.format("%.2f", similarity));
+                }
+            }, error -> logger.debug("Near-duplicate sample failed: {}", error.getMessage()));
+    }
+}
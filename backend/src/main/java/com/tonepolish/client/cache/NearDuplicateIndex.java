@@ -0,0 +1,306 @@
+package com.tonepolish.client.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-process MinHash/LSH index over previously refined inputs. Each input's skeleton gets a MinHash
+ * signature of {@code bands * rows} values (one-permutation hashing, one pass over the shingles); inputs whose signatures agree on every row of some band
+ * land in the same bucket. A candidate is only reused when its skeleton is identical to the input's
+ * apart from the variables: one changed word can reverse a message ("we can" / "we cannot") while
+ * barely moving the similarity, so a candidate that only reaches the threshold is reported as found
+ * but unsafe. The reused reply has the old input's variables (ticket numbers, names, ...) swapped
+ * for the new ones, and a match is refused when that swap would be ambiguous.
+ *
+ * Memory is fixed by the capacity: entries live in a ring overwritten oldest first, and each band
+ * is a table of small buckets holding the latest few entries that hashed there, so a bucket shared
+ * by many inputs (common phrasing) forgets older ones rather than growing. Each bucket way keeps a
+ * tag of the band's hash next to the entry reference, so only true band matches are dereferenced. Stored signatures keep
+ * the low 8 bits of each value, which inflates the similarity estimate by 1/256 of the dissimilar
+ * part; a lookup is a few dozen table probes and byte comparisons.
+ */
+public class NearDuplicateIndex {
+
+    private static final int WAYS = 4;
+
+    private final int bands;
+    private final int rows;
+    private final int capacity;
+    private final int minMatches;
+    private final int mask;
+    private final long[][] tables;
+    private final AtomicReferenceArray<Entry> entries;
+    private long cursor;
+
+    public NearDuplicateIndex(int capacity, int bands, int rows, double threshold) {
+        if (capacity < 1 || bands < 1 || rows < 1) {
+            throw new IllegalArgumentException("Capacity, bands and rows must be positive");
+        }
+        if (threshold <= 0.0 || threshold > 1.0) {
+            throw new IllegalArgumentException("Similarity threshold must be in (0, 1]");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.capacity = capacity;
+        this.minMatches = (int) Math.ceil(threshold * bands * rows);
+        // About one bucket way per entry per band
+        int buckets = Math.max(1, Integer.highestOneBit(Math.max(1, capacity - 1)) >> 1);
+        this.mask = buckets - 1;
+        this.tables = new long[bands][buckets * WAYS];
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    // Returns null when the text has nothing to index (no words)
+    public Key key(String fingerprint, String text) {
+        TextSkeleton skeleton = TextSkeleton.of(text);
+        long[] shingles = skeleton.shingleHashes();
+        if (shingles.length == 0) {
+            return null;
+        }
+        int[] signature = signature(shingles, bands * rows);
+        int[] buckets = new int[bands];
+        int[] tags = new int[bands];
+        long seed = fingerprint.hashCode();
+        for (int band = 0; band < bands; band++) {
+            long hash = seed * 31 + band;
+            for (int row = band * rows; row < (band + 1) * rows; row++) {
+                hash = hash * 0x9E3779B97F4A7C15L + signature[row];
+            }
+            long mixed = TextSkeleton.mix(hash);
+            buckets[band] = ((int) mixed & mask) * WAYS;
+            tags[band] = (int) (mixed >>> 32);
+        }
+        return new Key(fingerprint, skeleton.hash(), signature, buckets, tags, skeleton.getVariables());
+    }
+
+    // One-permutation MinHash: each shingle's hash picks a bin and competes only for that bin's
+    // minimum, so the cost is one pass over the shingles rather than one per hash function. Empty
+    // bins borrow from the next filled bin to the right, offset by the distance (densification).
+    static int[] signature(long[] shingles, int size) {
+        int[] bins = new int[size];
+        Arrays.fill(bins, Integer.MAX_VALUE);
+        boolean[] filled = new boolean[size];
+        for (long shingle : shingles) {
+            int bin = (int) (((shingle >>> 32) * size) >>> 32);
+            bins[bin] = Math.min(bins[bin], (int) shingle);
+            filled[bin] = true;
+        }
+        int[] signature = bins.clone();
+        for (int i = 0; i < size; i++) {
+            if (filled[i]) {
+                continue;
+            }
+            int distance = 1;
+            int source = (i + 1) % size;
+            while (!filled[source]) {
+                source = (source + 1) % size;
+                distance++;
+            }
+            signature[i] = bins[source] + distance * 0x9E3779B9;
+        }
+        return signature;
+    }
+
+    // Null on a miss; a match whose output is null was found but can't be reused safely
+    public Match find(Key key) {
+        Entry best = null;
+        int bestMatches = -1;
+        for (int band = 0; band < bands; band++) {
+            long[] table = tables[band];
+            for (int way = key.buckets[band]; way < key.buckets[band] + WAYS; way++) {
+                if ((int) (table[way] >>> 32) != key.tags[band]) {
+                    continue;
+                }
+                Entry entry = entryAt((int) table[way]);
+                if (entry == null || entry == best || !entry.fingerprint.equals(key.fingerprint)
+                        || entry.variables.length != key.variables.length) {
+                    continue;
+                }
+                int matches = 0;
+                for (int i = 0; i < entry.signature.length; i++) {
+                    if (entry.signature[i] == (byte) key.signature[i]) {
+                        matches++;
+                    }
+                }
+                if (matches < minMatches) {
+                    continue;
+                }
+                if (entry.skeletonHash == key.skeletonHash) {
+                    String output = substitute(entry.output, entry.variables, key.variables);
+                    return new Match(output, (double) matches / key.signature.length);
+                }
+                if (matches > bestMatches) {
+                    best = entry;
+                    bestMatches = matches;
+                }
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        // Similar, but worded differently somewhere
+        return new Match(null, (double) bestMatches / key.signature.length);
+    }
+
+    public synchronized void put(Key key, String output) {
+        long sequence = cursor++;
+        byte[] signature = new byte[key.signature.length];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = (byte) key.signature[i];
+        }
+        entries.set((int) (sequence % capacity),
+            new Entry(sequence, key.fingerprint, key.skeletonHash, signature, key.variables, output));
+        int reference = (int) sequence + 1;
+        for (int band = 0; band < bands; band++) {
+            long[] table = tables[band];
+            // Take an empty or overwritten way, otherwise evict the oldest reference
+            int victim = key.buckets[band];
+            for (int way = key.buckets[band]; way < key.buckets[band] + WAYS; way++) {
+                if (entryAt((int) table[way]) == null) {
+                    victim = way;
+                    break;
+                }
+                if ((int) table[way] - (int) table[victim] < 0) {
+                    victim = way;
+                }
+            }
+            table[victim] = (long) key.tags[band] << 32 | (reference & 0xFFFFFFFFL);
+        }
+    }
+
+    // Table cells hold the entry's sequence number plus one; a reused ring slot makes old cells stale
+    private Entry entryAt(int reference) {
+        if (reference == 0) {
+            return null;
+        }
+        long sequence = Integer.toUnsignedLong(reference - 1);
+        Entry entry = entries.get((int) (sequence % capacity));
+        return entry != null && (int) entry.sequence == reference - 1 ? entry : null;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(cursor, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Swaps each old variable for the new one wherever it stands as a whole token in the reply; null
+    // when one old value would have to become two different new values, or when the reply holds a
+    // value a different number of times than the old input did, so some occurrence wasn't the variable
+    // ("ticket 2" answered with "within 2 days")
+    static String substitute(String output, String[] from, String[] to) {
+        Map<String, String> replacements = new HashMap<>();
+        Map<String, Integer> inputCounts = new HashMap<>();
+        boolean changed = false;
+        for (int i = 0; i < from.length; i++) {
+            String previous = replacements.putIfAbsent(from[i], to[i]);
+            if (previous != null && !previous.equals(to[i])) {
+                return null;
+            }
+            inputCounts.merge(from[i], 1, Integer::sum);
+            changed |= !from[i].equals(to[i]);
+        }
+        if (!changed) {
+            return output;
+        }
+        replacements.entrySet().removeIf(replacement -> replacement.getKey().equals(replacement.getValue()));
+        for (String old : replacements.keySet()) {
+            int outputCount = countTokens(output, old);
+            if (outputCount != 0 && outputCount != inputCounts.get(old)) {
+                return null;
+            }
+        }
+        StringBuilder rewritten = new StringBuilder(output.length() + 16);
+        int i = 0;
+        outer:
+        while (i < output.length()) {
+            if (i == 0 || !Character.isLetterOrDigit(output.charAt(i - 1))) {
+                for (Map.Entry<String, String> replacement : replacements.entrySet()) {
+                    String old = replacement.getKey();
+                    int end = i + old.length();
+                    if (output.startsWith(old, i)
+                            && (end == output.length() || !Character.isLetterOrDigit(output.charAt(end)))) {
+                        rewritten.append(replacement.getValue());
+                        i = end;
+                        continue outer;
+                    }
+                }
+            }
+            rewritten.append(output.charAt(i++));
+        }
+        return rewritten.toString();
+    }
+
+    private static int countTokens(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + 1)) {
+            int end = i + token.length();
+            if ((i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))
+                    && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static final class Key {
+        private final String fingerprint;
+        private final long skeletonHash;
+        private final int[] signature;
+        private final int[] buckets;
+        private final int[] tags;
+        private final String[] variables;
+
+        private Key(String fingerprint, long skeletonHash, int[] signature, int[] buckets, int[] tags,
+                    String[] variables) {
+            this.fingerprint = fingerprint;
+            this.skeletonHash = skeletonHash;
+            this.signature = signature;
+            this.buckets = buckets;
+            this.tags = tags;
+            this.variables = variables;
+        }
+    }
+
+    public static final class Match {
+        private final String output;
+        private final double similarity;
+
+        private Match(String output, double similarity) {
+            this.output = output;
+            this.similarity = similarity;
+        }
+
+        // Null when the wording differs or the swap of variables was ambiguous, so the reply can't be reused
+        public String getOutput() {
+            return output;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final String fingerprint;
+        private final long skeletonHash;
+        private final byte[] signature;
+        private final String[] variables;
+        private final String output;
+
+        private Entry(long sequence, String fingerprint, long skeletonHash, byte[] signature, String[] variables,
+                      String output) {
+            this.sequence = sequence;
+            this.fingerprint = fingerprint;
+            this.skeletonHash = skeletonHash;
+            this.signature = signature;
+            this.variables = variables;
+            this.output = output;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.tonepolish.client.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class NearDuplicateStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder unsafe = new LongAdder();
+    private final LongAdder samplesAgreed = new LongAdder();
+    private final LongAdder samplesDiverged = new LongAdder();
+    private final LongAdder samplesSkipped = new LongAdder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordUnsafe() {
+        unsafe.increment();
+    }
+
+    void recordSample(boolean agreed) {
+        (agreed ? samplesAgreed : samplesDiverged).increment();
+    }
+
+    void recordSampleSkipped() {
+        samplesSkipped.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Near duplicates found whose variables could not be swapped unambiguously; counted as misses too
+    public long getUnsafe() {
+        return unsafe.sum();
+    }
+
+    public long getSamplesAgreed() {
+        return samplesAgreed.sum();
+    }
+
+    public long getSamplesDiverged() {
+        return samplesDiverged.sum();
+    }
+
+    // Hits picked for sampling while the cap on samples in flight was reached
+    public long getSamplesSkipped() {
+        return samplesSkipped.sum();
+    }
+
+    public double getHitRate() {
+        long lookups = hits.sum() + misses.sum();
+        return lookups == 0 ? 0.0 : (double) hits.sum() / lookups;
+    }
+
+    // Share of sampled hits where a fresh upstream reply did not resemble the reused one
+    public double getFalsePositiveRate() {
+        long samples = samplesAgreed.sum() + samplesDiverged.sum();
+        return samples == 0 ? 0.0 : (double) samplesDiverged.sum() / samples;
+    }
+}
@@ -0,0 +1,68 @@
+package com.tonepolish.client.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class RefineCacheKey {
+
+    private RefineCacheKey() {
+    }
+
+    // Hashing keeps keys small even though the system prompt is several hundred characters
+    public static String of(String inputText, String systemPrompt, String model) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(systemPrompt.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(normalize(inputText).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Trims and collapses whitespace runs so pasted variants of the same phrase share an entry
+    static String normalize(String inputText) {
+        if (isNormalized(inputText)) {
+            return inputText;
+        }
+        StringBuilder normalized = new StringBuilder(inputText.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < inputText.length(); i++) {
+            char c = inputText.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    // Preprocessed input is usually in this form already, which saves the copy
+    private static boolean isNormalized(String inputText) {
+        boolean previousSpace = true;
+        for (int i = 0; i < inputText.length(); i++) {
+            char c = inputText.charAt(i);
+            if (c == ' ') {
+                if (previousSpace) {
+                    return false;
+                }
+                previousSpace = true;
+            } else if (Character.isWhitespace(c)) {
+                return false;
+            } else {
+                previousSpace = false;
+            }
+        }
+        return !previousSpace || inputText.isEmpty();
+    }
+}
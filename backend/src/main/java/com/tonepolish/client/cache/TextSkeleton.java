@@ -0,0 +1,177 @@
+package com.tonepolish.client.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A message reduced to what decides its rewrite: lower-cased words without punctuation, with the
+ * volatile tokens (anything containing a digit, e-mail addresses, URLs, and a capitalised name
+ * right after a greeting) cut out as variables. "Sorry about ticket #4411, Dana!" and "sorry about
+ * ticket 4412 dana" share a skeleton and differ only in their variables.
+ */
+final class TextSkeleton {
+
+    static final int SHINGLE_LENGTH = 4;
+
+    private static final char VARIABLE = '\u0000';
+    private static final char[][] GREETINGS = {
+        "hi".toCharArray(), "hello".toCharArray(), "hey".toCharArray(),
+        "dear".toCharArray(), "thanks".toCharArray(), "thank".toCharArray()
+    };
+    private static final String[] NO_VARIABLES = new String[0];
+
+    // Built straight into a char buffer; most lookups only ever hash it
+    private final char[] skeleton;
+    private final int length;
+    private final String[] variables;
+
+    private TextSkeleton(char[] skeleton, int length, String[] variables) {
+        this.skeleton = skeleton;
+        this.length = length;
+        this.variables = variables;
+    }
+
+    static TextSkeleton of(String text) {
+        char[] skeleton = new char[text.length()];
+        int length = 0;
+        List<String> variables = null;
+        boolean afterGreeting = false;
+        int i = 0;
+        while (i < text.length()) {
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < text.length() && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            // Surrounding punctuation never matters; "#4411," is the variable 4411
+            int end = i;
+            while (start < end && !Character.isLetterOrDigit(text.charAt(start))) {
+                start++;
+            }
+            while (end > start && !Character.isLetterOrDigit(text.charAt(end - 1))) {
+                end--;
+            }
+            if (start == end) {
+                continue;
+            }
+            if (length > 0) {
+                skeleton[length++] = ' ';
+            }
+            if (isVolatile(text, start, end) || (afterGreeting && Character.isUpperCase(text.charAt(start)))) {
+                if (variables == null) {
+                    variables = new ArrayList<>(2);
+                }
+                variables.add(text.substring(start, end));
+                skeleton[length++] = VARIABLE;
+                afterGreeting = false;
+            } else {
+                int wordStart = length;
+                for (int j = start; j < end; j++) {
+                    char c = text.charAt(j);
+                    if (Character.isLetterOrDigit(c)) {
+                        skeleton[length++] = Character.toLowerCase(c);
+                    }
+                }
+                afterGreeting = isGreeting(skeleton, wordStart, length);
+            }
+        }
+        return new TextSkeleton(skeleton, length, variables == null ? NO_VARIABLES : variables.toArray(NO_VARIABLES));
+    }
+
+    String getSkeleton() {
+        return new String(skeleton, 0, length);
+    }
+
+    String[] getVariables() {
+        return variables;
+    }
+
+    // FNV-1a over the whole skeleton; equal hashes mean the same wording with variables in the same places
+    long hash() {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ skeleton[i]) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // 64-bit hashes of the overlapping character shingles; a skeleton shorter than one shingle is one shingle
+    long[] shingleHashes() {
+        if (length == 0) {
+            return new long[0];
+        }
+        int count = Math.max(1, length - SHINGLE_LENGTH + 1);
+        long[] hashes = new long[count];
+        int width = Math.min(SHINGLE_LENGTH, length);
+        for (int i = 0; i < count; i++) {
+            long hash = 0;
+            for (int j = i; j < i + width; j++) {
+                hash = hash * 31 + skeleton[j];
+            }
+            hashes[i] = mix(hash);
+        }
+        return hashes;
+    }
+
+    // Exact Jaccard similarity of two texts' shingle sets, for the occasional sampled comparison
+    static double similarity(String a, String b) {
+        Set<Long> first = new HashSet<>();
+        for (long hash : of(a).shingleHashes()) {
+            first.add(hash);
+        }
+        Set<Long> second = new HashSet<>();
+        for (long hash : of(b).shingleHashes()) {
+            second.add(hash);
+        }
+        if (first.isEmpty() && second.isEmpty()) {
+            return 1.0;
+        }
+        int union = first.size();
+        int intersection = 0;
+        for (Long hash : second) {
+            if (first.contains(hash)) {
+                intersection++;
+            } else {
+                union++;
+            }
+        }
+        return (double) intersection / union;
+    }
+
+    // Murmur3 finalizer
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static boolean isGreeting(char[] skeleton, int start, int end) {
+        for (char[] greeting : GREETINGS) {
+            if (greeting.length == end - start && Arrays.equals(greeting, 0, greeting.length, skeleton, start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isVolatile(String text, int start, int end) {
+        if (text.startsWith("http", start) || text.startsWith("www.", start)) {
+            return true;
+        }
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '@' || Character.isDigit(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package com.tonepolish.client.cluster;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class ClusterCacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder awaited = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordComputed() {
+        computed.increment();
+    }
+
+    void recordAwaited() {
+        awaited.increment();
+    }
+
+    void recordFallback() {
+        fallbacks.increment();
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    // Found in the shared cache straight away
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // Refined upstream by this node as the key's owner
+    public long getComputed() {
+        return computed.sum();
+    }
+
+    // Served from another node's computation after waiting for it
+    public long getAwaited() {
+        return awaited.sum();
+    }
+
+    // Refined upstream without a claim because the owner did not finish within its lease
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    // Shared cache operations that failed; each is treated as a miss
+    public long getErrors() {
+        return errors.sum();
+    }
+}
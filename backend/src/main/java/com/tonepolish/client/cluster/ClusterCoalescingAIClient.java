@@ -0,0 +1,184 @@
+package com.tonepolish.client.cluster;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.cache.RefineCacheKey;
+import com.tonepolish.client.prompt.PromptManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces identical refinements across replicas through a {@link SharedRefineCache}. A miss
+ * claims the key: the replica that gets the claim calls upstream and publishes the result, and
+ * the others poll the shared cache (backing off from 10ms to max-poll) until it appears. If the
+ * owner fails, its claim is released and the next poller takes over; if it goes silent, pollers
+ * call upstream themselves once the lease has passed. Cache errors count as misses, so an
+ * unreachable store degrades to per-replica behaviour rather than failing requests.
+ */
+public class ClusterCoalescingAIClient implements AIClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCoalescingAIClient.class);
+
+    private static final Duration MIN_POLL = Duration.ofMillis(10);
+
+    private final AIClient delegate;
+    private final PromptManager promptManager;
+    private final String model;
+    private final SharedRefineCache cache;
+    private final String nodeId;
+    private final Duration lease;
+    private final Duration ttl;
+    private final Duration maxPoll;
+    private final AtomicLong claimSequence = new AtomicLong();
+    private final ClusterCacheStats stats = new ClusterCacheStats();
+
+    public ClusterCoalescingAIClient(AIClient delegate, PromptManager promptManager, String model,
+                                     SharedRefineCache cache, String nodeId,
+                                     Duration lease, Duration ttl, Duration maxPoll) {
+        this.delegate = delegate;
+        this.promptManager = promptManager;
+        this.model = model;
+        this.cache = cache;
+        this.nodeId = nodeId;
+        this.lease = lease;
+        this.ttl = ttl;
+        this.maxPoll = maxPoll;
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty() || !promptManager.hasTone(tone)) {
+            return delegate.refineTextAsync(inputText, tone);
+        }
+        String key = RefineCacheKey.of(inputText, promptManager.getProfile(tone).getFingerprint(), model);
+        return Mono.defer(() -> {
+            // Unique per call, so releasing never drops a claim another request on this node holds
+            String owner = nodeId + ":" + claimSequence.incrementAndGet();
+            return lookup(key, owner, inputText, tone, System.nanoTime() + lease.toNanos(), 0);
+        });
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    // Streams aren't coalesced, since waiting for a peer would hold back the first token; results are still shared
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty() || !promptManager.hasTone(tone)) {
+            return delegate.refineTextStream(inputText, tone);
+        }
+        String key = RefineCacheKey.of(inputText, promptManager.getProfile(tone).getFingerprint(), model);
+        return safeGet(key)
+            .doOnNext(hit -> stats.recordHit())
+            .flux()
+            .switchIfEmpty(Flux.defer(() -> {
+                StringBuilder assembled = new StringBuilder();
+                return delegate.refineTextStream(inputText, tone)
+                    .doOnNext(assembled::append)
+                    .doOnComplete(() -> publish(key, assembled.toString().trim(), null));
+            }));
+    }
+
+    public ClusterCacheStats getStats() {
+        return stats;
+    }
+
+    private Mono<String> lookup(String key, String owner, String inputText, String tone, long deadline, int attempt) {
+        return safeGet(key)
+            .doOnNext(hit -> {
+                if (attempt == 0) {
+                    stats.recordHit();
+                } else {
+                    stats.recordAwaited();
+                }
+            })
+            .switchIfEmpty(Mono.defer(() -> safeClaim(key, owner).flatMap(claimed -> {
+                if (claimed) {
+                    // The previous owner may have published and released between our lookup and claim
+                    return safeGet(key)
+                        .doOnNext(published -> {
+                            stats.recordAwaited();
+                            release(key, owner);
+                        })
+                        .switchIfEmpty(Mono.defer(() -> compute(key, owner, inputText, tone)));
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    logger.debug("Gave up waiting for the owner of a shared refinement, calling upstream");
+                    stats.recordFallback();
+                    return delegate.refineTextAsync(inputText, tone);
+                }
+                return Mono.delay(pollInterval(attempt))
+                    .then(Mono.defer(() -> lookup(key, owner, inputText, tone, deadline, attempt + 1)));
+            })));
+    }
+
+    private Mono<String> compute(String key, String owner, String inputText, String tone) {
+        stats.recordComputed();
+        return delegate.refineTextAsync(inputText, tone)
+            .doOnNext(refined -> publish(key, refined, owner))
+            .doOnError(error -> release(key, owner))
+            .doOnCancel(() -> release(key, owner));
+    }
+
+    // The value goes in before the claim comes out, so waiters never see neither
+    private void publish(String key, String value, String owner) {
+        Mono<Void> write = cache.put(key, value, ttl);
+        if (owner != null) {
+            write = write.then(cache.release(key, owner));
+        }
+        write.subscribe(null, error -> {
+            stats.recordError();
+            logger.debug("Failed to publish shared refinement: {}", error.getMessage());
+        });
+    }
+
+    private void release(String key, String owner) {
+        cache.release(key, owner).subscribe(null, error -> {
+            stats.recordError();
+            logger.debug("Failed to release shared refinement claim: {}", error.getMessage());
+        });
+    }
+
+    private Mono<String> safeGet(String key) {
+        return cache.get(key).onErrorResume(error -> {
+            stats.recordError();
+            logger.debug("Shared cache lookup failed: {}", error.getMessage());
+            return Mono.empty();
+        });
+    }
+
+    // Without a reachable store nobody can arbitrate, so every node acts as the owner
+    private Mono<Boolean> safeClaim(String key, String owner) {
+        return cache.claim(key, owner, lease).onErrorResume(error -> {
+            stats.recordError();
+            logger.debug("Shared cache claim failed: {}", error.getMessage());
+            return Mono.just(true);
+        });
+    }
+
+    private Duration pollInterval(int attempt) {
+        long millis = MIN_POLL.toMillis() << Math.min(attempt, 10);
+        return Duration.ofMillis(Math.min(millis, maxPoll.toMillis()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.tonepolish.client.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps keys to nodes so that adding or removing a node only moves the keys on its arcs of the
+ * ring. Each node is placed at many points (virtual nodes) to even out the share each one gets.
+ */
+public class ConsistentHashRing<T> {
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        for (Map.Entry<String, T> node : nodes.entrySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node.getKey() + "#" + i), node.getValue());
+            }
+        }
+    }
+
+    public T nodeFor(String key) {
+        Map.Entry<Long, T> owner = ring.ceilingEntry(hash(key));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    public Collection<T> getNodes() {
+        return ring.values().stream().distinct().toList();
+    }
+
+    // FNV-1a followed by the Murmur3 finalizer, which spreads nearby names like "node#1" and "node#2"
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,67 @@
+package com.tonepolish.client.cluster;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-process store: coordinates the clients of one JVM only, for single-replica deployments and tests
+public class EmbeddedSharedRefineCache implements SharedRefineCache {
+
+    private final Cache<String, Entry> values;
+    private final Map<String, Entry> claims = new ConcurrentHashMap<>();
+
+    public EmbeddedSharedRefineCache(long maxEntries) {
+        this.values = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    @Override
+    public Mono<String> get(String key) {
+        return Mono.fromSupplier(() -> {
+            Entry entry = values.getIfPresent(key);
+            if (entry == null || entry.isExpired()) {
+                return null;
+            }
+            return entry.value;
+        });
+    }
+
+    @Override
+    public Mono<Boolean> claim(String key, String owner, Duration lease) {
+        return Mono.fromSupplier(() -> {
+            Entry claim = new Entry(owner, lease);
+            return claims.compute(key, (k, held) -> held == null || held.isExpired() ? claim : held) == claim;
+        });
+    }
+
+    @Override
+    public Mono<Void> put(String key, String value, Duration ttl) {
+        return Mono.fromRunnable(() -> values.put(key, new Entry(value, ttl)));
+    }
+
+    @Override
+    public Mono<Void> release(String key, String owner) {
+        return Mono.fromRunnable(() -> claims.computeIfPresent(key, (k, held) -> held.value.equals(owner) ? null : held));
+    }
+
+    public long size() {
+        return values.estimatedSize();
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final long expiresAtNanos;
+
+        private Entry(String value, Duration ttl) {
+            this.value = value;
+            this.expiresAtNanos = System.nanoTime() + ttl.toNanos();
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tonepolish.client.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+// One blocking connection speaking the Redis serialization protocol (RESP2); not thread-safe
+final class RespConnection implements Closeable {
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+
+    RespConnection(InetSocketAddress address, Duration timeout) throws IOException {
+        this.socket = new Socket();
+        socket.connect(address, (int) timeout.toMillis());
+        socket.setSoTimeout((int) timeout.toMillis());
+        socket.setTcpNoDelay(true);
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    // Bulk and simple strings come back as String, integers as Long, nil as null
+    Object command(String... args) throws IOException {
+        out.write(('*' + Integer.toString(args.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (String arg : args) {
+            byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+            out.write(('$' + Integer.toString(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.write('\r');
+            out.write('\n');
+        }
+        out.flush();
+        return readReply();
+    }
+
+    private Object readReply() throws IOException {
+        int type = in.read();
+        String line = readLine();
+        switch (type) {
+            case '+':
+                return line;
+            case '-':
+                throw new IOException("RESP error: " + line);
+            case ':':
+                return Long.parseLong(line);
+            case '$': {
+                int length = Integer.parseInt(line);
+                if (length < 0) {
+                    return null;
+                }
+                byte[] bytes = in.readNBytes(length + 2);
+                if (bytes.length < length + 2) {
+                    throw new EOFException("Connection closed mid-reply");
+                }
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            case -1:
+                throw new EOFException("Connection closed");
+            default:
+                throw new IOException("Unsupported RESP reply type '" + (char) type + "'");
+        }
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(16);
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new EOFException("Connection closed");
+            }
+            line.write(c);
+        }
+        in.read();
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,155 @@
+package com.tonepolish.client.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Shared cache on one or more Redis-compatible servers. Each key's value and claim live on the
+ * node the key hashes to on a {@link ConsistentHashRing}, so that node alone arbitrates who
+ * computes it, and adding a node only remaps a share of the keys. Claims are SET NX PX, so a
+ * crashed owner's claim lapses with its lease. Releasing is a GET followed by DEL, which can drop a
+ * claim taken over by another node in between; that only costs a duplicate upstream call.
+ */
+public class RespSharedRefineCache implements SharedRefineCache, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RespSharedRefineCache.class);
+
+    private static final String VALUE_PREFIX = "tonepolish:refine:";
+    private static final String CLAIM_PREFIX = "tonepolish:claim:";
+    private static final int VIRTUAL_NODES = 160;
+
+    private final ConsistentHashRing<Node> ring;
+    private final Duration timeout;
+
+    public RespSharedRefineCache(List<InetSocketAddress> addresses, Duration timeout, int maxIdlePerNode) {
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        for (InetSocketAddress address : addresses) {
+            nodes.put(address.getHostString() + ":" + address.getPort(), new Node(address, maxIdlePerNode));
+        }
+        this.ring = new ConsistentHashRing<>(nodes, VIRTUAL_NODES);
+        this.timeout = timeout;
+    }
+
+    // host:port pairs separated by commas, e.g. "cache-0:6379,cache-1:6379"
+    public static List<InetSocketAddress> parseNodes(String nodes) {
+        return Arrays.stream(nodes.split(","))
+            .map(String::trim)
+            .filter(node -> !node.isEmpty())
+            .map(node -> {
+                int colon = node.lastIndexOf(':');
+                if (colon < 0) {
+                    return InetSocketAddress.createUnresolved(node, 6379);
+                }
+                return InetSocketAddress.createUnresolved(node.substring(0, colon),
+                    Integer.parseInt(node.substring(colon + 1)));
+            })
+            .toList();
+    }
+
+    @Override
+    public Mono<String> get(String key) {
+        return call(key, connection -> (String) connection.command("GET", VALUE_PREFIX + key));
+    }
+
+    @Override
+    public Mono<Boolean> claim(String key, String owner, Duration lease) {
+        return call(key, connection -> "OK".equals(connection.command("SET", CLAIM_PREFIX + key, owner,
+            "NX", "PX", Long.toString(lease.toMillis()))));
+    }
+
+    @Override
+    public Mono<Void> put(String key, String value, Duration ttl) {
+        return call(key, connection -> connection.command("SET", VALUE_PREFIX + key, value,
+            "PX", Long.toString(ttl.toMillis()))).then();
+    }
+
+    @Override
+    public Mono<Void> release(String key, String owner) {
+        return call(key, connection -> {
+            if (owner.equals(connection.command("GET", CLAIM_PREFIX + key))) {
+                connection.command("DEL", CLAIM_PREFIX + key);
+            }
+            return Boolean.TRUE;
+        }).then();
+    }
+
+    @Override
+    public void close() {
+        for (Node node : ring.getNodes()) {
+            node.close();
+        }
+    }
+
+    // Socket I/O blocks, so it runs on the bounded elastic pool rather than the caller's event loop
+    private <T> Mono<T> call(String key, Command<T> command) {
+        Node node = ring.nodeFor(key);
+        return Mono.fromCallable(() -> node.execute(command, timeout))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @FunctionalInterface
+    private interface Command<T> {
+        T run(RespConnection connection) throws IOException;
+    }
+
+    private static final class Node {
+        private final InetSocketAddress address;
+        private final BlockingQueue<RespConnection> idle;
+
+        private Node(InetSocketAddress address, int maxIdle) {
+            this.address = address;
+            this.idle = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+        }
+
+        private <T> T execute(Command<T> command, Duration timeout) throws IOException {
+            RespConnection connection = idle.poll();
+            if (connection == null) {
+                connection = new RespConnection(resolved(), timeout);
+            }
+            try {
+                T result = command.run(connection);
+                if (!idle.offer(connection)) {
+                    connection.close();
+                }
+                return result;
+            } catch (IOException | RuntimeException e) {
+                // The connection may hold half a reply; never hand it out again
+                closeQuietly(connection);
+                throw e;
+            }
+        }
+
+        // Resolved per connection so a cache node that moves to a new address is followed
+        private InetSocketAddress resolved() {
+            return new InetSocketAddress(address.getHostString(), address.getPort());
+        }
+
+        private void close() {
+            RespConnection connection;
+            while ((connection = idle.poll()) != null) {
+                closeQuietly(connection);
+            }
+        }
+
+        private static void closeQuietly(RespConnection connection) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close cache connection: {}", e.getMessage());
+            }
+        }
+    }
+}
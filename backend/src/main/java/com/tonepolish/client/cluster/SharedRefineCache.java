@@ -0,0 +1,25 @@
+package com.tonepolish.client.cluster;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Refined texts shared by every replica, plus short-lived claims that let one replica compute a
+ * key while the others wait for its result. Keys are {@link com.tonepolish.client.cache.RefineCacheKey}
+ * hashes. Operations signal errors when the store is unreachable; {@link ClusterCoalescingAIClient}
+ * treats that as a miss so an outage costs upstream calls rather than failed requests.
+ */
+public interface SharedRefineCache {
+
+    // Empty when nothing is stored under the key
+    Mono<String> get(String key);
+
+    // True if the caller now owns the key's computation, until it releases the claim or the lease runs out
+    Mono<Boolean> claim(String key, String owner, Duration lease);
+
+    Mono<Void> put(String key, String value, Duration ttl);
+
+    // Drops the claim if the owner still holds it
+    Mono<Void> release(String key, String owner);
+}
@@ -0,0 +1,31 @@
+package com.tonepolish.client.codec;
+
+// Reply content plus the token counts from the response's usage block, -1 where the provider omitted them
+public class ChatCompletion {
+
+    private final String content;
+    private final int promptTokens;
+    private final int completionTokens;
+
+    public ChatCompletion(String content, int promptTokens, int completionTokens) {
+        this.content = content;
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+
+    public int getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public boolean hasUsage() {
+        return promptTokens >= 0 && completionTokens >= 0;
+    }
+}
@@ -0,0 +1,185 @@
+package com.tonepolish.client.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.tonepolish.client.exception.AIClientException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.web.reactive.function.BodyInserter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes chat completion requests and reads their replies without intermediate Strings or DTOs.
+ * Everything up to the user message (model, system prompt) is serialized once per system prompt
+ * and copied as bytes; only the user text is escaped per request, straight into the connection's
+ * pooled buffer. Replies are fed buffer by buffer to a non-blocking parser that keeps only
+ * {@code choices[0].message.content} and the token counts under {@code usage}.
+ */
+public class ChatCompletionCodec {
+
+    private static final String CONTENT_POINTER = "/choices/0/message/content";
+    private static final String PROMPT_TOKENS_POINTER = "/usage/prompt_tokens";
+    private static final String COMPLETION_TOKENS_POINTER = "/usage/completion_tokens";
+    private static final String DELTA_POINTER = "/choices/0/delta/content";
+    private static final String ERROR_MESSAGE_POINTER = "/error/message";
+    private static final byte[] CONTENT_FIELD = ",\"content\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "}]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] STREAM_SUFFIX = "}],\"stream\":true}".getBytes(StandardCharsets.UTF_8);
+    // System prompts come from a small fixed set; anything beyond this is encoded without caching
+    private static final int MAX_CACHED_PREFIXES = 64;
+
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .disable(StreamWriteFeature.AUTO_CLOSE_CONTENT)
+        .build();
+    private final String model;
+    private final Map<String, byte[]> prefixes = new ConcurrentHashMap<>();
+
+    public ChatCompletionCodec(String model) {
+        this.model = model;
+    }
+
+    public BodyInserter<DataBuffer, ReactiveHttpOutputMessage> body(String systemPrompt, String userContent,
+                                                                    boolean stream) {
+        // Encoded per write, so a retried attempt gets a fresh buffer after the previous one was released
+        return (message, context) -> message.writeWith(
+            Mono.fromSupplier(() -> encode(message.bufferFactory(), systemPrompt, userContent, stream)));
+    }
+
+    public DataBuffer encode(DataBufferFactory bufferFactory, String systemPrompt, String userContent, boolean stream) {
+        byte[] prefix = prefixFor(systemPrompt);
+        byte[] suffix = stream ? STREAM_SUFFIX : SUFFIX;
+        // Sized for ASCII input; the buffer grows for multi-byte or escaped characters
+        DataBuffer buffer = bufferFactory.allocateBuffer(prefix.length + userContent.length() + 2 + suffix.length);
+        boolean release = true;
+        try {
+            buffer.write(prefix);
+            try (JsonGenerator generator = jsonFactory.createGenerator(buffer.asOutputStream())) {
+                generator.writeString(userContent);
+            }
+            buffer.write(suffix);
+            release = false;
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (release) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
+    public Mono<String> decodeContent(Flux<DataBuffer> body) {
+        return decodeCompletion(body).map(ChatCompletion::getContent);
+    }
+
+    // Releases every buffer as soon as it has been fed to the parser
+    public Mono<ChatCompletion> decodeCompletion(Flux<DataBuffer> body) {
+        return Mono.defer(() -> {
+            JsonFieldExtractor extractor = new JsonFieldExtractor(jsonFactory,
+                CONTENT_POINTER, PROMPT_TOKENS_POINTER, COMPLETION_TOKENS_POINTER);
+            return body
+                .doOnNext(buffer -> {
+                    try {
+                        extractor.feed(buffer);
+                    } catch (IOException e) {
+                        throw new AIClientException("Failed to parse AI API response", e);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .then(Mono.fromCallable(() -> {
+                    extractor.finish();
+                    return new ChatCompletion(validContent(extractor.value(0)),
+                        tokenCount(extractor.value(1)), tokenCount(extractor.value(2)));
+                }))
+                .onErrorMap(IOException.class, e -> new AIClientException("Failed to parse AI API response", e))
+                // A cancel may race with a chunk still being fed, so only terminal signals close the parser
+                .doFinally(signal -> {
+                    if (signal != SignalType.CANCEL) {
+                        extractor.close();
+                    }
+                });
+        });
+    }
+
+    // Stream chunks arrive already framed by the SSE reader, so a blocking parser over the String suffices
+    public String decodeDelta(String data) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            int found = JsonFieldExtractor.find(parser, DELTA_POINTER, ERROR_MESSAGE_POINTER);
+            if (found == 1) {
+                // Providers report failures after the 200 status line as an error chunk in the stream
+                throw new AIClientException("AI API stream failed: " + parser.getText());
+            }
+            return found == 0 ? parser.getText() : null;
+        }
+    }
+
+    private static String validContent(String content) {
+        if (content == null) {
+            throw new AIClientException("Empty response from AI API");
+        }
+        if (content.trim().isEmpty()) {
+            throw new AIClientException("Empty content in AI API response");
+        }
+        return content.trim();
+    }
+
+    private static int tokenCount(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private byte[] prefixFor(String systemPrompt) {
+        byte[] prefix = prefixes.get(systemPrompt);
+        if (prefix != null) {
+            return prefix;
+        }
+        prefix = buildPrefix(systemPrompt);
+        if (prefixes.size() < MAX_CACHED_PREFIXES) {
+            prefixes.putIfAbsent(systemPrompt, prefix);
+        }
+        return prefix;
+    }
+
+    // {"model":...,"messages":[{"role":"system","content":...},{"role":"user","content":
+    private byte[] buildPrefix(String systemPrompt) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(systemPrompt.length() + 128);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("model", model);
+            generator.writeArrayFieldStart("messages");
+            generator.writeStartObject();
+            generator.writeStringField("role", "system");
+            generator.writeStringField("content", systemPrompt);
+            generator.writeEndObject();
+            generator.writeStartObject();
+            generator.writeStringField("role", "user");
+            // The generator only emits the separator with the next value, so the field name is written by hand
+            generator.flush();
+            out.write(CONTENT_FIELD);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.tonepolish.client.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.IOException;
+
+// Pulls scalar fields, addressed by JSON pointer, out of a document fed in arbitrary chunks
+class JsonFieldExtractor implements AutoCloseable {
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final String[] pointers;
+    private final String[] fieldNames;
+    private final String[] values;
+
+    JsonFieldExtractor(JsonFactory jsonFactory, String... pointers) {
+        try {
+            this.parser = jsonFactory.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Non-blocking JSON parsing is not available", e);
+        }
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        this.pointers = pointers;
+        this.fieldNames = new String[pointers.length];
+        for (int i = 0; i < pointers.length; i++) {
+            fieldNames[i] = fieldName(pointers[i]);
+        }
+        this.values = new String[pointers.length];
+    }
+
+    // The parser reads the buffer in place, so it must be drained before the buffer is released
+    void feed(DataBuffer buffer) throws IOException {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                feeder.feedInput(iterator.next());
+                drain();
+            }
+        }
+    }
+
+    void finish() throws IOException {
+        feeder.endOfInput();
+        drain();
+    }
+
+    // Value of the field at the given pointer index, or null if the document didn't contain it
+    String value(int index) {
+        return values[index];
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            // A null counts as absent, like a missing field
+            if (!token.isScalarValue() || token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            for (int i = 0; i < pointers.length; i++) {
+                if (values[i] == null && matches(parser, pointers[i], fieldNames[i])) {
+                    values[i] = parser.getText();
+                }
+            }
+        }
+    }
+
+    // Index of the first pointer found holding a string, with the parser left on that value; -1 if none is
+    static int find(JsonParser parser, String... pointers) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token != JsonToken.VALUE_STRING) {
+                continue;
+            }
+            for (int i = 0; i < pointers.length; i++) {
+                if (matches(parser, pointers[i], fieldName(pointers[i]))) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String fieldName(String pointer) {
+        return pointer.substring(pointer.lastIndexOf('/') + 1);
+    }
+
+    // The cheap name check rules out almost every token before the full path is built
+    private static boolean matches(JsonParser parser, String pointer, String fieldName) throws IOException {
+        return fieldName.equals(parser.currentName())
+            && pointer.equals(parser.getParsingContext().pathAsPointer().toString());
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // Nothing is held open beyond the parser's own recycled buffers
+        }
+    }
+}
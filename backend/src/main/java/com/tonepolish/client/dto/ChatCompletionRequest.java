@@ -1,62 +0,0 @@
-package com.tonepolish.client.dto;
-
-import java.util.List;
-
-public class ChatCompletionRequest {
-    private String model;
-    private List<Message> messages;
-
-    public ChatCompletionRequest() {
-    }
-
-    public ChatCompletionRequest(String model, List<Message> messages) {
-        this.model = model;
-        this.messages = messages;
-    }
-
-    public String getModel() {
-        return model;
-    }
-
-    public void setModel(String model) {
-        this.model = model;
-    }
-
-    public List<Message> getMessages() {
-        return messages;
-    }
-
-    public void setMessages(List<Message> messages) {
-        this.messages = messages;
-    }
-
-    public static class Message {
-        private String role;
-        private String content;
-
-        public Message() {
-        }
-
-        public Message(String role, String content) {
-            this.role = role;
-            this.content = content;
-        }
-
-        public String getRole() {
-            return role;
-        }
-
-        public void setRole(String role) {
-            this.role = role;
-        }
-
-        public String getContent() {
-            return content;
-        }
-
-        public void setContent(String content) {
-            this.content = content;
-        }
-    }
-}
-
@@ -0,0 +1,16 @@
+package com.tonepolish.client.exception;
+
+import java.time.Duration;
+
+public class CircuitOpenException extends AIClientException {
+    private final Duration retryAfter;
+
+    public CircuitOpenException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
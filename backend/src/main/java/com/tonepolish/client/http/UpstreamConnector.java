@@ -0,0 +1,145 @@
+package com.tonepolish.client.http;
+
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.Closeable;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * One Reactor Netty connection pool and HTTP client shared by every upstream WebClient, so bursts
+ * reuse warm (and already TLS-handshaken) connections instead of each client keeping its own
+ * default pool. HTTP/2 is offered through ALPN on TLS connections and falls back to HTTP/1.1.
+ * Pool gauges are collected per remote address through the provider's metrics hook.
+ */
+public class UpstreamConnector implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamConnector.class);
+
+    private final ConnectionProvider provider;
+    private final HttpClient httpClient;
+    private final ClientHttpConnector connector;
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+    public UpstreamConnector(String name, int maxConnections, int pendingAcquireMaxCount,
+                             Duration pendingAcquireTimeout, Duration maxIdleTime, Duration maxLifeTime,
+                             Duration evictionInterval, Duration connectTimeout, boolean http2, boolean compress) {
+        this.provider = ConnectionProvider.builder(name)
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMaxCount)
+            .pendingAcquireTimeout(pendingAcquireTimeout)
+            .maxIdleTime(maxIdleTime)
+            .maxLifeTime(maxLifeTime)
+            .evictInBackground(evictionInterval)
+            // Most recently used first, so surplus connections go idle and get evicted after a burst
+            .lifo()
+            .metrics(true, () -> new PoolRegistrar())
+            .build();
+
+        this.httpClient = HttpClient.create(provider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .keepAlive(true)
+            .compress(compress)
+            .protocol(http2
+                ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11}
+                : new HttpProtocol[] {HttpProtocol.HTTP11});
+        this.connector = new ReactorClientHttpConnector(httpClient);
+        logger.info("Upstream connection pool '{}': max {} connections, {} pending acquires, http2={}",
+            name, maxConnections, pendingAcquireMaxCount, http2);
+    }
+
+    public ClientHttpConnector getConnector() {
+        return connector;
+    }
+
+    /**
+     * Loads Netty's event loops, DNS resolver and TLS provider, then opens connections to each
+     * origin with HEAD requests, so the first refines after a cold start skip the connect and TLS
+     * handshake. Failures only mean the first real request pays for them, so they are logged and
+     * otherwise ignored.
+     */
+    public void prewarm(List<URI> origins, int connectionsPerOrigin, Duration timeout) {
+        long start = System.nanoTime();
+        try {
+            httpClient.warmup()
+                .thenMany(Flux.fromIterable(origins)
+                    .flatMap(origin -> Flux.range(0, connectionsPerOrigin)
+                        .flatMap(i -> httpClient.head().uri(origin).responseSingle((response, body) -> body.then())
+                            .onErrorResume(error -> {
+                                logger.debug("Pre-warm request to {} failed: {}", origin, error.toString());
+                                return Mono.empty();
+                            }))))
+                .then()
+                .block(timeout);
+            logger.info("Pre-warmed {} idle upstream connections in {} ms", getIdleConnections(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (RuntimeException e) {
+            logger.warn("Upstream pre-warm did not finish within {} ms: {}", timeout.toMillis(), e.getMessage());
+        }
+    }
+
+    // Connections currently checked out by a request (or carrying streams, for HTTP/2)
+    public int getActiveConnections() {
+        return sum(ConnectionPoolMetrics::acquiredSize);
+    }
+
+    public int getIdleConnections() {
+        return sum(ConnectionPoolMetrics::idleSize);
+    }
+
+    public int getAllocatedConnections() {
+        return sum(ConnectionPoolMetrics::allocatedSize);
+    }
+
+    public int getPendingAcquires() {
+        return sum(ConnectionPoolMetrics::pendingAcquireSize);
+    }
+
+    // Number of remote addresses with a pool, i.e. distinct upstream hosts in use
+    public int getPoolCount() {
+        return pools.size();
+    }
+
+    private int sum(ToIntFunction<ConnectionPoolMetrics> gauge) {
+        int total = 0;
+        for (ConnectionPoolMetrics metrics : pools.values()) {
+            total += gauge.applyAsInt(metrics);
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        provider.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    private class PoolRegistrar implements ConnectionProvider.MeterRegistrar {
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                    ConnectionPoolMetrics metrics) {
+            pools.put(id, metrics);
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            pools.remove(id);
+        }
+    }
+}
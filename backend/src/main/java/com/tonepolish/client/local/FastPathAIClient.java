@@ -0,0 +1,156 @@
+package com.tonepolish.client.local;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Outermost tier: short, neutral messages that only need surface fixes ("thx, ill send it tmrw")
+ * are polished in-process by a {@link LocalRefiner} and never reach the caches or the model.
+ * Anything the refiner is unsure about is escalated. Only the default tone is handled locally,
+ * since the rules know nothing about the other prompts. In shadow mode every request still goes
+ * upstream and the model's reply is compared with what would have been served, for tuning the
+ * threshold before turning the fast path on.
+ */
+public class FastPathAIClient implements AIClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastPathAIClient.class);
+
+    private final AIClient delegate;
+    private final PromptManager promptManager;
+    private final LocalRefiner refiner;
+    private final FastPathMode mode;
+    private final double threshold;
+    private final double shadowMinSimilarity;
+    private final FastPathStats stats = new FastPathStats();
+
+    public FastPathAIClient(AIClient delegate, PromptManager promptManager, LocalRefiner refiner,
+                            FastPathMode mode, double threshold, double shadowMinSimilarity) {
+        this.delegate = delegate;
+        this.promptManager = promptManager;
+        this.refiner = refiner;
+        this.mode = mode;
+        this.threshold = threshold;
+        this.shadowMinSimilarity = shadowMinSimilarity;
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        String local = classify(inputText, tone);
+        if (local == null) {
+            return delegate.refineTextAsync(inputText, tone);
+        }
+        if (mode == FastPathMode.ON) {
+            return Mono.just(local);
+        }
+        return delegate.refineTextAsync(inputText, tone)
+            .doOnNext(refined -> compare(local, refined));
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        String local = classify(inputText, tone);
+        if (local == null) {
+            return delegate.refineTextStream(inputText, tone);
+        }
+        if (mode == FastPathMode.ON) {
+            return Flux.just(local);
+        }
+        StringBuilder assembled = new StringBuilder();
+        return delegate.refineTextStream(inputText, tone)
+            .doOnNext(assembled::append)
+            .doOnComplete(() -> compare(local, assembled.toString()));
+    }
+
+    public FastPathStats getStats() {
+        return stats;
+    }
+
+    public FastPathMode getMode() {
+        return mode;
+    }
+
+    // The locally polished text when it is good enough to serve, otherwise null
+    private String classify(String inputText, String tone) {
+        if (mode == FastPathMode.OFF || inputText == null || inputText.trim().isEmpty()
+                || !isDefaultTone(tone)) {
+            return null;
+        }
+        LocalRefinement refinement = refiner.refine(inputText);
+        if (!refinement.isAcceptable(threshold)) {
+            stats.recordEscalated(refinement.getText() == null
+                ? refinement.getReason() : LocalRefinement.Reason.LOW_CONFIDENCE);
+            return null;
+        }
+        stats.recordLocal();
+        return refinement.getText();
+    }
+
+    private boolean isDefaultTone(String tone) {
+        return tone == null || tone.isEmpty()
+            || (promptManager.hasTone(tone) && promptManager.getProfile(tone) == promptManager.getDefaultProfile());
+    }
+
+    private void compare(String local, String refined) {
+        double similarity = similarity(local, refined);
+        boolean diverged = similarity < shadowMinSimilarity;
+        stats.recordShadow(similarity, diverged);
+        if (diverged) {
+            logger.debug("Fast-path shadow diverged (similarity {}): local '{}', model '{}'",
+                String.format("%.2f", similarity), local, refined.trim());
+        }
+    }
+
+    // Jaccard similarity of the two texts' lower-cased words
+    static double similarity(String a, String b) {
+        Set<String> first = words(a);
+        Set<String> second = words(b);
+        if (first.isEmpty() && second.isEmpty()) {
+            return 1.0;
+        }
+        int intersection = 0;
+        for (String word : second) {
+            if (first.contains(word)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (first.size() + second.size() - intersection);
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}']+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,10 @@
+package com.tonepolish.client.local;
+
+public enum FastPathMode {
+    // Every request goes to the model
+    OFF,
+    // Every request goes to the model, and the local result is compared with its reply
+    SHADOW,
+    // Confident local results are returned without calling the model
+    ON
+}
@@ -0,0 +1,73 @@
+package com.tonepolish.client.local;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+public class FastPathStats {
+
+    private final LongAdder local = new LongAdder();
+    private final Map<LocalRefinement.Reason, LongAdder> escalated = new EnumMap<>(LocalRefinement.Reason.class);
+    private final LongAdder shadowSamples = new LongAdder();
+    private final LongAdder shadowDiverged = new LongAdder();
+    private final DoubleAdder shadowSimilarity = new DoubleAdder();
+
+    FastPathStats() {
+        for (LocalRefinement.Reason reason : LocalRefinement.Reason.values()) {
+            escalated.put(reason, new LongAdder());
+        }
+    }
+
+    void recordLocal() {
+        local.increment();
+    }
+
+    void recordEscalated(LocalRefinement.Reason reason) {
+        escalated.get(reason).increment();
+    }
+
+    void recordShadow(double similarity, boolean diverged) {
+        shadowSamples.increment();
+        shadowSimilarity.add(similarity);
+        if (diverged) {
+            shadowDiverged.increment();
+        }
+    }
+
+    // Requests answered in-process (or, in shadow mode, that would have been)
+    public long getLocal() {
+        return local.sum();
+    }
+
+    public long getEscalated(LocalRefinement.Reason reason) {
+        return escalated.get(reason).sum();
+    }
+
+    public long getEscalated() {
+        long total = 0;
+        for (LongAdder count : escalated.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    // Shadow comparisons of a confident local result with the model's reply
+    public long getShadowSamples() {
+        return shadowSamples.sum();
+    }
+
+    public long getShadowDiverged() {
+        return shadowDiverged.sum();
+    }
+
+    public double getShadowMeanSimilarity() {
+        long samples = shadowSamples.sum();
+        return samples == 0 ? 0.0 : shadowSimilarity.sum() / samples;
+    }
+
+    public double getLocalRate() {
+        long requests = local.sum() + getEscalated();
+        return requests == 0 ? 0.0 : (double) local.sum() / requests;
+    }
+}
@@ -0,0 +1,51 @@
+package com.tonepolish.client.local;
+
+/**
+ * What the local refiner made of a message: the polished text, if it could produce one, how
+ * confident it is that the text needs nothing more, and why it handed the message on otherwise.
+ */
+public class LocalRefinement {
+
+    public enum Reason {
+        // Only surface fixes were needed; confidence decides whether they are enough
+        POLISHED,
+        // Polished locally, but less confidently than the configured threshold
+        LOW_CONFIDENCE,
+        LENGTH,
+        PROFANITY,
+        SHOUTING,
+        NEGATIVITY,
+        BLUNT
+    }
+
+    private final String text;
+    private final double confidence;
+    private final Reason reason;
+
+    LocalRefinement(String text, double confidence, Reason reason) {
+        this.text = text;
+        this.confidence = confidence;
+        this.reason = reason;
+    }
+
+    static LocalRefinement escalate(Reason reason) {
+        return new LocalRefinement(null, 0.0, reason);
+    }
+
+    // Null when the message was escalated outright
+    public String getText() {
+        return text;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public boolean isAcceptable(double threshold) {
+        return text != null && confidence >= threshold;
+    }
+}
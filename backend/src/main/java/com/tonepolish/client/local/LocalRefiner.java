@@ -0,0 +1,200 @@
+package com.tonepolish.client.local;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deterministic polishing for messages that are already close to fine: tidies whitespace and
+ * repeated punctuation, expands chat shorthand, capitalises sentences and "I", and ends the text
+ * with punctuation. Alongside the text it reports how sure it is that this is all the message
+ * needed; anything heated, rude, blunt or long scores low and is left to the model.
+ */
+public class LocalRefiner {
+
+    private static final Set<String> PROFANITY = Set.of(
+        "damn", "hell", "crap", "shit", "fuck", "fucking", "wtf", "bs", "bullshit", "ass", "idiot", "idiots", "moron");
+    private static final Set<String> NEGATIVE = Set.of(
+        "angry", "annoyed", "annoying", "furious", "ridiculous", "unacceptable", "terrible", "awful", "horrible",
+        "worst", "useless", "stupid", "incompetent", "pathetic", "disappointed", "disappointing", "frustrated",
+        "frustrating", "lawyer", "lawsuit", "scam", "complaint", "sorry", "apologize", "apologise", "issue",
+        "problem", "broken", "outage", "refund");
+    // Phrasings whose tone, not spelling, is the problem
+    private static final String[] BLUNT = {
+        "you need to", "you must", "you should have", "as i said", "as i already", "obviously", "calm down",
+        "not my problem", "read the", "i told you", "like i said"
+    };
+    private static final Map<String, String> SHORTHAND = Map.ofEntries(
+        Map.entry("u", "you"), Map.entry("ur", "your"), Map.entry("pls", "please"), Map.entry("plz", "please"),
+        Map.entry("thx", "thanks"), Map.entry("thnx", "thanks"), Map.entry("ty", "thank you"),
+        Map.entry("b/c", "because"), Map.entry("bc", "because"), Map.entry("msg", "message"),
+        Map.entry("asap", "as soon as possible"), Map.entry("btw", "by the way"),
+        Map.entry("tmrw", "tomorrow"), Map.entry("tmr", "tomorrow"),
+        Map.entry("im", "I'm"), Map.entry("ive", "I've"), Map.entry("dont", "don't"),
+        Map.entry("cant", "can't"), Map.entry("didnt", "didn't"),
+        Map.entry("doesnt", "doesn't"), Map.entry("isnt", "isn't"), Map.entry("thats", "that's"));
+
+    private final int maxWords;
+
+    public LocalRefiner(int maxWords) {
+        this.maxWords = maxWords;
+    }
+
+    public LocalRefinement refine(String inputText) {
+        String text = inputText.trim();
+        int words = countWords(text);
+        if (words > maxWords) {
+            return LocalRefinement.escalate(LocalRefinement.Reason.LENGTH);
+        }
+
+        // Spacing, capitals and punctuation are fixes; swapping out whole words is a rewrite
+        int fixes = 0;
+        int rewrites = 0;
+        int shouting = 0;
+        boolean negative = false;
+        StringBuilder polished = new StringBuilder(text.length() + 16);
+        boolean sentenceStart = true;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                int end = i;
+                boolean newline = false;
+                while (end < text.length() && Character.isWhitespace(text.charAt(end))) {
+                    newline |= text.charAt(end) == '\n';
+                    end++;
+                }
+                String separator = newline ? text.substring(i, end).replaceAll("[ \\t]+", "") : " ";
+                if (!separator.equals(text.substring(i, end))) {
+                    fixes++;
+                }
+                polished.append(separator);
+                sentenceStart |= newline;
+                i = end;
+                continue;
+            }
+            if (isRepeatable(c)) {
+                int end = i;
+                while (end < text.length() && isRepeatable(text.charAt(end))) {
+                    end++;
+                }
+                String run = text.substring(i, end);
+                String tidy = tidyPunctuation(run);
+                if (!tidy.equals(run)) {
+                    fixes++;
+                }
+                // Two or more !/? in a row reads as shouting
+                if (run.length() > 1 && (run.indexOf('!') >= 0 || run.indexOf('?') >= 0) && !run.equals("...")) {
+                    shouting++;
+                }
+                polished.append(tidy);
+                sentenceStart = !tidy.equals(",");
+                if (end < text.length() && Character.isLetter(text.charAt(end)) && tidy.equals(",")) {
+                    polished.append(' ');
+                    fixes++;
+                }
+                i = end;
+                continue;
+            }
+            if (!Character.isLetterOrDigit(c)) {
+                polished.append(c);
+                i++;
+                continue;
+            }
+
+            int end = i;
+            while (end < text.length() && isWordChar(text.charAt(end))) {
+                end++;
+            }
+            String word = text.substring(i, end);
+            String lower = word.toLowerCase(Locale.ROOT);
+            if (PROFANITY.contains(lower)) {
+                return LocalRefinement.escalate(LocalRefinement.Reason.PROFANITY);
+            }
+            negative |= NEGATIVE.contains(lower);
+            if (word.length() > 2 && word.equals(word.toUpperCase(Locale.ROOT)) && !word.equals(lower)) {
+                shouting++;
+            }
+
+            String replacement = SHORTHAND.get(lower);
+            if (replacement != null) {
+                rewrites++;
+                word = replacement;
+            } else if (lower.equals("i") || (lower.startsWith("i'") && lower.length() <= 4)) {
+                word = "I" + word.substring(1);
+            }
+            if (sentenceStart && Character.isLowerCase(word.charAt(0))) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+            if (!word.equals(text.substring(i, end)) && replacement == null) {
+                fixes++;
+            }
+            sentenceStart = false;
+            polished.append(word);
+            i = end;
+        }
+
+        char last = polished.charAt(polished.length() - 1);
+        if (Character.isLetterOrDigit(last) || last == ')' || last == '"' || last == '\'') {
+            polished.append('.');
+            fixes++;
+        }
+
+        if (shouting > 0) {
+            return LocalRefinement.escalate(LocalRefinement.Reason.SHOUTING);
+        }
+        if (negative) {
+            return LocalRefinement.escalate(LocalRefinement.Reason.NEGATIVITY);
+        }
+        String lowerText = text.toLowerCase(Locale.ROOT);
+        for (String phrase : BLUNT) {
+            if (lowerText.contains(phrase)) {
+                return LocalRefinement.escalate(LocalRefinement.Reason.BLUNT);
+            }
+        }
+        return new LocalRefinement(polished.toString(), confidence(words, fixes, rewrites), LocalRefinement.Reason.POLISHED);
+    }
+
+    // Short messages that needed few changes are the ones rules polish as well as a model would
+    private double confidence(int words, int fixes, int rewrites) {
+        double changes = rewrites + fixes / 4.0;
+        double confidence = 1.0;
+        confidence -= 0.1 * Math.max(0, changes - 2);
+        confidence -= 0.3 * Math.max(0, words - maxWords / 2) / Math.max(1, maxWords / 2.0);
+        return Math.max(0.0, confidence);
+    }
+
+    private static String tidyPunctuation(String run) {
+        if (run.chars().allMatch(c -> c == '.')) {
+            return run.length() >= 3 ? "..." : ".";
+        }
+        if (run.indexOf('?') >= 0) {
+            return "?";
+        }
+        if (run.indexOf('!') >= 0) {
+            return "!";
+        }
+        return run.substring(0, 1);
+    }
+
+    private static boolean isRepeatable(char c) {
+        return c == '.' || c == '!' || c == '?' || c == ',';
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '\'' || c == '/' || c == '-';
+    }
+
+    private static int countWords(String text) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean letter = !Character.isWhitespace(text.charAt(i));
+            if (letter && !inWord) {
+                words++;
+            }
+            inWord = letter;
+        }
+        return words;
+    }
+}
@@ -0,0 +1,371 @@
+package com.tonepolish.client.metrics;
+
+import com.tonepolish.client.batch.CoalescingStats;
+import com.tonepolish.client.cache.CachingAIClient;
+import com.tonepolish.client.cache.NearDuplicateAIClient;
+import com.tonepolish.client.cache.NearDuplicateIndex;
+import com.tonepolish.client.cache.NearDuplicateStats;
+import com.tonepolish.client.cluster.ClusterCacheStats;
+import com.tonepolish.client.exception.AIClientException;
+import com.tonepolish.client.exception.CircuitOpenException;
+import com.tonepolish.client.exception.RateLimitExceededException;
+import com.tonepolish.client.http.UpstreamConnector;
+import com.tonepolish.client.local.FastPathAIClient;
+import com.tonepolish.client.local.FastPathStats;
+import com.tonepolish.client.local.LocalRefinement;
+import com.tonepolish.client.preprocess.PiiKind;
+import com.tonepolish.client.preprocess.PreprocessingStats;
+import com.tonepolish.client.ratelimit.UpstreamRateLimiter;
+import com.tonepolish.client.resilience.CircuitBreaker;
+import com.tonepolish.client.retry.RetryExecutor;
+import com.tonepolish.client.routing.RoutedBackend;
+import com.tonepolish.client.routing.RoutingAIClient;
+import com.tonepolish.client.usage.TenantUsageTracker;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Meters and trace spans for the refine path. Refinements and upstream attempts are observations,
+ * so each becomes a timer and, with tracing on, a span whose children are the HTTP exchanges it
+ * made. Meters on the hot path are registered up front or cached by tag, and the no-op instance
+ * skips instrumentation entirely.
+ */
+public class AIClientMetrics {
+
+    public static final String REFINE = "tonepolish.refine";
+    public static final String UPSTREAM_ATTEMPT = "tonepolish.upstream.attempt";
+
+    private static final Logger logger = LoggerFactory.getLogger(AIClientMetrics.class);
+
+    private static final AIClientMetrics NOOP = new AIClientMetrics(new CompositeMeterRegistry(), ObservationRegistry.NOOP);
+
+    private final MeterRegistry registry;
+    private final ObservationRegistry observationRegistry;
+    private final Timer queueAcquired;
+    private final Timer queueRejected;
+    private final DistributionSummary inputChars;
+    private final DistributionSummary outputChars;
+    private final Map<String, Counter> retries = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> tokens = new ConcurrentHashMap<>();
+    private final AtomicBoolean firstRefined = new AtomicBoolean();
+
+    public AIClientMetrics(MeterRegistry registry, ObservationRegistry observationRegistry) {
+        this.registry = registry;
+        this.observationRegistry = observationRegistry;
+        this.queueAcquired = queueTimer("acquired");
+        this.queueRejected = queueTimer("rejected");
+        this.inputChars = DistributionSummary.builder("tonepolish.refine.input.chars")
+            .description("Characters of text submitted for refinement")
+            .baseUnit("characters")
+            .register(registry);
+        this.outputChars = DistributionSummary.builder("tonepolish.refine.output.chars")
+            .description("Characters of refined text returned")
+            .baseUnit("characters")
+            .register(registry);
+    }
+
+    public static AIClientMetrics noop() {
+        return NOOP;
+    }
+
+    public ObservationRegistry getObservationRegistry() {
+        return observationRegistry;
+    }
+
+    public <T> Mono<T> observe(String name, KeyValues keyValues, Mono<T> source) {
+        if (observationRegistry.isNoop()) {
+            return source;
+        }
+        return Mono.deferContextual(context -> {
+            Observation observation = start(name, keyValues, context.getOrDefault(ObservationThreadLocalAccessor.KEY, null));
+            // Stopped before the signal travels downstream, so the timing excludes the caller's handling
+            return source
+                .doOnSuccess(value -> stop(observation, "success"))
+                .doOnError(error -> fail(observation, error))
+                .doOnCancel(() -> stop(observation, "cancelled"))
+                .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    public <T> Flux<T> observeMany(String name, KeyValues keyValues, Flux<T> source) {
+        if (observationRegistry.isNoop()) {
+            return source;
+        }
+        return Flux.deferContextual(context -> {
+            Observation observation = start(name, keyValues, context.getOrDefault(ObservationThreadLocalAccessor.KEY, null));
+            return source
+                .doOnComplete(() -> stop(observation, "success"))
+                .doOnError(error -> fail(observation, error))
+                .doOnCancel(() -> stop(observation, "cancelled"))
+                .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    // Outside a reactive context (e.g. straight from a servlet thread) the current observation is the parent
+    private Observation start(String name, KeyValues keyValues, Observation parent) {
+        return Observation.createNotStarted(name, observationRegistry)
+            .parentObservation(parent != null ? parent : observationRegistry.getCurrentObservation())
+            .lowCardinalityKeyValues(keyValues)
+            .start();
+    }
+
+    private static void stop(Observation observation, String outcome) {
+        observation.lowCardinalityKeyValue("outcome", outcome);
+        observation.stop();
+    }
+
+    private static void fail(Observation observation, Throwable error) {
+        observation.error(error);
+        stop(observation, cause(error));
+    }
+
+    public void recordQueueWait(long nanos, boolean acquired) {
+        (acquired ? queueAcquired : queueRejected).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRefined(int inputLength, int outputLength) {
+        inputChars.record(inputLength);
+        outputChars.record(outputLength);
+        if (!firstRefined.get() && firstRefined.compareAndSet(false, true)) {
+            recordFirstRefine();
+        }
+    }
+
+    // Measured from process start, so it covers JVM boot, context refresh and the first request alike
+    private void recordFirstRefine() {
+        ProcessHandle.current().info().startInstant().ifPresent(start -> {
+            Duration elapsed = Duration.between(start, Instant.now());
+            logger.info("First successful refine {} ms after process start", elapsed.toMillis());
+            TimeGauge.builder("tonepolish.startup.first.refine", elapsed, TimeUnit.MILLISECONDS, Duration::toMillis)
+                .description("Time from process start to the first successful refinement")
+                // Nothing else holds the Duration, and a weakly referenced gauge would read NaN after a GC
+                .strongReference(true)
+                .register(registry);
+        });
+    }
+
+    public void recordUsage(String model, int promptTokens, int completionTokens) {
+        tokenSummary(model, "prompt").record(promptTokens);
+        tokenSummary(model, "completion").record(completionTokens);
+    }
+
+    // decision is "retry", "exhausted" or "not_retryable", as decided by RetryPolicy
+    public void recordRetryDecision(Throwable error, String decision) {
+        String cause = cause(error);
+        retries.computeIfAbsent(cause + '|' + decision, key -> Counter.builder("tonepolish.upstream.retries")
+                .description("Failed upstream attempts by cause and what the retry policy did next")
+                .tags("cause", cause, "decision", decision)
+                .register(registry))
+            .increment();
+    }
+
+    // Low-cardinality failure class for tags; retry wrappers are looked through to the original error
+    public static String cause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getClass() == RuntimeException.class) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) cause).getStatusCode().value();
+            return status == 429 ? "http_429" : status >= 500 ? "http_5xx" : "http_4xx";
+        }
+        if (cause instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (cause instanceof RateLimitExceededException) {
+            return "rate_limited";
+        }
+        if (cause instanceof CircuitOpenException) {
+            return "circuit_open";
+        }
+        if (cause instanceof WebClientRequestException || cause instanceof IOException) {
+            return "io";
+        }
+        if (cause instanceof AIClientException) {
+            return "invalid_response";
+        }
+        return "other";
+    }
+
+    public void bindCache(CachingAIClient cache) {
+        String name = "tonepolish.cache";
+        FunctionCounter.builder(name + ".gets", cache, c -> c.getStats().hitCount()).tag("result", "hit").register(registry);
+        FunctionCounter.builder(name + ".gets", cache, c -> c.getStats().missCount()).tag("result", "miss").register(registry);
+        FunctionCounter.builder(name + ".evictions", cache, c -> c.getStats().evictionCount()).register(registry);
+        Gauge.builder(name + ".size", cache, CachingAIClient::getEstimatedSizeBytes).baseUnit("bytes").register(registry);
+    }
+
+    public void bindNearDuplicateCache(NearDuplicateAIClient cache) {
+        String name = "tonepolish.cache.similar";
+        NearDuplicateStats stats = cache.getStats();
+        FunctionCounter.builder(name + ".gets", stats, NearDuplicateStats::getHits).tag("result", "hit").register(registry);
+        FunctionCounter.builder(name + ".gets", stats, NearDuplicateStats::getMisses).tag("result", "miss").register(registry);
+        FunctionCounter.builder(name + ".unsafe", stats, NearDuplicateStats::getUnsafe).register(registry);
+        FunctionCounter.builder(name + ".samples", stats, NearDuplicateStats::getSamplesAgreed).tag("result", "agreed").register(registry);
+        FunctionCounter.builder(name + ".samples", stats, NearDuplicateStats::getSamplesDiverged).tag("result", "diverged").register(registry);
+        Gauge.builder(name + ".size", cache.getIndex(), NearDuplicateIndex::size).register(registry);
+    }
+
+    public void bindClusterCache(ClusterCacheStats stats) {
+        String name = "tonepolish.cache.cluster";
+        FunctionCounter.builder(name + ".gets", stats, ClusterCacheStats::getHits).tag("result", "hit").register(registry);
+        FunctionCounter.builder(name + ".gets", stats, ClusterCacheStats::getAwaited).tag("result", "awaited").register(registry);
+        FunctionCounter.builder(name + ".gets", stats, ClusterCacheStats::getComputed).tag("result", "computed").register(registry);
+        FunctionCounter.builder(name + ".gets", stats, ClusterCacheStats::getFallbacks).tag("result", "fallback").register(registry);
+        FunctionCounter.builder(name + ".errors", stats, ClusterCacheStats::getErrors)
+            .description("Shared cache operations that failed and were treated as misses")
+            .register(registry);
+    }
+
+    public void bindPreprocessing(PreprocessingStats stats) {
+        String name = "tonepolish.preprocess";
+        FunctionCounter.builder(name + ".chars", stats, PreprocessingStats::getInputChars).tag("stage", "in").register(registry);
+        FunctionCounter.builder(name + ".chars", stats, PreprocessingStats::getOutputChars).tag("stage", "out").register(registry);
+        for (PiiKind kind : PiiKind.values()) {
+            FunctionCounter.builder(name + ".masked", stats, s -> s.getMasked(kind))
+                .tag("kind", kind.name().toLowerCase())
+                .register(registry);
+        }
+        FunctionCounter.builder(name + ".unrestored", stats, PreprocessingStats::getUnrestored)
+            .description("Placeholders the model dropped from its reply")
+            .register(registry);
+    }
+
+    public void bindFastPath(FastPathAIClient fastPath) {
+        String name = "tonepolish.fastpath";
+        FastPathStats stats = fastPath.getStats();
+        FunctionCounter.builder(name + ".local", stats, FastPathStats::getLocal).register(registry);
+        for (LocalRefinement.Reason reason : LocalRefinement.Reason.values()) {
+            if (reason != LocalRefinement.Reason.POLISHED) {
+                FunctionCounter.builder(name + ".escalated", stats, s -> s.getEscalated(reason))
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(registry);
+            }
+        }
+        FunctionCounter.builder(name + ".shadow.samples", stats, FastPathStats::getShadowSamples).register(registry);
+        FunctionCounter.builder(name + ".shadow.diverged", stats, FastPathStats::getShadowDiverged).register(registry);
+        Gauge.builder(name + ".shadow.similarity", stats, FastPathStats::getShadowMeanSimilarity)
+            .description("Mean word overlap between local results and the model's replies")
+            .register(registry);
+    }
+
+    public void bindRateLimiter(String limiterName, UpstreamRateLimiter limiter) {
+        Tags tags = Tags.of("limiter", limiterName);
+        String name = "tonepolish.ratelimit";
+        Gauge.builder(name + ".concurrency.limit", limiter, UpstreamRateLimiter::getConcurrencyLimit).tags(tags).register(registry);
+        Gauge.builder(name + ".in.flight", limiter, UpstreamRateLimiter::getInFlight).tags(tags).register(registry);
+        Gauge.builder(name + ".waiting", limiter, UpstreamRateLimiter::getWaiting).tags(tags).register(registry);
+        Gauge.builder(name + ".quota.remaining", limiter, UpstreamRateLimiter::getRemainingQuotaFraction).tags(tags).register(registry);
+        FunctionCounter.builder(name + ".rejected", limiter, UpstreamRateLimiter::getRejected).tags(tags).register(registry);
+        FunctionCounter.builder(name + ".throttled", limiter, UpstreamRateLimiter::getRateLimitedResponses)
+            .description("429 responses received from upstream")
+            .tags(tags)
+            .register(registry);
+    }
+
+    public void bindCircuitBreaker(CircuitBreaker breaker) {
+        String name = "tonepolish.circuit";
+        // One series per state, 1 for the current one, so dashboards can graph transitions
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder(name + ".state", breaker, b -> b.getState() == state ? 1 : 0)
+                .tag("state", state.name().toLowerCase())
+                .register(registry);
+        }
+        Gauge.builder(name + ".failure.rate", breaker, CircuitBreaker::getFailureRate).register(registry);
+        Gauge.builder(name + ".slow.call.rate", breaker, CircuitBreaker::getSlowCallRate).register(registry);
+    }
+
+    public void bindConnector(UpstreamConnector connector) {
+        String name = "tonepolish.upstream.connections";
+        Gauge.builder(name, connector, UpstreamConnector::getActiveConnections).tag("state", "active").register(registry);
+        Gauge.builder(name, connector, UpstreamConnector::getIdleConnections).tag("state", "idle").register(registry);
+        Gauge.builder(name + ".pending", connector, UpstreamConnector::getPendingAcquires).register(registry);
+    }
+
+    public void bindRetryExecutor(RetryExecutor retryExecutor) {
+        FunctionCounter.builder("tonepolish.upstream.hedges", retryExecutor, RetryExecutor::getHedgesSent)
+            .tag("result", "sent")
+            .register(registry);
+        FunctionCounter.builder("tonepolish.upstream.hedges", retryExecutor, RetryExecutor::getHedgesWon)
+            .tag("result", "won")
+            .register(registry);
+    }
+
+    public void bindCoalescing(CoalescingStats stats) {
+        String name = "tonepolish.coalescing";
+        FunctionCounter.builder(name + ".batches", stats, CoalescingStats::getBatchesSent).register(registry);
+        FunctionCounter.builder(name + ".items", stats, CoalescingStats::getItemsBatched).register(registry);
+        FunctionCounter.builder(name + ".direct", stats, CoalescingStats::getDirectCalls).register(registry);
+        FunctionCounter.builder(name + ".fallbacks", stats, CoalescingStats::getFallbackBatches).register(registry);
+    }
+
+    public void bindRouting(RoutingAIClient router) {
+        String name = "tonepolish.routing";
+        for (RoutedBackend backend : router.getBackends()) {
+            Tags tags = Tags.of("backend", backend.getName());
+            Gauge.builder(name + ".latency", backend, b -> b.getLatencyEwma().toNanos() / 1e9)
+                .description("Decayed average response time used for routing")
+                .baseUnit("seconds")
+                .tags(tags)
+                .register(registry);
+            Gauge.builder(name + ".error.rate", backend, RoutedBackend::getErrorRate).tags(tags).register(registry);
+            Gauge.builder(name + ".in.flight", backend, RoutedBackend::getInFlight).tags(tags).register(registry);
+            FunctionCounter.builder(name + ".requests", backend, RoutedBackend::getRequests).tags(tags).register(registry);
+            FunctionCounter.builder(name + ".failures", backend, RoutedBackend::getFailures).tags(tags).register(registry);
+        }
+    }
+
+    // Totals across tenants; per-tenant figures go to the usage log rather than unbounded tags
+    public void bindTenantUsage(TenantUsageTracker tracker) {
+        String name = "tonepolish.tenant";
+        FunctionCounter.builder(name + ".requests", tracker, TenantUsageTracker::getAdmitted).tag("result", "admitted").register(registry);
+        FunctionCounter.builder(name + ".requests", tracker, TenantUsageTracker::getRejected)
+            .tag("result", "rejected")
+            .description("Requests turned away with 429 because their tenant's token quota was used up")
+            .register(registry);
+        FunctionCounter.builder(name + ".tokens", tracker, TenantUsageTracker::getPromptTokens).tag("kind", "prompt").register(registry);
+        FunctionCounter.builder(name + ".tokens", tracker, TenantUsageTracker::getCompletionTokens).tag("kind", "completion").register(registry);
+        Gauge.builder(name + ".count", tracker, TenantUsageTracker::getTenantCount).register(registry);
+    }
+
+    private Timer queueTimer(String result) {
+        return Timer.builder("tonepolish.upstream.queue")
+            .description("Time spent waiting for an upstream rate limit permit")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    private DistributionSummary tokenSummary(String model, String type) {
+        return tokens.computeIfAbsent(model + '|' + type, key -> DistributionSummary.builder("tonepolish.upstream.tokens")
+            .description("Tokens per completion as reported by the provider's usage block")
+            .baseUnit("tokens")
+            .tags("model", model, "type", type)
+            .register(registry));
+    }
+}
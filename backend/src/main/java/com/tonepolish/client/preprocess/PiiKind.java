@@ -0,0 +1,33 @@
+package com.tonepolish.client.preprocess;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Kinds of customer data replaced by placeholders before text leaves the process
+public enum PiiKind {
+    EMAIL,
+    PHONE,
+    URL,
+    ID;
+
+    // Comma-separated, case-insensitive, e.g. "email,phone"; blank masks nothing
+    public static Set<PiiKind> parseList(String kinds) {
+        Set<PiiKind> parsed = EnumSet.noneOf(PiiKind.class);
+        if (kinds == null) {
+            return parsed;
+        }
+        for (String kind : kinds.split(",")) {
+            String trimmed = kind.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                parsed.add(valueOf(trimmed.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown PII kind '" + trimmed + "', expected email, phone, url or id");
+            }
+        }
+        return parsed;
+    }
+}
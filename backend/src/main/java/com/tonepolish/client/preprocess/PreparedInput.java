@@ -0,0 +1,135 @@
+package com.tonepolish.client.preprocess;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Text ready to send upstream, plus the values its placeholders stand for. Restoring swaps the
+ * placeholders in a reply back for the original values, so the model and every cache only ever
+ * see the masked form.
+ */
+public final class PreparedInput {
+
+    private static final String[] NONE = new String[0];
+
+    private final String text;
+    private final String[] placeholders;
+    private final String[] values;
+    private final PiiKind[] kinds;
+    private final boolean[] restored;
+
+    PreparedInput(String text, String[] placeholders, String[] values, PiiKind[] kinds) {
+        this.text = text;
+        this.placeholders = placeholders;
+        this.values = values;
+        this.kinds = kinds;
+        this.restored = new boolean[placeholders.length];
+    }
+
+    static PreparedInput unmasked(String text) {
+        return new PreparedInput(text, NONE, NONE, new PiiKind[0]);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getMaskedCount() {
+        return placeholders.length;
+    }
+
+    public PiiKind getKind(int index) {
+        return kinds[index];
+    }
+
+    public String restore(String output) {
+        if (placeholders.length == 0 || output == null) {
+            return output;
+        }
+        StringBuilder restoredText = null;
+        int copied = 0;
+        int open = output.indexOf('[');
+        while (open >= 0) {
+            int match = placeholderAt(output, open);
+            if (match >= 0) {
+                if (restoredText == null) {
+                    restoredText = new StringBuilder(output.length() + 32);
+                }
+                restoredText.append(output, copied, open).append(values[match]);
+                restored[match] = true;
+                copied = open + placeholders[match].length();
+                open = output.indexOf('[', copied);
+            } else {
+                open = output.indexOf('[', open + 1);
+            }
+        }
+        if (restoredText == null) {
+            return output;
+        }
+        return restoredText.append(output, copied, output.length()).toString();
+    }
+
+    // A placeholder can be split across deltas, so text from an unclosed '[' is held back until it closes
+    public Flux<String> restore(Flux<String> chunks) {
+        if (placeholders.length == 0) {
+            return chunks;
+        }
+        int longest = 0;
+        for (String placeholder : placeholders) {
+            longest = Math.max(longest, placeholder.length());
+        }
+        int holdBack = longest;
+        return Flux.defer(() -> {
+            StringBuilder pending = new StringBuilder();
+            return chunks.concatMapIterable(chunk -> {
+                    pending.append(chunk);
+                    int safe = pending.length();
+                    int open = pending.lastIndexOf("[");
+                    if (open >= 0 && pending.indexOf("]", open) < 0 && pending.length() - open < holdBack) {
+                        safe = open;
+                    }
+                    if (safe == 0) {
+                        return List.<String>of();
+                    }
+                    String ready = restore(pending.substring(0, safe));
+                    pending.delete(0, safe);
+                    return List.of(ready);
+                })
+                .concatWith(Mono.fromCallable(() -> restore(pending.toString())).filter(rest -> !rest.isEmpty()));
+        });
+    }
+
+    // Placeholders the model dropped or mangled, so their values never made it back into the reply
+    public int getUnrestoredCount() {
+        int unrestored = 0;
+        for (boolean done : restored) {
+            if (!done) {
+                unrestored++;
+            }
+        }
+        return unrestored;
+    }
+
+    // Values whose placeholders never came back, appended so the reply still carries them; empty if none were lost
+    public String missingValues() {
+        StringBuilder missing = null;
+        for (int i = 0; i < restored.length; i++) {
+            if (!restored[i]) {
+                missing = missing == null ? new StringBuilder(" (") : missing.append(", ");
+                missing.append(values[i]);
+            }
+        }
+        return missing == null ? "" : missing.append(')').toString();
+    }
+
+    private int placeholderAt(String output, int open) {
+        for (int i = 0; i < placeholders.length; i++) {
+            if (output.startsWith(placeholders[i], open)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
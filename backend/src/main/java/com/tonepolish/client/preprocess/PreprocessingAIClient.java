@@ -0,0 +1,88 @@
+package com.tonepolish.client.preprocess;
+
+import com.tonepolish.client.AIClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Normalizes and masks input with a {@link TextPreprocessor} before it reaches the caches and the
+ * model, and puts the masked values back into the reply. Everything below this client, including
+ * the disk and shared caches, only ever holds the masked form. Values whose placeholders the model
+ * dropped are appended to the reply rather than lost.
+ */
+public class PreprocessingAIClient implements AIClient {
+
+    private final AIClient delegate;
+    private final TextPreprocessor preprocessor;
+    private final PreprocessingStats stats = new PreprocessingStats();
+
+    public PreprocessingAIClient(AIClient delegate, TextPreprocessor preprocessor) {
+        this.delegate = delegate;
+        this.preprocessor = preprocessor;
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty()) {
+            return delegate.refineTextAsync(inputText, tone);
+        }
+        return Mono.defer(() -> {
+            PreparedInput prepared = prepare(inputText);
+            return delegate.refineTextAsync(prepared.getText(), tone)
+                .map(refined -> restore(prepared, refined));
+        });
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty()) {
+            return delegate.refineTextStream(inputText, tone);
+        }
+        return Flux.defer(() -> {
+            PreparedInput prepared = prepare(inputText);
+            return prepared.restore(delegate.refineTextStream(prepared.getText(), tone))
+                .concatWith(Mono.fromCallable(() -> missingValues(prepared)).filter(missing -> !missing.isEmpty()));
+        });
+    }
+
+    public PreprocessingStats getStats() {
+        return stats;
+    }
+
+    private PreparedInput prepare(String inputText) {
+        PreparedInput prepared = preprocessor.prepare(inputText);
+        stats.recordPrepared(inputText, prepared);
+        return prepared;
+    }
+
+    private String restore(PreparedInput prepared, String refined) {
+        String restored = prepared.restore(refined);
+        return restored == null ? null : restored + missingValues(prepared);
+    }
+
+    // A dropped placeholder would otherwise lose the customer's value from the reply for good
+    private String missingValues(PreparedInput prepared) {
+        stats.recordUnrestored(prepared.getUnrestoredCount());
+        return prepared.missingValues();
+    }
+}
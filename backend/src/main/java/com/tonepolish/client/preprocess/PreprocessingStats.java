@@ -0,0 +1,51 @@
+package com.tonepolish.client.preprocess;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PreprocessingStats {
+
+    private final LongAdder inputChars = new LongAdder();
+    private final LongAdder outputChars = new LongAdder();
+    private final Map<PiiKind, LongAdder> masked = new EnumMap<>(PiiKind.class);
+    private final LongAdder unrestored = new LongAdder();
+
+    PreprocessingStats() {
+        for (PiiKind kind : PiiKind.values()) {
+            masked.put(kind, new LongAdder());
+        }
+    }
+
+    void recordPrepared(String input, PreparedInput prepared) {
+        inputChars.add(input.length());
+        outputChars.add(prepared.getText().length());
+        for (int i = 0; i < prepared.getMaskedCount(); i++) {
+            masked.get(prepared.getKind(i)).increment();
+        }
+    }
+
+    void recordUnrestored(int count) {
+        unrestored.add(count);
+    }
+
+    // Characters received from callers
+    public long getInputChars() {
+        return inputChars.sum();
+    }
+
+    // Characters sent on after normalization and masking
+    public long getOutputChars() {
+        return outputChars.sum();
+    }
+
+    // Distinct values replaced by a placeholder
+    public long getMasked(PiiKind kind) {
+        return masked.get(kind).sum();
+    }
+
+    // Placeholders missing from the model's reply, whose values were therefore dropped
+    public long getUnrestored() {
+        return unrestored.sum();
+    }
+}
@@ -0,0 +1,346 @@
+package com.tonepolish.client.preprocess;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Prepares input for the model in one left-to-right pass: typographic Unicode (curly quotes, odd
+ * spaces, zero-width characters, fullwidth forms) is folded to plain ASCII, whitespace runs are
+ * collapsed while paragraph breaks are kept, and e-mail addresses, phone numbers, URLs and order
+ * or ticket identifiers are replaced by placeholders like [EMAIL_1]. Identifiers are recognised by
+ * hand-written scanners that look at each word once, so cost stays linear in the input with no
+ * regex backtracking, and the only copy made is the output itself.
+ *
+ * Placeholders are numbered per kind in order of appearance, so two customers sending the same
+ * message with different addresses produce the same masked text and share a cache entry.
+ */
+public class TextPreprocessor {
+
+    private final Set<PiiKind> masked;
+
+    public TextPreprocessor() {
+        this(EnumSet.allOf(PiiKind.class));
+    }
+
+    public TextPreprocessor(Set<PiiKind> masked) {
+        this.masked = masked.isEmpty() ? EnumSet.noneOf(PiiKind.class) : EnumSet.copyOf(masked);
+    }
+
+    public PreparedInput prepare(String input) {
+        PreparedInput prepared = prepare(input, !masked.isEmpty());
+        // Input that already contains placeholder-shaped text can't be restored unambiguously
+        return prepared != null ? prepared : prepare(input, false);
+    }
+
+    private PreparedInput prepare(String input, boolean mask) {
+        int n = input.length();
+        StringBuilder out = new StringBuilder(n);
+        List<String> values = null;
+        List<String> placeholders = null;
+        List<PiiKind> kinds = null;
+        int[] counters = null;
+        int newlines = 0;
+        boolean pendingSpace = false;
+
+        int i = 0;
+        while (i < n) {
+            char c = input.charAt(i);
+            char folded = fold(c);
+            if (folded == '\n') {
+                if (c == '\r' && i + 1 < n && input.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                newlines++;
+                i++;
+                continue;
+            }
+            if (folded == 0) {
+                i++;
+                continue;
+            }
+            if (folded == ' ') {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            // Separators are written lazily, so leading and trailing whitespace never reach the output
+            boolean wordStart;
+            if (out.length() == 0) {
+                wordStart = true;
+            } else if (newlines > 0) {
+                out.append(newlines > 1 ? "\n\n" : "\n");
+                wordStart = true;
+            } else if (pendingSpace) {
+                out.append(' ');
+                wordStart = true;
+            } else {
+                wordStart = opensWord(out.charAt(out.length() - 1));
+            }
+            newlines = 0;
+            pendingSpace = false;
+
+            if (mask) {
+                if (c == '[' && looksLikePlaceholder(input, i)) {
+                    return null;
+                }
+                if (wordStart) {
+                    PiiKind kind = null;
+                    int end = -1;
+                    if (masked.contains(PiiKind.URL) && (end = matchUrl(input, i)) > i) {
+                        kind = PiiKind.URL;
+                    } else if (masked.contains(PiiKind.EMAIL) && (end = matchEmail(input, i)) > i) {
+                        kind = PiiKind.EMAIL;
+                    } else if (masked.contains(PiiKind.PHONE) && (end = matchPhone(input, i)) > i) {
+                        kind = PiiKind.PHONE;
+                    } else if (masked.contains(PiiKind.ID) && (end = matchId(input, i)) > i) {
+                        kind = PiiKind.ID;
+                    }
+                    if (kind != null) {
+                        if (values == null) {
+                            values = new ArrayList<>(4);
+                            placeholders = new ArrayList<>(4);
+                            kinds = new ArrayList<>(4);
+                            counters = new int[PiiKind.values().length];
+                        }
+                        String value = input.substring(i, end);
+                        int existing = values.indexOf(value);
+                        if (existing >= 0) {
+                            out.append(placeholders.get(existing));
+                        } else {
+                            String placeholder = "[" + kind.name() + "_" + (++counters[kind.ordinal()]) + "]";
+                            values.add(value);
+                            placeholders.add(placeholder);
+                            kinds.add(kind);
+                            out.append(placeholder);
+                        }
+                        i = end;
+                        continue;
+                    }
+                }
+            }
+
+            if (c == '\u2026') {
+                out.append("...");
+            } else {
+                out.append(folded);
+            }
+            i++;
+        }
+
+        if (values == null) {
+            return PreparedInput.unmasked(out.toString());
+        }
+        return new PreparedInput(out.toString(), placeholders.toArray(new String[0]),
+            values.toArray(new String[0]), kinds.toArray(new PiiKind[0]));
+    }
+
+    // Plain ASCII passes straight through; 0 means drop, ' ' and '\n' are separators
+    static char fold(char c) {
+        if (c >= 0x20 && c < 0x7F) {
+            return c;
+        }
+        switch (c) {
+            case '\n', '\r', '\u0085', '\u2028', '\u2029':
+                return '\n';
+            case '\t', '\u000B', '\u000C', '\u00A0', '\u1680', '\u202F', '\u205F', '\u3000':
+                return ' ';
+            case '\u200B', '\u200C', '\u200D', '\u2060', '\uFEFF', '\u00AD':
+                return 0;
+            case '\u2018', '\u2019', '\u201A', '\u201B', '\u2032':
+                return '\'';
+            case '\u201C', '\u201D', '\u201E', '\u201F', '\u2033':
+                return '"';
+            case '\u2010', '\u2011', '\u2012', '\u2013', '\u2014', '\u2015', '\u2212':
+                return '-';
+            default:
+                break;
+        }
+        if (c >= '\u2000' && c <= '\u200A') {
+            return ' ';
+        }
+        if (c >= '\uFF01' && c <= '\uFF5E') {
+            return (char) (c - 0xFEE0);
+        }
+        if (c < 0x20 || c == 0x7F) {
+            return 0;
+        }
+        return c;
+    }
+
+    private static boolean opensWord(char previous) {
+        return previous == '(' || previous == '<' || previous == '"' || previous == '\''
+            || previous == ':' || previous == '=' || previous == ',' || previous == '/';
+    }
+
+    private boolean looksLikePlaceholder(String input, int i) {
+        for (PiiKind kind : masked) {
+            String name = kind.name();
+            if (input.length() > i + name.length() + 2 && input.startsWith(name, i + 1)
+                && input.charAt(i + name.length() + 1) == '_') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int matchUrl(String s, int i) {
+        int start;
+        if (s.regionMatches(true, i, "https://", 0, 8)) {
+            start = i + 8;
+        } else if (s.regionMatches(true, i, "http://", 0, 7)) {
+            start = i + 7;
+        } else if (s.regionMatches(true, i, "www.", 0, 4)) {
+            start = i + 4;
+        } else {
+            return -1;
+        }
+        int end = start;
+        while (end < s.length()) {
+            char c = s.charAt(end);
+            if (Character.isWhitespace(c) || c == '<' || c == '>' || c == '"') {
+                break;
+            }
+            end++;
+        }
+        end = trimTrailing(s, start, end, ".,;:!?)]}'");
+        return end > start ? end : -1;
+    }
+
+    static int matchEmail(String s, int i) {
+        int n = s.length();
+        int at = i;
+        while (at < n && isLocalPartChar(s.charAt(at))) {
+            at++;
+        }
+        if (at == i || at >= n || s.charAt(at) != '@') {
+            return -1;
+        }
+        int end = at + 1;
+        while (end < n && (isAsciiLetterOrDigit(s.charAt(end)) || s.charAt(end) == '-' || s.charAt(end) == '.')) {
+            end++;
+        }
+        end = trimTrailing(s, at + 1, end, ".-");
+        if (end < n && Character.isLetterOrDigit(s.charAt(end))) {
+            return -1;
+        }
+        // The domain needs a dot with a label on both sides
+        for (int dot = end - 2; dot > at + 1; dot--) {
+            if (s.charAt(dot) == '.') {
+                return end;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Accepts 7 to 15 digits grouped by spaces, dashes, dots or brackets, e.g. +1 (555) 010-4477 or
+     * 555-0199. Ungrouped digit runs are left to the identifier scanner, and dates (8 digits in 3
+     * groups) and dotted numbers shorter than 10 digits are rejected.
+     */
+    static int matchPhone(String s, int i) {
+        int n = s.length();
+        char first = s.charAt(i);
+        if (first != '+' && first != '(' && !isAsciiDigit(first)) {
+            return -1;
+        }
+        int digits = 0;
+        int groups = 0;
+        int end = -1;
+        boolean grouped = false;
+        boolean onlyDots = true;
+        int j = i;
+        while (j < n) {
+            char c = s.charAt(j);
+            if (isAsciiDigit(c)) {
+                if (j == i || !isAsciiDigit(s.charAt(j - 1))) {
+                    groups++;
+                }
+                digits++;
+                end = j + 1;
+            } else if (c == '+' && j == i) {
+                grouped = true;
+                onlyDots = false;
+            } else if (c == '(' || c == ')' || c == '-' || c == '.') {
+                grouped = true;
+                onlyDots &= c == '.';
+            } else if (c == ' ' && j + 1 < n && (isAsciiDigit(s.charAt(j + 1)) || s.charAt(j + 1) == '(')
+                && j > i && (isAsciiDigit(s.charAt(j - 1)) || s.charAt(j - 1) == ')')) {
+                grouped = true;
+                onlyDots = false;
+            } else {
+                break;
+            }
+            if (digits > 15) {
+                return -1;
+            }
+            j++;
+        }
+        if (end < 0 || digits < 7 || !grouped) {
+            return -1;
+        }
+        if (end < n && Character.isLetterOrDigit(s.charAt(end))) {
+            return -1;
+        }
+        if ((digits == 8 && groups == 3) || (onlyDots && digits < 10)) {
+            return -1;
+        }
+        return end;
+    }
+
+    /**
+     * Order, ticket and account numbers: an optional '#', then letters and digits joined by '-' or
+     * '_', with at least 3 digits mixed with letters (ORD-10234, A7X99K2), a run of 5 or more
+     * digits, or 3 digits after a '#'. Short tokens like "10am", "mp3", a year or a date are left alone.
+     */
+    static int matchId(String s, int i) {
+        int n = s.length();
+        boolean hash = s.charAt(i) == '#';
+        int start = hash ? i + 1 : i;
+        int j = start;
+        int letters = 0;
+        int digits = 0;
+        boolean joined = false;
+        while (j < n) {
+            char c = s.charAt(j);
+            if (isAsciiDigit(c)) {
+                digits++;
+            } else if (isAsciiLetterOrDigit(c)) {
+                letters++;
+            } else if ((c == '-' || c == '_') && j > start && j + 1 < n && isAsciiLetterOrDigit(s.charAt(j + 1))) {
+                joined = true;
+            } else {
+                break;
+            }
+            j++;
+        }
+        if (j == start || (j < n && Character.isLetterOrDigit(s.charAt(j)))) {
+            return -1;
+        }
+        boolean accepted = (hash && digits >= 3)
+            || (letters > 0 && digits >= 3 && j - start >= 5)
+            || (letters == 0 && !joined && digits >= 5);
+        return accepted ? j : -1;
+    }
+
+    private static int trimTrailing(String s, int start, int end, String punctuation) {
+        while (end > start && punctuation.indexOf(s.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return isAsciiLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isAsciiDigit(c);
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
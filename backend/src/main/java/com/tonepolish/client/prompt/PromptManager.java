@@ -1,32 +1,146 @@
 package com.tonepolish.client.prompt;
 
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the prompt profile for each tone. Profiles come from the built-in tones, optionally merged
+ * with a JSON prompt file ({@code ai.api.prompt.file}) that is polled and hot-reloaded; a file that
+ * fails to load is logged and the previous profiles stay in use.
+ */
 @Component
 public class PromptManager {
 
-    private static final String DEFAULT_SYSTEM_PROMPT = 
-        "You are a professional communication assistant as Support agents. as real Support agents often struggle to find the right words when dealing with frustrated clients. Your job is to help them find the right words to express themselves in a professional, empathetic, and concise way.So Rewrite the following text to be professional, empathetic, and concise while preserving the original meaning and intent.";
+    private static final Logger logger = LoggerFactory.getLogger(PromptManager.class);
 
     private final String systemPrompt;
+    private final Path file;
+    private final ScheduledExecutorService reloader;
+    private volatile PromptRegistry registry;
+    private volatile Object loadedVersion;
+
+    public PromptManager(String systemPrompt) {
+        this(systemPrompt, "", 0);
+    }
+
+    @Autowired
+    public PromptManager(@Value("${ai.api.prompt.system:}") String systemPrompt,
+                         @Value("${ai.api.prompt.file:}") String file,
+                         @Value("${ai.api.prompt.reload-interval-ms:5000}") long reloadIntervalMs) {
+        this.systemPrompt = systemPrompt;
+        this.file = file != null && !file.trim().isEmpty() ? Paths.get(file.trim()) : null;
+        this.registry = PromptRegistry.builtIn(systemPrompt);
+        if (this.file == null) {
+            this.reloader = null;
+            return;
+        }
+        // A broken file at startup is a configuration error, unlike a broken edit later on
+        try {
+            loadedVersion = version(this.file);
+            registry = PromptRegistry.load(this.file, systemPrompt);
+            logger.info("Loaded {} prompt tones from {}", registry.getToneNames().size(), this.file);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read prompt file " + this.file + ": " + e.getMessage(), e);
+        }
+        if (reloadIntervalMs > 0) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "prompt-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            reloader = null;
+        }
+    }
+
+    public PromptProfile getProfile(String tone) {
+        PromptProfile profile = registry.find(tone);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown tone '" + tone + "'");
+        }
+        return profile;
+    }
+
+    public PromptProfile getDefaultProfile() {
+        return registry.getDefault();
+    }
+
+    public boolean hasTone(String tone) {
+        return registry.find(tone) != null;
+    }
 
-    public PromptManager(@Value("${ai.api.prompt.system:}") String systemPrompt) {
-        this.systemPrompt = systemPrompt != null && !systemPrompt.trim().isEmpty() 
-            ? systemPrompt 
-            : DEFAULT_SYSTEM_PROMPT;
+    public Set<String> getToneNames() {
+        return registry.getToneNames();
     }
 
     public String getSystemPrompt() {
-        return systemPrompt;
+        return registry.getDefault().getSystemPrompt();
     }
 
     public String getSystemPromptForRefinement() {
-        return systemPrompt;
+        return registry.getDefault().getSystemPrompt();
     }
 
-    // Future: Can add more prompt types here
-    // public String getSystemPromptForTranslation() { ... }
-    // public String getSystemPromptForSummarization() { ... }
-}
+    public String getSystemPromptForBatchRefinement() {
+        return registry.getDefault().getBatchSystemPrompt();
+    }
+
+    // Re-reads the prompt file now; returns false and keeps the current profiles if it does not load
+    public boolean reload() {
+        if (file == null) {
+            return false;
+        }
+        try {
+            Object version = version(file);
+            PromptRegistry reloaded = PromptRegistry.load(file, systemPrompt);
+            registry = reloaded;
+            loadedVersion = version;
+            logger.info("Reloaded {} prompt tones from {}", reloaded.getToneNames().size(), file);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Keeping previous prompts, failed to reload {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    private void reloadIfChanged() {
+        try {
+            Object version = version(file);
+            if (!version.equals(loadedVersion)) {
+                // Remember the version even if it fails, so a broken file is reported once
+                if (!reload()) {
+                    loadedVersion = version;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot check prompt file {}: {}", file, e.getMessage());
+        }
+    }
 
+    private static Object version(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+    }
+}
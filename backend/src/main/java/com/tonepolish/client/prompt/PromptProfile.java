@@ -0,0 +1,61 @@
+package com.tonepolish.client.prompt;
+
+/**
+ * One named tone. The system prompts are fully rendered when the profile is loaded and never vary
+ * per request, so every request for a tone shares a byte-identical prefix that upstream prompt
+ * caching can reuse; only the user message is rendered per request.
+ */
+public class PromptProfile {
+
+    public static final String TEXT = "text";
+
+    private static final String BATCH_INSTRUCTIONS =
+        " You will receive several independent messages, each starting on its own line with a bracketed label such as [k7q2-1]. Rewrite each message separately. Reply with exactly one rewritten message per input, in the same order, each starting on a new line with the same bracketed label, and include nothing else.";
+
+    private final String name;
+    private final String systemPrompt;
+    private final String batchSystemPrompt;
+    private final PromptTemplate userTemplate;
+    // The raw input is sent as is when the user template is just {{text}}
+    private final boolean passThrough;
+    private final String fingerprint;
+
+    public PromptProfile(String name, String systemPrompt, PromptTemplate userTemplate) {
+        for (String variable : userTemplate.getVariables()) {
+            if (!TEXT.equals(variable)) {
+                throw new IllegalArgumentException("Tone '" + name + "' user template may only use {{text}}, found {{" + variable + "}}");
+            }
+        }
+        this.name = name;
+        this.systemPrompt = systemPrompt;
+        this.batchSystemPrompt = systemPrompt + BATCH_INSTRUCTIONS;
+        this.userTemplate = userTemplate;
+        this.passThrough = userTemplate.getSource().equals("{{" + TEXT + "}}");
+        this.fingerprint = passThrough ? systemPrompt : systemPrompt + '\u0000' + userTemplate.getSource();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSystemPrompt() {
+        return systemPrompt;
+    }
+
+    public String getBatchSystemPrompt() {
+        return batchSystemPrompt;
+    }
+
+    public PromptTemplate getUserTemplate() {
+        return userTemplate;
+    }
+
+    public String renderUserMessage(String text) {
+        return passThrough ? text : userTemplate.render(TEXT, text);
+    }
+
+    // Everything that shapes the reply besides the input; part of the response cache key
+    public String getFingerprint() {
+        return fingerprint;
+    }
+}
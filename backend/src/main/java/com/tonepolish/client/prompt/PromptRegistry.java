@@ -0,0 +1,176 @@
+package com.tonepolish.client.prompt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable set of compiled tone profiles. A prompt file is merged over the built-in tones:
+ * <pre>
+ * {
+ *   "default": "empathetic",
+ *   "fragments": { "signoff": "Never promise refunds." },
+ *   "tones": {
+ *     "billing": { "extends": "formal", "system": "{{base}} {{signoff}}", "user": "Customer reply:\n{{text}}" }
+ *   }
+ * }
+ * </pre>
+ * System prompts may reference fragments and {@code {{base}}} (the system prompt of the tone they
+ * extend); all of that is resolved here, so the per-request work is at most one {@code {{text}}}.
+ */
+public final class PromptRegistry {
+
+    public static final String EMPATHETIC = "empathetic";
+
+    static final String DEFAULT_SYSTEM_PROMPT =
+        "You are a professional communication assistant as Support agents. as real Support agents often struggle to find the right words when dealing with frustrated clients. Your job is to help them find the right words to express themselves in a professional, empathetic, and concise way.So Rewrite the following text to be professional, empathetic, and concise while preserving the original meaning and intent.";
+
+    private static final String BASE = "base";
+    private static final String USER_TEXT = "{{" + PromptProfile.TEXT + "}}";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, PromptProfile> profiles;
+    private final PromptProfile defaultProfile;
+
+    private PromptRegistry(Map<String, PromptProfile> profiles, String defaultTone) {
+        this.profiles = Collections.unmodifiableMap(profiles);
+        this.defaultProfile = profiles.get(defaultTone);
+        if (defaultProfile == null) {
+            throw new IllegalArgumentException("Default tone '" + defaultTone + "' is not defined");
+        }
+    }
+
+    // The built-in tones; a configured system prompt replaces the empathetic one
+    public static PromptRegistry builtIn(String systemPrompt) {
+        return new PromptRegistry(compile(builtInDefinitions(systemPrompt), Collections.emptyMap()), EMPATHETIC);
+    }
+
+    public static PromptRegistry load(Path file, String systemPrompt) throws IOException {
+        return parse(Files.readString(file), systemPrompt);
+    }
+
+    static PromptRegistry parse(String json, String systemPrompt) throws IOException {
+        JsonNode root = MAPPER.readTree(json);
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("Prompt file must contain a JSON object");
+        }
+        Map<String, String> fragments = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = root.path("fragments").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> fragment = it.next();
+            fragments.put(fragment.getKey(), fragment.getValue().asText());
+        }
+        Map<String, Definition> definitions = builtInDefinitions(systemPrompt);
+        for (Iterator<Map.Entry<String, JsonNode>> it = root.path("tones").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> tone = it.next();
+            JsonNode node = tone.getValue();
+            Definition inherited = definitions.get(tone.getKey());
+            definitions.put(tone.getKey(), new Definition(
+                text(node, "system", inherited != null ? inherited.system : null),
+                text(node, "user", inherited != null ? inherited.user : null),
+                text(node, "extends", null)));
+        }
+        String defaultTone = root.path("default").asText(EMPATHETIC);
+        return new PromptRegistry(compile(definitions, fragments), defaultTone);
+    }
+
+    public PromptProfile getDefault() {
+        return defaultProfile;
+    }
+
+    // Returns null for an unknown tone
+    public PromptProfile find(String tone) {
+        return tone == null || tone.isEmpty() ? defaultProfile : profiles.get(tone);
+    }
+
+    public Set<String> getToneNames() {
+        return profiles.keySet();
+    }
+
+    private static Map<String, Definition> builtInDefinitions(String systemPrompt) {
+        Map<String, Definition> definitions = new LinkedHashMap<>();
+        definitions.put(EMPATHETIC, new Definition(systemPrompt != null && !systemPrompt.trim().isEmpty()
+            ? systemPrompt
+            : DEFAULT_SYSTEM_PROMPT, USER_TEXT, null));
+        definitions.put("formal", new Definition(
+            "You are a communication assistant for customer support agents. Rewrite the following text in a formal, courteous register: complete sentences, no contractions, slang or emoji, while preserving the original meaning and intent.",
+            USER_TEXT, null));
+        definitions.put("concise", new Definition(
+            "You are a communication assistant for customer support agents. Rewrite the following text to be as short as possible while staying polite and keeping every fact, commitment and question from the original.",
+            USER_TEXT, null));
+        definitions.put("friendly", new Definition(
+            "You are a communication assistant for customer support agents. Rewrite the following text to sound warm, friendly and upbeat while staying professional and preserving the original meaning and intent.",
+            USER_TEXT, null));
+        return definitions;
+    }
+
+    private static Map<String, PromptProfile> compile(Map<String, Definition> definitions, Map<String, String> fragments) {
+        Map<String, PromptProfile> profiles = new LinkedHashMap<>();
+        for (String name : definitions.keySet()) {
+            resolve(name, definitions, fragments, profiles, new HashSet<>());
+        }
+        return profiles;
+    }
+
+    private static PromptProfile resolve(String name, Map<String, Definition> definitions, Map<String, String> fragments,
+                                         Map<String, PromptProfile> profiles, Set<String> resolving) {
+        PromptProfile resolved = profiles.get(name);
+        if (resolved != null) {
+            return resolved;
+        }
+        Definition definition = definitions.get(name);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unknown tone '" + name + "'");
+        }
+        if (!resolving.add(name)) {
+            throw new IllegalArgumentException("Tone '" + name + "' extends itself");
+        }
+        PromptProfile parent = definition.parent != null
+            ? resolve(definition.parent, definitions, fragments, profiles, resolving)
+            : null;
+
+        String system = definition.system != null ? definition.system : parent != null ? parent.getSystemPrompt() : null;
+        if (system == null) {
+            throw new IllegalArgumentException("Tone '" + name + "' has no system prompt");
+        }
+        Map<String, String> values = new HashMap<>(fragments);
+        if (parent != null) {
+            values.put(BASE, parent.getSystemPrompt());
+        }
+        String systemPrompt = PromptTemplate.compile(system).render(values);
+
+        String user = definition.user != null ? definition.user : parent != null ? parent.getUserTemplate().getSource() : USER_TEXT;
+        // Fragments are inlined now so only {{text}} is left for request time
+        PromptTemplate userTemplate = PromptTemplate.compile(user).bind(fragments);
+
+        PromptProfile profile = new PromptProfile(name, systemPrompt, userTemplate);
+        profiles.put(name, profile);
+        return profile;
+    }
+
+    private static String text(JsonNode node, String field, String fallback) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() ? value.asText() : fallback;
+    }
+
+    private static class Definition {
+        private final String system;
+        private final String user;
+        private final String parent;
+
+        Definition(String system, String user, String parent) {
+            this.system = system;
+            this.user = user;
+            this.parent = parent;
+        }
+    }
+}
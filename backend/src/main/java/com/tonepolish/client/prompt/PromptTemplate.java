@@ -0,0 +1,138 @@
+package com.tonepolish.client.prompt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A prompt with {@code {{name}}} placeholders, split once into literal text and variable slots.
+ * Rendering appends the pieces into a presized builder; nothing is searched or parsed per call.
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String source;
+    // literals has one more entry than names: literal, name, literal, name, ..., literal
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private PromptTemplate(String source, String[] literals, String[] names) {
+        this.source = source;
+        this.literals = literals;
+        this.names = names;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static PromptTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, start)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unterminated placeholder at offset " + open + " in prompt template");
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (!isValidName(name)) {
+                throw new IllegalArgumentException("Invalid placeholder '" + name + "' in prompt template");
+            }
+            literals.add(source.substring(start, open));
+            names.add(name);
+            start = close + CLOSE.length();
+        }
+        literals.add(source.substring(start));
+        return new PromptTemplate(source, literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isConstant() {
+        return names.length == 0;
+    }
+
+    public Set<String> getVariables() {
+        Set<String> variables = new LinkedHashSet<>();
+        Collections.addAll(variables, names);
+        return variables;
+    }
+
+    // Single-variable fast path for per-request rendering, with no map lookups
+    public String render(String name, String value) {
+        if (names.length == 0) {
+            return literals[0];
+        }
+        StringBuilder rendered = new StringBuilder(literalLength + value.length() * names.length);
+        for (int i = 0; i < names.length; i++) {
+            if (!names[i].equals(name)) {
+                throw new IllegalArgumentException("No value for placeholder '" + names[i] + "'");
+            }
+            rendered.append(literals[i]).append(value);
+        }
+        return rendered.append(literals[names.length]).toString();
+    }
+
+    public String render(Map<String, String> values) {
+        return bind(values).requireConstant();
+    }
+
+    // Substitutes the variables it has values for and keeps the rest as placeholders
+    public PromptTemplate bind(Map<String, String> values) {
+        if (names.length == 0) {
+            return this;
+        }
+        List<String> boundLiterals = new ArrayList<>();
+        List<String> boundNames = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(literals[0]);
+        StringBuilder boundSource = new StringBuilder(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            String value = values.get(names[i]);
+            if (value != null) {
+                literal.append(value);
+                boundSource.append(value);
+            } else {
+                boundLiterals.add(literal.toString());
+                boundNames.add(names[i]);
+                literal.setLength(0);
+                boundSource.append(OPEN).append(names[i]).append(CLOSE);
+            }
+            literal.append(literals[i + 1]);
+            boundSource.append(literals[i + 1]);
+        }
+        boundLiterals.add(literal.toString());
+        return new PromptTemplate(boundSource.toString(), boundLiterals.toArray(new String[0]),
+            boundNames.toArray(new String[0]));
+    }
+
+    String requireConstant() {
+        if (names.length > 0) {
+            throw new IllegalArgumentException("No value for placeholder '" + names[0] + "'");
+        }
+        return literals[0];
+    }
+
+    private static boolean isValidName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
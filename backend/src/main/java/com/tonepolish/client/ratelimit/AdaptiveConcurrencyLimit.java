@@ -0,0 +1,54 @@
+package com.tonepolish.client.ratelimit;
+
+// AIMD limit on in-flight upstream calls. Not thread-safe on its own; guarded by UpstreamRateLimiter.
+class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.5;
+    private static final double SLOW_CALL_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private double limit;
+    private int inFlight;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = initialLimit;
+    }
+
+    boolean hasCapacity() {
+        return inFlight < (int) limit;
+    }
+
+    void acquire() {
+        inFlight++;
+    }
+
+    void release() {
+        inFlight--;
+    }
+
+    void onSuccess(long latencyNanos) {
+        if (latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * SLOW_CALL_RATIO);
+        } else {
+            // Additive increase of roughly one slot per limit's worth of fast calls
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    void onRateLimited() {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,66 @@
+package com.tonepolish.client.ratelimit;
+
+import java.time.Duration;
+
+// Not thread-safe on its own; UpstreamRateLimiter guards every bucket with its lock
+class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double available;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    TokenBucket(double capacityPerMinute, long nowNanos) {
+        this.capacity = capacityPerMinute;
+        this.refillPerNano = capacityPerMinute / Duration.ofMinutes(1).toNanos();
+        this.available = capacityPerMinute;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    // Nanoseconds until the amount could be taken, 0 if it can be taken now
+    long waitNanos(double amount, long nowNanos) {
+        refill(nowNanos);
+        if (nowNanos < pausedUntilNanos) {
+            return pausedUntilNanos - nowNanos;
+        }
+        // A request larger than the whole bucket is admitted once the bucket is full rather than never
+        double needed = Math.min(amount, capacity);
+        if (available >= needed) {
+            return 0;
+        }
+        return (long) Math.ceil((needed - available) / refillPerNano);
+    }
+
+    void consume(double amount) {
+        available -= amount;
+    }
+
+    // The upstream's view of remaining quota wins when it is lower than ours
+    void clamp(double remaining, long nowNanos) {
+        refill(nowNanos);
+        available = Math.min(available, remaining);
+    }
+
+    void pauseUntil(long untilNanos) {
+        pausedUntilNanos = Math.max(pausedUntilNanos, untilNanos);
+        available = Math.min(available, 0);
+        lastRefillNanos = Math.max(lastRefillNanos, untilNanos);
+    }
+
+    double getAvailable(long nowNanos) {
+        refill(nowNanos);
+        return available;
+    }
+
+    double getCapacity() {
+        return capacity;
+    }
+
+    private void refill(long nowNanos) {
+        if (nowNanos > lastRefillNanos) {
+            available = Math.min(capacity, available + (nowNanos - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
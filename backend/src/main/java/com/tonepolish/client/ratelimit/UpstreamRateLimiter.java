@@ -0,0 +1,356 @@
+package com.tonepolish.client.ratelimit;
+
+import com.tonepolish.client.exception.RateLimitExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side admission for upstream calls: request and token buckets sized to the provider's
+ * per-minute quotas, corrected from x-ratelimit-* and retry-after response headers, plus an AIMD
+ * concurrency limit that halves on 429s and shrinks on slow calls. Callers that must wait queue in
+ * arrival order and are woken when a slot is released or the buckets refill; those that can't be
+ * admitted within the configured wait fail with {@link RateLimitExceededException} instead of retrying.
+ */
+public class UpstreamRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamRateLimiter.class);
+
+    // Callers turned away for lack of a slot or queue space, not quota, are told to come back shortly
+    private static final long MIN_RETRY_AFTER_NANOS = Duration.ofMillis(100).toNanos();
+
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Duration maxWait;
+    private final int maxQueued;
+    // Callers are admitted strictly in arrival order; guarded by this
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private long drainScheduledAt = Long.MAX_VALUE;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rateLimitedResponses = new LongAdder();
+
+    public UpstreamRateLimiter(int requestsPerMinute, int tokensPerMinute,
+                               int initialConcurrency, int minConcurrency, int maxConcurrency,
+                               Duration latencyThreshold, Duration maxWait, int maxQueued) {
+        long now = System.nanoTime();
+        this.requestBucket = new TokenBucket(requestsPerMinute, now);
+        this.tokenBucket = new TokenBucket(tokensPerMinute, now);
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(initialConcurrency, minConcurrency, maxConcurrency,
+            latencyThreshold.toNanos());
+        this.maxWait = maxWait;
+        this.maxQueued = maxQueued;
+    }
+
+    public Mono<Permit> acquire(int estimatedTokens) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(estimatedTokens, sink);
+            String rejection;
+            long waitNanos;
+            synchronized (this) {
+                // Nobody may overtake a caller that is already queued
+                waitNanos = waiters.isEmpty() ? tryAcquire(estimatedTokens) : quotaWaitNanos(estimatedTokens);
+                if (waiters.isEmpty() && waitNanos == 0) {
+                    rejection = null;
+                    waiter.permit = new Permit(System.nanoTime());
+                } else if (waiters.size() >= maxQueued) {
+                    rejection = "queue full";
+                } else if (waitNanos > maxWait.toNanos()) {
+                    rejection = "wait exceeds " + maxWait.toMillis() + "ms";
+                } else {
+                    rejection = null;
+                    waiters.addLast(waiter);
+                    scheduleDrain(waitNanos);
+                }
+            }
+            if (rejection != null) {
+                sink.error(reject(waitNanos, rejection));
+            } else if (waiter.permit != null) {
+                sink.success(waiter.permit);
+            } else {
+                Disposable timeout = Schedulers.parallel().schedule(() -> expire(waiter),
+                    maxWait.toNanos(), TimeUnit.NANOSECONDS);
+                sink.onDispose(timeout);
+                sink.onCancel(() -> cancel(waiter));
+            }
+        });
+    }
+
+    // Hands out permits to the head of the queue for as long as both quotas and a slot allow
+    private void drain() {
+        List<Waiter> admitted = null;
+        synchronized (this) {
+            drainScheduledAt = Long.MAX_VALUE;
+            Waiter head;
+            while ((head = waiters.peekFirst()) != null) {
+                long waitNanos = tryAcquire(head.estimatedTokens);
+                if (waitNanos > 0) {
+                    scheduleDrain(waitNanos);
+                    break;
+                }
+                if (waitNanos < 0) {
+                    // Woken again by the next release
+                    break;
+                }
+                waiters.pollFirst();
+                head.permit = new Permit(System.nanoTime());
+                if (admitted == null) {
+                    admitted = new ArrayList<>();
+                }
+                admitted.add(head);
+            }
+        }
+        if (admitted != null) {
+            for (Waiter waiter : admitted) {
+                waiter.sink.success(waiter.permit);
+            }
+        }
+    }
+
+    // Wakes the queue once the buckets have refilled enough for its head; an earlier wake-up wins
+    private void scheduleDrain(long waitNanos) {
+        if (waitNanos <= 0) {
+            return;
+        }
+        long at = System.nanoTime() + waitNanos;
+        if (at >= drainScheduledAt) {
+            return;
+        }
+        drainScheduledAt = at;
+        Schedulers.parallel().schedule(this::drain, waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void expire(Waiter waiter) {
+        long waitNanos;
+        synchronized (this) {
+            if (!waiters.remove(waiter)) {
+                return;
+            }
+            waitNanos = quotaWaitNanos(waiter.estimatedTokens);
+        }
+        waiter.sink.error(reject(waitNanos, "wait exceeds " + maxWait.toMillis() + "ms"));
+        // The expired caller may have been holding up smaller requests behind it
+        drain();
+    }
+
+    private void cancel(Waiter waiter) {
+        Permit permit;
+        synchronized (this) {
+            if (waiters.remove(waiter)) {
+                permit = null;
+            } else {
+                permit = waiter.permit;
+            }
+        }
+        if (permit != null) {
+            // Granted after the caller went away
+            permit.release();
+        } else {
+            drain();
+        }
+    }
+
+    private RateLimitExceededException reject(long waitNanos, String reason) {
+        rejected.increment();
+        Duration retryAfter = Duration.ofNanos(Math.max(waitNanos, MIN_RETRY_AFTER_NANOS));
+        logger.warn("Rejecting upstream call, {} (retry after {}ms)", reason, retryAfter.toMillis());
+        return new RateLimitExceededException("Upstream rate limit reached, " + reason, retryAfter);
+    }
+
+    // Returns 0 once both quotas and a concurrency slot are taken, the time until the quotas allow
+    // the call, or -1 if only a concurrency slot is missing
+    private long tryAcquire(int estimatedTokens) {
+        long wait = quotaWaitNanos(estimatedTokens);
+        if (wait > 0) {
+            return wait;
+        }
+        if (!concurrencyLimit.hasCapacity()) {
+            return -1;
+        }
+        requestBucket.consume(1);
+        tokenBucket.consume(estimatedTokens);
+        concurrencyLimit.acquire();
+        return 0;
+    }
+
+    private long quotaWaitNanos(int estimatedTokens) {
+        long now = System.nanoTime();
+        return Math.max(requestBucket.waitNanos(1, now), tokenBucket.waitNanos(estimatedTokens, now));
+    }
+
+    public synchronized void onResponseHeaders(HttpHeaders headers) {
+        long now = System.nanoTime();
+        Double remainingRequests = parseNumber(headers.getFirst("x-ratelimit-remaining-requests"));
+        if (remainingRequests != null) {
+            requestBucket.clamp(remainingRequests, now);
+        }
+        Double remainingTokens = parseNumber(headers.getFirst("x-ratelimit-remaining-tokens"));
+        if (remainingTokens != null) {
+            tokenBucket.clamp(remainingTokens, now);
+        }
+    }
+
+    public int getConcurrencyLimit() {
+        synchronized (this) {
+            return concurrencyLimit.getLimit();
+        }
+    }
+
+    public int getInFlight() {
+        synchronized (this) {
+            return concurrencyLimit.getInFlight();
+        }
+    }
+
+    // Share of the tighter of the two quotas still available, 0 while paused by a retry-after
+    public double getRemainingQuotaFraction() {
+        synchronized (this) {
+            long now = System.nanoTime();
+            double requests = requestBucket.getAvailable(now) / requestBucket.getCapacity();
+            double tokens = tokenBucket.getAvailable(now) / tokenBucket.getCapacity();
+            return Math.max(0, Math.min(requests, tokens));
+        }
+    }
+
+    public synchronized int getWaiting() {
+        return waiters.size();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getRateLimitedResponses() {
+        return rateLimitedResponses.sum();
+    }
+
+    private void releaseSlot(long latencyNanos, boolean success) {
+        synchronized (this) {
+            concurrencyLimit.release();
+            if (success) {
+                concurrencyLimit.onSuccess(latencyNanos);
+            }
+        }
+        drain();
+    }
+
+    private void releaseRateLimited(Duration retryAfter) {
+        int limit;
+        synchronized (this) {
+            rateLimitedResponses.increment();
+            concurrencyLimit.release();
+            concurrencyLimit.onRateLimited();
+            if (retryAfter != null) {
+                long until = System.nanoTime() + retryAfter.toNanos();
+                requestBucket.pauseUntil(until);
+                tokenBucket.pauseUntil(until);
+            }
+            limit = concurrencyLimit.getLimit();
+        }
+        logger.warn("Upstream returned 429, concurrency limit now {}", limit);
+        drain();
+    }
+
+    static Double parseNumber(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Accepts plain seconds ("7") as sent in retry-after, or Groq/OpenAI style durations ("1m30.5s", "250ms")
+    static Duration parseDuration(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        String text = value.trim();
+        Double seconds = parseNumber(text);
+        if (seconds != null) {
+            return Duration.ofMillis((long) (seconds * 1000));
+        }
+
+        double totalMillis = 0;
+        int i = 0;
+        while (i < text.length()) {
+            int numberStart = i;
+            while (i < text.length() && (Character.isDigit(text.charAt(i)) || text.charAt(i) == '.')) {
+                i++;
+            }
+            int unitStart = i;
+            while (i < text.length() && Character.isLetter(text.charAt(i))) {
+                i++;
+            }
+            if (numberStart == unitStart || unitStart == i) {
+                return null;
+            }
+            double amount = Double.parseDouble(text.substring(numberStart, unitStart));
+            switch (text.substring(unitStart, i)) {
+                case "h" -> totalMillis += amount * 3_600_000;
+                case "m" -> totalMillis += amount * 60_000;
+                case "s" -> totalMillis += amount * 1000;
+                case "ms" -> totalMillis += amount;
+                default -> {
+                    return null;
+                }
+            }
+        }
+        return Duration.ofMillis((long) totalMillis);
+    }
+
+    private static final class Waiter {
+        private final int estimatedTokens;
+        private final MonoSink<Permit> sink;
+        // Set under the limiter's lock when the waiter leaves the queue with a permit
+        private Permit permit;
+
+        private Waiter(int estimatedTokens, MonoSink<Permit> sink) {
+            this.estimatedTokens = estimatedTokens;
+            this.sink = sink;
+        }
+    }
+
+    public final class Permit {
+        private final long acquiredAtNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long acquiredAtNanos) {
+            this.acquiredAtNanos = acquiredAtNanos;
+        }
+
+        public void onSuccess() {
+            if (released.compareAndSet(false, true)) {
+                releaseSlot(System.nanoTime() - acquiredAtNanos, true);
+            }
+        }
+
+        public void onRateLimited(HttpHeaders headers) {
+            if (released.compareAndSet(false, true)) {
+                releaseRateLimited(parseDuration(headers.getFirst(HttpHeaders.RETRY_AFTER)));
+            }
+        }
+
+        // Other failures and cancellations free the slot without moving the limit
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                releaseSlot(0, false);
+            }
+        }
+    }
+}
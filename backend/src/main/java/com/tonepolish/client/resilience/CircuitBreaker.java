@@ -0,0 +1,150 @@
+package com.tonepolish.client.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. Outcomes of the last {@code windowSize} calls are kept in a ring;
+ * once at least {@code minimumCalls} are recorded and either the failure rate or the slow-call rate
+ * crosses its threshold, the breaker opens. After {@code openDuration} it lets
+ * {@code halfOpenCalls} trial calls through and closes again only if they pass the same thresholds.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int recorded;
+    private int next;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermitsIssued;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, Duration slowCallDuration, Duration openDuration,
+                          int halfOpenCalls) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitsIssued >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermitsIssued++;
+        }
+        return true;
+    }
+
+    public void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+
+    public void onError(long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    // For calls that were admitted but ended without a verdict (cancelled, or failed for a local reason)
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenPermitsIssued > 0) {
+            halfOpenPermitsIssued--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Duration getRemainingOpenDuration() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, openNanos - (System.nanoTime() - openedAtNanos)));
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0.0 : 100.0 * failures / recorded;
+    }
+
+    public synchronized double getSlowCallRate() {
+        return recorded == 0 ? 0.0 : 100.0 * slowCalls / recorded;
+    }
+
+    private synchronized void record(boolean isFailure, long durationNanos) {
+        if (state == State.OPEN) {
+            return;
+        }
+        boolean isSlow = durationNanos >= slowCallNanos;
+        if (recorded == windowSize) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        failures += isFailure ? 1 : 0;
+        slowCalls += isSlow ? 1 : 0;
+        next = (next + 1) % windowSize;
+
+        int required = state == State.HALF_OPEN ? halfOpenCalls : minimumCalls;
+        if (recorded < required) {
+            return;
+        }
+        boolean tripped = getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold;
+        if (tripped) {
+            transitionTo(State.OPEN);
+        } else if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    private void transitionTo(State newState) {
+        logger.warn("Circuit breaker '{}' {} -> {} (failure rate {}%, slow call rate {}%)",
+            name, state, newState, Math.round(getFailureRate()), Math.round(getSlowCallRate()));
+        state = newState;
+        // Each state judges on a fresh window so the half-open trial isn't drowned by old outcomes
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+        halfOpenPermitsIssued = 0;
+        if (newState == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tonepolish.client.resilience;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.exception.AIClientException;
+import com.tonepolish.client.exception.CircuitOpenException;
+import com.tonepolish.client.exception.RateLimitExceededException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+public class CircuitBreakerAIClient implements AIClient {
+
+    private final AIClient delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    // Calls fail fast with CircuitOpenException while open; CircuitOpenFallbackAIClient may answer them above the caches
+    public CircuitBreakerAIClient(AIClient delegate, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Mono.error(openException());
+            }
+            long start = System.nanoTime();
+            return delegate.refineTextAsync(inputText, tone)
+                .doOnSuccess(result -> circuitBreaker.onSuccess(System.nanoTime() - start))
+                .doOnError(error -> recordError(error, System.nanoTime() - start))
+                .doOnCancel(circuitBreaker::onIgnored);
+        });
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        return Flux.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Flux.error(openException());
+            }
+            long start = System.nanoTime();
+            return delegate.refineTextStream(inputText, tone)
+                .doFinally(signal -> {
+                    if (signal == SignalType.ON_COMPLETE) {
+                        circuitBreaker.onSuccess(System.nanoTime() - start);
+                    } else if (signal == SignalType.CANCEL) {
+                        circuitBreaker.onIgnored();
+                    }
+                })
+                .doOnError(error -> recordError(error, System.nanoTime() - start));
+        });
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    // Only upstream failures count; bad input and our own rate limit rejections say nothing about Groq's health
+    private void recordError(Throwable error, long durationNanos) {
+        if (error instanceof AIClientException && !(error instanceof RateLimitExceededException)) {
+            circuitBreaker.onError(durationNanos);
+        } else {
+            circuitBreaker.onIgnored();
+        }
+    }
+
+    private CircuitOpenException openException() {
+        return new CircuitOpenException("AI API circuit breaker is open", circuitBreaker.getRemainingOpenDuration());
+    }
+}
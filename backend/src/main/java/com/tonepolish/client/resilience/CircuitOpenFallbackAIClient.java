@@ -0,0 +1,68 @@
+package com.tonepolish.client.resilience;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.exception.CircuitOpenException;
+import com.tonepolish.client.prompt.PromptManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves a degraded local reply when the circuit breaker further down rejects a call. It sits above
+ * every cache, so the caches only ever see the breaker's error and a degraded reply is never stored
+ * or reused after upstream recovers; cache hits are still served normally while the breaker is open.
+ * The fallback can only polish, not change tone, so other tones fail fast with the breaker's error.
+ */
+public class CircuitOpenFallbackAIClient implements AIClient {
+
+    private final AIClient delegate;
+    private final AIClient fallback;
+    private final PromptManager promptManager;
+
+    public CircuitOpenFallbackAIClient(AIClient delegate, AIClient fallback, PromptManager promptManager) {
+        this.delegate = delegate;
+        this.fallback = fallback;
+        this.promptManager = promptManager;
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        return delegate.refineTextAsync(inputText, tone)
+            .onErrorResume(CircuitOpenException.class, error -> isDefaultTone(tone)
+                ? fallback.refineTextAsync(inputText)
+                : Mono.error(error));
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    // The breaker rejects before the first delta, so a fallback never follows partial upstream output
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        return delegate.refineTextStream(inputText, tone)
+            .onErrorResume(CircuitOpenException.class, error -> isDefaultTone(tone)
+                ? fallback.refineTextStream(inputText)
+                : Flux.error(error));
+    }
+
+    private boolean isDefaultTone(String tone) {
+        return tone == null || tone.isEmpty()
+            || (promptManager.hasTone(tone) && promptManager.getProfile(tone) == promptManager.getDefaultProfile());
+    }
+}
@@ -0,0 +1,37 @@
+package com.tonepolish.client.retry;
+
+import java.time.Duration;
+
+public class HedgingPolicy {
+    private final boolean enabled;
+    private final double percentile;
+    private final Duration minDelay;
+    private final long minSamples;
+    private final LatencyHistogram histogram;
+
+    public HedgingPolicy(boolean enabled, double percentile, Duration minDelay, long minSamples, Duration window) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.minSamples = minSamples;
+        this.histogram = new LatencyHistogram(window);
+    }
+
+    public static HedgingPolicy disabled() {
+        return new HedgingPolicy(false, 0.95, Duration.ZERO, Long.MAX_VALUE, Duration.ofMinutes(1));
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    // How long to wait before firing a hedge, or null when hedging is off or there's too little history
+    public Duration calculateHedgeDelay(Duration attemptTimeout) {
+        if (!enabled || histogram.getCount() < minSamples) {
+            return null;
+        }
+        Duration observed = histogram.getPercentile(percentile);
+        Duration delay = observed.compareTo(minDelay) < 0 ? minDelay : observed;
+        return delay.compareTo(attemptTimeout) < 0 ? delay : null;
+    }
+}
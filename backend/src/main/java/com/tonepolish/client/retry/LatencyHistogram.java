@@ -0,0 +1,84 @@
+package com.tonepolish.client.retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rolling latency histogram with exponentially sized buckets (each 20% wider than the last,
+ * from 1ms to roughly two minutes). Samples land in the current window; percentiles are read
+ * across the current and previous windows so the estimate doesn't collapse right after a rotation.
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.2;
+    private static final int BUCKETS = 64;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+
+    private final long windowNanos;
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS);
+    private volatile long windowStartNanos = System.nanoTime();
+
+    public LatencyHistogram(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void record(Duration latency) {
+        rotateIfDue();
+        current.incrementAndGet(bucketFor(latency.toNanos() / 1_000_000.0));
+    }
+
+    public long getCount() {
+        rotateIfDue();
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += current.get(i) + previous.get(i);
+        }
+        return count;
+    }
+
+    // Upper bound of the bucket holding the given percentile (0..1), or null without samples
+    public Duration getPercentile(double percentile) {
+        rotateIfDue();
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = current.get(i) + previous.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return null;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos((long) (Math.pow(GROWTH, i + 1) * 1_000_000));
+            }
+        }
+        return Duration.ofNanos((long) (Math.pow(GROWTH, BUCKETS) * 1_000_000));
+    }
+
+    private static int bucketFor(double millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, (int) (Math.log(millis) / LOG_GROWTH));
+    }
+
+    private void rotateIfDue() {
+        long now = System.nanoTime();
+        if (now - windowStartNanos < windowNanos) {
+            return;
+        }
+        synchronized (this) {
+            if (now - windowStartNanos >= windowNanos) {
+                // A rotation losing a few concurrent increments is fine for a latency estimate
+                previous = current;
+                current = new AtomicLongArray(BUCKETS);
+                windowStartNanos = now;
+            }
+        }
+    }
+}
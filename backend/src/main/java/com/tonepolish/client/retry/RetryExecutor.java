@@ -1,18 +1,55 @@
 package com.tonepolish.client.retry;
 
+import com.tonepolish.client.metrics.AIClientMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class RetryExecutor {
     private static final Logger logger = LoggerFactory.getLogger(RetryExecutor.class);
     
     private final RetryPolicy retryPolicy;
+    private final HedgingPolicy hedgingPolicy;
+    private final AIClientMetrics metrics;
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
 
     public RetryExecutor(RetryPolicy retryPolicy) {
+        this(retryPolicy, HedgingPolicy.disabled());
+    }
+
+    public RetryExecutor(RetryPolicy retryPolicy, HedgingPolicy hedgingPolicy) {
+        this(retryPolicy, hedgingPolicy, AIClientMetrics.noop());
+    }
+
+    public RetryExecutor(RetryPolicy retryPolicy, HedgingPolicy hedgingPolicy, AIClientMetrics metrics) {
         this.retryPolicy = retryPolicy;
+        this.hedgingPolicy = hedgingPolicy;
+        this.metrics = metrics;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public long getHedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.sum();
     }
 
     public <T> T execute(Supplier<T> operation) {
@@ -41,15 +78,18 @@ public class RetryExecutor {
                 attempt++;
 
                 if (attempt > retryPolicy.getMaxRetries()) {
+                    metrics.recordRetryDecision(e, "exhausted");
                     logger.error("Max retries ({}) exceeded", retryPolicy.getMaxRetries());
                     break;
                 }
 
                 if (!RetryPolicy.isRetryableError(e)) {
+                    metrics.recordRetryDecision(e, "not_retryable");
                     logger.warn("Non-retryable error encountered: {}", e.getClass().getSimpleName());
                     throw new RuntimeException("Non-retryable error: " + e.getMessage(), e);
                 }
 
+                metrics.recordRetryDecision(e, "retry");
                 logger.warn("Retryable error on attempt {}: {}", attempt, e.getMessage());
             }
         }
@@ -57,5 +97,137 @@ public class RetryExecutor {
         throw new RuntimeException("Operation failed after " + retryPolicy.getMaxRetries() + " retries", 
             lastException);
     }
-}
 
+    public <T> Mono<T> executeAsync(Supplier<Mono<T>> operation) {
+        return Mono.defer(operation)
+            .retryWhen(Retry.from(signals -> signals.concatMap(signal ->
+                backoff(signal, retryPolicy.calculateJitteredDelay((int) signal.totalRetries() + 1)))));
+    }
+
+    /**
+     * Retries within the policy's overall deadline. Each attempt is handed its own timeout, a share
+     * of the remaining budget, and may be hedged: if it hasn't answered within the recently observed
+     * tail latency a second identical attempt is started, the first to finish wins and the other is
+     * cancelled.
+     */
+    public <T> Mono<T> executeWithDeadline(Function<Duration, Mono<T>> operation) {
+        return Mono.defer(() -> {
+            long deadlineNanos = System.nanoTime() + retryPolicy.getDeadline().toNanos();
+            AtomicInteger attempts = new AtomicInteger();
+            return Mono.defer(() -> {
+                    Duration remaining = Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+                    Duration timeout = retryPolicy.calculateAttemptTimeout(remaining, attempts.getAndIncrement());
+                    return hedged(operation, timeout);
+                })
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    long remainingNanos = deadlineNanos - System.nanoTime();
+                    Duration delay = retryPolicy.calculateJitteredDelay((int) signal.totalRetries() + 1);
+                    if (signal.totalRetries() < retryPolicy.getMaxRetries()
+                        && RetryPolicy.isRetryableError(signal.failure())
+                        && delay.toNanos() >= remainingNanos) {
+                        metrics.recordRetryDecision(signal.failure(), "exhausted");
+                        logger.error("Deadline of {}ms exhausted after {} attempts",
+                            retryPolicy.getDeadline().toMillis(), signal.totalRetries() + 1);
+                        return Mono.error(new RuntimeException("Deadline of " + retryPolicy.getDeadline().toMillis()
+                            + "ms exhausted after " + (signal.totalRetries() + 1) + " attempts", signal.failure()));
+                    }
+                    return backoff(signal, delay);
+                })));
+        });
+    }
+
+    private <T> Mono<T> hedged(Function<Duration, Mono<T>> operation, Duration timeout) {
+        Duration hedgeDelay = hedgingPolicy.calculateHedgeDelay(timeout);
+        if (hedgeDelay == null) {
+            return timed(operation.apply(timeout).timeout(timeout));
+        }
+
+        Duration hedgeTimeout = timeout.minus(hedgeDelay);
+        return Mono.defer(() -> {
+            // A primary that fails before the hedge is due goes straight to the retry loop
+            Sinks.Empty<Void> primaryFailed = Sinks.empty();
+            Mono<T> primary = timed(operation.apply(timeout).timeout(timeout))
+                .doOnError(error -> primaryFailed.tryEmitEmpty());
+            Mono<T> hedge = Mono.delay(hedgeDelay).thenReturn(true)
+                .or(primaryFailed.asMono().thenReturn(false))
+                .flatMap(send -> send ? Mono.defer(() -> {
+                    hedgesSent.increment();
+                    logger.debug("No response after {}ms, sending hedged request", hedgeDelay.toMillis());
+                    return timed(operation.apply(hedgeTimeout).timeout(hedgeTimeout));
+                }) : Mono.<T>empty())
+                .doOnNext(result -> hedgesWon.increment());
+            // The first value wins and the loser is cancelled; an error only surfaces once both have failed
+            return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class, RetryExecutor::firstFailure);
+        });
+    }
+
+    // Every attempt counts towards the observed latency, including failures and a hedge race's loser,
+    // cancelled at the time it lost; recording only winners would pull the percentile down
+    private <T> Mono<T> timed(Mono<T> attempt) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean();
+            // Recorded once, before the signal moves on, so the winner's caller already sees its sample
+            Runnable record = () -> {
+                if (recorded.compareAndSet(false, true)) {
+                    hedgingPolicy.getHistogram().record(Duration.ofNanos(System.nanoTime() - start));
+                }
+            };
+            return attempt
+                .doOnSuccess(result -> record.run())
+                .doOnError(error -> record.run())
+                .doOnCancel(record);
+        });
+    }
+
+    // firstWithValue reports all sources failing as NoSuchElementException over a composite of their errors
+    private static Throwable firstFailure(NoSuchElementException error) {
+        if (error.getCause() != null) {
+            for (Throwable failure : Exceptions.unwrapMultiple(error.getCause())) {
+                if (failure != null) {
+                    return failure;
+                }
+            }
+        }
+        return error;
+    }
+
+    // Streams are only retried until the first element is emitted, since partial output can't be replayed
+    public <T> Flux<T> executeStreamAsync(Supplier<Flux<T>> operation) {
+        return Flux.defer(() -> {
+            AtomicBoolean emitted = new AtomicBoolean();
+            return Flux.defer(operation)
+                .doOnNext(item -> emitted.set(true))
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> emitted.get()
+                    ? Mono.error(signal.failure())
+                    : backoff(signal, retryPolicy.calculateJitteredDelay((int) signal.totalRetries() + 1)))));
+        });
+    }
+
+    private Mono<Long> backoff(Retry.RetrySignal signal, Duration delay) {
+        Throwable error = signal.failure();
+        long attempt = signal.totalRetries() + 1;
+
+        if (attempt > retryPolicy.getMaxRetries()) {
+            metrics.recordRetryDecision(error, "exhausted");
+            logger.error("Max retries ({}) exceeded", retryPolicy.getMaxRetries());
+            return Mono.error(new RuntimeException(
+                "Operation failed after " + retryPolicy.getMaxRetries() + " retries", error));
+        }
+
+        if (!RetryPolicy.isRetryableError(error)) {
+            metrics.recordRetryDecision(error, "not_retryable");
+            logger.warn("Non-retryable error encountered: {}", error.getClass().getSimpleName());
+            return Mono.error(new RuntimeException("Non-retryable error: " + error.getMessage(), error));
+        }
+
+        metrics.recordRetryDecision(error, "retry");
+        logger.warn("Retryable error on attempt {}: {}", attempt, error.getMessage());
+
+        // Mono.delay schedules on a timer instead of parking the calling thread
+        logger.info("Retrying after {}ms (attempt {}/{})",
+            delay.toMillis(), attempt, retryPolicy.getMaxRetries());
+        return Mono.delay(delay);
+    }
+}
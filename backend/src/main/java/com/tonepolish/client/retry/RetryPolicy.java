@@ -3,24 +3,66 @@ package com.tonepolish.client.retry;
 import org.springframework.http.HttpStatusCode;
 
 import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class RetryPolicy {
+    private static final Duration DEFAULT_ATTEMPT_TIMEOUT = Duration.ofSeconds(30);
+
     private final int maxRetries;
     private final Duration initialDelay;
     private final double backoffMultiplier;
     private final Duration maxDelay;
+    private final double jitterFactor;
+    private final Duration attemptTimeout;
+    private final Duration deadline;
 
     public RetryPolicy(int maxRetries, Duration initialDelay, double backoffMultiplier, Duration maxDelay) {
+        // Without an explicit budget every attempt may use its full timeout, as before
+        this(maxRetries, initialDelay, backoffMultiplier, maxDelay, 0.0, DEFAULT_ATTEMPT_TIMEOUT,
+            DEFAULT_ATTEMPT_TIMEOUT.multipliedBy(maxRetries + 1).plus(maxDelay.multipliedBy(maxRetries)));
+    }
+
+    public RetryPolicy(int maxRetries, Duration initialDelay, double backoffMultiplier, Duration maxDelay,
+                       double jitterFactor, Duration attemptTimeout, Duration deadline) {
         this.maxRetries = maxRetries;
         this.initialDelay = initialDelay;
         this.backoffMultiplier = backoffMultiplier;
         this.maxDelay = maxDelay;
+        this.jitterFactor = jitterFactor;
+        this.attemptTimeout = attemptTimeout;
+        this.deadline = deadline;
     }
 
     public int getMaxRetries() {
         return maxRetries;
     }
 
+    public Duration getAttemptTimeout() {
+        return attemptTimeout;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    // Spreads the remaining budget over the attempts still allowed, so a hung first attempt
+    // can't consume the time its retries would need; never longer than the per-attempt timeout
+    public Duration calculateAttemptTimeout(Duration remaining, int attemptNumber) {
+        int attemptsLeft = Math.max(1, maxRetries + 1 - attemptNumber);
+        Duration share = remaining.dividedBy(attemptsLeft);
+        return share.compareTo(attemptTimeout) < 0 ? share : attemptTimeout;
+    }
+
+    // Randomizes the exponential delay by +/- jitterFactor so clients that failed together don't retry together
+    public Duration calculateJitteredDelay(int attemptNumber) {
+        long delayMs = calculateDelay(attemptNumber).toMillis();
+        if (jitterFactor <= 0) {
+            return Duration.ofMillis(delayMs);
+        }
+        double jitter = 1 + jitterFactor * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Duration.ofMillis(Math.min((long) (delayMs * jitter), maxDelay.toMillis()));
+    }
+
     public Duration calculateDelay(int attemptNumber) {
         long delayMs = (long) (initialDelay.toMillis() * Math.pow(backoffMultiplier, attemptNumber - 1));
         long cappedDelay = Math.min(delayMs, maxDelay.toMillis());
@@ -0,0 +1,117 @@
+package com.tonepolish.client.routing;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.ratelimit.UpstreamRateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One upstream behind {@link RoutingAIClient}, with the signals used to rank it: EWMA latency,
+ * EWMA error rate, requests in flight and the remaining quota reported by its rate limiter.
+ * Both averages fade towards zero while the backend is idle, so a backend that was slow or failing
+ * is probed again after a while instead of being starved forever.
+ */
+public class RoutedBackend {
+
+    // Weight of the newest sample in both moving averages
+    private static final double ALPHA = 0.3;
+    // Floors that keep a single bad signal from making the cost infinite
+    private static final double MIN_SUCCESS_RATE = 0.05;
+    private static final double MIN_QUOTA_FRACTION = 0.02;
+    // Latency charged for a failed call, so one error outweighs a slow but working backend until it fades
+    private static final long FAILURE_PENALTY_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private final String name;
+    private final AIClient client;
+    private final UpstreamRateLimiter rateLimiter;
+    private final double decayNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private double latencyEwmaNanos;
+    private double errorRateEwma;
+    private long lastSampleNanos;
+
+    public RoutedBackend(String name, AIClient client, UpstreamRateLimiter rateLimiter, Duration decay) {
+        this.name = name;
+        this.client = client;
+        this.rateLimiter = rateLimiter;
+        this.decayNanos = decay.toNanos();
+        this.lastSampleNanos = System.nanoTime();
+    }
+
+    // Lower is better: expected latency scaled by queueing, failures and quota pressure
+    double cost() {
+        double latency;
+        double errorRate;
+        synchronized (this) {
+            double fade = Math.exp(-(System.nanoTime() - lastSampleNanos) / decayNanos);
+            latency = latencyEwmaNanos * fade;
+            errorRate = errorRateEwma * fade;
+        }
+        double quota = rateLimiter != null ? rateLimiter.getRemainingQuotaFraction() : 1.0;
+        return (latency + 1) * (inFlight.get() + 1)
+            / Math.max(MIN_SUCCESS_RATE, 1 - errorRate)
+            / Math.max(MIN_QUOTA_FRACTION, quota);
+    }
+
+    void onStart() {
+        inFlight.incrementAndGet();
+        requests.increment();
+    }
+
+    void onFinish() {
+        inFlight.decrementAndGet();
+    }
+
+    void onSuccess(long latencyNanos) {
+        record(latencyNanos, 0);
+    }
+
+    // A fast failure (e.g. an immediate 500) must not make the backend look fast
+    void onFailure(long latencyNanos) {
+        failures.increment();
+        record(Math.max(latencyNanos, FAILURE_PENALTY_NANOS), 1);
+    }
+
+    private synchronized void record(long latencyNanos, double error) {
+        long now = System.nanoTime();
+        double fade = Math.exp(-(now - lastSampleNanos) / decayNanos);
+        latencyEwmaNanos = latencyEwmaNanos == 0
+            ? latencyNanos
+            : ALPHA * latencyNanos + (1 - ALPHA) * latencyEwmaNanos * fade;
+        errorRateEwma = ALPHA * error + (1 - ALPHA) * errorRateEwma * fade;
+        lastSampleNanos = now;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public AIClient getClient() {
+        return client;
+    }
+
+    public synchronized Duration getLatencyEwma() {
+        return Duration.ofNanos((long) latencyEwmaNanos);
+    }
+
+    public synchronized double getErrorRate() {
+        return errorRateEwma;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,135 @@
+package com.tonepolish.client.routing;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.exception.AIClientException;
+import com.tonepolish.client.exception.RateLimitExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Spreads requests over several OpenAI-compatible backends. Each request samples two backends it
+ * hasn't tried yet and goes to the cheaper one (power of two choices), so load drifts away from a
+ * slow, failing or quota-starved backend without every caller piling onto the same "best" one.
+ * A failed attempt fails over to the remaining backends; a stream only fails over before its first
+ * chunk, since the caller has already seen the partial text after that.
+ */
+public class RoutingAIClient implements AIClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutingAIClient.class);
+
+    private final List<RoutedBackend> backends;
+
+    public RoutingAIClient(List<RoutedBackend> backends) {
+        if (backends == null || backends.isEmpty()) {
+            throw new IllegalArgumentException("At least one backend must be configured for routing");
+        }
+        this.backends = List.copyOf(backends);
+    }
+
+    @Override
+    public String refineText(String inputText) {
+        return refineTextAsync(inputText, null).block();
+    }
+
+    @Override
+    public String refineText(String inputText, String tone) {
+        return refineTextAsync(inputText, tone).block();
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
+    }
+
+    @Override
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Input text cannot be empty"));
+        }
+        return Mono.defer(() -> attempt(inputText, tone, new ArrayList<>()));
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    @Override
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        if (inputText == null || inputText.trim().isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Input text cannot be empty"));
+        }
+        return Flux.defer(() -> attemptStream(inputText, tone, new ArrayList<>()));
+    }
+
+    private Mono<String> attempt(String inputText, String tone, List<RoutedBackend> tried) {
+        RoutedBackend backend = choose(tried);
+        tried.add(backend);
+        long start = System.nanoTime();
+        backend.onStart();
+        return backend.getClient().refineTextAsync(inputText, tone)
+            .doOnSuccess(result -> backend.onSuccess(System.nanoTime() - start))
+            .doOnError(error -> onFailure(backend, error, System.nanoTime() - start))
+            .doFinally(signal -> backend.onFinish())
+            .onErrorResume(error -> canFailOver(error, tried), error -> attempt(inputText, tone, tried));
+    }
+
+    private Flux<String> attemptStream(String inputText, String tone, List<RoutedBackend> tried) {
+        RoutedBackend backend = choose(tried);
+        tried.add(backend);
+        long start = System.nanoTime();
+        AtomicBoolean emitted = new AtomicBoolean();
+        backend.onStart();
+        return backend.getClient().refineTextStream(inputText, tone)
+            .doOnNext(chunk -> emitted.set(true))
+            .doOnComplete(() -> backend.onSuccess(System.nanoTime() - start))
+            .doOnError(error -> onFailure(backend, error, System.nanoTime() - start))
+            .doFinally(signal -> backend.onFinish())
+            .onErrorResume(error -> !emitted.get() && canFailOver(error, tried),
+                error -> attemptStream(inputText, tone, tried));
+    }
+
+    private RoutedBackend choose(List<RoutedBackend> tried) {
+        List<RoutedBackend> candidates = new ArrayList<>(backends.size());
+        for (RoutedBackend backend : backends) {
+            if (!tried.contains(backend)) {
+                candidates.add(backend);
+            }
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        RoutedBackend a = candidates.get(first);
+        RoutedBackend b = candidates.get(second);
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    private void onFailure(RoutedBackend backend, Throwable error, long latencyNanos) {
+        // Our own limiter turning a request away is a quota signal, already reflected in the cost
+        if (!(error instanceof RateLimitExceededException)) {
+            backend.onFailure(latencyNanos);
+        }
+        logger.warn("Backend {} failed: {}", backend.getName(), error.getMessage());
+    }
+
+    private boolean canFailOver(Throwable error, List<RoutedBackend> tried) {
+        return error instanceof AIClientException && tried.size() < backends.size();
+    }
+
+    public List<RoutedBackend> getBackends() {
+        return backends;
+    }
+}
@@ -0,0 +1,96 @@
+package com.tonepolish.client.usage;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sum over a sliding window kept as a ring of fixed buckets, each stamped with the bucket epoch it
+ * counts for. Adding is one array CAS on a bucket change and one atomic add otherwise, and reading
+ * walks the ring, so both stay in the nanoseconds with no locks. The window slides a bucket at a
+ * time, and an add racing the roll-over can land in the new bucket.
+ */
+public class SlidingWindowCounter {
+
+    private final long bucketNanos;
+    private final int buckets;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray counts;
+
+    public SlidingWindowCounter(Duration window, int buckets) {
+        if (buckets < 1 || window.toNanos() < buckets) {
+            throw new IllegalArgumentException("Window must be at least one nanosecond per bucket");
+        }
+        this.bucketNanos = window.toNanos() / buckets;
+        this.buckets = buckets;
+        this.epochs = new AtomicLongArray(buckets);
+        this.counts = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            epochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    // Amounts may be negative, e.g. to return the unused part of a reservation
+    public void add(long nowNanos, long amount) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        int index = (int) Math.floorMod(epoch, (long) buckets);
+        long seen = epochs.get(index);
+        if (seen != epoch) {
+            long stale = counts.get(index);
+            // Only the thread that moves the stamp clears the bucket; losers just add to it
+            if (seen < epoch && epochs.compareAndSet(index, seen, epoch)) {
+                counts.addAndGet(index, -stale);
+            }
+        }
+        counts.addAndGet(index, amount);
+    }
+
+    /**
+     * Corrects an amount added at {@code addedAtNanos} in the bucket it went into, so it leaves the
+     * window together with the original. Dropped once that bucket has left the window.
+     */
+    public void correct(long addedAtNanos, long nowNanos, long amount) {
+        long epoch = Math.floorDiv(addedAtNanos, bucketNanos);
+        if (epoch <= Math.floorDiv(nowNanos, bucketNanos) - buckets) {
+            return;
+        }
+        int index = (int) Math.floorMod(epoch, (long) buckets);
+        // A bucket reused for a later epoch no longer holds the original amount
+        if (epochs.get(index) == epoch) {
+            counts.addAndGet(index, amount);
+        }
+    }
+
+    public long sum(long nowNanos) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long stamp = epochs.get(i);
+            if (stamp > epoch - buckets && stamp <= epoch) {
+                total += counts.get(i);
+            }
+        }
+        return Math.max(0, total);
+    }
+
+    /**
+     * How long until enough of the window has slid out for the sum to drop to {@code target},
+     * assuming nothing else is added, or zero if it is already there.
+     */
+    public Duration timeUntilAtMost(long nowNanos, long target) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        long remaining = sum(nowNanos);
+        if (remaining <= target) {
+            return Duration.ZERO;
+        }
+        for (long oldest = epoch - buckets + 1; oldest <= epoch; oldest++) {
+            int index = (int) Math.floorMod(oldest, (long) buckets);
+            if (epochs.get(index) == oldest) {
+                remaining -= counts.get(index);
+            }
+            if (remaining <= target) {
+                return Duration.ofNanos((oldest + buckets) * bucketNanos - nowNanos);
+            }
+        }
+        return Duration.ofNanos((epoch + buckets) * bucketNanos - nowNanos);
+    }
+}
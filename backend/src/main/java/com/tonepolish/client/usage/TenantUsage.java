@@ -0,0 +1,83 @@
+package com.tonepolish.client.usage;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+// Running totals and the quota window for one tenant; the totals are striped so hot tenants don't contend
+public class TenantUsage {
+
+    private final String tenantId;
+    private final long tokensPerWindow;
+    private final SlidingWindowCounter window;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder promptTokens = new LongAdder();
+    private final LongAdder completionTokens = new LongAdder();
+
+    // Last values written to the usage log, only touched by the flusher
+    long flushedAdmitted;
+    long flushedRejected;
+    long flushedPromptTokens;
+    long flushedCompletionTokens;
+
+    TenantUsage(String tenantId, long tokensPerWindow, Duration window, int buckets) {
+        this.tenantId = tenantId;
+        this.tokensPerWindow = tokensPerWindow;
+        this.window = new SlidingWindowCounter(window, buckets);
+    }
+
+    // Reserves the estimate up front, so a burst of concurrent requests can't all slip under the limit.
+    // A request estimated above the whole quota only needs an empty window, or it could never run.
+    boolean tryReserve(long nowNanos, long estimatedTokens) {
+        if (tokensPerWindow > 0 && window.sum(nowNanos) + Math.min(estimatedTokens, tokensPerWindow) > tokensPerWindow) {
+            rejected.increment();
+            return false;
+        }
+        window.add(nowNanos, estimatedTokens);
+        admitted.increment();
+        return true;
+    }
+
+    void recordTokens(int prompt, int completion) {
+        promptTokens.add(prompt);
+        completionTokens.add(completion);
+    }
+
+    void adjust(long reservedAtNanos, long nowNanos, long tokens) {
+        if (tokens != 0) {
+            window.correct(reservedAtNanos, nowNanos, tokens);
+        }
+    }
+
+    Duration retryAfter(long nowNanos, long estimatedTokens) {
+        return window.timeUntilAtMost(nowNanos, tokensPerWindow - Math.min(estimatedTokens, tokensPerWindow));
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public long getTokensPerWindow() {
+        return tokensPerWindow;
+    }
+
+    public long getWindowTokens() {
+        return window.sum(System.nanoTime());
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getPromptTokens() {
+        return promptTokens.sum();
+    }
+
+    public long getCompletionTokens() {
+        return completionTokens.sum();
+    }
+}
@@ -0,0 +1,268 @@
+package com.tonepolish.client.usage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tenant token accounting and sliding-window quotas. Admitting a request reserves its
+ * estimated tokens in the tenant's window; upstream then charges what the provider reports through
+ * the request's {@link TokenCharge}, and settling corrects the reservation. The hot path is a map
+ * lookup, a window sum and a few striped adds, with no locks.
+ *
+ * Every flush interval the tokens and requests since the previous flush are appended to the usage
+ * log as one JSON line per active tenant, with the cost at the configured per-million prices, so
+ * spend can be attributed after the fact by summing lines.
+ */
+public class TenantUsageTracker implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantUsageTracker.class);
+
+    public static final String DEFAULT_TENANT = "default";
+    // Shared by tenants seen after the cap, so a client inventing ids can't grow the map without bound
+    public static final String OVERFLOW_TENANT = "overflow";
+    private static final int MAX_TENANT_ID_LENGTH = 64;
+    private static final int WINDOW_BUCKETS = 12;
+
+    private final long defaultTokensPerWindow;
+    private final Map<String, Long> quotas;
+    private final Duration window;
+    private final int maxTenants;
+    private final double promptCostPerMillion;
+    private final double completionCostPerMillion;
+    private final Map<String, TenantUsage> tenants = new ConcurrentHashMap<>();
+    private final FileChannel log;
+    private final ScheduledExecutorService flusher;
+
+    public TenantUsageTracker(long defaultTokensPerWindow, Duration window) {
+        this(defaultTokensPerWindow, Map.of(), window, 10_000);
+    }
+
+    public TenantUsageTracker(long defaultTokensPerWindow, Map<String, Long> quotas, Duration window, int maxTenants) {
+        this(defaultTokensPerWindow, quotas, window, maxTenants, null, Duration.ZERO, 0, 0);
+    }
+
+    public TenantUsageTracker(long defaultTokensPerWindow, Map<String, Long> quotas, Duration window, int maxTenants,
+                              Path logPath, Duration flushInterval,
+                              double promptCostPerMillion, double completionCostPerMillion) {
+        this.defaultTokensPerWindow = defaultTokensPerWindow;
+        this.quotas = Map.copyOf(quotas);
+        this.window = window;
+        this.maxTenants = maxTenants;
+        this.promptCostPerMillion = promptCostPerMillion;
+        this.completionCostPerMillion = completionCostPerMillion;
+
+        if (logPath == null) {
+            this.log = null;
+            this.flusher = null;
+            return;
+        }
+        try {
+            if (logPath.getParent() != null) {
+                Files.createDirectories(logPath.getParent());
+            }
+            this.log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot open tenant usage log " + logPath, e);
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-usage-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // "tenant:tokens" pairs separated by commas, e.g. "team-a:200000,team-b:50000"
+    public static Map<String, Long> parseQuotas(String quotas) {
+        Map<String, Long> parsed = new LinkedHashMap<>();
+        for (String entry : quotas.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.lastIndexOf(':');
+            if (colon <= 0 || !isValidTenantId(trimmed.substring(0, colon).trim())) {
+                throw new IllegalArgumentException("Invalid tenant quota '" + trimmed + "', expected tenant:tokens");
+            }
+            parsed.put(trimmed.substring(0, colon).trim(), Long.parseLong(trimmed.substring(colon + 1).trim()));
+        }
+        return parsed;
+    }
+
+    // Missing or blank headers count as the default tenant; null means the header was unusable
+    public static String tenantOf(String header) {
+        if (header == null || header.isBlank()) {
+            return DEFAULT_TENANT;
+        }
+        String tenant = header.trim();
+        return isValidTenantId(tenant) ? tenant : null;
+    }
+
+    // Same ~4 characters per token as the upstream client: the system prompt plus a reply as long as the input
+    public static long estimateTokens(String systemPrompt, long inputChars) {
+        return (systemPrompt.length() + 2 * inputChars) / 4 + 16;
+    }
+
+    // Ids end up in log lines and must stay cheap to compare, so only short plain tokens are accepted
+    public static boolean isValidTenantId(String tenantId) {
+        if (tenantId == null || tenantId.isEmpty() || tenantId.length() > MAX_TENANT_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < tenantId.length(); i++) {
+            char c = tenantId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reserves {@code estimatedTokens} against the tenant's window, or returns null if that would
+     * take the tenant over its quota. The caller must {@link TokenCharge#settle() settle} the
+     * charge once the request is done.
+     */
+    public TokenCharge tryAcquire(String tenantId, long estimatedTokens) {
+        TenantUsage tenant = tenant(tenantId);
+        long nowNanos = System.nanoTime();
+        if (!tenant.tryReserve(nowNanos, estimatedTokens)) {
+            return null;
+        }
+        return new TokenCharge(tenant, estimatedTokens, nowNanos);
+    }
+
+    // How long until a request of this size would fit in the tenant's window again
+    public Duration retryAfter(String tenantId, long estimatedTokens) {
+        return tenant(tenantId).retryAfter(System.nanoTime(), estimatedTokens);
+    }
+
+    public TenantUsage getUsage(String tenantId) {
+        return tenants.get(tenantId);
+    }
+
+    public Collection<TenantUsage> getTenants() {
+        return tenants.values();
+    }
+
+    public int getTenantCount() {
+        return tenants.size();
+    }
+
+    public long getAdmitted() {
+        return tenants.values().stream().mapToLong(TenantUsage::getAdmitted).sum();
+    }
+
+    public long getRejected() {
+        return tenants.values().stream().mapToLong(TenantUsage::getRejected).sum();
+    }
+
+    public long getPromptTokens() {
+        return tenants.values().stream().mapToLong(TenantUsage::getPromptTokens).sum();
+    }
+
+    public long getCompletionTokens() {
+        return tenants.values().stream().mapToLong(TenantUsage::getCompletionTokens).sum();
+    }
+
+    /**
+     * Appends a line per tenant with activity since the last flush. Runs on the flusher thread,
+     * and once more on close; the lock only keeps those two from interleaving.
+     */
+    public synchronized void flush() throws IOException {
+        if (log == null) {
+            return;
+        }
+        String timestamp = Instant.now().toString();
+        StringBuilder lines = new StringBuilder();
+        for (TenantUsage tenant : tenants.values()) {
+            long admitted = tenant.getAdmitted();
+            long rejected = tenant.getRejected();
+            long prompt = tenant.getPromptTokens();
+            long completion = tenant.getCompletionTokens();
+            long admittedDelta = admitted - tenant.flushedAdmitted;
+            long rejectedDelta = rejected - tenant.flushedRejected;
+            long promptDelta = prompt - tenant.flushedPromptTokens;
+            long completionDelta = completion - tenant.flushedCompletionTokens;
+            if (admittedDelta == 0 && rejectedDelta == 0 && promptDelta == 0 && completionDelta == 0) {
+                continue;
+            }
+            double cost = (promptDelta * promptCostPerMillion + completionDelta * completionCostPerMillion) / 1_000_000;
+            lines.append("{\"ts\":\"").append(timestamp)
+                .append("\",\"tenant\":\"").append(tenant.getTenantId())
+                .append("\",\"requests\":").append(admittedDelta)
+                .append(",\"rejected\":").append(rejectedDelta)
+                .append(",\"prompt_tokens\":").append(promptDelta)
+                .append(",\"completion_tokens\":").append(completionDelta)
+                .append(",\"cost_usd\":").append(String.format(Locale.ROOT, "%.6f", cost))
+                .append("}\n");
+            tenant.flushedAdmitted = admitted;
+            tenant.flushedRejected = rejected;
+            tenant.flushedPromptTokens = prompt;
+            tenant.flushedCompletionTokens = completion;
+        }
+        if (lines.length() == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            log.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdownNow();
+        flush();
+        log.close();
+    }
+
+    private TenantUsage tenant(String tenantId) {
+        TenantUsage tenant = tenants.get(tenantId);
+        if (tenant != null) {
+            return tenant;
+        }
+        if (tenants.size() >= maxTenants && !quotas.containsKey(tenantId)) {
+            tenantId = OVERFLOW_TENANT;
+        }
+        return tenants.computeIfAbsent(tenantId, id -> {
+            if (OVERFLOW_TENANT.equals(id)) {
+                logger.warn("More than {} tenants seen, further tenants share the '{}' quota", maxTenants, id);
+            }
+            return new TenantUsage(id, quotas.getOrDefault(id, defaultTokensPerWindow), window, WINDOW_BUCKETS);
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to flush tenant usage: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.tonepolish.client.usage;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * One request's claim on its tenant's quota. It rides in the Reactor context, so the upstream
+ * client can charge the tokens the provider reports without the layers in between knowing about
+ * tenants. Cache hits never reach upstream and cost nothing; when the request finishes,
+ * {@link #settle()} swaps the up-front estimate in the quota window for what was actually used.
+ */
+public class TokenCharge {
+
+    private static final String CONTEXT_KEY = TokenCharge.class.getName();
+    // Field updaters keep this to one small allocation per request
+    private static final AtomicLongFieldUpdater<TokenCharge> CHARGED =
+        AtomicLongFieldUpdater.newUpdater(TokenCharge.class, "chargedTokens");
+    private static final AtomicIntegerFieldUpdater<TokenCharge> SETTLED =
+        AtomicIntegerFieldUpdater.newUpdater(TokenCharge.class, "settled");
+
+    private final TenantUsage tenant;
+    private final long reservedTokens;
+    private final long reservedAtNanos;
+    private volatile long chargedTokens;
+    private volatile int settled;
+
+    TokenCharge(TenantUsage tenant, long reservedTokens, long reservedAtNanos) {
+        this.tenant = tenant;
+        this.reservedTokens = reservedTokens;
+        this.reservedAtNanos = reservedAtNanos;
+    }
+
+    public static TokenCharge from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    /**
+     * A charge for one upstream call made on behalf of several requests, e.g. a coalesced batch.
+     * Reported tokens are split across {@code charges} in proportion to {@code weights}; null
+     * entries (requests without a tenant) drop their share. Settling it does nothing, as each
+     * request settles its own charge.
+     */
+    public static TokenCharge split(List<TokenCharge> charges, long[] weights) {
+        return new Split(charges, weights);
+    }
+
+    public Context attachTo(Context context) {
+        return context.put(CONTEXT_KEY, this);
+    }
+
+    // Batch items go upstream concurrently, so this may be called from several threads
+    public void record(int promptTokens, int completionTokens) {
+        tenant.recordTokens(promptTokens, completionTokens);
+        CHARGED.addAndGet(this, promptTokens + completionTokens);
+    }
+
+    // The difference goes where the reservation went, so a long request can't push usage out of the window early
+    public void settle() {
+        if (SETTLED.compareAndSet(this, 0, 1)) {
+            tenant.adjust(reservedAtNanos, System.nanoTime(), chargedTokens - reservedTokens);
+        }
+    }
+
+    public String getTenantId() {
+        return tenant.getTenantId();
+    }
+
+    public long getChargedTokens() {
+        return chargedTokens;
+    }
+
+    private static final class Split extends TokenCharge {
+        private final List<TokenCharge> charges;
+        private final long[] weights;
+        private final long totalWeight;
+
+        private Split(List<TokenCharge> charges, long[] weights) {
+            super(null, 0, 0);
+            long total = 0;
+            for (long weight : weights) {
+                total += weight;
+            }
+            this.charges = charges;
+            this.weights = weights;
+            this.totalWeight = Math.max(1, total);
+        }
+
+        // Shares come from cumulative rounding, so they add up to exactly what was reported
+        @Override
+        public void record(int promptTokens, int completionTokens) {
+            long cumulative = 0;
+            int promptSoFar = 0;
+            int completionSoFar = 0;
+            for (int i = 0; i < weights.length; i++) {
+                cumulative += weights[i];
+                int promptUpTo = (int) (promptTokens * cumulative / totalWeight);
+                int completionUpTo = (int) (completionTokens * cumulative / totalWeight);
+                TokenCharge charge = charges.get(i);
+                if (charge != null) {
+                    charge.record(promptUpTo - promptSoFar, completionUpTo - completionSoFar);
+                }
+                promptSoFar = promptUpTo;
+                completionSoFar = completionUpTo;
+            }
+        }
+
+        @Override
+        public void settle() {
+        }
+
+        @Override
+        public String getTenantId() {
+            return null;
+        }
+    }
+}
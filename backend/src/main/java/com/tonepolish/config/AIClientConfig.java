@@ -2,20 +2,65 @@ package com.tonepolish.config;
 
 import com.tonepolish.client.AIClient;
 import com.tonepolish.client.GroqAIClient;
+import com.tonepolish.client.LatencyModel;
 import com.tonepolish.client.MockAIClient;
+import com.tonepolish.client.batch.CoalescingAIClient;
+import com.tonepolish.client.cache.CachingAIClient;
+import com.tonepolish.client.cache.DiskCacheStore;
+import com.tonepolish.client.cache.DiskCachingAIClient;
+import com.tonepolish.client.cache.NearDuplicateAIClient;
+import com.tonepolish.client.cache.NearDuplicateIndex;
+import com.tonepolish.client.cluster.ClusterCoalescingAIClient;
+import com.tonepolish.client.cluster.EmbeddedSharedRefineCache;
+import com.tonepolish.client.cluster.RespSharedRefineCache;
+import com.tonepolish.client.cluster.SharedRefineCache;
+import com.tonepolish.client.http.UpstreamConnector;
+import com.tonepolish.client.local.FastPathAIClient;
+import com.tonepolish.client.local.FastPathMode;
+import com.tonepolish.client.local.LocalRefiner;
+import com.tonepolish.client.metrics.AIClientMetrics;
+import com.tonepolish.client.preprocess.PiiKind;
+import com.tonepolish.client.preprocess.PreprocessingAIClient;
+import com.tonepolish.client.preprocess.TextPreprocessor;
 import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.ratelimit.UpstreamRateLimiter;
+import com.tonepolish.client.resilience.CircuitBreaker;
+import com.tonepolish.client.routing.RoutedBackend;
+import com.tonepolish.client.routing.RoutingAIClient;
+import com.tonepolish.client.usage.TenantUsageTracker;
+import com.tonepolish.client.retry.HedgingPolicy;
+import com.tonepolish.client.retry.RetryExecutor;
+import com.tonepolish.client.retry.RetryPolicy;
+import com.tonepolish.client.resilience.CircuitBreakerAIClient;
+import com.tonepolish.client.resilience.CircuitOpenFallbackAIClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 @Configuration
+@EnableConfigurationProperties(RoutingProperties.class)
 public class AIClientConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(AIClientConfig.class);
+
     @Autowired
     private PromptManager promptManager;
 
@@ -24,24 +69,279 @@ public class AIClientConfig {
     public AIClient groqAIClient(@Value("${ai.api.key}") String apiKey,
                                  @Value("${ai.api.url}") String apiUrl,
                                  @Value("${ai.api.model:llama-3.1-8b-instant}") String model,
-                                 @Value("${ai.api.retry.max-retries:3}") int maxRetries,
-                                 @Value("${ai.api.retry.initial-delay-ms:1000}") long initialDelayMs,
-                                 @Value("${ai.api.retry.backoff-multiplier:2.0}") double backoffMultiplier,
-                                 @Value("${ai.api.retry.max-delay-ms:10000}") long maxDelayMs) {
+                                 @Value("${ai.api.cache.enabled:true}") boolean cacheEnabled,
+                                 @Value("${ai.api.cache.max-size-bytes:67108864}") long cacheMaxSizeBytes,
+                                 @Value("${ai.api.cache.ttl-seconds:3600}") long cacheTtlSeconds,
+                                 @Value("${ai.api.cache.similarity.enabled:false}") boolean similarityEnabled,
+                                 @Value("${ai.api.cache.similarity.threshold:0.9}") double similarityThreshold,
+                                 @Value("${ai.api.cache.similarity.max-entries:100000}") int similarityMaxEntries,
+                                 @Value("${ai.api.cache.similarity.max-input-chars:1000}") int similarityMaxInputChars,
+                                 @Value("${ai.api.cache.similarity.bands:8}") int similarityBands,
+                                 @Value("${ai.api.cache.similarity.rows:4}") int similarityRows,
+                                 @Value("${ai.api.cache.similarity.sample-rate:0.01}") double similaritySampleRate,
+                                 @Value("${ai.api.cache.similarity.sample-min-similarity:0.5}") double similaritySampleMin,
+                                 @Value("${ai.api.preprocess.enabled:true}") boolean preprocessEnabled,
+                                 @Value("${ai.api.preprocess.mask:email,phone,url,id}") String preprocessMask,
+                                 @Value("${ai.api.fast-path.mode:shadow}") FastPathMode fastPathMode,
+                                 @Value("${ai.api.fast-path.threshold:0.8}") double fastPathThreshold,
+                                 @Value("${ai.api.fast-path.max-words:20}") int fastPathMaxWords,
+                                 @Value("${ai.api.fast-path.shadow-min-similarity:0.5}") double fastPathShadowMin,
+                                 @Value("${ai.api.coalescing.enabled:false}") boolean coalescingEnabled,
+                                 @Value("${ai.api.coalescing.window-ms:20}") long coalescingWindowMs,
+                                 @Value("${ai.api.coalescing.max-batch-size:8}") int coalescingMaxBatchSize,
+                                 @Value("${ai.api.coalescing.max-item-chars:280}") int coalescingMaxItemChars,
+                                 @Value("${ai.api.cluster.lease-ms:50000}") long clusterLeaseMs,
+                                 @Value("${ai.api.cluster.ttl-seconds:3600}") long clusterTtlSeconds,
+                                 @Value("${ai.api.cluster.max-poll-ms:100}") long clusterMaxPollMs,
+                                 @Value("${ai.api.circuit-breaker.enabled:true}") boolean circuitBreakerEnabled,
+                                 @Value("${ai.api.circuit-breaker.fallback:local}") String circuitBreakerFallback,
+                                 RetryExecutor retryExecutor,
+                                 UpstreamConnector connector,
+                                 RoutingProperties routing,
+                                 AIClientMetrics metrics,
+                                 ObjectProvider<CircuitBreaker> circuitBreaker,
+                                 ObjectProvider<DiskCacheStore> diskCacheStore,
+                                 ObjectProvider<SharedRefineCache> sharedRefineCache,
+                                 ObjectProvider<UpstreamRateLimiter> rateLimiter) {
         if (apiKey == null || apiKey.isEmpty() || apiUrl == null || apiUrl.isEmpty()) {
             throw new IllegalArgumentException("ai.api.key and ai.api.url must be configured for GroqAIClient");
         }
-        return new GroqAIClient(apiKey, apiUrl, model, promptManager,
-            maxRetries, 
+
+        AIClient client;
+        String cacheModel = model;
+        metrics.bindConnector(connector);
+        metrics.bindRetryExecutor(retryExecutor);
+        if (routing.isEnabled()) {
+            RoutingAIClient router = routingAIClient(routing, connector, metrics);
+            metrics.bindRouting(router);
+            client = router;
+            cacheModel = "routed";
+            if (coalescingEnabled) {
+                logger.warn("ai.api.coalescing is ignored while ai.api.routing is enabled");
+            }
+        } else {
+            UpstreamRateLimiter limiter = rateLimiter.getIfAvailable();
+            if (limiter != null) {
+                metrics.bindRateLimiter("upstream", limiter);
+            }
+            GroqAIClient groqClient = new GroqAIClient(apiKey, apiUrl, model, promptManager,
+                retryExecutor, limiter, connector.getConnector(), metrics);
+            client = groqClient;
+            if (coalescingEnabled) {
+                CoalescingAIClient coalescing = new CoalescingAIClient(groqClient, promptManager,
+                    Duration.ofMillis(coalescingWindowMs), coalescingMaxBatchSize, coalescingMaxItemChars);
+                metrics.bindCoalescing(coalescing.getStats());
+                client = coalescing;
+            }
+        }
+
+        SharedRefineCache sharedCache = sharedRefineCache.getIfAvailable();
+        if (sharedCache != null) {
+            // Inside the circuit breaker, so degraded fallback replies are never shared with other replicas
+            ClusterCoalescingAIClient cluster = new ClusterCoalescingAIClient(client, promptManager, cacheModel,
+                sharedCache, nodeId(), Duration.ofMillis(clusterLeaseMs), Duration.ofSeconds(clusterTtlSeconds),
+                Duration.ofMillis(clusterMaxPollMs));
+            metrics.bindClusterCache(cluster.getStats());
+            client = cluster;
+        }
+        if (circuitBreakerEnabled) {
+            client = new CircuitBreakerAIClient(client, circuitBreaker.getObject());
+            metrics.bindCircuitBreaker(circuitBreaker.getObject());
+        }
+        DiskCacheStore diskStore = diskCacheStore.getIfAvailable();
+        if (diskStore != null) {
+            client = new DiskCachingAIClient(client, promptManager, cacheModel, diskStore);
+        }
+        if (similarityEnabled) {
+            NearDuplicateIndex index = new NearDuplicateIndex(similarityMaxEntries, similarityBands, similarityRows,
+                similarityThreshold);
+            NearDuplicateAIClient nearDuplicates = new NearDuplicateAIClient(client, promptManager, index,
+                similarityMaxInputChars, similaritySampleRate, similaritySampleMin);
+            metrics.bindNearDuplicateCache(nearDuplicates);
+            client = nearDuplicates;
+        }
+        if (cacheEnabled) {
+            CachingAIClient cache = new CachingAIClient(client, promptManager, cacheModel,
+                cacheMaxSizeBytes, Duration.ofSeconds(cacheTtlSeconds));
+            metrics.bindCache(cache);
+            client = cache;
+        }
+        if (circuitBreakerEnabled && "local".equals(circuitBreakerFallback)) {
+            // Above the caches, so degraded replies are never stored
+            client = new CircuitOpenFallbackAIClient(client, new MockAIClient(Duration.ZERO, Duration.ZERO),
+                promptManager);
+        }
+        if (preprocessEnabled) {
+            // Outside the caches, so messages differing only in customer details share entries
+            PreprocessingAIClient preprocessing = new PreprocessingAIClient(client,
+                new TextPreprocessor(PiiKind.parseList(preprocessMask)));
+            metrics.bindPreprocessing(preprocessing.getStats());
+            client = preprocessing;
+        }
+        if (fastPathMode != FastPathMode.OFF) {
+            FastPathAIClient fastPath = new FastPathAIClient(client, promptManager,
+                new LocalRefiner(fastPathMaxWords), fastPathMode, fastPathThreshold, fastPathShadowMin);
+            metrics.bindFastPath(fastPath);
+            client = fastPath;
+        }
+        return client;
+    }
+
+    // Each backend gets its own limiter and a single attempt; failing over to another backend is the retry
+    private RoutingAIClient routingAIClient(RoutingProperties routing, UpstreamConnector connector,
+                                            AIClientMetrics metrics) {
+        Duration attemptTimeout = Duration.ofMillis(routing.getAttemptTimeoutMs());
+        List<RoutedBackend> backends = new ArrayList<>();
+        for (RoutingProperties.Backend backend : routing.getBackends()) {
+            UpstreamRateLimiter limiter = new UpstreamRateLimiter(backend.getRequestsPerMinute(),
+                backend.getTokensPerMinute(), routing.getInitialConcurrency(), routing.getMinConcurrency(),
+                routing.getMaxConcurrency(), Duration.ofMillis(routing.getLatencyThresholdMs()),
+                Duration.ofMillis(routing.getMaxWaitMs()), routing.getMaxQueued());
+            metrics.bindRateLimiter(backend.getName(), limiter);
+            RetryExecutor singleAttempt = new RetryExecutor(new RetryPolicy(0, Duration.ZERO, 1.0, Duration.ZERO,
+                0, attemptTimeout, attemptTimeout), HedgingPolicy.disabled(), metrics);
+            GroqAIClient client = new GroqAIClient(backend.getKey(), backend.getUrl(), backend.getModel(),
+                promptManager, singleAttempt, limiter, connector.getConnector(), metrics);
+            backends.add(new RoutedBackend(backend.getName(), client, limiter,
+                Duration.ofSeconds(routing.getDecaySeconds())));
+        }
+        logger.info("Routing refinements across {} backends", backends.size());
+        return new RoutingAIClient(backends);
+    }
+
+    @Bean
+    public AIClientMetrics aiClientMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        return new AIClientMetrics(meterRegistry, observationRegistry);
+    }
+
+    @Bean
+    public UpstreamConnector upstreamConnector(@Value("${ai.api.http.max-connections:100}") int maxConnections,
+                                               @Value("${ai.api.http.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+                                               @Value("${ai.api.http.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMs,
+                                               @Value("${ai.api.http.max-idle-time-ms:30000}") long maxIdleTimeMs,
+                                               @Value("${ai.api.http.max-life-time-ms:300000}") long maxLifeTimeMs,
+                                               @Value("${ai.api.http.eviction-interval-ms:10000}") long evictionIntervalMs,
+                                               @Value("${ai.api.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+                                               @Value("${ai.api.http.http2:true}") boolean http2,
+                                               @Value("${ai.api.http.compression:true}") boolean compression) {
+        return new UpstreamConnector("upstream", maxConnections, pendingAcquireMaxCount,
+            Duration.ofMillis(pendingAcquireTimeoutMs), Duration.ofMillis(maxIdleTimeMs),
+            Duration.ofMillis(maxLifeTimeMs), Duration.ofMillis(evictionIntervalMs),
+            Duration.ofMillis(connectTimeoutMs), http2, compression);
+    }
+
+    @Bean
+    public RetryExecutor upstreamRetryExecutor(@Value("${ai.api.retry.max-retries:3}") int maxRetries,
+                                               @Value("${ai.api.retry.initial-delay-ms:1000}") long initialDelayMs,
+                                               @Value("${ai.api.retry.backoff-multiplier:2.0}") double backoffMultiplier,
+                                               @Value("${ai.api.retry.max-delay-ms:10000}") long maxDelayMs,
+                                               @Value("${ai.api.retry.jitter-factor:0.2}") double jitterFactor,
+                                               @Value("${ai.api.retry.attempt-timeout-ms:30000}") long attemptTimeoutMs,
+                                               @Value("${ai.api.retry.deadline-ms:45000}") long deadlineMs,
+                                               @Value("${ai.api.hedge.enabled:false}") boolean hedgeEnabled,
+                                               @Value("${ai.api.hedge.percentile:0.95}") double hedgePercentile,
+                                               @Value("${ai.api.hedge.min-delay-ms:200}") long hedgeMinDelayMs,
+                                               @Value("${ai.api.hedge.min-samples:50}") long hedgeMinSamples,
+                                               @Value("${ai.api.hedge.window-seconds:60}") long hedgeWindowSeconds,
+                                               AIClientMetrics metrics) {
+        RetryPolicy retryPolicy = new RetryPolicy(maxRetries, 
             Duration.ofMillis(initialDelayMs), 
             backoffMultiplier, 
-            Duration.ofMillis(maxDelayMs));
+            Duration.ofMillis(maxDelayMs),
+            jitterFactor,
+            Duration.ofMillis(attemptTimeoutMs),
+            Duration.ofMillis(deadlineMs));
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(hedgeEnabled, hedgePercentile,
+            Duration.ofMillis(hedgeMinDelayMs), hedgeMinSamples, Duration.ofSeconds(hedgeWindowSeconds));
+        return new RetryExecutor(retryPolicy, hedgingPolicy, metrics);
+    }
+
+    @Bean
+    public CircuitBreaker upstreamCircuitBreaker(@Value("${ai.api.circuit-breaker.sliding-window-size:20}") int windowSize,
+                                                 @Value("${ai.api.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                                                 @Value("${ai.api.circuit-breaker.failure-rate-threshold:50}") double failureRateThreshold,
+                                                 @Value("${ai.api.circuit-breaker.slow-call-rate-threshold:80}") double slowCallRateThreshold,
+                                                 @Value("${ai.api.circuit-breaker.slow-call-duration-ms:10000}") long slowCallDurationMs,
+                                                 @Value("${ai.api.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+                                                 @Value("${ai.api.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        return new CircuitBreaker("groq", windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+            Duration.ofMillis(slowCallDurationMs), Duration.ofMillis(openDurationMs), halfOpenCalls);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ai.api.ratelimit.enabled", havingValue = "true")
+    public UpstreamRateLimiter upstreamRateLimiter(@Value("${ai.api.ratelimit.requests-per-minute:30}") int requestsPerMinute,
+                                                   @Value("${ai.api.ratelimit.tokens-per-minute:6000}") int tokensPerMinute,
+                                                   @Value("${ai.api.ratelimit.concurrency.initial:8}") int initialConcurrency,
+                                                   @Value("${ai.api.ratelimit.concurrency.min:1}") int minConcurrency,
+                                                   @Value("${ai.api.ratelimit.concurrency.max:64}") int maxConcurrency,
+                                                   @Value("${ai.api.ratelimit.concurrency.latency-threshold-ms:5000}") long latencyThresholdMs,
+                                                   @Value("${ai.api.ratelimit.max-wait-ms:2000}") long maxWaitMs,
+                                                   @Value("${ai.api.ratelimit.max-queued:500}") int maxQueued) {
+        return new UpstreamRateLimiter(requestsPerMinute, tokensPerMinute,
+            initialConcurrency, minConcurrency, maxConcurrency,
+            Duration.ofMillis(latencyThresholdMs), Duration.ofMillis(maxWaitMs), maxQueued);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ai.api.cache.disk.enabled", havingValue = "true")
+    public DiskCacheStore diskCacheStore(@Value("${ai.api.cache.disk.path:data/refine-cache.log}") String path,
+                                         @Value("${ai.api.cache.disk.max-size-bytes:268435456}") long maxSizeBytes,
+                                         @Value("${ai.api.cache.disk.ttl-seconds:604800}") long ttlSeconds) throws IOException {
+        return new DiskCacheStore(Path.of(path), maxSizeBytes, Duration.ofSeconds(ttlSeconds));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ai.api.cluster.enabled", havingValue = "true")
+    public SharedRefineCache sharedRefineCache(@Value("${ai.api.cluster.store:resp}") String store,
+                                               @Value("${ai.api.cluster.resp.nodes:localhost:6379}") String nodes,
+                                               @Value("${ai.api.cluster.resp.timeout-ms:250}") long timeoutMs,
+                                               @Value("${ai.api.cluster.resp.max-idle-connections:16}") int maxIdleConnections,
+                                               @Value("${ai.api.cluster.embedded.max-entries:100000}") long maxEntries) {
+        if ("embedded".equals(store)) {
+            return new EmbeddedSharedRefineCache(maxEntries);
+        }
+        if ("resp".equals(store)) {
+            logger.info("Sharing refinements across replicas through {}", nodes);
+            return new RespSharedRefineCache(RespSharedRefineCache.parseNodes(nodes), Duration.ofMillis(timeoutMs),
+                maxIdleConnections);
+        }
+        throw new IllegalArgumentException("ai.api.cluster.store must be embedded or resp, got '" + store + "'");
+    }
+
+    @Bean
+    public TenantUsageTracker tenantUsageTracker(@Value("${ai.api.tenants.tokens-per-window:0}") long tokensPerWindow,
+                                                 @Value("${ai.api.tenants.quotas:}") String quotas,
+                                                 @Value("${ai.api.tenants.window-seconds:60}") long windowSeconds,
+                                                 @Value("${ai.api.tenants.max-tenants:10000}") int maxTenants,
+                                                 @Value("${ai.api.tenants.usage-log.path:data/tenant-usage.log}") String logPath,
+                                                 @Value("${ai.api.tenants.usage-log.flush-interval-ms:10000}") long flushIntervalMs,
+                                                 @Value("${ai.api.tenants.cost.prompt-per-million:0.05}") double promptCostPerMillion,
+                                                 @Value("${ai.api.tenants.cost.completion-per-million:0.08}") double completionCostPerMillion,
+                                                 AIClientMetrics metrics) {
+        TenantUsageTracker tracker = new TenantUsageTracker(tokensPerWindow, TenantUsageTracker.parseQuotas(quotas),
+            Duration.ofSeconds(windowSeconds), maxTenants, logPath.isEmpty() ? null : Path.of(logPath),
+            Duration.ofMillis(flushIntervalMs), promptCostPerMillion, completionCostPerMillion);
+        metrics.bindTenantUsage(tracker);
+        return tracker;
+    }
+
+    // Distinguishes this replica's claims from others' in the shared cache
+    private static String nodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
     }
 
     @Bean("mockAIClient")
     @Primary
-    public AIClient mockAIClient() {
-        return new MockAIClient();
+    public AIClient mockAIClient(@Value("${ai.api.mock.latency:fixed:500}") String latency,
+                                 @Value("${ai.api.mock.token-delay-ms:50}") long tokenDelayMs) {
+        return new MockAIClient(LatencyModel.parse(latency), Duration.ofMillis(tokenDelayMs));
     }
 }
 
@@ -0,0 +1,43 @@
+package com.tonepolish.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class ExecutionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    @Bean("refineScheduler")
+    public Scheduler refineScheduler(@Value("${ai.api.execution.mode:reactive}") ExecutionMode mode) {
+        if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            requireVirtualThreads();
+            logger.info("Refine calls will block on virtual threads");
+            return Schedulers.fromExecutor(new VirtualThreadTaskExecutor("refine-vt-"));
+        }
+        return Schedulers.boundedElastic();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ai.api.execution.mode", havingValue = "virtual-threads")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        requireVirtualThreads();
+        return protocolHandler -> protocolHandler.setExecutor(new VirtualThreadTaskExecutor("tomcat-vt-"));
+    }
+
+    private static void requireVirtualThreads() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("ai.api.execution.mode=virtual-threads requires Java 21 or later, running on "
+                + Runtime.version());
+        }
+    }
+}
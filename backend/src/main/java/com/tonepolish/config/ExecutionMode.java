@@ -0,0 +1,8 @@
+package com.tonepolish.config;
+
+public enum ExecutionMode {
+    // Non-blocking end-to-end: servlet thread is released while the upstream call is in flight
+    REACTIVE,
+    // Blocking client calls parked on Java 21 virtual threads, Tomcat requests included
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,160 @@
+package com.tonepolish.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Bound from ai.api.routing.*; a list of backends doesn't fit the @Value style used elsewhere
+@ConfigurationProperties(prefix = "ai.api.routing")
+public class RoutingProperties {
+
+    private boolean enabled = false;
+    private long attemptTimeoutMs = 30000;
+    private long maxWaitMs = 0;
+    private long decaySeconds = 10;
+    // Each backend's limiter starts from these; the quotas come from the backend itself
+    private int initialConcurrency = 8;
+    private int minConcurrency = 1;
+    private int maxConcurrency = 64;
+    private long latencyThresholdMs = 5000;
+    private int maxQueued = 500;
+    private List<Backend> backends = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getAttemptTimeoutMs() {
+        return attemptTimeoutMs;
+    }
+
+    public void setAttemptTimeoutMs(long attemptTimeoutMs) {
+        this.attemptTimeoutMs = attemptTimeoutMs;
+    }
+
+    public long getMaxWaitMs() {
+        return maxWaitMs;
+    }
+
+    public void setMaxWaitMs(long maxWaitMs) {
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    public long getDecaySeconds() {
+        return decaySeconds;
+    }
+
+    public void setDecaySeconds(long decaySeconds) {
+        this.decaySeconds = decaySeconds;
+    }
+
+    public int getInitialConcurrency() {
+        return initialConcurrency;
+    }
+
+    public void setInitialConcurrency(int initialConcurrency) {
+        this.initialConcurrency = initialConcurrency;
+    }
+
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    public void setMinConcurrency(int minConcurrency) {
+        this.minConcurrency = minConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public long getLatencyThresholdMs() {
+        return latencyThresholdMs;
+    }
+
+    public void setLatencyThresholdMs(long latencyThresholdMs) {
+        this.latencyThresholdMs = latencyThresholdMs;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    public List<Backend> getBackends() {
+        return backends;
+    }
+
+    public void setBackends(List<Backend> backends) {
+        this.backends = backends;
+    }
+
+    public static class Backend {
+        private String name;
+        private String url;
+        private String key;
+        private String model;
+        private int requestsPerMinute = 30;
+        private int tokensPerMinute = 6000;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public void setModel(String model) {
+            this.model = model;
+        }
+
+        public int getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public int getTokensPerMinute() {
+            return tokensPerMinute;
+        }
+
+        public void setTokensPerMinute(int tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.tonepolish.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonepolish.client.http.UpstreamConnector;
+import com.tonepolish.dto.BatchRefineRequest;
+import com.tonepolish.dto.BatchRefineResponse;
+import com.tonepolish.dto.BatchRefineResult;
+import com.tonepolish.dto.RefineJobRequest;
+import com.tonepolish.dto.RefineJobResponse;
+import com.tonepolish.dto.RefineRequest;
+import com.tonepolish.dto.RefineResponse;
+import com.tonepolish.dto.RefineStreamEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Cold-start tuning for scale-out. The DTOs are registered for reflection so Jackson can bind them
+ * in a native image (job callbacks are serialized outside any controller, where AOT would not find
+ * them). Runners finish before the app reports ready, so the pre-warm below is done before a load
+ * balancer sends the first request.
+ */
+@Configuration
+@RegisterReflectionForBinding({RefineRequest.class, RefineResponse.class, RefineStreamEvent.class,
+    BatchRefineRequest.class, BatchRefineResponse.class, BatchRefineResult.class,
+    RefineJobRequest.class, RefineJobResponse.class})
+public class StartupConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "ai.api.http.prewarm.enabled", havingValue = "true", matchIfMissing = true)
+    public ApplicationRunner upstreamPrewarm(@Value("${ai.api.key:}") String apiKey,
+                                             @Value("${ai.api.url:}") String apiUrl,
+                                             @Value("${ai.api.http.prewarm.connections:2}") int connections,
+                                             @Value("${ai.api.http.prewarm.timeout-ms:3000}") long timeoutMs,
+                                             RoutingProperties routing,
+                                             UpstreamConnector connector,
+                                             ObjectMapper objectMapper) {
+        return args -> {
+            warmJsonBinding(objectMapper);
+            if (apiKey.isEmpty() && !routing.isEnabled()) {
+                return;
+            }
+            Set<URI> origins = new LinkedHashSet<>();
+            if (routing.isEnabled()) {
+                for (RoutingProperties.Backend backend : routing.getBackends()) {
+                    origins.add(origin(backend.getUrl()));
+                }
+            } else {
+                origins.add(origin(apiUrl));
+            }
+            connector.prewarm(new ArrayList<>(origins), connections, Duration.ofMillis(timeoutMs));
+        };
+    }
+
+    // Builds and caches the request and response (de)serializers ahead of the first request
+    private static void warmJsonBinding(ObjectMapper objectMapper) {
+        try {
+            objectMapper.readValue("{\"text\":\"warm up\",\"tone\":null}", RefineRequest.class);
+            objectMapper.writeValueAsString(new RefineResponse("Warm up."));
+        } catch (JsonProcessingException e) {
+            logger.debug("JSON warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    private static URI origin(String url) {
+        URI uri = URI.create(url);
+        return URI.create(uri.getScheme() + "://" + uri.getRawAuthority() + "/");
+    }
+}
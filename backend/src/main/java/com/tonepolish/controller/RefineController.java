@@ -1,39 +1,242 @@
 package com.tonepolish.controller;
 
+import com.tonepolish.client.exception.CircuitOpenException;
+import com.tonepolish.client.exception.RateLimitExceededException;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.usage.TenantUsageTracker;
+import com.tonepolish.client.usage.TokenCharge;
+import com.tonepolish.dto.BatchRefineRequest;
+import com.tonepolish.dto.BatchRefineResponse;
 import com.tonepolish.dto.RefineRequest;
 import com.tonepolish.dto.RefineResponse;
+import com.tonepolish.dto.RefineStreamEvent;
+import com.tonepolish.service.AdmissionLimiter;
+import com.tonepolish.service.BatchRefineService;
 import com.tonepolish.service.RefineService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+
+// Eager even under lazy initialization, so the refine path is built before the app reports ready
+@Lazy(false)
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "http://localhost:3000")
 public class RefineController {
 
+    private static final String TENANT_HEADER = "${ai.api.tenants.header:X-Tenant-Id}";
+
     private final RefineService refineService;
+    private final BatchRefineService batchRefineService;
+    private final AdmissionLimiter admissionLimiter;
+    private final PromptManager promptManager;
+    private final TenantUsageTracker tenantUsage;
 
     @Autowired
-    public RefineController(RefineService refineService) {
+    public RefineController(RefineService refineService, BatchRefineService batchRefineService,
+                            AdmissionLimiter admissionLimiter, PromptManager promptManager,
+                            TenantUsageTracker tenantUsage) {
         this.refineService = refineService;
+        this.batchRefineService = batchRefineService;
+        this.admissionLimiter = admissionLimiter;
+        this.promptManager = promptManager;
+        this.tenantUsage = tenantUsage;
     }
 
     @PostMapping("/refine")
-    public ResponseEntity<RefineResponse> refine(@RequestBody RefineRequest request) {
-        try {
-            if (request.getText() == null || request.getText().trim().isEmpty()) {
-                return ResponseEntity.badRequest()
-                    .body(new RefineResponse("Error: Input text cannot be empty"));
-            }
-
-            String polishedText = refineService.refineText(request.getText());
-            return ResponseEntity.ok(new RefineResponse(polishedText));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+    public Mono<ResponseEntity<RefineResponse>> refine(@RequestBody RefineRequest request,
+                                                       @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        if (request.getText() == null || request.getText().trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(new RefineResponse("Error: Input text cannot be empty")));
+        }
+        if (refineService.exceedsMaxInput(request.getText())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new RefineResponse(tooLongMessage())));
+        }
+        if (!promptManager.hasTone(request.getTone())) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(new RefineResponse(unknownToneMessage(request.getTone()))));
+        }
+        String tenant = TenantUsageTracker.tenantOf(tenantHeader);
+        if (tenant == null) {
+            return Mono.just(ResponseEntity.badRequest().body(new RefineResponse(invalidTenantMessage())));
+        }
+        if (!admissionLimiter.tryAdmit()) {
+            return Mono.just(overloaded(new RefineResponse("Error: Service is overloaded, please retry")));
+        }
+        long estimatedTokens = estimateTokens(request.getTone(), request.getText().length());
+        TokenCharge charge = tenantUsage.tryAcquire(tenant, estimatedTokens);
+        if (charge == null) {
+            admissionLimiter.release();
+            return Mono.just(quotaExceeded(tenant, estimatedTokens, new RefineResponse(quotaExceededMessage(tenant))));
+        }
+
+        // Returning the Mono releases the servlet thread until the upstream call completes
+        return refineService.refineTextAsync(request.getText(), request.getTone())
+            .map(polishedText -> ResponseEntity.ok(new RefineResponse(polishedText)))
+            .onErrorResume(e -> Mono.just(errorResponse(e)))
+            .contextWrite(charge::attachTo)
+            .doFinally(signal -> {
+                charge.settle();
+                admissionLimiter.release();
+            });
+    }
+
+    @PostMapping("/refine/batch")
+    public Mono<ResponseEntity<BatchRefineResponse>> refineBatch(@RequestBody BatchRefineRequest request,
+                                                                 @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        if (request.getTexts() == null || request.getTexts().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(BatchRefineResponse.failure("Error: Input texts cannot be empty")));
+        }
+        if (request.getTexts().size() > batchRefineService.getMaxItems()) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(BatchRefineResponse.failure("Error: Batch exceeds " + batchRefineService.getMaxItems() + " items")));
+        }
+        if (!promptManager.hasTone(request.getTone())) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(BatchRefineResponse.failure(unknownToneMessage(request.getTone()))));
+        }
+        String tenant = TenantUsageTracker.tenantOf(tenantHeader);
+        if (tenant == null) {
+            return Mono.just(ResponseEntity.badRequest().body(BatchRefineResponse.failure(invalidTenantMessage())));
+        }
+        if (!admissionLimiter.tryAdmit()) {
+            return Mono.just(overloaded(BatchRefineResponse.failure("Error: Service is overloaded, please retry")));
+        }
+        long estimatedTokens = estimateTokens(request.getTone(), request.getTexts());
+        TokenCharge charge = tenantUsage.tryAcquire(tenant, estimatedTokens);
+        if (charge == null) {
+            admissionLimiter.release();
+            return Mono.just(quotaExceeded(tenant, estimatedTokens, BatchRefineResponse.failure(quotaExceededMessage(tenant))));
+        }
+
+        // Per-item failures are reported in the results, so only unexpected errors fail the batch
+        return batchRefineService.refineBatch(request.getTexts(), request.getTone())
+            .map(results -> ResponseEntity.ok(new BatchRefineResponse(results)))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(BatchRefineResponse.failure("Error: " + e.getMessage()))))
+            .contextWrite(charge::attachTo)
+            .doFinally(signal -> {
+                charge.settle();
+                admissionLimiter.release();
+            });
+    }
+
+    @PostMapping(value = "/refine/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<RefineStreamEvent>>> refineStream(@RequestBody RefineRequest request,
+                                                                                 @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        if (request.getText() == null || request.getText().trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                .body(Flux.just(streamError("Error: Input text cannot be empty")));
+        }
+        if (refineService.exceedsMaxInput(request.getText())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Flux.just(streamError(tooLongMessage())));
+        }
+        if (!promptManager.hasTone(request.getTone())) {
+            return ResponseEntity.badRequest()
+                .body(Flux.just(streamError(unknownToneMessage(request.getTone()))));
+        }
+        String tenant = TenantUsageTracker.tenantOf(tenantHeader);
+        if (tenant == null) {
+            return ResponseEntity.badRequest().body(Flux.just(streamError(invalidTenantMessage())));
+        }
+        if (!admissionLimiter.tryAdmit()) {
+            return overloaded(Flux.just(streamError("Error: Service is overloaded, please retry")));
+        }
+        long estimatedTokens = estimateTokens(request.getTone(), request.getText().length());
+        TokenCharge charge = tenantUsage.tryAcquire(tenant, estimatedTokens);
+        if (charge == null) {
+            admissionLimiter.release();
+            return quotaExceeded(tenant, estimatedTokens, Flux.just(streamError(quotaExceededMessage(tenant))));
+        }
+
+        // Deltas are JSON-wrapped so leading spaces survive SSE field parsing
+        return ResponseEntity.ok(refineService.refineTextStream(request.getText(), request.getTone())
+            .map(delta -> ServerSentEvent.builder(RefineStreamEvent.delta(delta)).build())
+            .concatWith(Mono.just(ServerSentEvent.<RefineStreamEvent>builder().event("done").build()))
+            .onErrorResume(e -> Mono.just(streamError("Error: " + e.getMessage())))
+            .contextWrite(charge::attachTo)
+            .doFinally(signal -> {
+                charge.settle();
+                admissionLimiter.release();
+            }));
+    }
+
+    private long estimateTokens(String tone, long inputChars) {
+        return TenantUsageTracker.estimateTokens(promptManager.getProfile(tone).getSystemPrompt(), inputChars);
+    }
+
+    private long estimateTokens(String tone, List<String> texts) {
+        long total = 0;
+        for (String text : texts) {
+            total += estimateTokens(tone, text == null ? 0 : text.length());
+        }
+        return total;
+    }
+
+    static String invalidTenantMessage() {
+        return "Error: Tenant id must be 1-64 letters, digits, '.', '_' or '-'";
+    }
+
+    private static String quotaExceededMessage(String tenant) {
+        return "Error: Token quota exceeded for tenant '" + tenant + "', please retry later";
+    }
+
+    private <T> ResponseEntity<T> quotaExceeded(String tenant, long estimatedTokens, T body) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(tenantUsage.retryAfter(tenant, estimatedTokens)))
+            .body(body);
+    }
+
+    private String tooLongMessage() {
+        return "Error: Input text exceeds the maximum of " + refineService.getMaxInputChars() + " characters";
+    }
+
+    private String unknownToneMessage(String tone) {
+        return "Error: Unknown tone '" + tone + "', expected one of " + promptManager.getToneNames();
+    }
+
+    private ServerSentEvent<RefineStreamEvent> streamError(String message) {
+        return ServerSentEvent.builder(RefineStreamEvent.failure(message)).event("error").build();
+    }
+
+    private <T> ResponseEntity<T> overloaded(T body) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(admissionLimiter.getRetryAfterSeconds()))
+            .body(body);
+    }
+
+    private ResponseEntity<RefineResponse> errorResponse(Throwable e) {
+        if (e instanceof RateLimitExceededException) {
+            RateLimitExceededException rateLimited = (RateLimitExceededException) e;
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(rateLimited.getRetryAfter()))
+                .body(new RefineResponse("Error: " + e.getMessage()));
+        }
+        if (e instanceof CircuitOpenException) {
+            CircuitOpenException circuitOpen = (CircuitOpenException) e;
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(circuitOpen.getRetryAfter()))
                 .body(new RefineResponse("Error: " + e.getMessage()));
         }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(new RefineResponse("Error: " + e.getMessage()));
     }
-}
 
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+}
@@ -0,0 +1,103 @@
+package com.tonepolish.controller;
+
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.usage.TenantUsageTracker;
+import com.tonepolish.dto.RefineJobRequest;
+import com.tonepolish.dto.RefineJobResponse;
+import com.tonepolish.service.RefineService;
+import com.tonepolish.service.job.JobPriority;
+import com.tonepolish.service.job.RefineJob;
+import com.tonepolish.service.job.RefineJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = "http://localhost:3000")
+public class RefineJobController {
+
+    private static final String TENANT_HEADER = "${ai.api.tenants.header:X-Tenant-Id}";
+
+    private final RefineJobService jobService;
+    private final RefineService refineService;
+    private final PromptManager promptManager;
+
+    @Autowired
+    public RefineJobController(RefineJobService jobService, RefineService refineService, PromptManager promptManager) {
+        this.jobService = jobService;
+        this.refineService = refineService;
+        this.promptManager = promptManager;
+    }
+
+    @PostMapping
+    public ResponseEntity<RefineJobResponse> submit(@RequestBody RefineJobRequest request,
+                                                    @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        if (request.getText() == null || request.getText().trim().isEmpty()) {
+            return ResponseEntity.badRequest().body(RefineJobResponse.failure("Error: Input text cannot be empty"));
+        }
+        if (refineService.exceedsMaxInput(request.getText())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(RefineJobResponse.failure(
+                "Error: Input text exceeds the maximum of " + refineService.getMaxInputChars() + " characters"));
+        }
+        if (!promptManager.hasTone(request.getTone())) {
+            return ResponseEntity.badRequest().body(RefineJobResponse.failure(
+                "Error: Unknown tone '" + request.getTone() + "', expected one of " + promptManager.getToneNames()));
+        }
+        String tenant = TenantUsageTracker.tenantOf(tenantHeader);
+        if (tenant == null) {
+            return ResponseEntity.badRequest().body(RefineJobResponse.failure(RefineController.invalidTenantMessage()));
+        }
+        JobPriority priority = request.getPriority() == null ? JobPriority.BULK : JobPriority.parse(request.getPriority());
+        if (priority == null) {
+            return ResponseEntity.badRequest().body(RefineJobResponse.failure(
+                "Error: Unknown priority '" + request.getPriority() + "', expected interactive or bulk"));
+        }
+        if (request.getCallbackUrl() != null && !jobService.isAllowedCallback(request.getCallbackUrl())) {
+            return ResponseEntity.badRequest().body(RefineJobResponse.failure(
+                "Error: Callback URL must be an http(s) URL on an allowed host"));
+        }
+
+        RefineJob job = jobService.submit(request.getText(), request.getTone(), priority, tenant, request.getCallbackUrl());
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(jobService.getRetryAfterSeconds()))
+                .body(RefineJobResponse.failure("Error: The " + priority.name().toLowerCase() + " queue is full, please retry"));
+        }
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/jobs/" + job.getId()))
+            .body(RefineJobService.describe(job));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RefineJobResponse> get(@PathVariable String id) {
+        RefineJob job = jobService.getJob(id);
+        if (job == null) {
+            return notFound(id);
+        }
+        return ResponseEntity.ok(RefineJobService.describe(job));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<RefineJobResponse> cancel(@PathVariable String id) {
+        RefineJob job = jobService.cancel(id);
+        if (job == null) {
+            return notFound(id);
+        }
+        if (job.getStatus() != RefineJob.Status.CANCELLED) {
+            RefineJobResponse response = RefineJobService.describe(job);
+            response.setError("Error: Only queued jobs can be cancelled");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        return ResponseEntity.ok(RefineJobService.describe(job));
+    }
+
+    private static ResponseEntity<RefineJobResponse> notFound(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(RefineJobResponse.failure("Error: No job '" + id + "' (finished jobs expire after the retention period)"));
+    }
+}
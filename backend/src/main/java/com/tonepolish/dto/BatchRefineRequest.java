@@ -0,0 +1,31 @@
+package com.tonepolish.dto;
+
+import java.util.List;
+
+public class BatchRefineRequest {
+    private List<String> texts;
+    private String tone;
+
+    public BatchRefineRequest() {
+    }
+
+    public BatchRefineRequest(List<String> texts) {
+        this.texts = texts;
+    }
+
+    public List<String> getTexts() {
+        return texts;
+    }
+
+    public void setTexts(List<String> texts) {
+        this.texts = texts;
+    }
+
+    public String getTone() {
+        return tone;
+    }
+
+    public void setTone(String tone) {
+        this.tone = tone;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tonepolish.dto;
+
+import java.util.List;
+
+public class BatchRefineResponse {
+    private List<BatchRefineResult> results;
+    private String error;
+
+    public BatchRefineResponse() {
+    }
+
+    public BatchRefineResponse(List<BatchRefineResult> results) {
+        this.results = results;
+    }
+
+    public static BatchRefineResponse failure(String error) {
+        BatchRefineResponse response = new BatchRefineResponse();
+        response.setError(error);
+        return response;
+    }
+
+    public List<BatchRefineResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchRefineResult> results) {
+        this.results = results;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
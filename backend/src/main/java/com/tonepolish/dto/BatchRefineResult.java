@@ -0,0 +1,38 @@
+package com.tonepolish.dto;
+
+public class BatchRefineResult {
+    private String polishedText;
+    private String error;
+
+    public BatchRefineResult() {
+    }
+
+    public BatchRefineResult(String polishedText, String error) {
+        this.polishedText = polishedText;
+        this.error = error;
+    }
+
+    public static BatchRefineResult success(String polishedText) {
+        return new BatchRefineResult(polishedText, null);
+    }
+
+    public static BatchRefineResult failure(String error) {
+        return new BatchRefineResult(null, error);
+    }
+
+    public String getPolishedText() {
+        return polishedText;
+    }
+
+    public void setPolishedText(String polishedText) {
+        this.polishedText = polishedText;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,51 @@
+package com.tonepolish.dto;
+
+public class RefineJobRequest {
+    private String text;
+    // Optional named prompt profile; the default tone when absent
+    private String tone;
+    // interactive or bulk; bulk when absent
+    private String priority;
+    // Optional http(s) URL that receives the finished job as a JSON POST
+    private String callbackUrl;
+
+    public RefineJobRequest() {
+    }
+
+    public RefineJobRequest(String text, String priority) {
+        this.text = text;
+        this.priority = priority;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getTone() {
+        return tone;
+    }
+
+    public void setTone(String tone) {
+        this.tone = tone;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public void setCallbackUrl(String callbackUrl) {
+        this.callbackUrl = callbackUrl;
+    }
+}
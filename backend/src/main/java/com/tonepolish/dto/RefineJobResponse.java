@@ -0,0 +1,78 @@
+package com.tonepolish.dto;
+
+public class RefineJobResponse {
+    private String id;
+    // queued, running, succeeded, failed or cancelled
+    private String status;
+    private String priority;
+    private String polishedText;
+    private String error;
+    // ISO-8601 instants
+    private String submittedAt;
+    private String finishedAt;
+
+    public RefineJobResponse() {
+    }
+
+    public static RefineJobResponse failure(String error) {
+        RefineJobResponse response = new RefineJobResponse();
+        response.setError(error);
+        return response;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public String getPolishedText() {
+        return polishedText;
+    }
+
+    public void setPolishedText(String polishedText) {
+        this.polishedText = polishedText;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(String submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
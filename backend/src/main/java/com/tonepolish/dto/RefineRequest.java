@@ -2,6 +2,8 @@ package com.tonepolish.dto;
 
 public class RefineRequest {
     private String text;
+    // Optional named prompt profile; the default tone when absent
+    private String tone;
 
     public RefineRequest() {
     }
@@ -17,5 +19,13 @@ public class RefineRequest {
     public void setText(String text) {
         this.text = text;
     }
+
+    public String getTone() {
+        return tone;
+    }
+
+    public void setTone(String tone) {
+        this.tone = tone;
+    }
 }
 
@@ -0,0 +1,38 @@
+package com.tonepolish.dto;
+
+public class RefineStreamEvent {
+    private String delta;
+    private String error;
+
+    public RefineStreamEvent() {
+    }
+
+    public RefineStreamEvent(String delta, String error) {
+        this.delta = delta;
+        this.error = error;
+    }
+
+    public static RefineStreamEvent delta(String delta) {
+        return new RefineStreamEvent(delta, null);
+    }
+
+    public static RefineStreamEvent failure(String error) {
+        return new RefineStreamEvent(null, error);
+    }
+
+    public String getDelta() {
+        return delta;
+    }
+
+    public void setDelta(String delta) {
+        this.delta = delta;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
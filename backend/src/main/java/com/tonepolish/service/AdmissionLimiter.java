@@ -0,0 +1,60 @@
+package com.tonepolish.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caps refine requests in flight on this node so admitted requests keep bounded latency under overload
+@Component
+public class AdmissionLimiter implements MeterBinder {
+
+    private final int maxConcurrentRequests;
+    private final int retryAfterSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+
+    public AdmissionLimiter(@Value("${ai.api.admission.max-concurrent-requests:2000}") int maxConcurrentRequests,
+                            @Value("${ai.api.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public boolean tryAdmit() {
+        if (inFlight.incrementAndGet() > maxConcurrentRequests) {
+            inFlight.decrementAndGet();
+            shed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getShed() {
+        return shed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tonepolish.admission.in.flight", this, AdmissionLimiter::getInFlight).register(registry);
+        FunctionCounter.builder("tonepolish.admission.shed", this, AdmissionLimiter::getShed)
+            .description("Requests turned away with 503 because the node was at capacity")
+            .register(registry);
+    }
+}
@@ -0,0 +1,62 @@
+package com.tonepolish.service;
+
+import com.tonepolish.dto.BatchRefineResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class BatchRefineService {
+
+    private final RefineService refineService;
+    private final int maxConcurrency;
+    private final int maxItems;
+
+    @Autowired
+    public BatchRefineService(RefineService refineService,
+                              @Value("${ai.api.batch.max-concurrency:8}") int maxConcurrency,
+                              @Value("${ai.api.batch.max-items:200}") int maxItems) {
+        this.refineService = refineService;
+        this.maxConcurrency = maxConcurrency;
+        this.maxItems = maxItems;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public Mono<List<BatchRefineResult>> refineBatch(List<String> texts) {
+        return refineBatch(texts, null);
+    }
+
+    public Mono<List<BatchRefineResult>> refineBatch(List<String> texts, String tone) {
+        // Identical messages in a thread (greetings, sign-offs) are refined once and fanned back out
+        List<String> distinct = texts.stream().distinct().toList();
+
+        return Flux.fromIterable(distinct)
+            .flatMapSequential(text -> refineOne(text, tone), maxConcurrency)
+            .collectList()
+            .map(results -> {
+                Map<String, BatchRefineResult> byText = new HashMap<>();
+                for (int i = 0; i < distinct.size(); i++) {
+                    byText.put(distinct.get(i), results.get(i));
+                }
+                return texts.stream().map(byText::get).toList();
+            });
+    }
+
+    private Mono<BatchRefineResult> refineOne(String text, String tone) {
+        if (text == null || text.trim().isEmpty()) {
+            return Mono.just(BatchRefineResult.failure("Input text cannot be empty"));
+        }
+        return refineService.refineTextAsync(text, tone)
+            .map(BatchRefineResult::success)
+            .onErrorResume(e -> Mono.just(BatchRefineResult.failure(e.getMessage())));
+    }
+}
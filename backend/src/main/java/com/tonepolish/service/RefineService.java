@@ -1,30 +1,161 @@
 package com.tonepolish.service;
 
 import com.tonepolish.client.AIClient;
+import com.tonepolish.client.metrics.AIClientMetrics;
+import com.tonepolish.config.ExecutionMode;
+import io.micrometer.common.KeyValues;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class RefineService {
 
+    private static final KeyValues ASYNC = KeyValues.of("mode", "async");
+    private static final KeyValues STREAM = KeyValues.of("mode", "stream");
+    private static final KeyValues CHUNKED = KeyValues.of("mode", "chunked");
+    private static final KeyValues CHUNKED_STREAM = KeyValues.of("mode", "chunked_stream");
+
     private final AIClient aiClient;
+    private final ExecutionMode executionMode;
+    private final Scheduler refineScheduler;
+    private final AIClientMetrics metrics;
+    private final TextChunker chunker;
+    private final int maxInputChars;
+    private final int chunkConcurrency;
+
+    public RefineService(String apiKey, AIClient groqClient, AIClient mockClient) {
+        this(apiKey, groqClient, mockClient, ExecutionMode.REACTIVE, Schedulers.boundedElastic());
+    }
+
+    public RefineService(String apiKey, AIClient groqClient, AIClient mockClient,
+                         ExecutionMode executionMode, Scheduler refineScheduler) {
+        this(apiKey, groqClient, mockClient, executionMode, refineScheduler, AIClientMetrics.noop(), 600, 50000, 8);
+    }
 
     @Autowired
     public RefineService(@Value("${ai.api.key:}") String apiKey,
                         @Qualifier("groqAIClient") AIClient groqClient,
-                        @Qualifier("mockAIClient") AIClient mockClient) {
+                        @Qualifier("mockAIClient") AIClient mockClient,
+                        @Value("${ai.api.execution.mode:reactive}") ExecutionMode executionMode,
+                        @Qualifier("refineScheduler") Scheduler refineScheduler,
+                        AIClientMetrics metrics,
+                        @Value("${ai.api.long-input.chunk-tokens:600}") int chunkTokens,
+                        @Value("${ai.api.long-input.max-chars:50000}") int maxInputChars,
+                        @Value("${ai.api.long-input.max-concurrency:8}") int chunkConcurrency) {
         // Use Groq client if API key is provided, otherwise use mock
         if (apiKey != null && !apiKey.isEmpty()) {
             this.aiClient = groqClient;
         } else {
             this.aiClient = mockClient;
         }
+        this.executionMode = executionMode;
+        this.refineScheduler = refineScheduler;
+        this.metrics = metrics;
+        this.chunker = new TextChunker(chunkTokens);
+        this.maxInputChars = maxInputChars;
+        this.chunkConcurrency = chunkConcurrency;
+    }
+
+    public int getMaxInputChars() {
+        return maxInputChars;
+    }
+
+    public boolean exceedsMaxInput(String inputText) {
+        return inputText != null && inputText.length() > maxInputChars;
     }
 
     public String refineText(String inputText) {
-        return aiClient.refineText(inputText);
+        return refineText(inputText, null);
+    }
+
+    // tone names a prompt profile; null uses the default tone
+    public String refineText(String inputText, String tone) {
+        if (exceedsMaxInput(inputText) || (inputText != null && chunker.needsSplitting(inputText))) {
+            return refineTextAsync(inputText, tone).block();
+        }
+        String refined = aiClient.refineText(inputText, tone);
+        metrics.recordRefined(inputText.length(), refined.length());
+        return refined;
+    }
+
+    public Mono<String> refineTextAsync(String inputText) {
+        return refineTextAsync(inputText, null);
     }
-}
 
+    public Mono<String> refineTextAsync(String inputText, String tone) {
+        if (exceedsMaxInput(inputText)) {
+            return Mono.error(new IllegalArgumentException(tooLongMessage()));
+        }
+        boolean chunked = inputText != null && chunker.needsSplitting(inputText);
+        Mono<String> refined = chunked ? refineChunks(chunker.split(inputText), tone) : refineOne(inputText, tone);
+        return metrics.observe(AIClientMetrics.REFINE, chunked ? CHUNKED : ASYNC, refined
+            .doOnNext(text -> metrics.recordRefined(inputText.length(), text.length())));
+    }
+
+    public Flux<String> refineTextStream(String inputText) {
+        return refineTextStream(inputText, null);
+    }
+
+    public Flux<String> refineTextStream(String inputText, String tone) {
+        if (exceedsMaxInput(inputText)) {
+            return Flux.error(new IllegalArgumentException(tooLongMessage()));
+        }
+        boolean chunked = inputText != null && chunker.needsSplitting(inputText);
+        return Flux.defer(() -> {
+            AtomicInteger outputLength = new AtomicInteger();
+            Flux<String> deltas = chunked ? streamChunks(chunker.split(inputText), tone) : aiClient.refineTextStream(inputText, tone);
+            return metrics.observeMany(AIClientMetrics.REFINE, chunked ? CHUNKED_STREAM : STREAM, deltas
+                .doOnNext(delta -> outputLength.addAndGet(delta.length()))
+                .doOnComplete(() -> metrics.recordRefined(inputText.length(), outputLength.get())));
+        });
+    }
+
+    private Mono<String> refineOne(String inputText, String tone) {
+        if (executionMode == ExecutionMode.VIRTUAL_THREADS) {
+            // Blocking call parks a virtual thread; the carrier is free while waiting on upstream.
+            // The blocking chain can't see the Reactor context (e.g. the tenant's token charge), so a
+            // caller that set one blocks on the async chain with it instead.
+            return Mono.deferContextual(context -> Mono.fromCallable(() -> context.isEmpty()
+                    ? aiClient.refineText(inputText, tone)
+                    : aiClient.refineTextAsync(inputText, tone).contextWrite(context).block())
+                .subscribeOn(refineScheduler));
+        }
+        return aiClient.refineTextAsync(inputText, tone);
+    }
+
+    // Chunks are refined concurrently, so a long text takes about as long as its slowest chunk
+    private Mono<String> refineChunks(List<TextChunker.Chunk> chunks, String tone) {
+        return Flux.fromIterable(chunks)
+            .flatMapSequential(chunk -> refineOne(chunk.getText(), tone), chunkConcurrency)
+            .collectList()
+            .map(refined -> {
+                StringBuilder stitched = new StringBuilder();
+                for (int i = 0; i < refined.size(); i++) {
+                    stitched.append(refined.get(i)).append(chunks.get(i).getSeparator());
+                }
+                return stitched.toString();
+            });
+    }
+
+    // Later chunks generate alongside the first and are buffered until it's their turn to be emitted
+    private Flux<String> streamChunks(List<TextChunker.Chunk> chunks, String tone) {
+        return Flux.fromIterable(chunks)
+            .flatMapSequential(chunk -> chunk.getSeparator().isEmpty()
+                ? aiClient.refineTextStream(chunk.getText(), tone)
+                : aiClient.refineTextStream(chunk.getText(), tone).concatWithValues(chunk.getSeparator()),
+                chunkConcurrency);
+    }
+
+    private String tooLongMessage() {
+        return "Input text exceeds the maximum of " + maxInputChars + " characters";
+    }
+}
@@ -0,0 +1,159 @@
+package com.tonepolish.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits long text into chunks of at most a given number of (estimated) tokens, preferring
+ * paragraph breaks, then sentence ends, then whitespace. Each chunk remembers the whitespace that
+ * followed it, so refined chunks can be joined back with the original layout.
+ */
+public class TextChunker {
+
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n[ \\t]*\\n\\s*");
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?][\"')\\]]{0,2})\\s+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Same rule of thumb the upstream rate limiter budgets with: ~4 characters per token
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final int maxChunkTokens;
+
+    public TextChunker(int maxChunkTokens) {
+        if (maxChunkTokens < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least one token");
+        }
+        this.maxChunkTokens = maxChunkTokens;
+    }
+
+    public static int estimateTokens(CharSequence text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public boolean needsSplitting(String text) {
+        return estimateTokens(text) > maxChunkTokens;
+    }
+
+    public List<Chunk> split(String text) {
+        Packer packer = new Packer();
+        for (Piece paragraph : pieces(text.strip(), PARAGRAPH_BREAK)) {
+            if (fits(paragraph.text)) {
+                packer.add(paragraph.text, paragraph.separator);
+                continue;
+            }
+            List<Piece> sentences = pieces(paragraph.text, SENTENCE_END);
+            for (int i = 0; i < sentences.size(); i++) {
+                Piece sentence = sentences.get(i);
+                // The paragraph's own break follows its last sentence
+                String separator = i == sentences.size() - 1 ? paragraph.separator : sentence.separator;
+                if (fits(sentence.text)) {
+                    packer.add(sentence.text, separator);
+                } else {
+                    splitOnWhitespace(sentence.text, separator, packer);
+                }
+            }
+        }
+        return packer.finish();
+    }
+
+    // A run-on sentence longer than a chunk is cut at the last whitespace that fits, or mid-word if there is none
+    private void splitOnWhitespace(String text, String separator, Packer packer) {
+        int maxChars = maxChunkTokens * CHARS_PER_TOKEN;
+        int start = 0;
+        while (text.length() - start > maxChars) {
+            int end = start + maxChars;
+            Matcher whitespace = WHITESPACE.matcher(text).region(start, end);
+            int lastStart = -1;
+            int lastEnd = -1;
+            while (whitespace.find()) {
+                lastStart = whitespace.start();
+                lastEnd = whitespace.end();
+            }
+            if (lastStart > start) {
+                packer.add(text.substring(start, lastStart), text.substring(lastStart, lastEnd));
+                start = lastEnd;
+            } else {
+                packer.add(text.substring(start, end), "");
+                start = end;
+            }
+        }
+        packer.add(text.substring(start), separator);
+    }
+
+    private boolean fits(CharSequence text) {
+        return estimateTokens(text) <= maxChunkTokens;
+    }
+
+    private static List<Piece> pieces(String text, Pattern boundary) {
+        List<Piece> pieces = new ArrayList<>();
+        Matcher matcher = boundary.matcher(text);
+        int start = 0;
+        while (matcher.find()) {
+            if (matcher.start() > start) {
+                pieces.add(new Piece(text.substring(start, matcher.start()), matcher.group()));
+            }
+            start = matcher.end();
+        }
+        if (start < text.length()) {
+            pieces.add(new Piece(text.substring(start), ""));
+        }
+        return pieces;
+    }
+
+    // Greedily fills each chunk with consecutive pieces, keeping the separators between them
+    private class Packer {
+        private final List<Chunk> chunks = new ArrayList<>();
+        private final StringBuilder current = new StringBuilder();
+        private String pendingSeparator = "";
+
+        void add(String text, String separator) {
+            if (current.length() > 0) {
+                if (estimateTokens(current) + estimateTokens(pendingSeparator) + estimateTokens(text) > maxChunkTokens) {
+                    chunks.add(new Chunk(current.toString(), pendingSeparator));
+                    current.setLength(0);
+                } else {
+                    current.append(pendingSeparator);
+                }
+            }
+            current.append(text);
+            pendingSeparator = separator;
+        }
+
+        List<Chunk> finish() {
+            if (current.length() > 0) {
+                chunks.add(new Chunk(current.toString(), ""));
+            }
+            return chunks;
+        }
+    }
+
+    private static class Piece {
+        private final String text;
+        private final String separator;
+
+        Piece(String text, String separator) {
+            this.text = text;
+            this.separator = separator;
+        }
+    }
+
+    public static class Chunk {
+        private final String text;
+        private final String separator;
+
+        public Chunk(String text, String separator) {
+            this.text = text;
+            this.separator = separator;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        // Whitespace that followed this chunk in the original text, empty for the last one
+        public String getSeparator() {
+            return separator;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.tonepolish.service.job;
+
+import java.util.Locale;
+
+public enum JobPriority {
+    // Someone is waiting on the result, e.g. an agent drafting a reply
+    INTERACTIVE,
+    // Work that only has to finish eventually, e.g. re-polishing saved macros overnight
+    BULK;
+
+    // Null for names that aren't a priority
+    public static JobPriority parse(String name) {
+        for (JobPriority priority : values()) {
+            if (priority.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return priority;
+            }
+        }
+        return null;
+    }
+}
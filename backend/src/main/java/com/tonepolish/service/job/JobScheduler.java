@@ -0,0 +1,226 @@
+package com.tonepolish.service.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Runs jobs from one bounded queue per {@link JobPriority} under a shared concurrency cap. When
+ * several lanes have work, slots go to them in proportion to their weights (stride scheduling), so
+ * bulk work keeps moving without crowding out interactive jobs. Bulk is also capped below the total
+ * so a slot is always free for an interactive job, and only starts while the gate reports spare
+ * upstream capacity; otherwise it is re-checked shortly.
+ */
+public class JobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+
+    private static final Duration GATE_RECHECK = Duration.ofMillis(100);
+
+    private final Map<JobPriority, Lane> lanes = new EnumMap<>(JobPriority.class);
+    private final int maxConcurrency;
+    private final BooleanSupplier bulkGate;
+    private final ScheduledExecutorService timer;
+    private final Function<RefineJob, Mono<?>> runner;
+    private final AtomicInteger dispatching = new AtomicInteger();
+    private final AtomicBoolean recheckScheduled = new AtomicBoolean();
+    private int running;
+    private double virtualTime;
+
+    public JobScheduler(int maxConcurrency, LaneLimits interactive, LaneLimits bulk, BooleanSupplier bulkGate,
+                        ScheduledExecutorService timer, Function<RefineJob, Mono<?>> runner) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.lanes.put(JobPriority.INTERACTIVE, new Lane(interactive));
+        this.lanes.put(JobPriority.BULK, new Lane(bulk));
+        this.bulkGate = bulkGate;
+        this.timer = timer;
+        this.runner = runner;
+    }
+
+    // False when the job's lane is full; the caller should shed the job
+    public boolean offer(RefineJob job) {
+        if (!enqueue(job, false, false)) {
+            return false;
+        }
+        dispatch();
+        return true;
+    }
+
+    // Puts back a job that was already admitted, e.g. recovered from disk, ignoring the lane's capacity
+    public void restore(RefineJob job) {
+        enqueue(job, false, true);
+        dispatch();
+    }
+
+    // Retries an admitted job at the head of its lane once the delay has passed
+    public void offerLater(RefineJob job, Duration delay) {
+        timer.schedule(() -> {
+            enqueue(job, true, true);
+            dispatch();
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // True if the job was still waiting and will not run
+    public synchronized boolean remove(RefineJob job) {
+        return lanes.get(job.getPriority()).queue.remove(job);
+    }
+
+    public synchronized int getQueued(JobPriority priority) {
+        return lanes.get(priority).queue.size();
+    }
+
+    public synchronized int getRunning(JobPriority priority) {
+        return lanes.get(priority).running;
+    }
+
+    public long getStarted(JobPriority priority) {
+        return lanes.get(priority).started.sum();
+    }
+
+    public double getQueueWaitSeconds(JobPriority priority) {
+        return lanes.get(priority).waitNanos.sum() / 1e9;
+    }
+
+    private synchronized boolean enqueue(RefineJob job, boolean front, boolean force) {
+        Lane lane = lanes.get(job.getPriority());
+        if (!force && lane.queue.size() >= lane.limits.capacity) {
+            return false;
+        }
+        // A lane coming back from idle starts level with the others instead of cashing in its idle time
+        if (lane.queue.isEmpty() && lane.running == 0) {
+            lane.pass = Math.max(lane.pass, virtualTime);
+        }
+        job.markQueued();
+        if (front) {
+            lane.queue.addFirst(job);
+        } else {
+            lane.queue.addLast(job);
+        }
+        return true;
+    }
+
+    // Jobs whose Monos complete synchronously (cache hits) re-enter here; the counter turns that into a loop
+    private void dispatch() {
+        if (dispatching.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            RefineJob job;
+            while ((job = next()) != null) {
+                start(job);
+            }
+            missed = dispatching.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private synchronized RefineJob next() {
+        if (running >= maxConcurrency) {
+            return null;
+        }
+        Lane chosen = null;
+        boolean gated = false;
+        for (Map.Entry<JobPriority, Lane> entry : lanes.entrySet()) {
+            Lane lane = entry.getValue();
+            if (lane.queue.isEmpty() || lane.running >= lane.limits.maxConcurrency) {
+                continue;
+            }
+            if (entry.getKey() == JobPriority.BULK && !bulkGate.getAsBoolean()) {
+                gated = true;
+                continue;
+            }
+            if (chosen == null || lane.pass < chosen.pass) {
+                chosen = lane;
+            }
+        }
+        if (chosen == null) {
+            if (gated) {
+                scheduleRecheck();
+            }
+            return null;
+        }
+        RefineJob job = chosen.queue.pollFirst();
+        virtualTime = chosen.pass;
+        chosen.pass += 1.0 / chosen.limits.weight;
+        chosen.running++;
+        running++;
+        chosen.started.increment();
+        chosen.waitNanos.add(System.nanoTime() - job.getQueuedAtNanos());
+        job.markRunning();
+        return job;
+    }
+
+    private void start(RefineJob job) {
+        Mono<?> execution;
+        try {
+            execution = runner.apply(job);
+        } catch (RuntimeException e) {
+            execution = Mono.error(e);
+        }
+        execution.doFinally(signal -> finished(job))
+            .subscribe(result -> { }, error -> logger.warn("Refine job {} failed: {}", job.getId(), error.getMessage()));
+    }
+
+    private void finished(RefineJob job) {
+        synchronized (this) {
+            lanes.get(job.getPriority()).running--;
+            running--;
+        }
+        dispatch();
+    }
+
+    private void scheduleRecheck() {
+        if (recheckScheduled.compareAndSet(false, true)) {
+            timer.schedule(() -> {
+                recheckScheduled.set(false);
+                dispatch();
+            }, GATE_RECHECK.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static class LaneLimits {
+        private final int capacity;
+        private final int weight;
+        private final int maxConcurrency;
+
+        public LaneLimits(int capacity, int weight, int maxConcurrency) {
+            if (capacity < 1 || weight < 1 || maxConcurrency < 1) {
+                throw new IllegalArgumentException("Lane capacity, weight and maxConcurrency must be at least 1");
+            }
+            this.capacity = capacity;
+            this.weight = weight;
+            this.maxConcurrency = maxConcurrency;
+        }
+    }
+
+    private static final class Lane {
+        private final LaneLimits limits;
+        private final ArrayDeque<RefineJob> queue = new ArrayDeque<>();
+        private final LongAdder started = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private int running;
+        private double pass;
+
+        private Lane(LaneLimits limits) {
+            this.limits = limits;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.tonepolish.service.job;
+
+import java.time.Instant;
+
+// One text submitted through the job API; its status fields change as the scheduler runs it
+public class RefineJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final String text;
+    private final String tone;
+    private final JobPriority priority;
+    private final String tenant;
+    private final String callbackUrl;
+    private final Instant submittedAt;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String polishedText;
+    private volatile String error;
+    private volatile Instant finishedAt;
+    private volatile int attempts;
+    private volatile long queuedAtNanos;
+
+    public RefineJob(String id, String text, String tone, JobPriority priority, String tenant, String callbackUrl,
+                     Instant submittedAt) {
+        this.id = id;
+        this.text = text;
+        this.tone = tone;
+        this.priority = priority;
+        this.tenant = tenant;
+        this.callbackUrl = callbackUrl;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getTone() {
+        return tone;
+    }
+
+    public JobPriority getPriority() {
+        return priority;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getPolishedText() {
+        return polishedText;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    long getQueuedAtNanos() {
+        return queuedAtNanos;
+    }
+
+    void markQueued() {
+        status = Status.QUEUED;
+        queuedAtNanos = System.nanoTime();
+    }
+
+    void markRunning() {
+        attempts++;
+        status = Status.RUNNING;
+    }
+
+    // Waiting out the tenant's token quota is not a failed attempt
+    void markThrottled() {
+        attempts--;
+    }
+
+    void finish(Status finalStatus, String polishedText, String error) {
+        this.polishedText = polishedText;
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = finalStatus;
+    }
+}
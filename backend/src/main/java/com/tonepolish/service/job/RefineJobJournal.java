@@ -0,0 +1,165 @@
+package com.tonepolish.service.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tonepolish.client.usage.TenantUsageTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only JSON-lines log of jobs that have been accepted but not finished, so queued and
+ * running jobs are picked up again after a restart. Each submission and each finish is one line,
+ * flushed as it is written (so a process crash loses nothing, but the log is not fsynced per
+ * job). The log is rewritten with only the pending jobs on startup and whenever finished records
+ * outnumber them. A torn last line left by a crash is skipped.
+ */
+public class RefineJobJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefineJobJournal.class);
+
+    // Finished records tolerated before a rewrite, however few jobs are pending
+    private static final int MIN_COMPACTION_RECORDS = 1000;
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final Map<String, RefineJob> pending = new LinkedHashMap<>();
+    private BufferedWriter writer;
+    private int finishedRecords;
+
+    public RefineJobJournal(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    // Reads the jobs left pending by the previous run and opens the log for appending
+    public synchronized List<RefineJob> recover() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    try {
+                        replay(objectMapper.readTree(line));
+                    } catch (IOException | RuntimeException e) {
+                        logger.warn("Skipping unreadable record at {}:{}", path, lineNumber);
+                    }
+                }
+            }
+        }
+        rewrite();
+        return new ArrayList<>(pending.values());
+    }
+
+    public synchronized void submitted(RefineJob job) {
+        pending.put(job.getId(), job);
+        append(submitRecord(job));
+    }
+
+    public synchronized void finished(RefineJob job) {
+        if (pending.remove(job.getId()) == null) {
+            return;
+        }
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("op", "finish");
+        record.put("id", job.getId());
+        append(record);
+        finishedRecords++;
+        if (finishedRecords > Math.max(MIN_COMPACTION_RECORDS, pending.size())) {
+            try {
+                rewrite();
+            } catch (IOException e) {
+                logger.warn("Failed to compact job journal {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void replay(JsonNode record) {
+        String id = record.get("id").asText();
+        if ("finish".equals(record.get("op").asText())) {
+            pending.remove(id);
+            return;
+        }
+        JsonNode tone = record.get("tone");
+        JsonNode tenant = record.get("tenant");
+        JsonNode callbackUrl = record.get("callbackUrl");
+        // Journals written before jobs were tenant-aware have no tenant
+        pending.put(id, new RefineJob(id, record.get("text").asText(),
+            tone == null || tone.isNull() ? null : tone.asText(),
+            JobPriority.valueOf(record.get("priority").asText()),
+            tenant == null || tenant.isNull() ? TenantUsageTracker.DEFAULT_TENANT : tenant.asText(),
+            callbackUrl == null || callbackUrl.isNull() ? null : callbackUrl.asText(),
+            Instant.ofEpochMilli(record.get("submittedAt").asLong())));
+    }
+
+    private ObjectNode submitRecord(RefineJob job) {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("op", "submit");
+        record.put("id", job.getId());
+        record.put("text", job.getText());
+        record.put("tone", job.getTone());
+        record.put("priority", job.getPriority().name());
+        record.put("tenant", job.getTenant());
+        record.put("callbackUrl", job.getCallbackUrl());
+        record.put("submittedAt", job.getSubmittedAt().toEpochMilli());
+        return record;
+    }
+
+    private void append(ObjectNode record) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(objectMapper.writeValueAsString(record));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to append to job journal {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void rewrite() throws IOException {
+        Path rewritten = path.resolveSibling(path.getFileName() + ".compact");
+        try (BufferedWriter target = Files.newBufferedWriter(rewritten, StandardCharsets.UTF_8)) {
+            for (RefineJob job : pending.values()) {
+                target.write(objectMapper.writeValueAsString(submitRecord(job)));
+                target.newLine();
+            }
+        }
+        close();
+        Files.move(rewritten, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        finishedRecords = 0;
+    }
+}
@@ -0,0 +1,352 @@
+package com.tonepolish.service.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonepolish.client.exception.CircuitOpenException;
+import com.tonepolish.client.exception.RateLimitExceededException;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.ratelimit.UpstreamRateLimiter;
+import com.tonepolish.client.usage.TenantUsageTracker;
+import com.tonepolish.client.usage.TokenCharge;
+import com.tonepolish.dto.RefineJobResponse;
+import com.tonepolish.service.RefineService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Job API behind /api/jobs: texts are accepted straight away, refined by a {@link JobScheduler}
+ * in an interactive or a bulk lane, and kept for polling (or POSTed to a callback) until the
+ * retention period passes. Bulk jobs only start while the upstream rate limiter has nobody
+ * waiting and more than the reserved share of its quota left, so overnight backfills soak up
+ * idle capacity instead of competing with live traffic. Jobs rejected by the rate limiter or an
+ * open circuit are retried after the advertised delay, and so are jobs whose tenant is over its
+ * token quota when they come up.
+ */
+@Service
+public class RefineJobService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefineJobService.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Duration MAX_SWEEP_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration JOURNAL_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final RefineService refineService;
+    private final PromptManager promptManager;
+    private final TenantUsageTracker tenantUsage;
+    private final UpstreamRateLimiter rateLimiter;
+    private final double bulkQuotaReserve;
+    private final Duration retention;
+    private final int retryAfterSeconds;
+    private final Set<String> callbackHosts;
+    private final WebClient callbackClient;
+    private final RefineJobJournal journal;
+    private final Map<String, RefineJob> jobs = new ConcurrentHashMap<>();
+    private final LongAdder[][] finished = new LongAdder[JobPriority.values().length][RefineJob.Status.values().length];
+    private final LongAdder[] rejected = new LongAdder[JobPriority.values().length];
+    private final ScheduledExecutorService timer;
+    // Journal writes, and the occasional compaction, stay off the threads that complete jobs
+    private final ExecutorService journalWriter;
+    private final JobScheduler scheduler;
+
+    public RefineJobService(RefineService refineService, Path journalPath) throws IOException {
+        this(refineService, null, null, 8, 1000, 4, 100000, 1, 6, 0.2, 3600, 5, "",
+            journalPath == null ? "" : journalPath.toString(), new ObjectMapper(), WebClient.builder(), null);
+    }
+
+    @Autowired
+    public RefineJobService(RefineService refineService,
+                            PromptManager promptManager,
+                            TenantUsageTracker tenantUsage,
+                            @Value("${ai.api.jobs.max-concurrency:8}") int maxConcurrency,
+                            @Value("${ai.api.jobs.interactive.queue-capacity:1000}") int interactiveCapacity,
+                            @Value("${ai.api.jobs.interactive.weight:4}") int interactiveWeight,
+                            @Value("${ai.api.jobs.bulk.queue-capacity:100000}") int bulkCapacity,
+                            @Value("${ai.api.jobs.bulk.weight:1}") int bulkWeight,
+                            @Value("${ai.api.jobs.bulk.max-concurrency:6}") int bulkMaxConcurrency,
+                            @Value("${ai.api.jobs.bulk.quota-reserve:0.2}") double bulkQuotaReserve,
+                            @Value("${ai.api.jobs.retention-seconds:3600}") long retentionSeconds,
+                            @Value("${ai.api.jobs.retry-after-seconds:5}") int retryAfterSeconds,
+                            @Value("${ai.api.jobs.callback.allowed-hosts:}") String callbackHosts,
+                            @Value("${ai.api.jobs.persistence.path:}") String journalPath,
+                            ObjectMapper objectMapper,
+                            WebClient.Builder webClientBuilder,
+                            ObjectProvider<UpstreamRateLimiter> rateLimiter) throws IOException {
+        this.refineService = refineService;
+        this.promptManager = promptManager;
+        this.tenantUsage = tenantUsage;
+        this.rateLimiter = rateLimiter == null ? null : rateLimiter.getIfAvailable();
+        this.bulkQuotaReserve = bulkQuotaReserve;
+        this.retention = Duration.ofSeconds(retentionSeconds);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.callbackHosts = Arrays.stream(callbackHosts.split(","))
+            .map(String::trim)
+            .filter(host -> !host.isEmpty())
+            .map(host -> host.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toSet());
+        this.callbackClient = webClientBuilder.build();
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+            for (int j = 0; j < finished[i].length; j++) {
+                finished[i][j] = new LongAdder();
+            }
+        }
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refine-jobs");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The bulk lane's cap leaves at least one slot that only interactive jobs can take
+        this.scheduler = new JobScheduler(maxConcurrency,
+            new JobScheduler.LaneLimits(interactiveCapacity, interactiveWeight, maxConcurrency),
+            new JobScheduler.LaneLimits(bulkCapacity, bulkWeight, Math.max(1, Math.min(bulkMaxConcurrency, maxConcurrency - 1))),
+            this::upstreamHasHeadroom, timer, this::run);
+        long sweepMillis = Math.min(retention.toMillis(), MAX_SWEEP_INTERVAL.toMillis());
+        timer.scheduleAtFixedRate(this::expireFinished, sweepMillis, Math.max(1, sweepMillis), TimeUnit.MILLISECONDS);
+
+        if (journalPath.isEmpty()) {
+            this.journal = null;
+            this.journalWriter = null;
+        } else {
+            this.journalWriter = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "refine-jobs-journal");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.journal = new RefineJobJournal(Path.of(journalPath), objectMapper);
+            int restored = 0;
+            for (RefineJob job : journal.recover()) {
+                jobs.put(job.getId(), job);
+                scheduler.restore(job);
+                restored++;
+            }
+            logger.info("Job persistence at {}, restored {} pending jobs", journalPath, restored);
+        }
+    }
+
+    // Null when the job's lane is full
+    public RefineJob submit(String text, String tone, JobPriority priority, String tenant, String callbackUrl) {
+        RefineJob job = new RefineJob(UUID.randomUUID().toString(), text, tone, priority, tenant, callbackUrl, Instant.now());
+        jobs.put(job.getId(), job);
+        writeJournal(journal -> journal.submitted(job));
+        if (!scheduler.offer(job)) {
+            jobs.remove(job.getId());
+            writeJournal(journal -> journal.finished(job));
+            rejected[priority.ordinal()].increment();
+            return null;
+        }
+        return job;
+    }
+
+    public RefineJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    // The job as it stands afterwards; only jobs still waiting in a queue can be cancelled
+    public RefineJob cancel(String id) {
+        RefineJob job = jobs.get(id);
+        if (job != null && job.getStatus() == RefineJob.Status.QUEUED && scheduler.remove(job)) {
+            complete(job, RefineJob.Status.CANCELLED, null, "Cancelled");
+        }
+        return job;
+    }
+
+    // Callbacks are sent from inside the network, so only hosts on the allow-list may receive them
+    public boolean isAllowedCallback(String callbackUrl) {
+        try {
+            URI uri = URI.create(callbackUrl);
+            String scheme = uri.getScheme();
+            return ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) && uri.getHost() != null
+                && callbackHosts.contains(uri.getHost().toLowerCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public static RefineJobResponse describe(RefineJob job) {
+        RefineJobResponse response = new RefineJobResponse();
+        response.setId(job.getId());
+        response.setStatus(job.getStatus().name().toLowerCase(Locale.ROOT));
+        response.setPriority(job.getPriority().name().toLowerCase(Locale.ROOT));
+        response.setPolishedText(job.getPolishedText());
+        response.setError(job.getError());
+        response.setSubmittedAt(job.getSubmittedAt().toString());
+        response.setFinishedAt(job.getFinishedAt() == null ? null : job.getFinishedAt().toString());
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        // Running jobs stay pending in the journal and run again after the restart
+        timer.shutdownNow();
+        if (journal != null) {
+            journalWriter.shutdown();
+            try {
+                if (!journalWriter.awaitTermination(JOURNAL_DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                    logger.warn("Job journal writes still pending after {}ms", JOURNAL_DRAIN_TIMEOUT.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            journal.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        String name = "tonepolish.jobs";
+        for (JobPriority priority : JobPriority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            Gauge.builder(name + ".queued", scheduler, s -> s.getQueued(priority)).tag("priority", tag).register(registry);
+            Gauge.builder(name + ".running", scheduler, s -> s.getRunning(priority)).tag("priority", tag).register(registry);
+            FunctionTimer.builder(name + ".queue.wait", scheduler, s -> s.getStarted(priority),
+                    s -> s.getQueueWaitSeconds(priority), TimeUnit.SECONDS)
+                .description("Time jobs spent queued before starting")
+                .tag("priority", tag)
+                .register(registry);
+            FunctionCounter.builder(name + ".rejected", rejected[priority.ordinal()], LongAdder::sum)
+                .description("Jobs refused with 503 because their lane was full")
+                .tag("priority", tag)
+                .register(registry);
+            for (RefineJob.Status status : RefineJob.Status.values()) {
+                if (status.isFinished()) {
+                    FunctionCounter.builder(name + ".finished", finished[priority.ordinal()][status.ordinal()], LongAdder::sum)
+                        .tags("priority", tag, "status", status.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+                }
+            }
+        }
+    }
+
+    private Mono<?> run(RefineJob job) {
+        // The tones may have been reloaded, or the journal restored under another config, since the job was accepted
+        if (promptManager != null && !promptManager.hasTone(job.getTone())) {
+            complete(job, RefineJob.Status.FAILED, null, "Unknown tone '" + job.getTone() + "'");
+            return Mono.empty();
+        }
+        // Without a tracker (e.g. in tests) jobs are not charged to anyone
+        if (tenantUsage == null) {
+            return refine(job);
+        }
+        long estimatedTokens = TenantUsageTracker.estimateTokens(
+            promptManager.getProfile(job.getTone()).getSystemPrompt(), job.getText().length());
+        TokenCharge charge = tenantUsage.tryAcquire(job.getTenant(), estimatedTokens);
+        if (charge == null) {
+            // Accepted jobs wait for their tenant's window to slide instead of failing
+            Duration retryAfter = tenantUsage.retryAfter(job.getTenant(), estimatedTokens);
+            logger.debug("Refine job {} over quota for tenant {}, deferred {}ms",
+                job.getId(), job.getTenant(), retryAfter.toMillis());
+            job.markThrottled();
+            scheduler.offerLater(job, retryAfter);
+            return Mono.empty();
+        }
+        return refine(job)
+            .contextWrite(charge::attachTo)
+            .doFinally(signal -> charge.settle());
+    }
+
+    private Mono<?> refine(RefineJob job) {
+        return refineService.refineTextAsync(job.getText(), job.getTone())
+            .doOnNext(refined -> complete(job, RefineJob.Status.SUCCEEDED, refined, null))
+            .onErrorResume(e -> {
+                Duration retryAfter = retryAfter(e);
+                if (retryAfter != null && job.getAttempts() < MAX_ATTEMPTS) {
+                    logger.debug("Refine job {} deferred {}ms: {}", job.getId(), retryAfter.toMillis(), e.getMessage());
+                    scheduler.offerLater(job, retryAfter);
+                } else {
+                    complete(job, RefineJob.Status.FAILED, null, e.getMessage());
+                }
+                return Mono.empty();
+            });
+    }
+
+    private boolean upstreamHasHeadroom() {
+        return rateLimiter == null
+            || (rateLimiter.getWaiting() == 0 && rateLimiter.getRemainingQuotaFraction() > bulkQuotaReserve);
+    }
+
+    private void complete(RefineJob job, RefineJob.Status status, String polishedText, String error) {
+        job.finish(status, polishedText, error);
+        finished[job.getPriority().ordinal()][status.ordinal()].increment();
+        writeJournal(journal -> journal.finished(job));
+        if (job.getCallbackUrl() != null) {
+            notify(job);
+        }
+    }
+
+    // Records are written in submission order on the journal's own thread
+    private void writeJournal(Consumer<RefineJobJournal> write) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journalWriter.execute(() -> write.accept(journal));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the job stays pending in the journal and runs again after the restart
+            logger.debug("Job journal closed, record dropped");
+        }
+    }
+
+    private void notify(RefineJob job) {
+        callbackClient.post()
+            .uri(job.getCallbackUrl())
+            .bodyValue(describe(job))
+            .retrieve()
+            .toBodilessEntity()
+            .retryWhen(Retry.backoff(2, Duration.ofSeconds(1)))
+            .subscribe(response -> { }, error -> logger.warn("Callback for job {} to {} failed: {}",
+                job.getId(), job.getCallbackUrl(), error.getMessage()));
+    }
+
+    private void expireFinished() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getStatus().isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static Duration retryAfter(Throwable error) {
+        if (error instanceof RateLimitExceededException) {
+            return ((RateLimitExceededException) error).getRetryAfter();
+        }
+        if (error instanceof CircuitOpenException) {
+            return ((CircuitOpenException) error).getRetryAfter();
+        }
+        return null;
+    }
+}
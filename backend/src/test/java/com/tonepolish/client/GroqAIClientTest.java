@@ -0,0 +1,94 @@
+package com.tonepolish.client;
+
+import com.tonepolish.client.exception.AIClientException;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.retry.RetryExecutor;
+import com.tonepolish.client.retry.RetryPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroqAIClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private StubChatCompletionServer server;
+    private GroqAIClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubChatCompletionServer("unused");
+        client = new GroqAIClient("test-key", server.getUrl(), "stub-model", new PromptManager(""),
+            new RetryExecutor(new RetryPolicy(0, Duration.ofMillis(10), 1.0, Duration.ofMillis(10), 0, TIMEOUT, TIMEOUT)),
+            null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testStreamReassemblesEventsSplitAcrossReads() {
+        server.setStreamChunks(
+            "data: {\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\"}}]}\n\n",
+            "data: {\"choices\":[{\"index\":0,\"del",
+            "ta\":{\"content\":\"Thanks for \"}}]}\n",
+            "\n: keep-alive\n\ndata: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"your patience.\"}}]}\n\n",
+            "data: [DONE]\n\n",
+            // Nothing after the end marker is read
+            "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\" Extra.\"}}]}\n\n");
+
+        List<String> deltas = client.refineTextStream("thx for waiting").collectList().block(TIMEOUT);
+
+        assertEquals(List.of("Thanks for ", "your patience."), deltas);
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    void testStreamFailsOnErrorChunkAfterPartialOutput() {
+        server.setStreamChunks(
+            "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Thanks\"}}]}\n\n",
+            "data: {\"error\":{\"message\":\"Service unavailable\",\"type\":\"server_error\"}}\n\n",
+            "data: [DONE]\n\n");
+
+        assertStreamFails("AI API stream failed: Service unavailable", List.of("Thanks"));
+    }
+
+    @Test
+    void testStreamFailsOnErrorEvent() {
+        server.setStreamChunks(
+            "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Thanks\"}}]}\n\n",
+            "event: error\ndata: overloaded\n\n");
+
+        assertStreamFails("AI API stream failed: overloaded", List.of("Thanks"));
+    }
+
+    @Test
+    void testStreamGapIsBoundedByTheAttemptTimeout() {
+        GroqAIClient impatient = new GroqAIClient("test-key", server.getUrl(), "stub-model", new PromptManager(""),
+            new RetryExecutor(new RetryPolicy(0, Duration.ofMillis(10), 1.0, Duration.ofMillis(10), 0,
+                Duration.ofMillis(200), TIMEOUT)),
+            null);
+        server.setDelayMillis(2_000);
+
+        // Fails on its own timeout rather than hanging until the caller gives up
+        assertThrows(AIClientException.class, () -> impatient.refineTextStream("thx for waiting").blockLast(TIMEOUT));
+    }
+
+    private void assertStreamFails(String message, List<String> expectedDeltas) {
+        List<String> deltas = new ArrayList<>();
+        Flux<String> stream = client.refineTextStream("thx for waiting").doOnNext(deltas::add);
+
+        AIClientException error = assertThrows(AIClientException.class, () -> stream.blockLast(TIMEOUT));
+        assertEquals(message, error.getMessage());
+        assertEquals(expectedDeltas, deltas);
+    }
+}
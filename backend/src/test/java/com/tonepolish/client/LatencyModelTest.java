@@ -0,0 +1,47 @@
+package com.tonepolish.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyModelTest {
+
+    @Test
+    void testParseFixedAndNone() {
+        assertEquals(Duration.ofMillis(500), LatencyModel.parse("fixed:500").next());
+        assertEquals(Duration.ZERO, LatencyModel.parse("none").next());
+    }
+
+    @Test
+    void testUniformStaysInRange() {
+        LatencyModel model = LatencyModel.parse("uniform:200:800");
+        for (int i = 0; i < 1000; i++) {
+            long millis = model.next().toMillis();
+            assertTrue(millis >= 200 && millis <= 800, "sampled " + millis);
+        }
+    }
+
+    @Test
+    void testLogNormalMatchesMedianAndTail() {
+        LatencyModel model = LatencyModel.parse("lognormal:400:2000");
+        long[] samples = new long[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = model.next().toMillis();
+        }
+        Arrays.sort(samples);
+        long median = samples[samples.length / 2];
+        long p99 = samples[(int) (samples.length * 0.99)];
+        assertTrue(median > 360 && median < 440, "median " + median);
+        assertTrue(p99 > 1600 && p99 < 2500, "p99 " + p99);
+    }
+
+    @Test
+    void testRejectsInvalidSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse("gaussian:400"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse("uniform:800:200"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse("lognormal:400"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.tonepolish.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal OpenAI-compatible chat completion endpoint for tests. Answers every request with a fixed
+ * reply and usage block after an optional delay, or with a configurable HTTP error status. Streaming
+ * requests get the raw chunks set with {@link #setStreamChunks}, each flushed separately.
+ */
+public class StubChatCompletionServer implements AutoCloseable {
+
+    static {
+        // The JDK server leaves Nagle on by default, which adds ~40ms delayed-ACK stalls per exchange
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    public static final int PROMPT_TOKENS = 20;
+    public static final int COMPLETION_TOKENS = 5;
+
+    private final HttpServer server;
+    private final String reply;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long delayMillis;
+    private volatile int status = 200;
+    private volatile String[] streamChunks = new String[0];
+
+    public StubChatCompletionServer(String reply) throws IOException {
+        this.reply = reply;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        pause(delayMillis);
+        if (status == 200 && request.contains("\"stream\":true")) {
+            stream(exchange);
+            return;
+        }
+        byte[] body = status == 200
+            ? ("{\"id\":\"stub\",\"object\":\"chat.completion\",\"model\":\"stub\",\"choices\":[{\"index\":0,"
+                + "\"message\":{\"role\":\"assistant\",\"content\":\"" + reply + "\"},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":" + PROMPT_TOKENS + ",\"completion_tokens\":" + COMPLETION_TOKENS + "}}")
+                .getBytes(StandardCharsets.UTF_8)
+            : "{\"error\":{\"message\":\"stub failure\"}}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Chunks may end mid-line or mid-event; the pause lets each arrive as its own read on the client
+    private void stream(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (String chunk : streamChunks) {
+                out.write(chunk.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                pause(20);
+            }
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    public void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public void setStreamChunks(String... streamChunks) {
+        this.streamChunks = streamChunks;
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
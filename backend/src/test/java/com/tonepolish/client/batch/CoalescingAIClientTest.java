@@ -0,0 +1,200 @@
+package com.tonepolish.client.batch;
+
+import com.tonepolish.client.GroqAIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.usage.TenantUsageTracker;
+import com.tonepolish.client.usage.TokenCharge;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingAIClientTest {
+
+    private static final Pattern LABELLED_ITEM = Pattern.compile("(?s)(\\[[a-z0-9]{4}-\\d+\\]) (.*?)(?=\\n\\[[a-z0-9]{4}-\\d+\\] |$)");
+
+    private static final int BATCH_PROMPT_TOKENS = 90;
+    private static final int BATCH_COMPLETION_TOKENS = 31;
+
+    private final PromptManager promptManager = new PromptManager("");
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private final List<String> upstreamInputs = new CopyOnWriteArrayList<>();
+
+    // Answers each labelled item of a batch in order, and single calls directly
+    private final Function<String, Mono<String>> echoBatch = labelled -> {
+        StringBuilder reply = new StringBuilder();
+        Matcher item = LABELLED_ITEM.matcher(labelled);
+        while (item.find()) {
+            reply.append(item.group(1)).append(" Refined: ").append(item.group(2)).append('\n');
+        }
+        return Mono.just(reply.toString());
+    };
+
+    private GroqAIClient upstream(Function<String, Mono<String>> batchReply) {
+        return new GroqAIClient("test-key", "http://localhost:1", "test-model", promptManager,
+            0, Duration.ofMillis(10), 1.0, Duration.ofMillis(10)) {
+            @Override
+            public Mono<String> chatCompletionAsync(String systemPrompt, String userContent) {
+                batchCalls.incrementAndGet();
+                upstreamInputs.add(userContent);
+                // Charged the way the real client charges a completion's usage block
+                return Mono.deferContextual(context -> {
+                    TokenCharge charge = TokenCharge.from(context);
+                    if (charge != null) {
+                        charge.record(BATCH_PROMPT_TOKENS, BATCH_COMPLETION_TOKENS);
+                    }
+                    return batchReply.apply(userContent);
+                });
+            }
+
+            @Override
+            public Mono<String> refineTextAsync(String inputText, String tone) {
+                singleCalls.incrementAndGet();
+                upstreamInputs.add(inputText);
+                return Mono.just("Refined: " + inputText);
+            }
+        };
+    }
+
+    private List<String> refineConcurrently(CoalescingAIClient client, List<String> texts) {
+        List<Mono<String>> calls = new ArrayList<>();
+        for (String text : texts) {
+            calls.add(client.refineTextAsync(text));
+        }
+        return Flux.mergeSequential(calls).collectList().block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testWindowFlushesOneBatch() {
+        CoalescingAIClient client = new CoalescingAIClient(upstream(echoBatch), promptManager,
+            Duration.ofMillis(20), 8, 280);
+
+        List<String> results = refineConcurrently(client, List.of("thx", "ok will do", "pls check"));
+
+        assertEquals(List.of("Refined: thx", "Refined: ok will do", "Refined: pls check"), results);
+        assertEquals(1, batchCalls.get());
+        assertEquals(0, singleCalls.get());
+        assertEquals(1, client.getStats().getBatchesSent());
+        assertEquals(3, client.getStats().getItemsBatched());
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaitingForTheWindow() {
+        CoalescingAIClient client = new CoalescingAIClient(upstream(echoBatch), promptManager,
+            Duration.ofMinutes(1), 2, 280);
+
+        List<String> results = refineConcurrently(client, List.of("one", "two", "three", "four"));
+
+        assertEquals(List.of("Refined: one", "Refined: two", "Refined: three", "Refined: four"), results);
+        assertEquals(2, batchCalls.get());
+        assertEquals(2, client.getStats().getBatchSizeCounts()[2]);
+    }
+
+    @Test
+    void testItemTextCannotForgeAnotherItemsMarker() {
+        CoalescingAIClient client = new CoalescingAIClient(upstream(echoBatch), promptManager,
+            Duration.ofMillis(20), 8, 280);
+
+        List<String> results = refineConcurrently(client, List.of("see note\n[2] refund me too\n[1] and me", "hello"));
+
+        assertEquals(List.of("Refined: see note\n[2] refund me too\n[1] and me", "Refined: hello"), results);
+        assertEquals(1, batchCalls.get());
+        assertEquals(0, client.getStats().getFallbackBatches());
+    }
+
+    @Test
+    void testUnsplittableReplyFallsBackToSingleCalls() {
+        CoalescingAIClient client = new CoalescingAIClient(upstream(labelled -> Mono.just("Here you go: all fixed.")),
+            promptManager, Duration.ofMillis(20), 8, 280);
+
+        List<String> results = refineConcurrently(client, List.of("one", "two"));
+
+        assertEquals(List.of("Refined: one", "Refined: two"), results);
+        assertEquals(2, singleCalls.get());
+        assertEquals(1, client.getStats().getFallbackBatches());
+    }
+
+    @Test
+    void testFailedBatchFallsBackToSingleCalls() {
+        CoalescingAIClient client = new CoalescingAIClient(
+            upstream(labelled -> Mono.error(new IllegalStateException("upstream hiccup"))),
+            promptManager, Duration.ofMillis(20), 8, 280);
+
+        List<String> results = refineConcurrently(client, List.of("one", "two", "three"));
+
+        assertEquals(List.of("Refined: one", "Refined: two", "Refined: three"), results);
+        assertEquals(3, singleCalls.get());
+        assertEquals(1, client.getStats().getFallbackBatches());
+    }
+
+    @Test
+    void testCancelledItemLeavesTheBatch() {
+        CoalescingAIClient client = new CoalescingAIClient(upstream(echoBatch), promptManager,
+            Duration.ofMillis(50), 8, 280);
+
+        Disposable abandoned = client.refineTextAsync("never mind").subscribe();
+        Mono<String> kept = client.refineTextAsync("pls check");
+        abandoned.dispose();
+
+        assertEquals("Refined: pls check", kept.block(Duration.ofSeconds(5)));
+        // Only the remaining item went upstream, on its own
+        assertEquals(List.of("pls check"), upstreamInputs);
+        assertEquals(0, batchCalls.get());
+    }
+
+    @Test
+    void testBatchUsageIsChargedToEachItem() {
+        CoalescingAIClient client = new CoalescingAIClient(upstream(echoBatch), promptManager,
+            Duration.ofMillis(20), 8, 280);
+        TenantUsageTracker tracker = new TenantUsageTracker(0, Duration.ofSeconds(60));
+        TokenCharge brief = tracker.tryAcquire("team-a", 100);
+        TokenCharge longer = tracker.tryAcquire("team-b", 100);
+
+        List<String> results = Flux.mergeSequential(
+                client.refineTextAsync("thx").contextWrite(brief::attachTo),
+                client.refineTextAsync("ok will check the refund today").contextWrite(longer::attachTo))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertEquals(2, results.size());
+        assertEquals(1, batchCalls.get());
+        // Shared by input length, adding up to exactly what the batch reported
+        assertTrue(brief.getChargedTokens() > 0);
+        assertTrue(longer.getChargedTokens() > brief.getChargedTokens());
+        assertEquals(BATCH_PROMPT_TOKENS + BATCH_COMPLETION_TOKENS, brief.getChargedTokens() + longer.getChargedTokens());
+    }
+
+    @Test
+    void testSplit_LabelledResponse() {
+        String response = "[k7q2-1] Thank you for your patience.\n[k7q2-2] We are looking into it.\nIt should be resolved soon.\n[k7q2-3] Happy to help.";
+
+        List<String> parts = CoalescingAIClient.split(response, "k7q2", 3);
+
+        assertEquals(Arrays.asList("Thank you for your patience.",
+            "We are looking into it.\nIt should be resolved soon.",
+            "Happy to help."), parts);
+    }
+
+    @Test
+    void testSplit_RejectsMissingRepeatedOrExtraItems() {
+        assertNull(CoalescingAIClient.split("[k7q2-1] One.\n[k7q2-3] Three.", "k7q2", 3));
+        assertNull(CoalescingAIClient.split("[k7q2-1] One.\n[k7q2-2] Two.\n[k7q2-3] Three.", "k7q2", 2));
+        assertNull(CoalescingAIClient.split("Here are your messages:\n[k7q2-1] One.\n[k7q2-2] Two.", "k7q2", 2));
+        assertNull(CoalescingAIClient.split("[k7q2-1] One.\n[k7q2-2]", "k7q2", 2));
+        assertNull(CoalescingAIClient.split("[k7q2-1] One [k7q2-2] again.\n[k7q2-2] Two.", "k7q2", 2));
+        assertNull(CoalescingAIClient.split("[1] One.\n[2] Two.", "k7q2", 2));
+    }
+}
@@ -0,0 +1,74 @@
+package com.tonepolish.client.cache;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingAIClientTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private CachingAIClient cachingClient;
+
+    @BeforeEach
+    void setUp() {
+        AIClient upstream = new AIClient() {
+            @Override
+            public String refineText(String inputText) {
+                return refineTextAsync(inputText).block();
+            }
+
+            @Override
+            public Mono<String> refineTextAsync(String inputText) {
+                upstreamCalls.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(100)).map(tick -> "Refined: " + inputText.trim());
+            }
+        };
+        cachingClient = new CachingAIClient(upstream, new PromptManager(""), "test-model",
+            1024 * 1024, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testConcurrentIdenticalRequests_ProduceOneUpstreamCall() {
+        List<String> results = Flux.range(0, 50)
+            .flatMap(i -> cachingClient.refineTextAsync("sorry for the delay"))
+            .collectList()
+            .block();
+
+        assertEquals(50, results.size());
+        assertTrue(results.stream().allMatch("Refined: sorry for the delay"::equals));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void testWhitespaceVariants_ShareEntry() {
+        cachingClient.refineText("we are looking into it");
+        cachingClient.refineText("  we are   looking into\nit ");
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, cachingClient.getStats().hitCount());
+        assertEquals(1, cachingClient.getStats().missCount());
+
+        // The entry is weighed by Caffeine's maintenance, which can run just after the caller resumes
+        await().atMost(Duration.ofSeconds(2)).until(() -> cachingClient.getEstimatedSizeBytes() > 0);
+    }
+
+    @Test
+    void testTonesHaveSeparateEntries() {
+        cachingClient.refineText("we are looking into it", null);
+        cachingClient.refineText("we are looking into it", "empathetic");
+        cachingClient.refineText("we are looking into it", "formal");
+
+        // The default tone by name shares the unnamed default's entry
+        assertEquals(2, upstreamCalls.get());
+    }
+}
@@ -0,0 +1,84 @@
+package com.tonepolish.client.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskCacheStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEntries_SurviveRestart() throws Exception {
+        Path file = tempDir.resolve("cache.log");
+        String key = RefineCacheKey.of("sorry for the delay", "prompt", "model");
+
+        DiskCacheStore store = awaitReady(new DiskCacheStore(file, 1024 * 1024, Duration.ofHours(1)));
+        store.put(key, "I apologize for the delay.");
+        store.close();
+
+        DiskCacheStore reopened = awaitReady(new DiskCacheStore(file, 1024 * 1024, Duration.ofHours(1)));
+        assertEquals("I apologize for the delay.", reopened.get(key).orElseThrow());
+        reopened.close();
+    }
+
+    @Test
+    void testTornTail_IsTruncatedOnRecovery() throws Exception {
+        Path file = tempDir.resolve("cache.log");
+        String key = RefineCacheKey.of("we are looking into it", "prompt", "model");
+
+        DiskCacheStore store = awaitReady(new DiskCacheStore(file, 1024 * 1024, Duration.ofHours(1)));
+        store.put(key, "We are actively looking into it.");
+        store.close();
+        long validSize = Files.size(file);
+
+        // Simulate a crash midway through the next append
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x52, 0x46, 0x4E, 0x31, 1, 2, 3}));
+        }
+
+        DiskCacheStore reopened = awaitReady(new DiskCacheStore(file, 1024 * 1024, Duration.ofHours(1)));
+        assertEquals(validSize, Files.size(file));
+        assertEquals("We are actively looking into it.", reopened.get(key).orElseThrow());
+        reopened.close();
+    }
+
+    @Test
+    void testCompaction_KeepsFileUnderCap() throws Exception {
+        Path file = tempDir.resolve("cache.log");
+        long cap = 16 * 1024;
+        DiskCacheStore store = awaitReady(new DiskCacheStore(file, cap, Duration.ofHours(1)));
+
+        String lastKey = null;
+        for (int i = 0; i < 500; i++) {
+            lastKey = RefineCacheKey.of("message " + i, "prompt", "model");
+            store.put(lastKey, "Refined message number " + i);
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.size(file) > cap && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(Files.size(file) <= cap);
+        assertEquals("Refined message number 499", store.get(lastKey).orElseThrow());
+        store.close();
+    }
+
+    private static DiskCacheStore awaitReady(DiskCacheStore store) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!store.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(store.isReady());
+        return store;
+    }
+}
@@ -0,0 +1,113 @@
+package com.tonepolish.client.cache;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearDuplicateAIClientTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final AIClient upstream = new AIClient() {
+        @Override
+        public String refineText(String inputText) {
+            return refineTextAsync(inputText).block();
+        }
+
+        @Override
+        public Mono<String> refineTextAsync(String inputText) {
+            upstreamCalls.incrementAndGet();
+            return Mono.just("Refined: " + inputText.trim());
+        }
+    };
+
+    @Test
+    void testNearDuplicateIsServedLocally() {
+        NearDuplicateAIClient client = new NearDuplicateAIClient(upstream, new PromptManager(""),
+            new NearDuplicateIndex(100, 8, 4, 0.9), 1000, 0.0, 0.5);
+
+        assertEquals("Refined: sorry about ticket #4411, we're on it",
+            client.refineText("sorry about ticket #4411, we're on it"));
+        assertEquals("Refined: sorry about ticket #4412, we're on it",
+            client.refineText("Sorry about ticket #4412 - we're on it"));
+        // A different tone is a different prompt, so its reply can't be reused
+        client.refineText("sorry about ticket #4413, we're on it", "formal");
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(1, client.getStats().getHits());
+        assertEquals(2, client.getStats().getMisses());
+    }
+
+    @Test
+    void testNegatedMessageGoesUpstream() {
+        NearDuplicateAIClient client = new NearDuplicateAIClient(upstream, new PromptManager(""),
+            new NearDuplicateIndex(100, 8, 4, 0.9), 1000, 0.0, 0.5);
+        String text = "hi, thanks for waiting on ticket #4411. we can refund the duplicate charge once the payment "
+            + "provider confirms it, which usually takes two to three business days, and we will email you when it is done";
+
+        client.refineText(text);
+        String negated = text.replace(" can ", " cannot ");
+
+        assertEquals("Refined: " + negated, client.refineText(negated));
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, client.getStats().getHits());
+    }
+
+    @Test
+    void testSampledHitsAreComparedWithFreshReplies() {
+        NearDuplicateAIClient client = new NearDuplicateAIClient(upstream, new PromptManager(""),
+            new NearDuplicateIndex(100, 8, 4, 0.9), 1000, 1.0, 0.5);
+
+        client.refineText("sorry about ticket #4411, we're on it");
+        client.refineText("sorry about ticket #4412, we're on it");
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(1, client.getStats().getSamplesAgreed());
+        assertEquals(0.0, client.getStats().getFalsePositiveRate());
+    }
+
+    @Test
+    void testSamplesRunUnderTheCallersContextAndAreCapped() {
+        List<String> sampleCallers = new CopyOnWriteArrayList<>();
+        // The first call fills the index; samples after it never finish, so they stay in flight
+        AIClient slowUpstream = new AIClient() {
+            @Override
+            public String refineText(String inputText) {
+                return refineTextAsync(inputText).block();
+            }
+
+            @Override
+            public Mono<String> refineTextAsync(String inputText) {
+                if (upstreamCalls.getAndIncrement() == 0) {
+                    return Mono.just("Refined: " + inputText.trim());
+                }
+                return Mono.deferContextual(context -> {
+                    sampleCallers.add(context.get("caller"));
+                    return Mono.never();
+                });
+            }
+        };
+        NearDuplicateAIClient client = new NearDuplicateAIClient(slowUpstream, new PromptManager(""),
+            new NearDuplicateIndex(100, 8, 4, 0.9), 1000, 1.0, 0.5);
+        client.refineText("sorry about ticket #4411, we're on it");
+
+        for (int i = 0; i < 10; i++) {
+            String caller = "request-" + i;
+            assertEquals("Refined: sorry about ticket #" + (5000 + i) + ", we're on it",
+                client.refineTextAsync("sorry about ticket #" + (5000 + i) + ", we're on it")
+                    .contextWrite(context -> context.put("caller", caller))
+                    .block());
+        }
+
+        assertEquals(NearDuplicateAIClient.MAX_SAMPLES_IN_FLIGHT, sampleCallers.size());
+        assertEquals(List.of("request-0", "request-1", "request-2", "request-3"), sampleCallers);
+        assertEquals(10 - NearDuplicateAIClient.MAX_SAMPLES_IN_FLIGHT, client.getStats().getSamplesSkipped());
+    }
+}
@@ -0,0 +1,83 @@
+package com.tonepolish.client.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearDuplicateIndexTest {
+
+    private static final String TONE = "default-tone";
+
+    private final NearDuplicateIndex index = new NearDuplicateIndex(1000, 8, 4, 0.9);
+
+    @Test
+    void testSkeletonSeparatesVolatileTokens() {
+        TextSkeleton skeleton = TextSkeleton.of("Hi Dana, sorry about ticket #4411 -- mail ops@example.com!");
+
+        assertArrayEquals(new String[] {"Dana", "4411", "ops@example.com"}, skeleton.getVariables());
+        assertEquals(TextSkeleton.of("hi  MARIA sorry about ticket 4412 mail it@example.org").getSkeleton(),
+            skeleton.getSkeleton());
+    }
+
+    @Test
+    void testReusesReplyWithVariablesSwapped() {
+        index.put(index.key(TONE, "hey sorry about ticket #4411, we're looking into it"),
+            "I'm sorry about ticket #4411. We are looking into it.");
+
+        NearDuplicateIndex.Match match = index.find(index.key(TONE, "Hey, sorry about ticket #4412 - we're looking into it!"));
+
+        assertNotNull(match);
+        assertEquals("I'm sorry about ticket #4412. We are looking into it.", match.getOutput());
+        assertTrue(match.getSimilarity() >= 0.9);
+    }
+
+    @Test
+    void testMissesUnrelatedTextsAndOtherTones() {
+        index.put(index.key(TONE, "sorry about ticket #4411, we're looking into it"), "reply");
+
+        assertNull(index.find(index.key(TONE, "your refund was processed yesterday, check your bank")));
+        assertNull(index.find(index.key("other-tone", "sorry about ticket #4411, we're looking into it")));
+        // A different number of variables can't be mapped onto the stored reply
+        assertNull(index.find(index.key(TONE, "sorry about ticket #4411 and 4412, we're looking into it")));
+    }
+
+    @Test
+    void testOneChangedWordIsNeverReused() {
+        String text = "hi, thanks for waiting on ticket #4411. we can refund the duplicate charge once the payment "
+            + "provider confirms it, which usually takes two to three business days, and we will email you when it is done";
+        index.put(index.key(TONE, text), "Thank you for waiting. We can refund the duplicate charge on ticket #4411.");
+
+        NearDuplicateIndex.Match match = index.find(index.key(TONE,
+            text.replace(" can ", " cannot ").replace("4411", "4412")));
+
+        // Found as a candidate, but the reply would say the opposite
+        assertNotNull(match);
+        assertTrue(match.getSimilarity() >= 0.9);
+        assertNull(match.getOutput());
+    }
+
+    @Test
+    void testAmbiguousSubstitutionIsRefused() {
+        assertNull(NearDuplicateIndex.substitute("Orders 12 and 12.", new String[] {"12", "12"}, new String[] {"13", "14"}));
+        // Only whole tokens are replaced
+        assertEquals("Order 13, not 120.", NearDuplicateIndex.substitute("Order 12, not 120.",
+            new String[] {"12"}, new String[] {"13"}));
+        // The reply's second 2 came from somewhere other than the input's ticket number
+        assertNull(NearDuplicateIndex.substitute("Ticket 2 will be fixed within 2 days.",
+            new String[] {"2"}, new String[] {"7"}));
+        assertEquals("Orders 13 and 13 ship today.", NearDuplicateIndex.substitute("Orders 12 and 12 ship today.",
+            new String[] {"12", "12"}, new String[] {"13", "13"}));
+    }
+
+    @Test
+    void testCapacityBoundsEntries() {
+        NearDuplicateIndex small = new NearDuplicateIndex(2, 8, 4, 0.9);
+        small.put(small.key(TONE, "first message about the outage"), "one");
+        small.put(small.key(TONE, "second message about billing"), "two");
+        small.put(small.key(TONE, "third message about the login page"), "three");
+
+        assertEquals(2, small.size());
+        assertNull(small.find(small.key(TONE, "first message about the outage")));
+        assertEquals("three", small.find(small.key(TONE, "third message about the login page")).getOutput());
+    }
+}
@@ -0,0 +1,113 @@
+package com.tonepolish.client.cluster;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterCoalescingAIClientTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final PromptManager promptManager = new PromptManager("");
+
+    // Each replica has its own upstream, slow enough that the identical requests overlap
+    private final AIClient upstream = new AIClient() {
+        @Override
+        public String refineText(String inputText) {
+            return refineTextAsync(inputText).block();
+        }
+
+        @Override
+        public Mono<String> refineTextAsync(String inputText) {
+            return Mono.fromCallable(() -> {
+                upstreamCalls.incrementAndGet();
+                return "Refined: " + inputText;
+            }).delayElement(Duration.ofMillis(200));
+        }
+    };
+
+    private ClusterCoalescingAIClient replica(SharedRefineCache cache, int id) {
+        return new ClusterCoalescingAIClient(upstream, promptManager, "test-model", cache, "replica-" + id,
+            Duration.ofSeconds(5), Duration.ofMinutes(1), Duration.ofMillis(20));
+    }
+
+    private void refineConcurrently(List<ClusterCoalescingAIClient> replicas, List<String> texts) {
+        List<Mono<String>> calls = new ArrayList<>();
+        for (ClusterCoalescingAIClient replica : replicas) {
+            for (String text : texts) {
+                calls.add(replica.refineTextAsync(text)
+                    .doOnNext(refined -> assertEquals("Refined: " + text, refined)));
+            }
+        }
+        Flux.merge(calls).blockLast(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void testReplicasShareOneUpstreamCallPerText() {
+        EmbeddedSharedRefineCache cache = new EmbeddedSharedRefineCache(1_000);
+        List<ClusterCoalescingAIClient> replicas = List.of(replica(cache, 1), replica(cache, 2), replica(cache, 3));
+
+        refineConcurrently(replicas, List.of("hey can u send it", "need this asap"));
+
+        assertEquals(2, upstreamCalls.get());
+        long computed = replicas.stream().mapToLong(replica -> replica.getStats().getComputed()).sum();
+        long awaited = replicas.stream().mapToLong(replica -> replica.getStats().getAwaited()).sum();
+        assertEquals(2, computed);
+        assertEquals(4, awaited);
+
+        // Later requests are plain hits
+        assertEquals("Refined: need this asap", replicas.get(0).refineText("need this asap"));
+        assertEquals(1, replicas.get(0).getStats().getHits());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testReplicasCoordinateThroughRespNodes() throws Exception {
+        try (FakeRespServer first = new FakeRespServer(); FakeRespServer second = new FakeRespServer();
+             RespSharedRefineCache cache = new RespSharedRefineCache(List.of(first.address(), second.address()),
+                 Duration.ofSeconds(1), 4)) {
+            List<ClusterCoalescingAIClient> replicas = List.of(replica(cache, 1), replica(cache, 2));
+            List<String> texts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                texts.add("please review draft " + i);
+            }
+
+            refineConcurrently(replicas, texts);
+
+            assertEquals(8, upstreamCalls.get());
+            // Each text lives on the one node it hashes to
+            long onFirst = first.keyCount("tonepolish:refine:");
+            long onSecond = second.keyCount("tonepolish:refine:");
+            assertTrue(onFirst > 0 && onSecond > 0);
+            assertEquals(8, onFirst + onSecond);
+        }
+    }
+
+    @Test
+    void testUnreachableStoreFailsOpen() throws Exception {
+        InetSocketAddress unused;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            unused = new InetSocketAddress(socket.getInetAddress().getHostAddress(), socket.getLocalPort());
+        }
+        try (RespSharedRefineCache cache = new RespSharedRefineCache(List.of(unused), Duration.ofMillis(200), 4)) {
+            ClusterCoalescingAIClient replica = replica(cache, 1);
+
+            assertEquals("Refined: hey can u send it", replica.refineText("hey can u send it"));
+            assertEquals(1, upstreamCalls.get());
+            // The lookup and the claim both failed, and the replica refined on its own
+            assertTrue(replica.getStats().getErrors() >= 2);
+            assertEquals(1, replica.getStats().getComputed());
+        }
+    }
+}
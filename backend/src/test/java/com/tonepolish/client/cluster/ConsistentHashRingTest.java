@@ -0,0 +1,50 @@
+package com.tonepolish.client.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static ConsistentHashRing<String> ring(int nodes) {
+        Map<String, String> members = new LinkedHashMap<>();
+        for (int i = 0; i < nodes; i++) {
+            members.put("cache-" + i + ":6379", "cache-" + i);
+        }
+        return new ConsistentHashRing<>(members, 160);
+    }
+
+    @Test
+    void testKeysSpreadEvenly() {
+        ConsistentHashRing<String> ring = ring(4);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) {
+            counts.merge(ring.nodeFor("key-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 7_000 && count < 13_000, "Uneven share: " + counts));
+    }
+
+    @Test
+    void testAddingANodeOnlyMovesItsShare() {
+        ConsistentHashRing<String> before = ring(4);
+        ConsistentHashRing<String> after = ring(5);
+        int moved = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String key = "key-" + i;
+            String owner = after.nodeFor(key);
+            if (!owner.equals(before.nodeFor(key))) {
+                moved++;
+                assertEquals("cache-4", owner, "Keys should only move to the new node");
+            }
+        }
+
+        // About a fifth of the keys, rather than the four fifths modulo hashing would move
+        assertTrue(moved > 2_500 && moved < 5_500, "Moved " + moved);
+    }
+}
@@ -0,0 +1,156 @@
+package com.tonepolish.client.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Stand-in for a Redis server: just the PING, GET, SET (NX, PX, EX) and DEL the shared cache uses
+class FakeRespServer implements Closeable {
+
+    private final ServerSocket server;
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+
+    FakeRespServer() throws IOException {
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "fake-resp-" + server.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    InetSocketAddress address() {
+        return new InetSocketAddress(server.getInetAddress().getHostAddress(), server.getLocalPort());
+    }
+
+    long keyCount(String prefix) {
+        return values.keySet().stream().filter(key -> key.startsWith(prefix)).count();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread handler = new Thread(() -> serve(socket));
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            while (true) {
+                List<String> args = readCommand(in);
+                if (args == null) {
+                    return;
+                }
+                out.write(execute(args).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private synchronized String execute(List<String> args) {
+        String name = args.get(0).toUpperCase();
+        switch (name) {
+            case "PING":
+                return "+PONG\r\n";
+            case "GET": {
+                String value = live(args.get(1));
+                return value == null ? "$-1\r\n" : bulk(value);
+            }
+            case "DEL": {
+                boolean removed = values.remove(args.get(1)) != null;
+                expiries.remove(args.get(1));
+                return removed ? ":1\r\n" : ":0\r\n";
+            }
+            case "SET": {
+                String key = args.get(1);
+                long expiresAt = Long.MAX_VALUE;
+                boolean onlyIfAbsent = false;
+                for (int i = 3; i < args.size(); i++) {
+                    String option = args.get(i).toUpperCase();
+                    if (option.equals("NX")) {
+                        onlyIfAbsent = true;
+                    } else if (option.equals("PX")) {
+                        expiresAt = System.currentTimeMillis() + Long.parseLong(args.get(++i));
+                    } else if (option.equals("EX")) {
+                        expiresAt = System.currentTimeMillis() + Long.parseLong(args.get(++i)) * 1000;
+                    }
+                }
+                if (onlyIfAbsent && live(key) != null) {
+                    return "$-1\r\n";
+                }
+                values.put(key, args.get(2));
+                expiries.put(key, expiresAt);
+                return "+OK\r\n";
+            }
+            default:
+                return "-ERR unknown command '" + name + "'\r\n";
+        }
+    }
+
+    private String live(String key) {
+        Long expiresAt = expiries.get(key);
+        if (expiresAt != null && expiresAt <= System.currentTimeMillis()) {
+            values.remove(key);
+            expiries.remove(key);
+        }
+        return values.get(key);
+    }
+
+    private static String bulk(String value) {
+        return "$" + value.getBytes(StandardCharsets.UTF_8).length + "\r\n" + value + "\r\n";
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<String> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            byte[] bytes = in.readNBytes(length + 2);
+            args.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                return null;
+            }
+            line.write(c);
+        }
+        in.read();
+        return line.toString(StandardCharsets.UTF_8);
+    }
+}
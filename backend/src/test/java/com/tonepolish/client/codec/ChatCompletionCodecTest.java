@@ -0,0 +1,132 @@
+package com.tonepolish.client.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonepolish.client.exception.AIClientException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatCompletionCodecTest {
+
+    private final ChatCompletionCodec codec = new ChatCompletionCodec("test-model");
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testEncodesEscapedRequest() throws Exception {
+        String system = "Be \"polite\"\nand brief";
+        String user = "héllo \\ \"world\"   tab\t end";
+
+        JsonNode request = objectMapper.readTree(toString(codec.encode(bufferFactory, system, user, false)));
+
+        assertEquals("test-model", request.get("model").asText());
+        assertEquals("system", request.at("/messages/0/role").asText());
+        assertEquals(system, request.at("/messages/0/content").asText());
+        assertEquals("user", request.at("/messages/1/role").asText());
+        assertEquals(user, request.at("/messages/1/content").asText());
+        assertFalse(request.has("stream"));
+    }
+
+    @Test
+    void testEncodesStreamFlagAndReusesPrefix() throws Exception {
+        DataBufferUtils.release(codec.encode(bufferFactory, "system", "first", false));
+        JsonNode request = objectMapper.readTree(toString(codec.encode(bufferFactory, "system", "second", true)));
+
+        assertTrue(request.get("stream").asBoolean());
+        assertEquals("second", request.at("/messages/1/content").asText());
+    }
+
+    @Test
+    void testDecodesContentSplitAcrossBuffers() {
+        String response = "{\"id\":\"x\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\","
+            + "\"content\":\"  Polished \\\"text\\\" ✓ \"},\"finish_reason\":\"stop\"}],"
+            + "\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":5}}";
+
+        // One byte per buffer splits every token, including the multi-byte character
+        assertEquals("Polished \"text\" ✓", codec.decodeContent(chunks(response, 1)).block());
+        assertEquals("Polished \"text\" ✓", codec.decodeContent(chunks(response, 7)).block());
+    }
+
+    @Test
+    void testDecodesUsageAlongsideContent() {
+        String response = "{\"choices\":[{\"message\":{\"content\":\"Done\"}}],"
+            + "\"usage\":{\"prompt_tokens\":42,\"completion_tokens\":7,\"total_tokens\":49}}";
+
+        ChatCompletion completion = codec.decodeCompletion(chunks(response, 3)).block();
+        assertEquals("Done", completion.getContent());
+        assertEquals(42, completion.getPromptTokens());
+        assertEquals(7, completion.getCompletionTokens());
+        assertTrue(completion.hasUsage());
+
+        ChatCompletion withoutUsage = codec.decodeCompletion(
+            chunks("{\"choices\":[{\"message\":{\"content\":\"Done\"}}],\"usage\":null}", 8)).block();
+        assertFalse(withoutUsage.hasUsage());
+    }
+
+    @Test
+    void testIgnoresContentOutsideFirstChoiceMessage() {
+        String response = "{\"content\":\"wrong\",\"choices\":[{\"delta\":{\"content\":\"wrong\"},"
+            + "\"message\":{\"content\":\"right\"}},{\"message\":{\"content\":\"second\"}}]}";
+
+        assertEquals("right", codec.decodeContent(chunks(response, 16)).block());
+    }
+
+    @Test
+    void testRejectsMissingOrBlankContent() {
+        AIClientException missing = assertThrows(AIClientException.class,
+            () -> codec.decodeContent(chunks("{\"choices\":[]}", 4)).block());
+        assertEquals("Empty response from AI API", missing.getMessage());
+
+        AIClientException blank = assertThrows(AIClientException.class,
+            () -> codec.decodeContent(chunks("{\"choices\":[{\"message\":{\"content\":\"  \"}}]}", 4)).block());
+        assertEquals("Empty content in AI API response", blank.getMessage());
+    }
+
+    @Test
+    void testRejectsTruncatedResponse() {
+        AIClientException error = assertThrows(AIClientException.class,
+            () -> codec.decodeContent(chunks("{\"choices\":[{\"message\":{\"content\":\"cut", 8)).block());
+        assertEquals("Failed to parse AI API response", error.getMessage());
+    }
+
+    @Test
+    void testDecodesStreamDelta() throws Exception {
+        assertEquals("Hel", codec.decodeDelta("{\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Hel\"}}]}"));
+        assertNull(codec.decodeDelta("{\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\"}}]}"));
+    }
+
+    @Test
+    void testRejectsStreamErrorChunk() {
+        AIClientException error = assertThrows(AIClientException.class,
+            () -> codec.decodeDelta("{\"error\":{\"message\":\"Service unavailable\",\"type\":\"server_error\"}}"));
+        assertEquals("AI API stream failed: Service unavailable", error.getMessage());
+    }
+
+    private Flux<DataBuffer> chunks(String json, int size) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += size) {
+            DataBuffer buffer = bufferFactory.allocateBuffer(size);
+            buffer.write(bytes, i, Math.min(size, bytes.length - i));
+            buffers.add(buffer);
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    private static String toString(DataBuffer buffer) {
+        try {
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
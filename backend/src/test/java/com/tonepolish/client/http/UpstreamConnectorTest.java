@@ -0,0 +1,96 @@
+package com.tonepolish.client.http;
+
+import com.tonepolish.client.GroqAIClient;
+import com.tonepolish.client.StubChatCompletionServer;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.retry.RetryExecutor;
+import com.tonepolish.client.retry.RetryPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamConnectorTest {
+
+    private StubChatCompletionServer server;
+    private UpstreamConnector connector;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubChatCompletionServer("pooled");
+        server.setDelayMillis(50);
+        // HTTP/2 is enabled as in production; the plain-http stub must still be reached over HTTP/1.1
+        connector = new UpstreamConnector("test", 4, 100, Duration.ofSeconds(5), Duration.ofSeconds(30),
+            Duration.ofMinutes(5), Duration.ofSeconds(10), Duration.ofSeconds(5), true, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+        server.close();
+    }
+
+    @Test
+    void testClientsShareBoundedPool() {
+        GroqAIClient first = client();
+        GroqAIClient second = client();
+
+        List<String> results = Flux.range(0, 20)
+            .flatMap(i -> (i % 2 == 0 ? first : second).refineTextAsync("text " + i))
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertEquals(20, results.size());
+        assertTrue(results.stream().allMatch("pooled"::equals));
+        assertEquals(20, server.getRequests());
+        // Both clients drew from the same pool for the same host, never opening more than its limit
+        assertEquals(1, connector.getPoolCount());
+        assertTrue(connector.getAllocatedConnections() <= 4,
+            "allocated " + connector.getAllocatedConnections() + " connections");
+        // Connections go back to the pool on the event loop just after the body completes
+        await().atMost(Duration.ofSeconds(5)).until(() -> connector.getActiveConnections() == 0);
+        assertEquals(0, connector.getPendingAcquires());
+        assertEquals(connector.getAllocatedConnections(), connector.getIdleConnections());
+    }
+
+    @Test
+    void testPrewarmLeavesIdleConnections() {
+        URI origin = URI.create(server.getUrl()).resolve("/");
+
+        connector.prewarm(List.of(origin), 2, Duration.ofSeconds(5));
+
+        // Like any other exchange, a warm-up connection is released on the event loop just after its body
+        await().atMost(Duration.ofSeconds(5)).until(() -> connector.getIdleConnections() >= 1);
+        assertEquals(0, server.getRequests());
+        // The first refine reuses a warm connection rather than opening one
+        int allocated = connector.getAllocatedConnections();
+        assertEquals("pooled", client().refineText("text"));
+        assertTrue(connector.getAllocatedConnections() <= allocated);
+        assertEquals(1, connector.getPoolCount());
+    }
+
+    @Test
+    void testPrewarmToleratesUnreachableHosts() {
+        server.close();
+
+        connector.prewarm(List.of(URI.create(server.getUrl()).resolve("/")), 2, Duration.ofSeconds(5));
+
+        assertEquals(0, connector.getIdleConnections());
+    }
+
+    private GroqAIClient client() {
+        Duration timeout = Duration.ofSeconds(5);
+        RetryExecutor retryExecutor = new RetryExecutor(new RetryPolicy(0, Duration.ZERO, 1.0, Duration.ZERO,
+            0, timeout, timeout));
+        return new GroqAIClient("test-key", server.getUrl(), "stub-model", new PromptManager(""),
+            retryExecutor, null, connector.getConnector());
+    }
+}
@@ -0,0 +1,59 @@
+package com.tonepolish.client.local;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastPathAIClientTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final AIClient upstream = new AIClient() {
+        @Override
+        public String refineText(String inputText) {
+            return refineTextAsync(inputText).block();
+        }
+
+        @Override
+        public Mono<String> refineTextAsync(String inputText) {
+            upstreamCalls.incrementAndGet();
+            return Mono.just("Thanks, I'll send it over tomorrow.");
+        }
+    };
+
+    private FastPathAIClient client(FastPathMode mode) {
+        return new FastPathAIClient(upstream, new PromptManager(""), new LocalRefiner(20), mode, 0.8, 0.5);
+    }
+
+    @Test
+    void testTrivialInputsSkipTheModel() {
+        FastPathAIClient client = client(FastPathMode.ON);
+
+        assertEquals("Thanks, I'll send it over tomorrow.", client.refineText("thx, i'll send it over tomorrow"));
+        client.refineText("this is ridiculous, nothing works");
+        // Other tones have their own prompts, which the rules can't follow
+        client.refineText("thx, i'll send it over tomorrow", "formal");
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(1, client.getStats().getLocal());
+        assertEquals(1, client.getStats().getEscalated(LocalRefinement.Reason.NEGATIVITY));
+    }
+
+    @Test
+    void testShadowModeComparesWithTheModel() {
+        FastPathAIClient client = client(FastPathMode.SHADOW);
+
+        assertEquals("Thanks, I'll send it over tomorrow.", client.refineText("thx i'll send it over tomorrow"));
+        client.refineText("see you at the standup");
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(2, client.getStats().getShadowSamples());
+        assertEquals(1, client.getStats().getShadowDiverged());
+        assertEquals(0.5, client.getStats().getShadowMeanSimilarity(), 0.01);
+    }
+}
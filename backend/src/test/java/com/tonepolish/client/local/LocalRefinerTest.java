@@ -0,0 +1,48 @@
+package com.tonepolish.client.local;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRefinerTest {
+
+    private final LocalRefiner refiner = new LocalRefiner(20);
+
+    @Test
+    void testPolishesSurfaceIssues() {
+        LocalRefinement refinement = refiner.refine("  thx,i'll send it over tomorrow   ok  ");
+
+        assertEquals(LocalRefinement.Reason.POLISHED, refinement.getReason());
+        assertEquals("Thanks, I'll send it over tomorrow ok.", refinement.getText());
+        assertTrue(refinement.isAcceptable(0.8));
+    }
+
+    @Test
+    void testKeepsLineBreaksAndSentenceStarts() {
+        LocalRefinement refinement = refiner.refine("sounds good. see u at 3pm\nbest, sam");
+
+        assertEquals("Sounds good. See you at 3pm\nBest, sam.", refinement.getText());
+    }
+
+    @Test
+    void testEscalatesMessagesThatNeedRewording() {
+        assertEquals(LocalRefinement.Reason.PROFANITY, refiner.refine("this is crap").getReason());
+        assertEquals(LocalRefinement.Reason.SHOUTING, refiner.refine("where is my order??").getReason());
+        assertEquals(LocalRefinement.Reason.SHOUTING, refiner.refine("please reply TODAY").getReason());
+        assertEquals(LocalRefinement.Reason.NEGATIVITY, refiner.refine("sorry, the export is broken").getReason());
+        assertEquals(LocalRefinement.Reason.BLUNT, refiner.refine("you need to restart it first").getReason());
+        assertEquals(LocalRefinement.Reason.LENGTH,
+            refiner.refine("one two three four five six seven eight nine ten eleven twelve thirteen fourteen "
+                + "fifteen sixteen seventeen eighteen nineteen twenty twentyone").getReason());
+        assertNull(refiner.refine("this is crap").getText());
+    }
+
+    @Test
+    void testConfidenceDropsWithMoreEdits() {
+        double clean = refiner.refine("Thanks, I will send it tomorrow.").getConfidence();
+        double rough = refiner.refine("thx,u know i will send ur file tmrw ok  pls wait").getConfidence();
+
+        assertEquals(1.0, clean);
+        assertTrue(rough < 0.8, "confidence was " + rough);
+    }
+}
@@ -0,0 +1,86 @@
+package com.tonepolish.client.metrics;
+
+import com.tonepolish.client.GroqAIClient;
+import com.tonepolish.client.StubChatCompletionServer;
+import com.tonepolish.client.exception.AIClientException;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.retry.HedgingPolicy;
+import com.tonepolish.client.retry.RetryExecutor;
+import com.tonepolish.client.retry.RetryPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AIClientMetricsTest {
+
+    private StubChatCompletionServer server;
+    private MeterRegistry registry;
+    private AIClientMetrics metrics;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubChatCompletionServer("measured");
+        registry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(registry));
+        metrics = new AIClientMetrics(registry, observationRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testRecordsAttemptAndUsage() {
+        assertEquals("measured", client(0).refineTextAsync("hello").block(Duration.ofSeconds(5)));
+
+        assertEquals(1, registry.get(AIClientMetrics.UPSTREAM_ATTEMPT)
+            .tags("model", "stub-model", "outcome", "success").timer().count());
+        assertEquals(StubChatCompletionServer.PROMPT_TOKENS, registry.get("tonepolish.upstream.tokens")
+            .tags("model", "stub-model", "type", "prompt").summary().totalAmount());
+        assertEquals(StubChatCompletionServer.COMPLETION_TOKENS, registry.get("tonepolish.upstream.tokens")
+            .tags("model", "stub-model", "type", "completion").summary().totalAmount());
+        // Each exchange is also observed by the WebClient itself, as a child of the attempt
+        assertEquals(1, registry.get("http.client.requests").timer().count());
+    }
+
+    @Test
+    void testCountsRetriesByCause() {
+        server.setStatus(503);
+
+        assertThrows(AIClientException.class, () -> client(1).refineTextAsync("hello").block(Duration.ofSeconds(5)));
+
+        assertEquals(2, registry.get(AIClientMetrics.UPSTREAM_ATTEMPT).tags("outcome", "http_5xx").timer().count());
+        assertEquals(1, registry.get("tonepolish.upstream.retries")
+            .tags("cause", "http_5xx", "decision", "retry").counter().count());
+        assertEquals(1, registry.get("tonepolish.upstream.retries")
+            .tags("cause", "http_5xx", "decision", "exhausted").counter().count());
+    }
+
+    @Test
+    void testClassifiesWrappedCauses() {
+        assertEquals("timeout", AIClientMetrics.cause(new RuntimeException("retries", new TimeoutException())));
+        assertEquals("io", AIClientMetrics.cause(new IOException("reset")));
+        assertEquals("invalid_response", AIClientMetrics.cause(new AIClientException("Empty response from AI API")));
+        assertEquals("other", AIClientMetrics.cause(new IllegalStateException()));
+    }
+
+    private GroqAIClient client(int maxRetries) {
+        Duration timeout = Duration.ofSeconds(5);
+        RetryExecutor retryExecutor = new RetryExecutor(new RetryPolicy(maxRetries, Duration.ofMillis(10), 1.0,
+            Duration.ofMillis(10), 0, timeout, timeout), HedgingPolicy.disabled(), metrics);
+        return new GroqAIClient("test-key", server.getUrl(), "stub-model", new PromptManager(""),
+            retryExecutor, null, null, metrics);
+    }
+}
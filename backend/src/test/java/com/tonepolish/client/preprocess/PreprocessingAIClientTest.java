@@ -0,0 +1,87 @@
+package com.tonepolish.client.preprocess;
+
+import com.tonepolish.client.AIClient;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreprocessingAIClientTest {
+
+    private final List<String> upstreamInputs = new ArrayList<>();
+
+    // Echoes the masked input back the way a model would, keeping the placeholders
+    private final AIClient upstream = new AIClient() {
+        @Override
+        public String refineText(String inputText) {
+            return refineTextAsync(inputText).block();
+        }
+
+        @Override
+        public Mono<String> refineTextAsync(String inputText) {
+            upstreamInputs.add(inputText);
+            return Mono.just("Thank you. We will email " + inputText.substring(inputText.indexOf('[')) + " today.");
+        }
+
+        @Override
+        public Flux<String> refineTextStream(String inputText) {
+            upstreamInputs.add(inputText);
+            return Flux.just("We will email [EM", "AIL_1] about [ID", "_1] and [ID_2", "] today.");
+        }
+    };
+
+    @Test
+    void testModelOnlySeesPlaceholders() {
+        PreprocessingAIClient client = new PreprocessingAIClient(upstream, new TextPreprocessor());
+
+        String refined = client.refineText("pls  update  dana@example.com");
+
+        assertEquals(List.of("pls update [EMAIL_1]"), upstreamInputs);
+        assertEquals("Thank you. We will email dana@example.com today.", refined);
+        assertEquals(1, client.getStats().getMasked(PiiKind.EMAIL));
+        assertEquals(29, client.getStats().getInputChars());
+        assertEquals(20, client.getStats().getOutputChars());
+    }
+
+    @Test
+    void testStreamedPlaceholdersAreRestoredAcrossChunks() {
+        PreprocessingAIClient client = new PreprocessingAIClient(upstream, new TextPreprocessor());
+
+        String refined = String.join("", client.refineTextStream(
+            "mail bob@example.com about ORD-10234 and ORD-10235 and A7X99K2").collectList().block());
+
+        // The model dropped [ID_3], so its value follows the reply
+        assertEquals("We will email bob@example.com about ORD-10234 and ORD-10235 today. (A7X99K2)", refined);
+        assertEquals(1, client.getStats().getUnrestored());
+    }
+
+    @Test
+    void testDroppedPlaceholderValuesAreAppended() {
+        AIClient forgetful = new AIClient() {
+            @Override
+            public String refineText(String inputText) {
+                return refineTextAsync(inputText).block();
+            }
+
+            @Override
+            public Mono<String> refineTextAsync(String inputText) {
+                return Mono.just("Thanks, we will look into [ID_2] right away.");
+            }
+
+            @Override
+            public Flux<String> refineTextStream(String inputText) {
+                return refineTextAsync(inputText).flux();
+            }
+        };
+        PreprocessingAIClient client = new PreprocessingAIClient(forgetful, new TextPreprocessor());
+
+        String refined = client.refineText("ORD-10234 and ORD-10235 still missing, reply to bob@example.com");
+
+        assertEquals("Thanks, we will look into ORD-10235 right away. (ORD-10234, bob@example.com)", refined);
+        assertEquals(2, client.getStats().getUnrestored());
+    }
+}
@@ -0,0 +1,66 @@
+package com.tonepolish.client.preprocess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextPreprocessorTest {
+
+    private final TextPreprocessor preprocessor = new TextPreprocessor();
+
+    @Test
+    void testNormalizesWhitespaceAndTypography() {
+        PreparedInput prepared = preprocessor.prepare(
+            "  \u201CHey\u201D\u00A0 there\u200B \u2014 it\u2019s\tbroken\u2026\r\n\r\n\r\nthanks\uFF01  ");
+
+        assertEquals("\"Hey\" there - it's broken...\n\nthanks!", prepared.getText());
+        assertEquals(0, prepared.getMaskedCount());
+    }
+
+    @Test
+    void testMasksCustomerDetails() {
+        PreparedInput prepared = preprocessor.prepare("Order ORD-10234 for dana.k+shop@example.co.uk, "
+            + "call +1 (555) 010-4477 or see https://shop.example.com/o/10234. Ticket #4411, ref 20240115.");
+
+        assertEquals("Order [ID_1] for [EMAIL_1], call [PHONE_1] or see [URL_1]. Ticket [ID_2], ref [ID_3].",
+            prepared.getText());
+        assertEquals("Order ORD-10234 for dana.k+shop@example.co.uk, call +1 (555) 010-4477 or see "
+            + "https://shop.example.com/o/10234. Ticket #4411, ref 20240115.", prepared.restore(prepared.getText()));
+    }
+
+    @Test
+    void testLeavesOrdinaryNumbersAlone() {
+        String text = "Meet at 10am on 2024-01-15 for the B2B demo, 3 items cost 1.500 each, mp3 attached";
+
+        assertEquals(text, preprocessor.prepare(text).getText());
+    }
+
+    @Test
+    void testSameValueKeepsItsPlaceholder() {
+        PreparedInput first = preprocessor.prepare("email bob@example.com, cc ann@example.org and bob@example.com");
+        PreparedInput second = preprocessor.prepare("email zoe@example.net, cc lee@example.net and zoe@example.net");
+
+        assertEquals("email [EMAIL_1], cc [EMAIL_2] and [EMAIL_1]", first.getText());
+        assertEquals(first.getText(), second.getText());
+        assertEquals("Hi zoe@example.net, thanks lee@example.net", second.restore("Hi [EMAIL_1], thanks [EMAIL_2]"));
+    }
+
+    @Test
+    void testPlaceholderShapedInputIsNotMasked() {
+        PreparedInput prepared = preprocessor.prepare("template [EMAIL_1] goes to bob@example.com");
+
+        assertEquals("template [EMAIL_1] goes to bob@example.com", prepared.getText());
+        assertEquals(0, prepared.getMaskedCount());
+    }
+
+    @Test
+    void testMaskingCanBeLimitedToSomeKinds() {
+        TextPreprocessor emailsOnly = new TextPreprocessor(EnumSet.of(PiiKind.EMAIL));
+
+        assertEquals("ticket #4411 from [EMAIL_1]", emailsOnly.prepare("ticket #4411 from bob@example.com").getText());
+        assertEquals("ticket #4411", new TextPreprocessor(PiiKind.parseList("")).prepare(" ticket  #4411 ").getText());
+        assertThrows(IllegalArgumentException.class, () -> PiiKind.parseList("email,ssn"));
+    }
+}
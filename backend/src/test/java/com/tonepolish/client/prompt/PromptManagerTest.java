@@ -0,0 +1,96 @@
+package com.tonepolish.client.prompt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBuiltInTones() {
+        PromptManager manager = new PromptManager("Custom default prompt.");
+
+        assertEquals("empathetic", manager.getProfile(null).getName());
+        assertEquals("Custom default prompt.", manager.getSystemPromptForRefinement());
+        assertTrue(manager.getSystemPromptForBatchRefinement().startsWith("Custom default prompt. "));
+        assertTrue(manager.getToneNames().containsAll(List.of("empathetic", "formal", "concise", "friendly")));
+        assertNotEquals(manager.getProfile("formal").getSystemPrompt(), manager.getProfile("concise").getSystemPrompt());
+        // The raw input is the user message unless a tone wraps it
+        assertEquals("draft", manager.getProfile("formal").renderUserMessage("draft"));
+        assertFalse(manager.hasTone("pirate"));
+        assertThrows(IllegalArgumentException.class, () -> manager.getProfile("pirate"));
+    }
+
+    @Test
+    void testPromptFileExtendsToneWithFragments() throws Exception {
+        Path file = tempDir.resolve("prompts.json");
+        Files.writeString(file, """
+            {
+              "default": "billing",
+              "fragments": { "signoff": "Never promise refunds." },
+              "tones": {
+                "billing": { "extends": "formal", "system": "{{base}} {{signoff}}", "user": "Customer reply:\\n{{text}}" },
+                "billing-short": { "extends": "billing", "system": "{{base}} Keep it under 50 words." }
+              }
+            }
+            """);
+        PromptManager manager = new PromptManager("", file.toString(), 0);
+
+        String formal = manager.getProfile("formal").getSystemPrompt();
+        PromptProfile billing = manager.getDefaultProfile();
+        assertEquals("billing", billing.getName());
+        assertEquals(formal + " Never promise refunds.", billing.getSystemPrompt());
+        assertEquals("Customer reply:\ndraft", billing.renderUserMessage("draft"));
+
+        PromptProfile shortBilling = manager.getProfile("billing-short");
+        assertEquals(billing.getSystemPrompt() + " Keep it under 50 words.", shortBilling.getSystemPrompt());
+        assertEquals("Customer reply:\ndraft", shortBilling.renderUserMessage("draft"));
+        assertNotEquals(billing.getFingerprint(), manager.getProfile("formal").getFingerprint());
+    }
+
+    @Test
+    void testReloadKeepsPreviousProfilesWhenFileIsBroken() throws Exception {
+        Path file = tempDir.resolve("prompts.json");
+        Files.writeString(file, "{\"tones\": {\"team-a\": {\"system\": \"Version one.\"}}}");
+        PromptManager manager = new PromptManager("", file.toString(), 0);
+        assertEquals("Version one.", manager.getProfile("team-a").getSystemPrompt());
+
+        Files.writeString(file, "{\"tones\": {\"team-a\": {\"system\": \"Version two.\"}}}");
+        assertTrue(manager.reload());
+        assertEquals("Version two.", manager.getProfile("team-a").getSystemPrompt());
+
+        Files.writeString(file, "{\"tones\": {\"team-a\": {\"extends\": \"missing\"}}}");
+        assertFalse(manager.reload());
+        assertEquals("Version two.", manager.getProfile("team-a").getSystemPrompt());
+    }
+
+    @Test
+    void testPollingPicksUpFileChanges() throws Exception {
+        Path file = tempDir.resolve("prompts.json");
+        Files.writeString(file, "{\"tones\": {\"team-a\": {\"system\": \"Before.\"}}}");
+        PromptManager manager = new PromptManager("", file.toString(), 20);
+        try {
+            Files.writeString(file, "{\"tones\": {\"team-a\": {\"system\": \"After the edit.\"}}}");
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!manager.getProfile("team-a").getSystemPrompt().equals("After the edit.")
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals("After the edit.", manager.getProfile("team-a").getSystemPrompt());
+        } finally {
+            manager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.tonepolish.client.prompt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptTemplateTest {
+
+    @Test
+    void testRendersLiteralsAndPlaceholders() {
+        PromptTemplate template = PromptTemplate.compile("Customer reply:\n{{ text }}\n-- end of {{text}}");
+
+        assertFalse(template.isConstant());
+        assertEquals("Customer reply:\nhi there\n-- end of hi there", template.render("text", "hi there"));
+        assertEquals("Customer reply:\nx\n-- end of x", template.render(Map.of("text", "x")));
+    }
+
+    @Test
+    void testBindLeavesUnknownPlaceholders() {
+        PromptTemplate template = PromptTemplate.compile("{{greeting}} {{text}} {{signoff}}");
+
+        PromptTemplate bound = template.bind(Map.of("greeting", "Hello", "signoff", "Thanks"));
+
+        assertEquals("Hello {{text}} Thanks", bound.getSource());
+        assertEquals("Hello body Thanks", bound.render("text", "body"));
+        assertTrue(bound.bind(Map.of("text", "body")).isConstant());
+    }
+
+    @Test
+    void testRejectsMissingValuesAndMalformedPlaceholders() {
+        PromptTemplate template = PromptTemplate.compile("{{signoff}} {{text}}");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render("text", "body"));
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of("text", "body")));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("Hello {{text"));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("Hello {{ }}"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.tonepolish.client.ratelimit;
+
+import com.tonepolish.client.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamRateLimiterTest {
+
+    @Test
+    void testRequestQuota_FailsFastOnceExhausted() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(2, 100_000, 8, 1, 8,
+            Duration.ofSeconds(5), Duration.ofMillis(50), 10);
+
+        limiter.acquire(10).block().onSuccess();
+        limiter.acquire(10).block().onSuccess();
+
+        RateLimitExceededException error = assertThrows(RateLimitExceededException.class,
+            () -> limiter.acquire(10).block());
+        assertTrue(error.getRetryAfter().toSeconds() >= 1);
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    void testRateLimitedResponse_HalvesConcurrencyAndHonorsRetryAfter() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(1000, 100_000, 8, 1, 8,
+            Duration.ofSeconds(5), Duration.ofMillis(50), 10);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "3");
+        limiter.acquire(10).block().onRateLimited(headers);
+
+        assertEquals(4, limiter.getConcurrencyLimit());
+        assertEquals(0, limiter.getInFlight());
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(10).block());
+    }
+
+    @Test
+    void testWaiters_AdmittedInArrivalOrderOnceQuotaRefills() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(1000, 60_000, 8, 1, 8,
+            Duration.ofSeconds(5), Duration.ofSeconds(2), 10);
+        limiter.acquire(60_000).block().onSuccess();
+
+        List<String> admitted = new CopyOnWriteArrayList<>();
+        // The small request would fit sooner, but may not overtake the one queued before it
+        Mono<UpstreamRateLimiter.Permit> large = limiter.acquire(100).doOnNext(permit -> admitted.add("large"));
+        Mono<UpstreamRateLimiter.Permit> small = limiter.acquire(1).doOnNext(permit -> admitted.add("small"));
+        Flux.merge(large, small).doOnNext(UpstreamRateLimiter.Permit::onSuccess).blockLast(Duration.ofSeconds(5));
+
+        assertEquals(List.of("large", "small"), admitted);
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    @Test
+    void testWaiters_WokenByReleaseAndSkippedOnceCancelled() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(1000, 100_000, 1, 1, 1,
+            Duration.ofSeconds(5), Duration.ofSeconds(2), 10);
+        UpstreamRateLimiter.Permit first = limiter.acquire(10).block();
+
+        AtomicReference<UpstreamRateLimiter.Permit> cancelled = new AtomicReference<>();
+        AtomicReference<UpstreamRateLimiter.Permit> next = new AtomicReference<>();
+        Disposable gone = limiter.acquire(10).subscribe(cancelled::set);
+        limiter.acquire(10).subscribe(next::set);
+        assertEquals(2, limiter.getWaiting());
+        gone.dispose();
+        assertEquals(1, limiter.getWaiting());
+
+        first.onSuccess();
+
+        // Handed over on release, without waiting for a poll
+        assertNotNull(next.get());
+        assertNull(cancelled.get());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    @Test
+    void testWaiters_RejectedWhenTheWaitRunsOut() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(1000, 100_000, 1, 1, 1,
+            Duration.ofSeconds(5), Duration.ofMillis(50), 10);
+        limiter.acquire(10).block();
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(10).block(Duration.ofSeconds(5)));
+        assertEquals(0, limiter.getWaiting());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    void testParseDuration_AcceptsProviderFormats() {
+        assertEquals(Duration.ofSeconds(7), UpstreamRateLimiter.parseDuration("7"));
+        assertEquals(Duration.ofMillis(7660), UpstreamRateLimiter.parseDuration("7.66s"));
+        assertEquals(Duration.ofMillis(179_560), UpstreamRateLimiter.parseDuration("2m59.56s"));
+        assertEquals(Duration.ofMillis(250), UpstreamRateLimiter.parseDuration("250ms"));
+        assertNull(UpstreamRateLimiter.parseDuration("soon"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.tonepolish.client.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    private CircuitBreaker newBreaker(Duration openDuration) {
+        return new CircuitBreaker("test", 10, 4, 50, 80, Duration.ofSeconds(1), openDuration, 2);
+    }
+
+    @Test
+    void testOpensOnFailureRate_AndRejectsWhileOpen() {
+        CircuitBreaker breaker = newBreaker(Duration.ofMinutes(1));
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onSuccess(FAST);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onError(FAST);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertTrue(breaker.getRemainingOpenDuration().toSeconds() > 0);
+    }
+
+    @Test
+    void testOpensOnSlowCalls() {
+        CircuitBreaker breaker = newBreaker(Duration.ofMinutes(1));
+
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquirePermission();
+            breaker.onSuccess(SLOW);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpen_ClosesAfterSuccessfulTrialCalls() throws InterruptedException {
+        CircuitBreaker breaker = newBreaker(Duration.ofMillis(50));
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquirePermission();
+            breaker.onError(FAST);
+        }
+        Thread.sleep(60);
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // Only the configured number of trial calls are let through
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
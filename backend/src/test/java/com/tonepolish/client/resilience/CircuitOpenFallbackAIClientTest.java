@@ -0,0 +1,69 @@
+package com.tonepolish.client.resilience;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.MockAIClient;
+import com.tonepolish.client.cache.CachingAIClient;
+import com.tonepolish.client.exception.AIClientException;
+import com.tonepolish.client.exception.CircuitOpenException;
+import com.tonepolish.client.prompt.PromptManager;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitOpenFallbackAIClientTest {
+
+    private final AtomicBoolean healthy = new AtomicBoolean();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final AIClient upstream = new AIClient() {
+        @Override
+        public String refineText(String inputText) {
+            return refineTextAsync(inputText, null).block();
+        }
+
+        @Override
+        public Mono<String> refineTextAsync(String inputText, String tone) {
+            upstreamCalls.incrementAndGet();
+            return healthy.get()
+                ? Mono.just("Upstream: " + inputText)
+                : Mono.error(new AIClientException("AI API is unavailable"));
+        }
+    };
+
+    @Test
+    void testFallbackRepliesAreNotCachedPastRecovery() {
+        PromptManager promptManager = new PromptManager("");
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 50, 80, Duration.ofSeconds(1),
+            Duration.ofMillis(50), 1);
+        CachingAIClient cache = new CachingAIClient(new CircuitBreakerAIClient(upstream, breaker), promptManager,
+            "test-model", 1 << 20, Duration.ofMinutes(5));
+        AIClient client = new CircuitOpenFallbackAIClient(cache, new MockAIClient(Duration.ZERO, Duration.ZERO),
+            promptManager);
+
+        for (int i = 0; i < 4; i++) {
+            String text = "message " + i;
+            assertThrows(AIClientException.class, () -> client.refineText(text));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // Degraded while open, and only for the tone the local polisher can produce
+        assertEquals("Hey can u send it.", client.refineText("hey can u send it"));
+        assertEquals("Hey can u send it.", client.refineText("hey can u send it"));
+        assertThrows(CircuitOpenException.class, () -> client.refineText("hey can u send it", "formal"));
+        assertEquals(4, upstreamCalls.get());
+
+        healthy.set(true);
+        await().atMost(Duration.ofSeconds(5)).until(() -> breaker.getRemainingOpenDuration().isZero());
+
+        assertEquals("Upstream: hey can u send it", client.refineText("hey can u send it"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals("Upstream: hey can u send it", client.refineText("hey can u send it"));
+        assertEquals(5, upstreamCalls.get());
+    }
+}
@@ -0,0 +1,116 @@
+package com.tonepolish.client.retry;
+
+import com.tonepolish.client.exception.AIClientException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryExecutorTest {
+
+    @Test
+    void testDeadline_SplitsBudgetAcrossHungAttempts() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(10), 2.0, Duration.ofMillis(50),
+            0.0, Duration.ofSeconds(30), Duration.ofMillis(400));
+        RetryExecutor executor = new RetryExecutor(policy);
+        AtomicInteger attempts = new AtomicInteger();
+
+        long start = System.nanoTime();
+        RuntimeException error = assertThrows(RuntimeException.class, () -> executor.executeWithDeadline(timeout -> {
+            attempts.incrementAndGet();
+            return Mono.never();
+        }).block());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Hung attempts time out on their share of the budget instead of the 30s per-attempt cap
+        assertTrue(attempts.get() > 1);
+        assertTrue(elapsed.toMillis() < 1000, "took " + elapsed.toMillis() + "ms");
+        assertNotNull(error.getCause());
+    }
+
+    @Test
+    void testHedge_FirstResponseWinsAndLoserIsCancelled() {
+        RetryPolicy policy = new RetryPolicy(0, Duration.ofMillis(10), 2.0, Duration.ofMillis(50),
+            0.0, Duration.ofSeconds(5), Duration.ofSeconds(5));
+        HedgingPolicy hedging = new HedgingPolicy(true, 0.95, Duration.ofMillis(20), 10, Duration.ofMinutes(1));
+        for (int i = 0; i < 20; i++) {
+            hedging.getHistogram().record(Duration.ofMillis(30));
+        }
+        RetryExecutor executor = new RetryExecutor(policy, hedging);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger cancelled = new AtomicInteger();
+
+        String result = executor.executeWithDeadline(timeout -> {
+            // The first call hangs; the hedge answers quickly
+            boolean first = calls.getAndIncrement() == 0;
+            return first
+                ? Mono.<String>never().doOnCancel(cancelled::incrementAndGet)
+                : Mono.just("hedged");
+        }).block(Duration.ofSeconds(2));
+
+        assertEquals("hedged", result);
+        assertEquals(2, calls.get());
+        assertEquals(1, cancelled.get());
+        assertEquals(1, executor.getHedgesSent());
+        assertEquals(1, executor.getHedgesWon());
+    }
+
+    @Test
+    void testHedge_FailedPrimaryLeavesTheRaceToTheHedge() {
+        HedgingPolicy hedging = warmedHedgingPolicy();
+        RetryExecutor executor = new RetryExecutor(noRetries(), hedging);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.executeWithDeadline(timeout -> calls.getAndIncrement() == 0
+            // Fails after the hedge has gone out
+            ? Mono.delay(Duration.ofMillis(60)).then(Mono.<String>error(new AIClientException("reset")))
+            : Mono.delay(Duration.ofMillis(100)).thenReturn("hedged")).block(Duration.ofSeconds(2));
+
+        assertEquals("hedged", result);
+        assertEquals(1, executor.getHedgesWon());
+        // Both attempts count towards the observed latency, not only the winner
+        assertEquals(22, hedging.getHistogram().getCount());
+    }
+
+    @Test
+    void testHedge_PrimaryFailingBeforeTheHedgeIsDueFailsFast() {
+        RetryExecutor executor = new RetryExecutor(noRetries(), warmedHedgingPolicy());
+        AtomicInteger calls = new AtomicInteger();
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> executor.executeWithDeadline(timeout -> {
+            calls.incrementAndGet();
+            return Mono.<String>error(new AIClientException("refused"));
+        }).block(Duration.ofSeconds(2)));
+
+        assertInstanceOf(AIClientException.class, error.getCause());
+        assertEquals(1, calls.get());
+        assertEquals(0, executor.getHedgesSent());
+    }
+
+    private static RetryPolicy noRetries() {
+        return new RetryPolicy(0, Duration.ofMillis(10), 2.0, Duration.ofMillis(50),
+            0.0, Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
+    private static HedgingPolicy warmedHedgingPolicy() {
+        HedgingPolicy hedging = new HedgingPolicy(true, 0.95, Duration.ofMillis(20), 10, Duration.ofMinutes(1));
+        for (int i = 0; i < 20; i++) {
+            hedging.getHistogram().record(Duration.ofMillis(30));
+        }
+        return hedging;
+    }
+
+    @Test
+    void testJitteredDelay_StaysWithinBounds() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(1000), 2.0, Duration.ofMillis(10000),
+            0.2, Duration.ofSeconds(30), Duration.ofSeconds(60));
+
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.calculateJitteredDelay(2).toMillis();
+            assertTrue(delay >= 1600 && delay <= 2400, "delay " + delay);
+        }
+    }
+}
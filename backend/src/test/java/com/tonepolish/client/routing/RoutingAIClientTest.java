@@ -0,0 +1,96 @@
+package com.tonepolish.client.routing;
+
+import com.tonepolish.client.GroqAIClient;
+import com.tonepolish.client.StubChatCompletionServer;
+import com.tonepolish.client.exception.AIClientException;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.retry.RetryExecutor;
+import com.tonepolish.client.retry.RetryPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingAIClientTest {
+
+    private final List<StubChatCompletionServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        servers.forEach(StubChatCompletionServer::close);
+    }
+
+    @Test
+    void testFailsOverToHealthyBackend() throws IOException {
+        StubChatCompletionServer broken = stub("broken");
+        broken.setStatus(500);
+        StubChatCompletionServer healthy = stub("healthy");
+        RoutingAIClient client = new RoutingAIClient(List.of(backend("broken", broken), backend("healthy", healthy)));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("healthy", client.refineText("text " + i));
+        }
+        assertEquals(20, healthy.getRequests());
+        // After the first failures the broken backend is ranked last and rarely tried
+        assertTrue(broken.getRequests() < 10, "broken backend got " + broken.getRequests() + " requests");
+    }
+
+    @Test
+    void testPrefersFasterBackend() throws IOException {
+        StubChatCompletionServer slow = stub("slow");
+        slow.setDelayMillis(150);
+        StubChatCompletionServer fast = stub("fast");
+        List<RoutedBackend> backends = List.of(backend("slow", slow), backend("fast", fast));
+        RoutingAIClient client = new RoutingAIClient(backends);
+        // Warm the connections outside the router so connection setup doesn't skew its first samples
+        backends.forEach(backend -> backend.getClient().refineText("warm up"));
+
+        for (int i = 0; i < 30; i++) {
+            client.refineText("text " + i);
+        }
+        int fastRequests = fast.getRequests() - 1;
+        assertTrue(fastRequests >= 25, "fast backend got " + fastRequests + " requests");
+    }
+
+    @Test
+    void testFailsWhenEveryBackendFails() throws IOException {
+        StubChatCompletionServer first = stub("first");
+        first.setStatus(500);
+        StubChatCompletionServer second = stub("second");
+        second.setStatus(503);
+        RoutingAIClient client = new RoutingAIClient(List.of(backend("first", first), backend("second", second)));
+
+        assertThrows(AIClientException.class, () -> client.refineText("text"));
+        assertEquals(1, first.getRequests());
+        assertEquals(1, second.getRequests());
+    }
+
+    @Test
+    void testEmptyInputIsNotRouted() throws IOException {
+        StubChatCompletionServer server = stub("reply");
+        RoutingAIClient client = new RoutingAIClient(List.of(backend("only", server)));
+
+        assertThrows(IllegalArgumentException.class, () -> client.refineText("  "));
+        assertEquals(0, server.getRequests());
+    }
+
+    private StubChatCompletionServer stub(String reply) throws IOException {
+        StubChatCompletionServer server = new StubChatCompletionServer(reply);
+        servers.add(server);
+        return server;
+    }
+
+    private static RoutedBackend backend(String name, StubChatCompletionServer server) {
+        Duration timeout = Duration.ofSeconds(5);
+        RetryExecutor singleAttempt = new RetryExecutor(new RetryPolicy(0, Duration.ZERO, 1.0, Duration.ZERO,
+            0, timeout, timeout));
+        GroqAIClient client = new GroqAIClient("test-key", server.getUrl(), "stub-model", new PromptManager(""),
+            singleAttempt, null);
+        return new RoutedBackend(name, client, null, Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,154 @@
+package com.tonepolish.client.usage;
+
+import com.tonepolish.client.GroqAIClient;
+import com.tonepolish.client.StubChatCompletionServer;
+import com.tonepolish.client.cache.CachingAIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.retry.RetryExecutor;
+import com.tonepolish.client.retry.RetryPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantUsageTrackerTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(60);
+
+    @Test
+    void testReservationsCountAgainstQuotaUntilSettled() {
+        TenantUsageTracker tracker = new TenantUsageTracker(1_000, WINDOW);
+
+        TokenCharge first = tracker.tryAcquire("team-a", 600);
+        assertNotNull(first);
+        assertNull(tracker.tryAcquire("team-a", 600));
+        assertEquals(1, tracker.getUsage("team-a").getRejected());
+        Duration retryAfter = tracker.retryAfter("team-a", 600);
+        assertTrue(retryAfter.compareTo(Duration.ZERO) > 0 && retryAfter.compareTo(WINDOW) <= 0);
+        // Other tenants have their own window
+        assertNotNull(tracker.tryAcquire("team-b", 600));
+
+        // The estimate is swapped for what upstream reported
+        first.record(100, 50);
+        first.settle();
+        first.settle();
+        assertEquals(150, tracker.getUsage("team-a").getWindowTokens());
+        assertNotNull(tracker.tryAcquire("team-a", 600));
+    }
+
+    @Test
+    void testPerTenantQuotasOverrideTheDefault() {
+        TenantUsageTracker tracker = new TenantUsageTracker(0, TenantUsageTracker.parseQuotas("small:100, big:10000"),
+            WINDOW, 10_000);
+
+        assertNotNull(tracker.tryAcquire("small", 80));
+        assertNull(tracker.tryAcquire("small", 30));
+        assertNotNull(tracker.tryAcquire("big", 5_000));
+        // No default quota means unlimited
+        assertNotNull(tracker.tryAcquire("anyone", 1_000_000));
+        assertThrows(IllegalArgumentException.class, () -> TenantUsageTracker.parseQuotas("no-limit"));
+    }
+
+    @Test
+    void testWindowSlidesOutOldBuckets() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofSeconds(10), 10);
+        long second = Duration.ofSeconds(1).toNanos();
+
+        counter.add(0, 100);
+        counter.add(5 * second, 50);
+        assertEquals(150, counter.sum(9 * second));
+        assertEquals(Duration.ofSeconds(1), counter.timeUntilAtMost(9 * second, 50));
+        // The first bucket has left the window, and its slot is reused without the old count
+        assertEquals(50, counter.sum(10 * second));
+        counter.add(10 * second, 7);
+        assertEquals(57, counter.sum(10 * second));
+        assertEquals(0, counter.sum(20 * second));
+    }
+
+    @Test
+    void testCorrectionsLandInTheOriginalBucket() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofSeconds(10), 10);
+        long second = Duration.ofSeconds(1).toNanos();
+
+        // A reservation returned mostly unused leaves the window together with the reservation
+        counter.add(0, 1000);
+        counter.correct(0, 5 * second, -900);
+        assertEquals(100, counter.sum(5 * second));
+        counter.add(10 * second, 800);
+        assertEquals(800, counter.sum(10 * second));
+        // Once the original bucket has left the window the correction is dropped
+        counter.correct(10 * second, 20 * second, -500);
+        counter.add(20 * second, 300);
+        assertEquals(300, counter.sum(20 * second));
+    }
+
+    @Test
+    void testTenantsBeyondTheCapShareOneEntry() {
+        TenantUsageTracker tracker = new TenantUsageTracker(0, Map.of(), WINDOW, 2);
+
+        tracker.tryAcquire("a", 1);
+        tracker.tryAcquire("b", 1);
+        assertEquals(TenantUsageTracker.OVERFLOW_TENANT, tracker.tryAcquire("c", 1).getTenantId());
+        assertEquals(TenantUsageTracker.OVERFLOW_TENANT, tracker.tryAcquire("d", 1).getTenantId());
+        assertEquals(3, tracker.getTenantCount());
+
+        assertTrue(TenantUsageTracker.isValidTenantId("team-a.eu_1"));
+        assertFalse(TenantUsageTracker.isValidTenantId("team a"));
+        assertFalse(TenantUsageTracker.isValidTenantId("\"},{\"tenant\":\"x"));
+    }
+
+    @Test
+    void testUpstreamUsageIsChargedThroughTheContext() throws Exception {
+        try (StubChatCompletionServer server = new StubChatCompletionServer("Polished.")) {
+            PromptManager promptManager = new PromptManager("");
+            Duration timeout = Duration.ofSeconds(5);
+            GroqAIClient groq = new GroqAIClient("test-key", server.getUrl(), "stub-model", promptManager,
+                new RetryExecutor(new RetryPolicy(0, Duration.ofMillis(10), 1.0, Duration.ofMillis(10), 0, timeout, timeout)),
+                null);
+            CachingAIClient cached = new CachingAIClient(groq, promptManager, "stub-model", 1 << 20, Duration.ofMinutes(5));
+            TenantUsageTracker tracker = new TenantUsageTracker(0, WINDOW);
+
+            for (int i = 0; i < 2; i++) {
+                TokenCharge charge = tracker.tryAcquire("team-a", 500);
+                assertEquals("Polished.", cached.refineTextAsync("hey can u send it")
+                    .contextWrite(charge::attachTo)
+                    .block(timeout));
+                charge.settle();
+            }
+
+            // The second request was a cache hit and cost nothing
+            int tokens = StubChatCompletionServer.PROMPT_TOKENS + StubChatCompletionServer.COMPLETION_TOKENS;
+            TenantUsage usage = tracker.getUsage("team-a");
+            assertEquals(1, server.getRequests());
+            assertEquals(2, usage.getAdmitted());
+            assertEquals(StubChatCompletionServer.PROMPT_TOKENS, usage.getPromptTokens());
+            assertEquals(StubChatCompletionServer.COMPLETION_TOKENS, usage.getCompletionTokens());
+            assertEquals(tokens, usage.getWindowTokens());
+        }
+    }
+
+    @Test
+    void testFlushAppendsUsageSinceTheLastFlush(@TempDir Path dir) throws Exception {
+        Path log = dir.resolve("usage/tenant-usage.log");
+        TenantUsageTracker tracker = new TenantUsageTracker(0, Map.of(), WINDOW, 10_000, log, Duration.ofHours(1),
+            1_000_000, 2_000_000);
+
+        tracker.tryAcquire("team-a", 10).record(100, 50);
+        tracker.flush();
+        tracker.flush();
+        tracker.tryAcquire("team-a", 10).record(10, 0);
+        tracker.close();
+
+        List<String> lines = Files.readAllLines(log);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"tenant\":\"team-a\",\"requests\":1,\"rejected\":0,"
+            + "\"prompt_tokens\":100,\"completion_tokens\":50,\"cost_usd\":200.000000}"), lines.get(0));
+        assertTrue(lines.get(1).contains("\"prompt_tokens\":10,\"completion_tokens\":0,"), lines.get(1));
+    }
+}
@@ -0,0 +1,52 @@
+package com.tonepolish.controller;
+
+import com.tonepolish.client.GroqAIClient;
+import com.tonepolish.client.StubChatCompletionServer;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.retry.RetryExecutor;
+import com.tonepolish.client.retry.RetryPolicy;
+import com.tonepolish.client.usage.TenantUsage;
+import com.tonepolish.client.usage.TenantUsageTracker;
+import com.tonepolish.dto.RefineRequest;
+import com.tonepolish.service.AdmissionLimiter;
+import com.tonepolish.service.BatchRefineService;
+import com.tonepolish.service.RefineService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefineControllerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void testStreamedRepliesCountAgainstTheQuota() throws Exception {
+        try (StubChatCompletionServer server = new StubChatCompletionServer("unused")) {
+            server.setStreamChunks(
+                "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Thanks for \"}}]}\n\n",
+                "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"your patience.\"}}]}\n\n",
+                "data: [DONE]\n\n");
+            PromptManager promptManager = new PromptManager("");
+            GroqAIClient groq = new GroqAIClient("test-key", server.getUrl(), "stub-model", promptManager,
+                new RetryExecutor(new RetryPolicy(0, Duration.ofMillis(10), 1.0, Duration.ofMillis(10), 0, TIMEOUT, TIMEOUT)),
+                null);
+            RefineService refineService = new RefineService("test-key", groq, groq);
+            TenantUsageTracker tracker = new TenantUsageTracker(0, Duration.ofSeconds(60));
+            RefineController controller = new RefineController(refineService, new BatchRefineService(refineService, 8, 200),
+                new AdmissionLimiter(10, 1), promptManager, tracker);
+
+            controller.refineStream(new RefineRequest("thx for waiting"), "team-a").getBody()
+                .collectList()
+                .block(TIMEOUT);
+
+            // Settling swaps the reservation for what the stream was charged, rather than returning all of it.
+            // It runs after the last event reaches the subscriber, so it may land just after block() returns.
+            TenantUsage usage = tracker.getUsage("team-a");
+            assertTrue(usage.getCompletionTokens() > 0);
+            await().atMost(TIMEOUT).until(() -> usage.getWindowTokens() == usage.getPromptTokens() + usage.getCompletionTokens());
+        }
+    }
+}
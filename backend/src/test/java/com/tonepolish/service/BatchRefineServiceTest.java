@@ -0,0 +1,38 @@
+package com.tonepolish.service;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.MockAIClient;
+import com.tonepolish.dto.BatchRefineResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRefineServiceTest {
+
+    private BatchRefineService batchRefineService;
+
+    @BeforeEach
+    void setUp() {
+        AIClient mockClient = new MockAIClient();
+        batchRefineService = new BatchRefineService(new RefineService("", mockClient, mockClient), 4, 200);
+    }
+
+    @Test
+    void testRefineBatch_PreservesOrderAndReportsPerItemErrors() {
+        List<String> texts = Arrays.asList("first message", "", "sorry for the issue", "first message");
+
+        List<BatchRefineResult> results = batchRefineService.refineBatch(texts).block();
+
+        assertNotNull(results);
+        assertEquals(4, results.size());
+        assertEquals("First message.", results.get(0).getPolishedText());
+        assertNull(results.get(0).getError());
+        assertNotNull(results.get(1).getError());
+        assertTrue(results.get(2).getPolishedText().contains("Sorry for the issue"));
+        assertEquals(results.get(0).getPolishedText(), results.get(3).getPolishedText());
+    }
+}
@@ -0,0 +1,62 @@
+package com.tonepolish.service;
+
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.MockAIClient;
+import com.tonepolish.config.ExecutionMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefineServiceExecutionModeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefineServiceExecutionModeTest.class);
+
+    // Tomcat's default maximum worker pool size
+    private static final int PLATFORM_POOL_SIZE = 200;
+    private static final int CONCURRENT_REQUESTS = 2000;
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void testVirtualThreads_OutscalePlatformPoolOnBlockingMock() {
+        AIClient mockClient = new MockAIClient();
+
+        Scheduler platformPool = Schedulers.newBoundedElastic(PLATFORM_POOL_SIZE, Integer.MAX_VALUE, "platform");
+        Scheduler virtualThreads = Schedulers.fromExecutor(new VirtualThreadTaskExecutor("vt-"));
+        try {
+            Duration platform = runLoad(new RefineService("", mockClient, mockClient,
+                ExecutionMode.VIRTUAL_THREADS, platformPool));
+            Duration virtual = runLoad(new RefineService("", mockClient, mockClient,
+                ExecutionMode.VIRTUAL_THREADS, virtualThreads));
+
+            logger.info("{} blocking refinements (500ms mock): platform pool({})={}ms, virtual threads={}ms",
+                CONCURRENT_REQUESTS, PLATFORM_POOL_SIZE, platform.toMillis(), virtual.toMillis());
+
+            // The platform pool drains in CONCURRENT_REQUESTS / PLATFORM_POOL_SIZE waves of 500ms each
+            assertTrue(platform.toMillis() >= 500L * CONCURRENT_REQUESTS / PLATFORM_POOL_SIZE);
+            assertTrue(virtual.multipliedBy(3).compareTo(platform) < 0);
+        } finally {
+            platformPool.dispose();
+            virtualThreads.dispose();
+        }
+    }
+
+    private Duration runLoad(RefineService service) {
+        long start = System.nanoTime();
+        Long completed = Flux.range(0, CONCURRENT_REQUESTS)
+            .flatMap(i -> service.refineTextAsync("message " + i), CONCURRENT_REQUESTS)
+            .count()
+            .block();
+        assertEquals(CONCURRENT_REQUESTS, completed);
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
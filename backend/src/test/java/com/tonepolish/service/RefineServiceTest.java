@@ -2,9 +2,18 @@ package com.tonepolish.service;
 
 import com.tonepolish.client.AIClient;
 import com.tonepolish.client.MockAIClient;
+import com.tonepolish.client.metrics.AIClientMetrics;
+import com.tonepolish.config.ExecutionMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class RefineServiceTest {
@@ -55,5 +64,80 @@ class RefineServiceTest {
         assertTrue(result.toLowerCase().contains("system") || 
                    result.toLowerCase().contains("down"));
     }
-}
 
+    @Test
+    void testRefineTextAsync_MatchesSyncResult() {
+        String input = "sorry for the issue";
+        String result = refineService.refineTextAsync(input).block();
+
+        assertNotNull(result);
+        assertEquals(refineService.refineText(input), result);
+    }
+
+    @Test
+    void testRefineTextStream_AssemblesToSyncResult() {
+        String input = "the system is down";
+        List<String> chunks = refineService.refineTextStream(input).collectList().block();
+
+        assertNotNull(chunks);
+        assertTrue(chunks.size() > 1);
+        assertEquals(refineService.refineText(input), String.join("", chunks));
+    }
+
+    @Test
+    void testLongInputIsRefinedInParallelChunks() {
+        // 200ms per upstream call keeps every chunk in flight long enough to overlap with the others
+        AIClient slowClient = new MockAIClient(Duration.ofMillis(200), Duration.ZERO);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AIClient countingClient = new AIClient() {
+            @Override
+            public String refineText(String inputText) {
+                return slowClient.refineText(inputText);
+            }
+
+            @Override
+            public Mono<String> refineTextAsync(String inputText, String tone) {
+                return Mono.defer(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return slowClient.refineTextAsync(inputText, tone);
+                }).doFinally(signal -> inFlight.decrementAndGet());
+            }
+        };
+        // 20-token chunks put each paragraph in its own chunk
+        RefineService chunking = new RefineService("", countingClient, countingClient, ExecutionMode.REACTIVE,
+            Schedulers.boundedElastic(), AIClientMetrics.noop(), 20, 10_000, 8);
+        String paragraph = "the system was down for most of the morning and we lost several orders";
+        String input = String.join("\n\n", paragraph, paragraph, paragraph, paragraph, paragraph);
+
+        String result = chunking.refineTextAsync(input).block(Duration.ofSeconds(5));
+
+        String polished = slowClient.refineText(paragraph);
+        assertEquals(String.join("\n\n", polished, polished, polished, polished, polished), result);
+        // Sequential chunks would never overlap
+        assertTrue(maxInFlight.get() > 1, "at most " + maxInFlight.get() + " chunk in flight");
+    }
+
+    @Test
+    void testLongInputStreamsChunksInOrder() {
+        AIClient streamingClient = new MockAIClient(Duration.ZERO, Duration.ofMillis(5));
+        RefineService chunking = new RefineService("", streamingClient, streamingClient, ExecutionMode.REACTIVE,
+            Schedulers.boundedElastic(), AIClientMetrics.noop(), 15, 10_000, 8);
+        String input = "first part of a long message here.\n\nsecond part, somewhat longer than the first.";
+
+        String streamed = String.join("", chunking.refineTextStream(input).collectList().block());
+
+        assertEquals("First part of a long message here.\n\nSecond part, somewhat longer than the first.", streamed);
+    }
+
+    @Test
+    void testRejectsInputOverMaximum() {
+        RefineService limited = new RefineService("", new MockAIClient(), new MockAIClient(), ExecutionMode.REACTIVE,
+            Schedulers.boundedElastic(), AIClientMetrics.noop(), 600, 100, 8);
+
+        assertTrue(limited.exceedsMaxInput("x".repeat(101)));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> limited.refineTextAsync("x".repeat(101)).block());
+        assertEquals("Input text exceeds the maximum of 100 characters", error.getMessage());
+    }
+}
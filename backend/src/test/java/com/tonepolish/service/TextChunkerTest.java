@@ -0,0 +1,73 @@
+package com.tonepolish.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextChunkerTest {
+
+    @Test
+    void testShortTextIsOneChunk() {
+        TextChunker chunker = new TextChunker(100);
+
+        List<TextChunker.Chunk> chunks = chunker.split("  Just one line.  ");
+
+        assertFalse(chunker.needsSplitting("Just one line."));
+        assertEquals(1, chunks.size());
+        assertEquals("Just one line.", chunks.get(0).getText());
+        assertEquals("", chunks.get(0).getSeparator());
+    }
+
+    @Test
+    void testSplitsAtParagraphsAndKeepsLayout() {
+        String first = "First paragraph about the outage. It lasted an hour.";
+        String second = "Second paragraph with the apology and next steps.";
+        String third = "Third paragraph signing off.";
+        String text = first + "\n\n" + second + "\n \n\n" + third;
+
+        // Each paragraph fits on its own, but no two fit together
+        List<TextChunker.Chunk> chunks = new TextChunker(15).split(text);
+
+        assertEquals(List.of(first, second, third), chunks.stream().map(TextChunker.Chunk::getText).toList());
+        assertEquals(text, join(chunks));
+    }
+
+    @Test
+    void testFallsBackToSentencesThenWhitespace() {
+        String sentences = "This is the first sentence. \"Quoted second one!\" And a third? Yes.";
+        String runOn = "word ".repeat(30).trim();
+        String text = sentences + "\n\n" + runOn;
+
+        TextChunker chunker = new TextChunker(8);
+        List<TextChunker.Chunk> chunks = chunker.split(text);
+
+        assertTrue(chunks.size() > 4);
+        assertEquals("This is the first sentence.", chunks.get(0).getText());
+        assertEquals("\"Quoted second one!\"", chunks.get(1).getText());
+        for (TextChunker.Chunk chunk : chunks) {
+            assertTrue(TextChunker.estimateTokens(chunk.getText()) <= 8, chunk.getText());
+            assertFalse(chunk.getText().isBlank());
+        }
+        assertEquals(text, join(chunks));
+    }
+
+    @Test
+    void testCutsWordsLongerThanAChunk() {
+        String text = "x".repeat(50);
+
+        List<TextChunker.Chunk> chunks = new TextChunker(5).split(text);
+
+        assertEquals(3, chunks.size());
+        assertEquals(text, join(chunks));
+    }
+
+    private static String join(List<TextChunker.Chunk> chunks) {
+        StringBuilder joined = new StringBuilder();
+        for (TextChunker.Chunk chunk : chunks) {
+            joined.append(chunk.getText()).append(chunk.getSeparator());
+        }
+        return joined.toString();
+    }
+}
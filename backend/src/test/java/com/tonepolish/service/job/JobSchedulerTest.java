@@ -0,0 +1,119 @@
+package com.tonepolish.service.job;
+
+import com.tonepolish.client.usage.TenantUsageTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobSchedulerTest {
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final List<RefineJob> started = new ArrayList<>();
+    private final Map<RefineJob, Sinks.Empty<Void>> inFlight = new HashMap<>();
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+    }
+
+    // Jobs stay running until finish() is called for them
+    private Mono<?> hold(RefineJob job) {
+        started.add(job);
+        Sinks.Empty<Void> sink = Sinks.empty();
+        inFlight.put(job, sink);
+        return sink.asMono();
+    }
+
+    private void finish(RefineJob job) {
+        inFlight.remove(job).tryEmitEmpty();
+    }
+
+    private static RefineJob job(JobPriority priority) {
+        return new RefineJob(priority + "-" + System.nanoTime(), "text", null, priority, TenantUsageTracker.DEFAULT_TENANT, null,
+            Instant.now());
+    }
+
+    @Test
+    void testLanesShareSlotsByWeight() {
+        JobScheduler scheduler = new JobScheduler(1, new JobScheduler.LaneLimits(100, 4, 1),
+            new JobScheduler.LaneLimits(100, 1, 1), () -> true, timer, this::hold);
+        RefineJob first = job(JobPriority.BULK);
+        scheduler.offer(first);
+        for (int i = 0; i < 20; i++) {
+            scheduler.offer(job(JobPriority.BULK));
+            scheduler.offer(job(JobPriority.INTERACTIVE));
+        }
+        for (int i = 0; i < 20; i++) {
+            finish(started.get(i));
+        }
+
+        // 4:1, give or take the tie at each round's boundary
+        long interactive = started.subList(1, 21).stream().filter(j -> j.getPriority() == JobPriority.INTERACTIVE).count();
+        assertTrue(interactive >= 16 && interactive <= 17, "interactive jobs started: " + interactive);
+        assertEquals(RefineJob.Status.RUNNING, started.get(20).getStatus());
+    }
+
+    @Test
+    void testBulkLeavesSlotsForInteractiveAndWaitsForTheGate() {
+        AtomicBoolean headroom = new AtomicBoolean(true);
+        JobScheduler scheduler = new JobScheduler(3, new JobScheduler.LaneLimits(100, 4, 3),
+            new JobScheduler.LaneLimits(100, 1, 2), headroom::get, timer, this::hold);
+        for (int i = 0; i < 5; i++) {
+            scheduler.offer(job(JobPriority.BULK));
+        }
+        assertEquals(2, scheduler.getRunning(JobPriority.BULK));
+
+        // The reserved slot goes to an interactive job straight away
+        scheduler.offer(job(JobPriority.INTERACTIVE));
+        assertEquals(1, scheduler.getRunning(JobPriority.INTERACTIVE));
+
+        // Without upstream headroom bulk jobs stay queued while interactive ones keep starting
+        headroom.set(false);
+        finish(started.get(0));
+        finish(started.get(2));
+        scheduler.offer(job(JobPriority.INTERACTIVE));
+        assertEquals(1, scheduler.getRunning(JobPriority.BULK));
+        assertEquals(3, scheduler.getQueued(JobPriority.BULK));
+        assertEquals(1, scheduler.getRunning(JobPriority.INTERACTIVE));
+    }
+
+    @Test
+    void testFullLaneRejects() {
+        JobScheduler scheduler = new JobScheduler(1, new JobScheduler.LaneLimits(1, 4, 1),
+            new JobScheduler.LaneLimits(1, 1, 1), () -> true, timer, this::hold);
+
+        assertTrue(scheduler.offer(job(JobPriority.INTERACTIVE)));
+        assertTrue(scheduler.offer(job(JobPriority.INTERACTIVE)));
+        assertFalse(scheduler.offer(job(JobPriority.INTERACTIVE)));
+        RefineJob queued = job(JobPriority.BULK);
+        assertTrue(scheduler.offer(queued));
+        assertTrue(scheduler.remove(queued));
+    }
+
+    @Test
+    void testSynchronousCompletionsDoNotRecurse() {
+        AtomicInteger completed = new AtomicInteger();
+        JobScheduler scheduler = new JobScheduler(4, new JobScheduler.LaneLimits(100000, 4, 4),
+            new JobScheduler.LaneLimits(100000, 1, 3), () -> true, timer,
+            job -> Mono.fromRunnable(completed::incrementAndGet));
+
+        for (int i = 0; i < 50000; i++) {
+            scheduler.restore(job(JobPriority.BULK));
+        }
+
+        assertEquals(50000, completed.get());
+    }
+}
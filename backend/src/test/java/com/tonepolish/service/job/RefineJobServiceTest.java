@@ -0,0 +1,149 @@
+package com.tonepolish.service.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tonepolish.client.AIClient;
+import com.tonepolish.client.prompt.PromptManager;
+import com.tonepolish.client.usage.TenantUsageTracker;
+import com.tonepolish.client.usage.TokenCharge;
+import com.tonepolish.service.RefineService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefineJobServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private static RefineService refineService(Mono<String> reply) {
+        AIClient client = new AIClient() {
+            @Override
+            public String refineText(String inputText) {
+                return refineTextAsync(inputText).block();
+            }
+
+            @Override
+            public Mono<String> refineTextAsync(String inputText) {
+                return reply;
+            }
+        };
+        return new RefineService("", client, client);
+    }
+
+    @Test
+    void testJobRunsAndCanBePolled() throws Exception {
+        RefineJobService service = new RefineJobService(refineService(Mono.just("Polished.")), null);
+
+        RefineJob job = service.submit("polish me", null, JobPriority.INTERACTIVE, "team-a", null);
+
+        assertEquals(RefineJob.Status.SUCCEEDED, service.getJob(job.getId()).getStatus());
+        assertEquals("Polished.", RefineJobService.describe(job).getPolishedText());
+        assertEquals("succeeded", RefineJobService.describe(job).getStatus());
+        service.shutdown();
+    }
+
+    @Test
+    void testOnlyQueuedJobsCanBeCancelled() throws Exception {
+        RefineJobService service = new RefineJobService(refineService(Mono.never()), null);
+        RefineJob running = null;
+        for (int i = 0; i < 8; i++) {
+            running = service.submit("busy " + i, null, JobPriority.INTERACTIVE, "team-a", null);
+        }
+        RefineJob queued = service.submit("waiting", null, JobPriority.INTERACTIVE, "team-a", null);
+
+        assertEquals(RefineJob.Status.RUNNING, service.cancel(running.getId()).getStatus());
+        assertEquals(RefineJob.Status.CANCELLED, service.cancel(queued.getId()).getStatus());
+        assertNull(service.cancel("missing"));
+        service.shutdown();
+    }
+
+    @Test
+    void testCallbacksOnlyGoToAllowedHosts() throws Exception {
+        RefineJobService unconfigured = new RefineJobService(refineService(Mono.just("Polished.")), null);
+        RefineJobService configured = new RefineJobService(refineService(Mono.just("Polished.")), null, null, 8, 1000, 4, 100000,
+            1, 6, 0.2, 3600, 5, "hooks.example.com", "", new ObjectMapper(), WebClient.builder(), null);
+
+        // Without an allow-list nothing is called back, least of all internal addresses
+        assertFalse(unconfigured.isAllowedCallback("https://hooks.example.com/refined"));
+        assertFalse(unconfigured.isAllowedCallback("http://169.254.169.254/latest/meta-data"));
+        assertTrue(configured.isAllowedCallback("https://Hooks.Example.com/refined"));
+        assertFalse(configured.isAllowedCallback("http://127.0.0.1:8080/actuator"));
+        assertFalse(configured.isAllowedCallback("ftp://hooks.example.com/refined"));
+        unconfigured.shutdown();
+        configured.shutdown();
+    }
+
+    @Test
+    void testJobsOverTheirTenantsQuotaWaitForTheWindow() throws Exception {
+        List<String> chargedTenants = new CopyOnWriteArrayList<>();
+        RefineService refineService = refineService(Mono.deferContextual(context -> {
+            chargedTenants.add(TokenCharge.from(context).getTenantId());
+            return Mono.just("Polished.");
+        }));
+        TenantUsageTracker tracker = new TenantUsageTracker(1_000, Duration.ofSeconds(1));
+        RefineJobService service = new RefineJobService(refineService, new PromptManager(""), tracker, 8, 1000, 4,
+            100000, 1, 6, 0.2, 3600, 5, "", "", new ObjectMapper(), WebClient.builder(), null);
+        assertNotNull(tracker.tryAcquire("team-a", 1_000));
+
+        RefineJob job = service.submit("polish me", null, JobPriority.INTERACTIVE, "team-a", null);
+
+        // Deferred rather than failed, and run once the window has slid
+        assertTrue(chargedTenants.isEmpty());
+        assertFalse(job.getStatus().isFinished());
+        await().atMost(Duration.ofSeconds(5)).until(() -> job.getStatus() == RefineJob.Status.SUCCEEDED);
+        assertEquals(List.of("team-a"), chargedTenants);
+        assertEquals(1, job.getAttempts());
+        service.shutdown();
+    }
+
+    @Test
+    void testJobWhoseToneIsGoneFails() throws Exception {
+        Path journal = directory.resolve("jobs.log");
+        RefineJobService service = new RefineJobService(refineService(Mono.just("Polished.")), new PromptManager(""), null,
+            8, 1000, 4, 100000, 1, 6, 0.2, 3600, 5, "", journal.toString(), new ObjectMapper(), WebClient.builder(), null);
+
+        // As if the tone had been removed from the tones file after the job was accepted
+        RefineJob job = service.submit("polish me", "pirate", JobPriority.INTERACTIVE, "team-a", null);
+
+        assertEquals(RefineJob.Status.FAILED, job.getStatus());
+        assertEquals("Unknown tone 'pirate'", job.getError());
+        service.shutdown();
+        // Finished in the journal, so it doesn't come back after a restart
+        RefineJobService restarted = new RefineJobService(refineService(Mono.just("Polished.")), journal);
+        assertNull(restarted.getJob(job.getId()));
+        restarted.shutdown();
+    }
+
+    @Test
+    void testPendingJobsSurviveARestart() throws Exception {
+        Path journal = directory.resolve("jobs.log");
+        RefineJobService before = new RefineJobService(refineService(Mono.never()), journal);
+        RefineJob running = before.submit("first", "formal", JobPriority.BULK, "team-a", null);
+        for (int i = 0; i < 7; i++) {
+            before.submit("filler " + i, null, JobPriority.INTERACTIVE, "team-a", null);
+        }
+        RefineJob cancelled = before.submit("second", null, JobPriority.INTERACTIVE, "team-a", null);
+        before.cancel(cancelled.getId());
+        before.shutdown();
+
+        RefineJobService after = new RefineJobService(refineService(Mono.just("Done.")), journal);
+
+        RefineJob restored = after.getJob(running.getId());
+        assertNotNull(restored);
+        assertEquals("formal", restored.getTone());
+        assertEquals(JobPriority.BULK, restored.getPriority());
+        assertEquals("team-a", restored.getTenant());
+        assertEquals(RefineJob.Status.SUCCEEDED, restored.getStatus());
+        assertNull(after.getJob(cancelled.getId()));
+        after.shutdown();
+    }
+}